@@ -7,12 +7,15 @@
  */
 package com.example;
 
+import java.util.Arrays;
 import java.util.Scanner;
 import java.io.IOException;
 
+import com.example.batch.ModeBatch;
 import com.example.factory.GenerateurFactory;
 import com.example.factory.MaisonFactory;
 import com.example.reseau.*;
+import com.example.service.ServeurOptimisation;
 
 public class Main {
 
@@ -196,12 +199,31 @@ public class Main {
      * argument, le programme charge la configuration du réseau depuis ce fichier.
      * Un deuxième argument optionnel (un entier) peut être utilisé pour spécifier
      * la valeur de lambda (sévérité).
+     * - Mode batch : Si le premier argument est {@code --batch}, les arguments
+     * suivants sont transmis à {@link ModeBatch} et aucun menu n'est affiché.
+     * - Mode serveur : Si le premier argument est {@code --serveur}, un service
+     * HTTP d'optimisation est démarré (voir {@link ServeurOptimisation}) ; un port
+     * peut être donné en deuxième argument.
      *
      * @param args Les arguments de la ligne de commande.
      *             - {@code args[0]} (optionnel) : Chemin vers le fichier de configuration du réseau.
      *             - {@code args[1]} (optionnel) : Valeur entière pour lambda (sévérité).
      */
     public static void main(String[] args) {
+        if (args.length >= 1 && args[0].equals("--batch")) {
+            int code = ModeBatch.executer(Arrays.copyOfRange(args, 1, args.length));
+            if (code != 0)
+                System.exit(code);
+            return;
+        }
+
+        if (args.length >= 1 && args[0].equals("--serveur")) {
+            int code = ServeurOptimisation.executer(Arrays.copyOfRange(args, 1, args.length));
+            if (code != 0)
+                System.exit(code);
+            return;
+        }
+
         try (Scanner scanner = new Scanner(System.in)) {
             Reseau reseau = new Reseau();
 
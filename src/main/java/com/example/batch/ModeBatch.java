@@ -0,0 +1,375 @@
+package com.example.batch;
+
+import com.example.reseau.ModeConstruction;
+import com.example.reseau.RechercheNaive;
+import com.example.reseau.RechercheVoisinageLarge;
+import com.example.reseau.Reseau;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Mode de traitement par lots, non interactif : charge et optimise un ensemble
+ * de fichiers réseau sur un nombre borné de threads, écrit la solution de
+ * chaque réseau puis un fichier CSV récapitulant coûts et durées.
+ *
+ * Usage :
+ * <pre>
+ * --batch [--algo optimise|tas|agrege|exact|genetique|voisinage|naif] [--k N] [--lambda L] [--threads T] [--sortie DOSSIER]
+ *         [--graine S] [--reprise DOSSIER] fichier|dossier...
+ * </pre>
+ * Un dossier passé en argument est remplacé par les fichiers {@code .txt} qu'il
+ * contient directement. La solution et le point de reprise d'un réseau
+ * reprennent son chemin relatif au plus proche dossier commun à toutes les
+ * entrées : deux fichiers de même nom venant de dossiers différents ne
+ * s'écrasent pas.
+ *
+ * Les algorithmes parallèles ne créent pas de threads en plus des
+ * {@code --threads} threads du lot : chaque réseau n'en utilise au plus que sa
+ * part des cœurs, prise dans le pool commun de la JVM.
+ *
+ * Avec {@code --graine}, l'algorithme génétique est reproductible, et la
+ * recherche à voisinage large tire la même suite de nombres (son arrêt, au
+ * bout d'un budget de temps, reste dépendant de la machine).
+ * Avec {@code --graine} ou {@code --reprise}, l'algorithme naïf utilise une
+ * {@link RechercheNaive} reproductible ; avec {@code --reprise}, un point de
+ * reprise par réseau est écrit dans le dossier donné, repris au lancement
+ * suivant s'il existe, et supprimé une fois le réseau traité.
+ */
+public class ModeBatch {
+    /**
+     * Nom du fichier récapitulatif écrit dans le dossier de sortie.
+     */
+    public static final String FICHIER_RESULTATS = "resultats.csv";
+
+    private String algorithme = "optimise";
+    private int k = 1000;
+    private int lambda = 10;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private File sortie = new File("resultats");
+    private Long graine;
+    private File reprise;
+    private final List<File> fichiers = new ArrayList<>();
+    private final Set<Path> chemins = new HashSet<>();
+    private Path racine;
+
+    /**
+     * Résultat du traitement d'un fichier.
+     */
+    private record Resultat(File fichier, double coutInitial, double coutFinal, long chargementMs,
+            long optimisationMs, String erreur) {
+    }
+
+    /**
+     * Point d'entrée du mode batch.
+     *
+     * @param args Les arguments qui suivent {@code --batch} sur la ligne de
+     *             commande.
+     * @return Le code de sortie : 0 si tous les réseaux ont été traités, 1 si au
+     *         moins un a échoué, 2 si les arguments sont invalides.
+     */
+    public static int executer(String[] args) {
+        ModeBatch batch = new ModeBatch();
+        try {
+            batch.lireArguments(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Erreur : " + e.getMessage());
+            System.err.println("Usage : --batch [--algo optimise|tas|agrege|exact|genetique|voisinage|naif] [--k N] [--lambda L] [--threads T]"
+                    + " [--sortie DOSSIER] [--graine S] [--reprise DOSSIER] fichier|dossier...");
+            return 2;
+        }
+        try {
+            return batch.lancer();
+        } catch (IOException e) {
+            System.err.println("Erreur d'écriture des résultats : " + e.getMessage());
+            return 1;
+        }
+    }
+
+    /**
+     * Analyse les options et la liste des fichiers à traiter.
+     *
+     * @param args Les arguments du mode batch.
+     * @throws IllegalArgumentException si une option est inconnue ou invalide.
+     */
+    private void lireArguments(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                ajouterEntree(new File(arg));
+                continue;
+            }
+            if (i + 1 >= args.length)
+                throw new IllegalArgumentException("valeur manquante pour " + arg);
+            String valeur = args[++i];
+            switch (arg) {
+                case "--algo" -> {
+                    if (!valeur.equals("optimise") && !valeur.equals("tas") && !valeur.equals("agrege")
+                            && !valeur.equals("exact") && !valeur.equals("genetique")
+                            && !valeur.equals("voisinage") && !valeur.equals("naif"))
+                        throw new IllegalArgumentException("algorithme inconnu : " + valeur);
+                    algorithme = valeur;
+                }
+                case "--k" -> k = entierPositif(arg, valeur);
+                case "--lambda" -> lambda = entierPositif(arg, valeur);
+                case "--threads" -> threads = entierPositif(arg, valeur);
+                case "--sortie" -> sortie = new File(valeur);
+                case "--graine" -> {
+                    try {
+                        graine = Long.parseLong(valeur);
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("--graine attend un entier, reçu : " + valeur);
+                    }
+                }
+                case "--reprise" -> reprise = new File(valeur);
+                default -> throw new IllegalArgumentException("option inconnue : " + arg);
+            }
+        }
+        if (fichiers.isEmpty())
+            throw new IllegalArgumentException("aucun fichier réseau à traiter");
+    }
+
+    private static int entierPositif(String option, String valeur) {
+        try {
+            int n = Integer.parseInt(valeur);
+            if (n > 0)
+                return n;
+        } catch (NumberFormatException e) {
+            // traité ci-dessous
+        }
+        throw new IllegalArgumentException(option + " attend un entier positif, reçu : " + valeur);
+    }
+
+    private void ajouterEntree(File entree) {
+        if (entree.isDirectory()) {
+            File[] contenu = entree.listFiles((dossier, nom) -> nom.toLowerCase().endsWith(".txt"));
+            if (contenu != null) {
+                Arrays.sort(contenu);
+                for (File fichier : contenu)
+                    ajouterFichier(fichier);
+            }
+        } else {
+            ajouterFichier(entree);
+        }
+    }
+
+    /**
+     * Ajoute un fichier à traiter, sauf s'il l'est déjà sous un autre chemin.
+     */
+    private void ajouterFichier(File fichier) {
+        if (chemins.add(absolu(fichier)))
+            fichiers.add(fichier);
+    }
+
+    private static Path absolu(File fichier) {
+        return fichier.toPath().toAbsolutePath().normalize();
+    }
+
+    /**
+     * @return Le plus proche dossier contenant tous les fichiers à traiter, ou
+     *         {@code null} s'il n'y en a pas (racines de systèmes de fichiers
+     *         différentes).
+     */
+    private Path racineCommune() {
+        Path commune = absolu(fichiers.get(0)).getParent();
+        for (File fichier : fichiers) {
+            Path chemin = absolu(fichier);
+            while (commune != null && !chemin.startsWith(commune))
+                commune = commune.getParent();
+        }
+        return commune;
+    }
+
+    /**
+     * @param fichier Un fichier à traiter.
+     * @return Son chemin relatif à la racine commune des entrées, qui nomme sa
+     *         solution et son point de reprise.
+     */
+    private Path relatif(File fichier) {
+        Path chemin = absolu(fichier);
+        if (racine == null)
+            return chemin.subpath(0, chemin.getNameCount());
+        return racine.relativize(chemin);
+    }
+
+    /**
+     * @param dossier Le dossier de destination.
+     * @param chemin  Le chemin relatif d'un fichier d'entrée.
+     * @param suffixe Le suffixe ajouté à son nom.
+     * @return Le fichier correspondant dans {@code dossier}, dont les dossiers
+     *         parents sont créés au besoin.
+     * @throws IOException si un dossier parent ne peut être créé.
+     */
+    private static Path destination(File dossier, Path chemin, String suffixe) throws IOException {
+        Path fichier = dossier.toPath().resolve(chemin.toString() + suffixe);
+        Files.createDirectories(fichier.getParent());
+        return fichier;
+    }
+
+    /**
+     * @return La part des cœurs revenant à chacun des réseaux traités en même
+     *         temps, au moins 1.
+     */
+    private int threadsParReseau() {
+        return Math.max(1, Runtime.getRuntime().availableProcessors() / Math.min(threads, fichiers.size()));
+    }
+
+    /**
+     * Traite tous les fichiers sur un pool de {@code threads} threads, puis écrit
+     * le fichier récapitulatif dans l'ordre des fichiers d'entrée.
+     *
+     * @return Le code de sortie.
+     * @throws IOException si le dossier ou le fichier de résultats ne peut pas
+     *                     être écrit.
+     */
+    private int lancer() throws IOException {
+        if (!sortie.isDirectory() && !sortie.mkdirs())
+            throw new IOException("impossible de créer le dossier " + sortie);
+        if (reprise != null && !reprise.isDirectory() && !reprise.mkdirs())
+            throw new IOException("impossible de créer le dossier " + reprise);
+        racine = racineCommune();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<Resultat>> taches = new ArrayList<>();
+        for (File fichier : fichiers) {
+            taches.add(pool.submit(() -> traiter(fichier)));
+        }
+        pool.shutdown();
+
+        int echecs = 0;
+        try (PrintWriter csv = new PrintWriter(new File(sortie, FICHIER_RESULTATS), "UTF-8")) {
+            csv.println("fichier,algorithme,cout_initial,cout_final,chargement_ms,optimisation_ms,statut,message");
+            for (Future<Resultat> tache : taches) {
+                Resultat r = attendre(tache);
+                if (r.erreur() != null)
+                    echecs++;
+                csv.println(String.join(",",
+                        csv(r.fichier().getPath()),
+                        algorithme,
+                        String.format(Locale.ROOT, "%.6f", r.coutInitial()),
+                        String.format(Locale.ROOT, "%.6f", r.coutFinal()),
+                        Long.toString(r.chargementMs()),
+                        Long.toString(r.optimisationMs()),
+                        r.erreur() == null ? "OK" : "ERREUR",
+                        r.erreur() == null ? "" : csv(r.erreur())));
+            }
+        }
+
+        System.out.println(fichiers.size() - echecs + "/" + fichiers.size() + " réseaux traités. Résultats : "
+                + new File(sortie, FICHIER_RESULTATS).getPath());
+        return echecs == 0 ? 0 : 1;
+    }
+
+    private static Resultat attendre(Future<Resultat> tache) {
+        try {
+            return tache.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("traitement par lots interrompu", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Charge, optimise et sauvegarde un réseau. Les erreurs sont capturées dans
+     * le résultat pour ne pas interrompre le reste du lot.
+     *
+     * @param fichier Le fichier réseau à traiter.
+     * @return Le résultat du traitement.
+     */
+    private Resultat traiter(File fichier) {
+        long debut = System.nanoTime();
+        double coutInitial = Double.NaN;
+        long chargementMs = 0;
+        try {
+            Reseau reseau = new Reseau();
+            reseau.setVerbeux(false);
+            reseau.setLambda(lambda);
+            reseau.chargerReseauDepuisFichier(fichier.getPath());
+            coutInitial = reseau.calculerCout();
+            long finChargement = System.nanoTime();
+            chargementMs = (finChargement - debut) / 1_000_000;
+
+            switch (algorithme) {
+                case "naif" -> optimiserNaif(reseau, fichier);
+                case "tas" -> Reseau.algoOptimise(reseau, ModeConstruction.TAS);
+                case "agrege" -> Reseau.algoAgrege(reseau);
+                case "exact" -> Reseau.algoExact(reseau);
+                case "genetique" -> Reseau.algoGenetique(reseau, graine != null ? graine : System.nanoTime(),
+                        threadsParReseau(), ForkJoinPool.commonPool());
+                case "voisinage" -> Reseau.algoVoisinage(reseau, RechercheVoisinageLarge.BUDGET_PAR_DEFAUT_MS,
+                        graine != null ? graine : System.nanoTime());
+                default -> Reseau.algoOptimise(reseau);
+            }
+            long optimisationMs = (System.nanoTime() - finChargement) / 1_000_000;
+
+            Reseau.sauvegarder(reseau, destination(sortie, relatif(fichier), "").toString());
+            return new Resultat(fichier, coutInitial, reseau.calculerCout(), chargementMs, optimisationMs, null);
+        } catch (Exception e) {
+            return new Resultat(fichier, coutInitial, Double.NaN, chargementMs, 0, messageErreur(e));
+        }
+    }
+
+    /**
+     * @param e Une erreur de traitement.
+     * @return Son message, ou le nom de sa classe si elle n'en a pas : le
+     *         résultat n'est jamais {@code null}, pour que l'échec soit compté.
+     */
+    static String messageErreur(Exception e) {
+        String message = e.getMessage();
+        return message == null || message.isBlank() ? e.getClass().getName() : message;
+    }
+
+    /**
+     * Exécute l'algorithme naïf, avec graine et points de reprise s'ils sont demandés.
+     *
+     * @param reseau  Le réseau chargé.
+     * @param fichier Le fichier réseau, dont le chemin relatif nomme le point de
+     *                reprise.
+     * @throws IOException si le point de reprise ne peut être lu ou écrit.
+     */
+    private void optimiserNaif(Reseau reseau, File fichier) throws IOException {
+        if (graine == null && reprise == null) {
+            reseau.algoNaif(reseau, k);
+            return;
+        }
+        Path point = reprise == null ? null : destination(reprise, relatif(fichier), ".reprise");
+        RechercheNaive recherche;
+        if (point != null && Files.exists(point)) {
+            recherche = RechercheNaive.reprendre(reseau, point);
+        } else {
+            recherche = new RechercheNaive(reseau, graine != null ? graine : System.nanoTime());
+            if (point != null)
+                recherche.setReprise(point, RechercheNaive.PERIODE_PAR_DEFAUT);
+        }
+        recherche.executer(k);
+        if (point != null)
+            Files.deleteIfExists(point);
+    }
+
+    /**
+     * Protège une valeur pour le format CSV.
+     */
+    private static String csv(String valeur) {
+        if (valeur == null)
+            return "";
+        if (valeur.contains(",") || valeur.contains("\"") || valeur.contains("\n"))
+            return "\"" + valeur.replace("\"", "\"\"") + "\"";
+        return valeur;
+    }
+}
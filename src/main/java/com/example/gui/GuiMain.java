@@ -15,17 +15,21 @@ import java.io.File;
 import java.io.IOException;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
+import javafx.animation.AnimationTimer;
 import javafx.geometry.Point2D;
-import java.util.ArrayList;
-import javafx.scene.Node;
 
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
+import javafx.scene.input.KeyCombination;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.shape.Line;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 /**
  * Classe principale de l'interface graphique (GUI) pour la gestion du réseau électrique.
@@ -45,6 +49,21 @@ public class GuiMain extends Application {
     private Image maisonForteImage;
     private Image generateurImage;
 
+    private static final double GENERATEUR_Y = 80;
+    private static final double MAISON_Y = 400;
+    private static final double ESPACEMENT = 120;
+    private static final double TAILLE_IMAGE = 64;
+    private static final double MARGE = 40;
+
+    private final Map<Generateur, NoeudGraphique> noeudsGenerateurs = new HashMap<>();
+    private final Map<Maison, NoeudGraphique> noeudsMaisons = new HashMap<>();
+    private final Map<Maison, Line> liens = new HashMap<>();
+    private Modifications enAttente = new Modifications();
+    private long numeroEvenement;
+    private long numeroAuMessage;
+    private double debutGenerateursX = MARGE;
+    private double debutMaisonsX = MARGE;
+
     /**
      * Lance l'application JavaFX.
      *
@@ -102,7 +121,10 @@ public class GuiMain extends Application {
         primaryStage.setScene(scene);
         primaryStage.show();
 
-        updateUI();
+        reseau.ajouterEcouteur(ecouteur);
+        reconstruireScene();
+        rafraichirCout();
+        rafraichisseur.start();
     }
 
     /**
@@ -125,10 +147,52 @@ public class GuiMain extends Application {
         quitItem.setOnAction(e -> System.exit(0));
 
         fileMenu.getItems().addAll(loadItem, saveItem, new SeparatorMenuItem(), quitItem);
-        menuBar.getMenus().add(fileMenu);
+
+        Menu editMenu = new Menu("Édition");
+
+        MenuItem undoItem = new MenuItem("Annuler");
+        undoItem.setAccelerator(new KeyCodeCombination(KeyCode.Z, KeyCombination.SHORTCUT_DOWN));
+        undoItem.setOnAction(e -> annuler(1));
+
+        MenuItem redoItem = new MenuItem("Rétablir");
+        redoItem.setAccelerator(new KeyCodeCombination(KeyCode.Y, KeyCombination.SHORTCUT_DOWN));
+        redoItem.setOnAction(e -> {
+            if (reseau.retablir(1) == 0)
+                afficherMessage("Aucun mouvement à rétablir.");
+        });
+
+        MenuItem undoOptimisationItem = new MenuItem("Annuler la dernière optimisation");
+        undoOptimisationItem.setOnAction(e -> {
+            if (reseau.annulerJusquAuRepere() == 0)
+                afficherMessage("Aucune optimisation à annuler.");
+        });
+
+        editMenu.getItems().addAll(undoItem, redoItem, new SeparatorMenuItem(), undoOptimisationItem);
+        menuBar.getMenus().addAll(fileMenu, editMenu);
         return menuBar;
     }
 
+    /**
+     * Annule les {@code k} derniers mouvements de maisons du réseau.
+     *
+     * @param k Le nombre de mouvements à annuler.
+     */
+    private void annuler(int k) {
+        if (k <= 0 || reseau.annuler(k) == 0)
+            afficherMessage("Aucun mouvement à annuler.");
+    }
+
+    /**
+     * Exécute une optimisation après avoir posé un repère dans l'historique,
+     * pour pouvoir l'annuler d'un bloc.
+     *
+     * @param optimisation L'optimisation à exécuter sur {@link #reseau}.
+     */
+    private void optimiser(Runnable optimisation) {
+        reseau.getHistorique().poserRepere();
+        optimisation.run();
+    }
+
     /**
      * Crée le panneau de contrôle latéral qui contient toutes les commandes pour interagir avec le réseau.
      *
@@ -189,10 +253,9 @@ public class GuiMain extends Application {
             try {
                 int capacite = Integer.parseInt(capaciteStr);
                 reseau.ajouterGenerateur(new Generateur(nom, capacite));
-                statusLabel.setText("Générateur " + nom + " ajouté/mis à jour.");
+                afficherMessage("Générateur " + nom + " ajouté/mis à jour.");
                 nomField.clear();
                 capaciteField.clear();
-                updateUI();
             } catch (NumberFormatException ex) {
                 showAlert(Alert.AlertType.ERROR, "Erreur de format", "La capacité doit être un nombre entier.");
             } catch (IllegalArgumentException ex) {
@@ -237,9 +300,8 @@ public class GuiMain extends Application {
             }
             try {
                 reseau.ajouterMaison(new Maison(nom, type));
-                statusLabel.setText("Maison " + nom + " ajoutée/mise à jour.");
+                afficherMessage("Maison " + nom + " ajoutée/mise à jour.");
                 nomField.clear();
-                updateUI();
             } catch (IllegalArgumentException ex) {
                 showAlert(Alert.AlertType.ERROR, "Erreur", ex.getMessage());
             }
@@ -281,8 +343,7 @@ public class GuiMain extends Application {
             }
             try {
                 reseau.ajouterConnexion(nomMaison, nomGenerateur);
-                statusLabel.setText("Connexion ajoutée : " + nomMaison + " -> " + nomGenerateur);
-                updateUI();
+                afficherMessage("Connexion ajoutée : " + nomMaison + " -> " + nomGenerateur);
             } catch (IllegalArgumentException ex) {
                 showAlert(Alert.AlertType.ERROR, "Erreur", ex.getMessage());
             }
@@ -297,8 +358,7 @@ public class GuiMain extends Application {
             }
             try {
                 reseau.supprimerConnexion(nomMaison, nomGenerateur);
-                statusLabel.setText("Connexion supprimée : " + nomMaison + " - " + nomGenerateur);
-                updateUI();
+                afficherMessage("Connexion supprimée : " + nomMaison + " - " + nomGenerateur);
             } catch (IllegalArgumentException ex) {
                 showAlert(Alert.AlertType.ERROR, "Erreur", ex.getMessage());
             }
@@ -355,7 +415,7 @@ public class GuiMain extends Application {
                 reseau.setLambda(lambda);
                 double cout = reseau.calculerCout();
                 String costString = String.format("Coût actuel du réseau : %.4f", cout);
-                statusLabel.setText(costString);
+                afficherMessage(costString);
                 showAlert(Alert.AlertType.INFORMATION, "Résultat du Calcul", costString);
             } catch (NumberFormatException ex) {
                 showAlert(Alert.AlertType.ERROR, "Erreur", "La sévérité (Lambda) doit être un entier.");
@@ -365,10 +425,10 @@ public class GuiMain extends Application {
         validateButton.setOnAction(e -> {
             if (reseau.isValide()) {
                 showAlert(Alert.AlertType.INFORMATION, "Validité", "Le réseau est VALIDE. Toutes les maisons sont connectées.");
-                statusLabel.setText("Réseau valide.");
+                afficherMessage("Réseau valide.");
             } else {
                 showAlert(Alert.AlertType.WARNING, "Validité", "Le réseau est INVALIDE. Certaines maisons ne sont pas connectées.");
-                statusLabel.setText("Réseau invalide !");
+                afficherMessage("Réseau invalide !");
             }
         });
 
@@ -381,9 +441,8 @@ public class GuiMain extends Application {
                 int lambda = Integer.parseInt(lambdaField.getText());
                 reseau.setLambda(lambda);
                 int k = Integer.parseInt(kField.getText());
-                reseau = reseau.algoNaif(reseau, k);
-                updateUI();
-                statusLabel.setText("Optimisation naïve terminée (" + k + " itérations). Coût: " + String.format("%.4f", reseau.calculerCout()));
+                optimiser(() -> reseau.algoNaif(reseau, k));
+                afficherMessage("Optimisation naïve terminée (" + k + " itérations). Coût: " + String.format("%.4f", reseau.calculerCout()));
                 showAlert(Alert.AlertType.INFORMATION, "Optimisation Naïve", "Optimisation terminée.");
             } catch (NumberFormatException ex) {
                 showAlert(Alert.AlertType.ERROR, "Erreur", "Le nombre d'itérations (k) et Lambda doivent être des entiers.");
@@ -398,9 +457,8 @@ public class GuiMain extends Application {
             try {
                 int lambda = Integer.parseInt(lambdaField.getText());
                 reseau.setLambda(lambda);
-                reseau = Reseau.algoOptimise(reseau);
-                updateUI();
-                statusLabel.setText("Réseau optimisé (Avancé). Coût: " + String.format("%.4f", reseau.calculerCout()));
+                optimiser(() -> Reseau.algoOptimise(reseau));
+                afficherMessage("Réseau optimisé (Avancé). Coût: " + String.format("%.4f", reseau.calculerCout()));
                 showAlert(Alert.AlertType.INFORMATION, "Optimisation", "L'optimisation du réseau est terminée.");
             } catch (NumberFormatException ex) {
                 showAlert(Alert.AlertType.ERROR, "Erreur", "La sévérité (Lambda) doit être un entier.");
@@ -411,97 +469,335 @@ public class GuiMain extends Application {
     }
 
     /**
-     * Met à jour tous les composants de l'interface pour refléter l'état actuel du {@link Reseau}.
-     * Redessine l'affichage graphique et met à jour les listes déroulantes.
+     * Remplace le réseau affiché : l'écouteur est déplacé de l'ancien réseau vers
+     * le nouveau, puis la scène est entièrement reconstruite.
+     *
+     * @param nouveau Le nouveau réseau à afficher.
      */
-    private void updateUI() {
+    private void changerReseau(Reseau nouveau) {
+        reseau.retirerEcouteur(ecouteur);
+        reseau = nouveau;
+        reseau.ajouterEcouteur(ecouteur);
+        synchronized (this) {
+            enAttente = new Modifications();
+        }
+        reconstruireScene();
+        rafraichirCout();
+    }
+
+    /**
+     * Reconstruit entièrement l'affichage graphique et les listes déroulantes à
+     * partir de l'état actuel du {@link Reseau}.
+     * Utilisée uniquement au chargement d'un réseau ou après une modification
+     * globale ; les modifications élémentaires passent par {@link #ecouteur}.
+     */
+    private void reconstruireScene() {
         networkDisplay.getChildren().clear();
+        noeudsGenerateurs.clear();
+        noeudsMaisons.clear();
+        liens.clear();
+        maisonComboBox.getItems().clear();
+        generateurComboBox.getItems().clear();
+
+        int nbMaisons = reseau.getMaisonsNonConnectees().size();
+        for (List<Maison> liste : reseau.getConnexions().values()) {
+            nbMaisons += liste.size();
+        }
+
+        debutGenerateursX = Math.max(MARGE, (networkDisplay.getWidth() - reseau.getConnexions().size() * ESPACEMENT) / 2 + ESPACEMENT / 2);
+        debutMaisonsX = Math.max(MARGE, (networkDisplay.getWidth() - nbMaisons * ESPACEMENT) / 2 + ESPACEMENT / 2);
+
+        for (Generateur g : reseau.getConnexions().keySet()) {
+            ajouterNoeudGenerateur(g);
+        }
+        for (List<Maison> liste : reseau.getConnexions().values()) {
+            for (Maison m : liste) {
+                ajouterNoeudMaison(m);
+            }
+        }
+        for (Maison m : reseau.getMaisonsNonConnectees()) {
+            ajouterNoeudMaison(m);
+        }
+        for (Map.Entry<Generateur, List<Maison>> entry : reseau.getConnexions().entrySet()) {
+            for (Maison m : entry.getValue()) {
+                ajouterLien(m, entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Crée le nœud graphique d'un générateur dans le prochain emplacement libre.
+     *
+     * @param g Le générateur à représenter.
+     */
+    private void ajouterNoeudGenerateur(Generateur g) {
+        Point2D centre = new Point2D(debutGenerateursX + noeudsGenerateurs.size() * ESPACEMENT, GENERATEUR_Y);
+
+        ImageView imageView = new ImageView(generateurImage);
+        imageView.setFitWidth(TAILLE_IMAGE);
+        imageView.setFitHeight(TAILLE_IMAGE);
+        imageView.setX(centre.getX() - TAILLE_IMAGE / 2);
+        imageView.setY(centre.getY() - TAILLE_IMAGE / 2);
+
+        Label label = new Label(texteGenerateur(g));
+        label.setAlignment(Pos.CENTER);
+        label.setLayoutX(centre.getX() - 30);
+        label.setLayoutY(centre.getY() - TAILLE_IMAGE / 2 - 40);
+
+        networkDisplay.getChildren().addAll(imageView, label);
+        noeudsGenerateurs.put(g, new NoeudGraphique(centre, imageView, label));
+        generateurComboBox.getItems().add(g.getNom());
+    }
+
+    /**
+     * Crée le nœud graphique d'une maison dans le prochain emplacement libre.
+     *
+     * @param m La maison à représenter.
+     */
+    private void ajouterNoeudMaison(Maison m) {
+        Point2D centre = new Point2D(debutMaisonsX + noeudsMaisons.size() * ESPACEMENT, MAISON_Y);
+
+        ImageView imageView = new ImageView(getImageForMaison(m));
+        imageView.setFitWidth(TAILLE_IMAGE);
+        imageView.setFitHeight(TAILLE_IMAGE);
+        imageView.setX(centre.getX() - TAILLE_IMAGE / 2);
+        imageView.setY(centre.getY() - TAILLE_IMAGE / 2);
+
+        Label label = new Label(texteMaison(m));
+        label.setAlignment(Pos.CENTER);
+        label.setLayoutX(centre.getX() - 20);
+        label.setLayoutY(centre.getY() + TAILLE_IMAGE / 2 + 5);
+
+        networkDisplay.getChildren().addAll(imageView, label);
+        noeudsMaisons.put(m, new NoeudGraphique(centre, imageView, label));
+        maisonComboBox.getItems().add(m.getNom());
+    }
+
+    /**
+     * Trace le lien entre une maison et le générateur qui l'alimente.
+     *
+     * @param m La maison connectée.
+     * @param g Le générateur.
+     */
+    private void ajouterLien(Maison m, Generateur g) {
+        NoeudGraphique noeudGen = noeudsGenerateurs.get(g);
+        NoeudGraphique noeudMaison = noeudsMaisons.get(m);
+        if (noeudGen == null || noeudMaison == null) return;
+
+        Line line = new Line(noeudGen.centre.getX(), noeudGen.centre.getY(),
+                noeudMaison.centre.getX(), noeudMaison.centre.getY());
+        line.setStrokeWidth(2);
+        networkDisplay.getChildren().add(0, line);
+        liens.put(m, line);
+    }
+
+    /**
+     * Affiche un message dans la barre d'état. Les modifications du modèle
+     * survenues avant lui ne l'effacent pas au profit du coût ; seules les
+     * suivantes le font.
+     *
+     * @param message Le message.
+     */
+    private void afficherMessage(String message) {
+        synchronized (this) {
+            numeroAuMessage = numeroEvenement;
+        }
+        statusLabel.setText(message);
+    }
+
+    /**
+     * Met à jour la barre d'état avec le coût actuel du réseau.
+     */
+    private void rafraichirCout() {
+        statusLabel.setText(String.format("Coût actuel: %.4f", reseau.calculerCout()));
+    }
+
+    private static String texteGenerateur(Generateur g) {
+        return g.getNom() + "\n(" + g.getCapacite() + " kW)";
+    }
 
-        Map<String, Node> nodeMap = new HashMap<>();
-        Map<String, Point2D> positions = new HashMap<>();
-
-        double genY = 80;
-        double houseY = 400;
-        double spacing = 120;
-        double imageSize = 64;
-
-        List<Generateur> generateurs = new ArrayList<>(reseau.getConnexions().keySet());
-        double totalGenWidth = generateurs.size() * spacing;
-        double genStartX = (networkDisplay.getWidth() - totalGenWidth) / 2 + spacing / 2;
-        if (genStartX < 40) genStartX = 40;
-
-        for (int i = 0; i < generateurs.size(); i++) {
-            Generateur g = generateurs.get(i);
-            double x = genStartX + i * spacing;
-            Point2D center = new Point2D(x, genY);
-
-            ImageView imageView = new ImageView(generateurImage);
-            imageView.setFitWidth(imageSize);
-            imageView.setFitHeight(imageSize);
-            imageView.setX(center.getX() - imageSize / 2);
-            imageView.setY(center.getY() - imageSize / 2);
-
-            Label label = new Label(g.getNom() + "\n(" + g.getCapacite() + " kW)");
-            label.setAlignment(Pos.CENTER);
-            label.setLayoutX(center.getX() - 30);
-            label.setLayoutY(center.getY() - imageSize / 2 - 40);
-
-            networkDisplay.getChildren().addAll(imageView, label);
-            nodeMap.put(g.getNom(), imageView);
-            positions.put(g.getNom(), center);
+    private static String texteMaison(Maison m) {
+        return m.getNom() + "\n(" + m.getTypeConso().getConsommation() + " kW)";
+    }
+
+    /**
+     * Écouteur du modèle : chaque événement est noté dans les
+     * {@link Modifications} en attente, qui ne retiennent que l'état final de
+     * chaque élément. Elles sont appliquées par {@link #rafraichisseur} sur le
+     * thread JavaFX, au plus une fois par image : une rafale de modifications
+     * (flux automatisé, optimisation) se réduit ainsi à un correctif par
+     * élément touché, et une réinitialisation remplace tous les correctifs par
+     * une seule reconstruction.
+     */
+    private final EcouteurReseau ecouteur = new EcouteurReseau() {
+        @Override
+        public void generateurAjoute(Generateur g) {
+            synchronized (GuiMain.this) {
+                if (!enAttente.reconstruire)
+                    enAttente.generateursAjoutes.add(g);
+                numeroEvenement++;
+            }
         }
 
-        List<Maison> toutesLesMaisons = new ArrayList<>();
-        reseau.getConnexions().values().forEach(toutesLesMaisons::addAll);
-        toutesLesMaisons.addAll(reseau.getMaisonsNonConnectees());
-
-        double totalHouseWidth = toutesLesMaisons.size() * spacing;
-        double houseStartX = (networkDisplay.getWidth() - totalHouseWidth) / 2 + spacing / 2;
-        if (houseStartX < 40) houseStartX = 40;
-
-        for (int i = 0; i < toutesLesMaisons.size(); i++) {
-            Maison m = toutesLesMaisons.get(i);
-            double x = houseStartX + i * spacing;
-            Point2D center = new Point2D(x, houseY);
-
-            ImageView imageView = new ImageView(getImageForMaison(m));
-            imageView.setFitWidth(imageSize);
-            imageView.setFitHeight(imageSize);
-            imageView.setX(center.getX() - imageSize / 2);
-            imageView.setY(center.getY() - imageSize / 2);
-            
-            Label label = new Label(m.getNom() + "\n(" + m.getTypeConso().getConsommation() + " kW)");
-            label.setAlignment(Pos.CENTER);
-            label.setLayoutX(center.getX() - 20);
-            label.setLayoutY(center.getY() + imageSize / 2 + 5);
-
-            networkDisplay.getChildren().addAll(imageView, label);
-            nodeMap.put(m.getNom(), imageView);
-            positions.put(m.getNom(), center);
+        @Override
+        public void generateurModifie(Generateur g) {
+            synchronized (GuiMain.this) {
+                if (!enAttente.reconstruire)
+                    enAttente.generateursModifies.add(g);
+                numeroEvenement++;
+            }
         }
 
-        for (Map.Entry<Generateur, List<Maison>> entry : reseau.getConnexions().entrySet()) {
-            Point2D genPos = positions.get(entry.getKey().getNom());
-            if (genPos == null) continue;
+        @Override
+        public void maisonAjoutee(Maison m) {
+            synchronized (GuiMain.this) {
+                if (!enAttente.reconstruire)
+                    enAttente.maisonsAjoutees.add(m);
+                numeroEvenement++;
+            }
+        }
 
-            for (Maison m : entry.getValue()) {
-                Point2D housePos = positions.get(m.getNom());
-                if (housePos == null) continue;
+        @Override
+        public void maisonModifiee(Maison m, Generateur g) {
+            synchronized (GuiMain.this) {
+                if (!enAttente.reconstruire)
+                    enAttente.maisonsModifiees.add(m);
+                numeroEvenement++;
+            }
+        }
+
+        @Override
+        public void connexionAjoutee(Maison m, Generateur g) {
+            relier(m, g);
+        }
 
-                Line line = new Line(genPos.getX(), genPos.getY(), housePos.getX(), housePos.getY());
-                line.setStrokeWidth(2);
-                networkDisplay.getChildren().add(0, line);
+        @Override
+        public void connexionSupprimee(Maison m, Generateur g) {
+            relier(m, null);
+        }
+
+        @Override
+        public void connexionModifiee(Maison m, Generateur ancien, Generateur nouveau) {
+            relier(m, nouveau);
+        }
+
+        @Override
+        public void reseauReinitialise() {
+            synchronized (GuiMain.this) {
+                enAttente = new Modifications();
+                enAttente.reconstruire = true;
+                numeroEvenement++;
+            }
+        }
+
+        private void relier(Maison m, Generateur g) {
+            synchronized (GuiMain.this) {
+                if (!enAttente.reconstruire)
+                    enAttente.liens.put(m, g);
+                numeroEvenement++;
             }
         }
+    };
 
-        maisonComboBox.setItems(FXCollections.observableArrayList(
-                toutesLesMaisons.stream().map(Maison::getNom).collect(Collectors.toList())));
+    /**
+     * Applique, une fois par image, les modifications en attente, puis
+     * recalcule le coût affiché, sauf si un message plus récent que ces
+     * modifications occupe la barre d'état.
+     */
+    private final AnimationTimer rafraichisseur = new AnimationTimer() {
+        @Override
+        public void handle(long maintenant) {
+            Modifications modifications;
+            long numero;
+            synchronized (GuiMain.this) {
+                if (enAttente.estVide())
+                    return;
+                modifications = enAttente;
+                enAttente = new Modifications();
+                numero = numeroEvenement;
+            }
+            appliquer(modifications);
+            if (numero > numeroAuMessage)
+                rafraichirCout();
+        }
+    };
+
+    /**
+     * Met à jour la scène d'après les modifications d'une image : nœuds
+     * ajoutés, puis étiquettes, puis liens, chacun d'après l'état final de son
+     * élément. Un élément déjà présent (ajouté par une reconstruction entre-temps)
+     * n'est pas recréé.
+     *
+     * @param modifications Les modifications à appliquer.
+     */
+    private void appliquer(Modifications modifications) {
+        if (modifications.reconstruire) {
+            reconstruireScene();
+            return;
+        }
+        for (Generateur g : modifications.generateursAjoutes)
+            if (!noeudsGenerateurs.containsKey(g)) ajouterNoeudGenerateur(g);
+        for (Maison m : modifications.maisonsAjoutees)
+            if (!noeudsMaisons.containsKey(m)) ajouterNoeudMaison(m);
+        for (Generateur g : modifications.generateursModifies) {
+            NoeudGraphique noeud = noeudsGenerateurs.get(g);
+            if (noeud != null) noeud.etiquette.setText(texteGenerateur(g));
+        }
+        for (Maison m : modifications.maisonsModifiees) {
+            NoeudGraphique noeud = noeudsMaisons.get(m);
+            if (noeud == null) continue;
+            noeud.image.setImage(getImageForMaison(m));
+            noeud.etiquette.setText(texteMaison(m));
+        }
+        for (Map.Entry<Maison, Generateur> lien : modifications.liens.entrySet()) {
+            Maison m = lien.getKey();
+            Generateur g = lien.getValue();
+            Line line = liens.get(m);
+            NoeudGraphique noeudGen = g == null ? null : noeudsGenerateurs.get(g);
+            if (noeudGen == null) {
+                if (line != null) networkDisplay.getChildren().remove(liens.remove(m));
+            } else if (line == null) {
+                ajouterLien(m, g);
+            } else {
+                line.setStartX(noeudGen.centre.getX());
+                line.setStartY(noeudGen.centre.getY());
+            }
+        }
+    }
 
-        generateurComboBox.setItems(FXCollections.observableArrayList(
-                generateurs.stream().map(Generateur::getNom).collect(Collectors.toList())));
+    /**
+     * Modifications du modèle survenues depuis la dernière image, réduites à
+     * l'état final de chaque élément. Protégées par le verrou de {@link GuiMain}.
+     */
+    private static final class Modifications {
+        /** Reconstruire toute la scène ; les autres champs sont alors vides. */
+        boolean reconstruire;
+        final Set<Generateur> generateursAjoutes = new LinkedHashSet<>();
+        final Set<Maison> maisonsAjoutees = new LinkedHashSet<>();
+        final Set<Generateur> generateursModifies = new HashSet<>();
+        final Set<Maison> maisonsModifiees = new HashSet<>();
+        /** Dernier générateur de chaque maison touchée, {@code null} si déconnectée. */
+        final Map<Maison, Generateur> liens = new HashMap<>();
+
+        boolean estVide() {
+            return !reconstruire && generateursAjoutes.isEmpty() && maisonsAjoutees.isEmpty()
+                    && generateursModifies.isEmpty() && maisonsModifiees.isEmpty() && liens.isEmpty();
+        }
+    }
 
-        double cout = reseau.calculerCout();
-        statusLabel.setText(String.format("Coût actuel: %.4f", cout));
+    /**
+     * Éléments graphiques associés à un générateur ou à une maison.
+     */
+    private static final class NoeudGraphique {
+        final Point2D centre;
+        final ImageView image;
+        final Label etiquette;
+
+        NoeudGraphique(Point2D centre, ImageView image, Label etiquette) {
+            this.centre = centre;
+            this.image = image;
+            this.etiquette = etiquette;
+        }
     }
 
     /**
@@ -535,10 +831,10 @@ public class GuiMain extends Application {
 
         if (file != null) {
             try {
-                reseau = new Reseau();
-                reseau.chargerReseauDepuisFichier(file.getAbsolutePath());
-                updateUI();
-                statusLabel.setText("Réseau chargé depuis " + file.getName());
+                Reseau nouveau = new Reseau();
+                nouveau.chargerReseauDepuisFichier(file.getAbsolutePath());
+                changerReseau(nouveau);
+                afficherMessage("Réseau chargé depuis " + file.getName());
             } catch (Exception e) {
                 showAlert(Alert.AlertType.ERROR, "Erreur de chargement", "Impossible de charger le fichier : \n" + e.getMessage());
             }
@@ -559,7 +855,7 @@ public class GuiMain extends Application {
         if (file != null) {
             try {
                 Reseau.sauvegarder(reseau, file.getAbsolutePath());
-                statusLabel.setText("Réseau sauvegardé dans " + file.getName());
+                afficherMessage("Réseau sauvegardé dans " + file.getName());
             } catch (IOException e) {
                 showAlert(Alert.AlertType.ERROR, "Erreur de sauvegarde", "Impossible de sauvegarder le fichier : \n" + e.getMessage());
             }
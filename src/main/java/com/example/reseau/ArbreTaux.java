@@ -0,0 +1,229 @@
+package com.example.reseau;
+
+import java.util.Arrays;
+
+/**
+ * Arbre de statistiques d'ordre sur les taux d'utilisation des générateurs.
+ *
+ * Il s'agit d'un arbre-tas (treap) dont chaque nœud est un générateur, repéré
+ * par son indice d'insertion dans le {@link Reseau}, et ordonné par taux puis
+ * par indice. Chaque nœud conserve le nombre de nœuds et la somme des taux de
+ * son sous-arbre, ce qui donne en O(log G) :
+ * <ul>
+ * <li>la dispersion {@code Σ|u − moyenne|}, en séparant les taux inférieurs et
+ * supérieurs à la moyenne ;</li>
+ * <li>la surcharge {@code Σ max(0, u − 1)}, qui vaut la somme des taux
+ * supérieurs à 1 moins leur nombre ;</li>
+ * <li>les générateurs de plus petit et de plus grand taux.</li>
+ * </ul>
+ * Les priorités sont dérivées de l'indice par mélange de bits : la forme de
+ * l'arbre ne dépend que de son contenu, jamais d'un tirage aléatoire.
+ */
+class ArbreTaux {
+    private static final int AUCUN = -1;
+
+    private double[] taux = new double[16];
+    private int[] gauche = new int[16];
+    private int[] droite = new int[16];
+    private int[] nombre = new int[16];
+    private double[] somme = new double[16];
+    private boolean[] present = new boolean[16];
+    private int racine = AUCUN;
+
+    /**
+     * @return Le nombre de taux enregistrés.
+     */
+    int taille() {
+        return racine == AUCUN ? 0 : nombre[racine];
+    }
+
+    /**
+     * @return La somme de tous les taux enregistrés.
+     */
+    double sommeTotale() {
+        return racine == AUCUN ? 0 : somme[racine];
+    }
+
+    /**
+     * Enregistre ou met à jour le taux d'un générateur.
+     *
+     * @param indice L'indice du générateur.
+     * @param u      Son nouveau taux d'utilisation.
+     */
+    void mettreAJour(int indice, double u) {
+        if (indice >= present.length)
+            agrandir(Math.max(indice + 1, present.length * 2));
+        if (present[indice])
+            racine = retirer(racine, indice);
+        taux[indice] = u;
+        gauche[indice] = AUCUN;
+        droite[indice] = AUCUN;
+        nombre[indice] = 1;
+        somme[indice] = u;
+        present[indice] = true;
+        racine = inserer(racine, indice);
+    }
+
+    /**
+     * @return L'indice du générateur de plus petit taux (le plus petit indice à
+     *         taux égal), ou -1 si l'arbre est vide.
+     */
+    int minimum() {
+        int n = racine;
+        if (n != AUCUN)
+            while (gauche[n] != AUCUN)
+                n = gauche[n];
+        return n;
+    }
+
+    /**
+     * @return L'indice du générateur de plus grand taux (le plus grand indice à
+     *         taux égal), ou -1 si l'arbre est vide.
+     */
+    int maximum() {
+        int n = racine;
+        if (n != AUCUN)
+            while (droite[n] != AUCUN)
+                n = droite[n];
+        return n;
+    }
+
+    /**
+     * @param moyenne Le point de référence.
+     * @return La somme des écarts absolus {@code Σ|u − moyenne|}.
+     */
+    double ecartAbsolu(double moyenne) {
+        int nbInferieurs = 0;
+        double sommeInferieurs = 0;
+        int n = racine;
+        while (n != AUCUN) {
+            if (taux[n] < moyenne) {
+                nbInferieurs += 1 + nombre(gauche[n]);
+                sommeInferieurs += taux[n] + somme(gauche[n]);
+                n = droite[n];
+            } else {
+                n = gauche[n];
+            }
+        }
+        int nbSuperieurs = taille() - nbInferieurs;
+        double sommeSuperieurs = sommeTotale() - sommeInferieurs;
+        return (moyenne * nbInferieurs - sommeInferieurs) + (sommeSuperieurs - moyenne * nbSuperieurs);
+    }
+
+    /**
+     * @param seuil Le seuil.
+     * @return La somme des dépassements {@code Σ max(0, u − seuil)}.
+     */
+    double depassement(double seuil) {
+        int nbSuperieurs = 0;
+        double sommeSuperieurs = 0;
+        int n = racine;
+        while (n != AUCUN) {
+            if (taux[n] > seuil) {
+                nbSuperieurs += 1 + nombre(droite[n]);
+                sommeSuperieurs += taux[n] + somme(droite[n]);
+                n = gauche[n];
+            } else {
+                n = droite[n];
+            }
+        }
+        return sommeSuperieurs - seuil * nbSuperieurs;
+    }
+
+    private int nombre(int n) {
+        return n == AUCUN ? 0 : nombre[n];
+    }
+
+    private double somme(int n) {
+        return n == AUCUN ? 0 : somme[n];
+    }
+
+    private void recalculer(int n) {
+        nombre[n] = 1 + nombre(gauche[n]) + nombre(droite[n]);
+        somme[n] = taux[n] + somme(gauche[n]) + somme(droite[n]);
+    }
+
+    private static long priorite(int indice) {
+        long z = indice * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private boolean avant(int a, int b) {
+        return taux[a] < taux[b] || (taux[a] == taux[b] && a < b);
+    }
+
+    private int inserer(int n, int nouveau) {
+        if (n == AUCUN)
+            return nouveau;
+        if (priorite(nouveau) > priorite(n)) {
+            int[] parties = separer(n, nouveau);
+            gauche[nouveau] = parties[0];
+            droite[nouveau] = parties[1];
+            recalculer(nouveau);
+            return nouveau;
+        }
+        if (avant(nouveau, n))
+            gauche[n] = inserer(gauche[n], nouveau);
+        else
+            droite[n] = inserer(droite[n], nouveau);
+        recalculer(n);
+        return n;
+    }
+
+    /**
+     * Sépare un sous-arbre en deux : les nœuds avant {@code pivot}, et les autres.
+     */
+    private int[] separer(int n, int pivot) {
+        if (n == AUCUN)
+            return new int[] { AUCUN, AUCUN };
+        if (avant(n, pivot)) {
+            int[] parties = separer(droite[n], pivot);
+            droite[n] = parties[0];
+            recalculer(n);
+            parties[0] = n;
+            return parties;
+        }
+        int[] parties = separer(gauche[n], pivot);
+        gauche[n] = parties[1];
+        recalculer(n);
+        parties[1] = n;
+        return parties;
+    }
+
+    private int retirer(int n, int cible) {
+        if (n == cible)
+            return fusionner(gauche[n], droite[n]);
+        if (avant(cible, n))
+            gauche[n] = retirer(gauche[n], cible);
+        else
+            droite[n] = retirer(droite[n], cible);
+        recalculer(n);
+        return n;
+    }
+
+    private int fusionner(int a, int b) {
+        if (a == AUCUN)
+            return b;
+        if (b == AUCUN)
+            return a;
+        if (priorite(a) > priorite(b)) {
+            droite[a] = fusionner(droite[a], b);
+            recalculer(a);
+            return a;
+        }
+        gauche[b] = fusionner(a, gauche[b]);
+        recalculer(b);
+        return b;
+    }
+
+    private void agrandir(int capacite) {
+        taux = Arrays.copyOf(taux, capacite);
+        gauche = Arrays.copyOf(gauche, capacite);
+        droite = Arrays.copyOf(droite, capacite);
+        nombre = Arrays.copyOf(nombre, capacite);
+        somme = Arrays.copyOf(somme, capacite);
+        present = Arrays.copyOf(present, capacite);
+    }
+}
@@ -0,0 +1,248 @@
+package com.example.reseau;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache LRU de pages de taille fixe, partagé entre plusieurs fichiers (les
+ * zones).
+ *
+ * Une zone est un fichier temporaire, supprimé à sa fermeture, lu et écrit par
+ * un {@link FileChannel}. Une page absente du cache est lue à la demande (un
+ * défaut de page) ; quand le cache est plein, la page utilisée le moins
+ * récemment est réécrite si elle a été modifiée, et son tampon est réutilisé.
+ * Une page jamais écrite se lit remplie de zéros.
+ *
+ * Les entiers et les caractères lus ou écrits ne doivent pas chevaucher deux
+ * pages ; les suites d'octets, si. Cette classe n'est pas sûre pour les
+ * threads.
+ */
+final class CachePages implements Closeable {
+    private final int taillePage;
+    private final int nbPages;
+    private final List<FileChannel> zones = new ArrayList<>();
+    private final Map<Long, Page> pages;
+    private final byte[] zeros;
+    private long derniereCle = -1;
+    private Page dernierePage;
+    private long defauts;
+
+    private static final class Page {
+        final ByteBuffer tampon;
+        int zone;
+        long numero;
+        boolean modifiee;
+
+        Page(ByteBuffer tampon) {
+            this.tampon = tampon;
+        }
+    }
+
+    /**
+     * @param taillePage La taille d'une page en octets.
+     * @param nbPages    Le nombre de pages gardées en mémoire (au moins 2).
+     */
+    CachePages(int taillePage, int nbPages) {
+        if (taillePage <= 0 || nbPages < 2)
+            throw new IllegalArgumentException("Cache invalide : " + nbPages + " pages de " + taillePage + " octets.");
+        this.taillePage = taillePage;
+        this.nbPages = nbPages;
+        pages = new LinkedHashMap<>(2 * nbPages, 0.75f, true);
+        zeros = new byte[taillePage];
+    }
+
+    /**
+     * @return La taille d'une page en octets.
+     */
+    int getTaillePage() {
+        return taillePage;
+    }
+
+    /**
+     * @return Le nombre de pages lues depuis le disque depuis la création.
+     */
+    long getDefauts() {
+        return defauts;
+    }
+
+    /**
+     * @return Les octets occupés par les pages présentes en mémoire.
+     */
+    long getOctetsEnCache() {
+        return (long) pages.size() * taillePage;
+    }
+
+    /**
+     * Crée une zone vide dans un fichier temporaire.
+     *
+     * @param repertoire Le répertoire du fichier.
+     * @return Le numéro de la zone.
+     */
+    int ouvrir(Path repertoire) {
+        try {
+            Path fichier = Files.createTempFile(repertoire, "reseau", ".pages");
+            zones.add(FileChannel.open(fichier, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE));
+            return zones.size() - 1;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible de créer un fichier de pages dans " + repertoire, e);
+        }
+    }
+
+    /**
+     * Ferme une zone et supprime son fichier ; ses pages sont abandonnées.
+     *
+     * @param zone Le numéro de la zone.
+     */
+    void fermer(int zone) {
+        for (Iterator<Page> it = pages.values().iterator(); it.hasNext();) {
+            if (it.next().zone == zone)
+                it.remove();
+        }
+        derniereCle = -1;
+        dernierePage = null;
+        FileChannel canal = zones.set(zone, null);
+        try {
+            if (canal != null)
+                canal.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    int lireInt(int zone, long position) {
+        return page(zone, position).tampon.getInt((int) (position % taillePage));
+    }
+
+    void ecrireInt(int zone, long position, int valeur) {
+        Page p = page(zone, position);
+        p.tampon.putInt((int) (position % taillePage), valeur);
+        p.modifiee = true;
+    }
+
+    char lireChar(int zone, long position) {
+        return page(zone, position).tampon.getChar((int) (position % taillePage));
+    }
+
+    void ecrireChar(int zone, long position, char valeur) {
+        Page p = page(zone, position);
+        p.tampon.putChar((int) (position % taillePage), valeur);
+        p.modifiee = true;
+    }
+
+    byte lireOctet(int zone, long position) {
+        return page(zone, position).tampon.get((int) (position % taillePage));
+    }
+
+    void ecrireOctet(int zone, long position, byte valeur) {
+        Page p = page(zone, position);
+        p.tampon.put((int) (position % taillePage), valeur);
+        p.modifiee = true;
+    }
+
+    void lire(int zone, long position, byte[] dest, int debut, int longueur) {
+        while (longueur > 0) {
+            int decalage = (int) (position % taillePage);
+            int n = Math.min(longueur, taillePage - decalage);
+            page(zone, position).tampon.get(decalage, dest, debut, n);
+            position += n;
+            debut += n;
+            longueur -= n;
+        }
+    }
+
+    void ecrire(int zone, long position, byte[] source, int debut, int longueur) {
+        while (longueur > 0) {
+            int decalage = (int) (position % taillePage);
+            int n = Math.min(longueur, taillePage - decalage);
+            Page p = page(zone, position);
+            p.tampon.put(decalage, source, debut, n);
+            p.modifiee = true;
+            position += n;
+            debut += n;
+            longueur -= n;
+        }
+    }
+
+    /**
+     * Ferme toutes les zones et supprime leurs fichiers.
+     */
+    @Override
+    public void close() {
+        for (int z = 0; z < zones.size(); z++)
+            fermer(z);
+    }
+
+    private Page page(int zone, long position) {
+        long numero = position / taillePage;
+        long cle = ((long) zone << 40) | numero;
+        if (cle == derniereCle)
+            return dernierePage;
+        Page p = pages.get(cle);
+        if (p == null)
+            p = charger(zone, numero, cle);
+        derniereCle = cle;
+        dernierePage = p;
+        return p;
+    }
+
+    private Page charger(int zone, long numero, long cle) {
+        Page p;
+        if (pages.size() < nbPages) {
+            p = new Page(ByteBuffer.allocateDirect(taillePage).order(ByteOrder.nativeOrder()));
+        } else {
+            Iterator<Page> it = pages.values().iterator();
+            p = it.next();
+            it.remove();
+            if (p.modifiee)
+                ecrirePage(p);
+        }
+        p.zone = zone;
+        p.numero = numero;
+        p.modifiee = false;
+        lirePage(p);
+        pages.put(cle, p);
+        defauts++;
+        return p;
+    }
+
+    private void lirePage(Page p) {
+        ByteBuffer tampon = p.tampon.clear();
+        try {
+            FileChannel canal = zones.get(p.zone);
+            long position = p.numero * taillePage;
+            while (tampon.hasRemaining()) {
+                int lus = canal.read(tampon, position + tampon.position());
+                if (lus < 0)
+                    break;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        tampon.put(zeros, 0, tampon.remaining());
+    }
+
+    private void ecrirePage(Page p) {
+        ByteBuffer tampon = p.tampon.clear();
+        try {
+            FileChannel canal = zones.get(p.zone);
+            long position = p.numero * taillePage;
+            while (tampon.hasRemaining())
+                canal.write(tampon, position + tampon.position());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
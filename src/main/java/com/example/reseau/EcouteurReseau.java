@@ -0,0 +1,81 @@
+package com.example.reseau;
+
+/**
+ * Écouteur notifié des modifications élémentaires apportées à un {@link Reseau}.
+ * Chaque méthode possède une implémentation vide par défaut : un écouteur ne
+ * redéfinit que les événements qui l'intéressent.
+ * Les notifications sont émises de manière synchrone, sur le thread qui modifie
+ * le réseau.
+ */
+public interface EcouteurReseau {
+
+    /**
+     * Appelée lorsqu'un nouveau générateur est ajouté au réseau.
+     *
+     * @param g Le générateur ajouté.
+     */
+    default void generateurAjoute(Generateur g) {
+    }
+
+    /**
+     * Appelée lorsque la capacité d'un générateur existant est modifiée.
+     *
+     * @param g Le générateur modifié.
+     */
+    default void generateurModifie(Generateur g) {
+    }
+
+    /**
+     * Appelée lorsqu'une nouvelle maison (non connectée) est ajoutée au réseau.
+     *
+     * @param m La maison ajoutée.
+     */
+    default void maisonAjoutee(Maison m) {
+    }
+
+    /**
+     * Appelée lorsque le type de consommation d'une maison existante est modifié.
+     *
+     * @param m La maison modifiée.
+     * @param g Le générateur auquel la maison est connectée, ou {@code null}.
+     */
+    default void maisonModifiee(Maison m, Generateur g) {
+    }
+
+    /**
+     * Appelée lorsqu'une maison non connectée est connectée à un générateur.
+     *
+     * @param m La maison connectée.
+     * @param g Le générateur qui l'alimente désormais.
+     */
+    default void connexionAjoutee(Maison m, Generateur g) {
+    }
+
+    /**
+     * Appelée lorsqu'une maison est déconnectée de son générateur.
+     *
+     * @param m La maison déconnectée.
+     * @param g Le générateur qui l'alimentait.
+     */
+    default void connexionSupprimee(Maison m, Generateur g) {
+    }
+
+    /**
+     * Appelée lorsqu'une maison est déplacée d'un générateur à un autre.
+     *
+     * @param m       La maison déplacée.
+     * @param ancien  Le générateur d'origine.
+     * @param nouveau Le générateur de destination.
+     */
+    default void connexionModifiee(Maison m, Generateur ancien, Generateur nouveau) {
+    }
+
+    /**
+     * Appelée après une modification globale pour laquelle aucun détail n'est
+     * fourni : l'écouteur doit relire l'intégralité du réseau. C'est le cas à la
+     * fin d'un chargement, après une affectation appliquée d'un bloc par un
+     * optimiseur, et après le renommage d'une maison ou d'un générateur.
+     */
+    default void reseauReinitialise() {
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.reseau;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Écrit les points de reprise sur un thread dédié, pour que la recherche ne
+ * soit jamais bloquée par le disque.
+ *
+ * La recherche dépose chaque point dans une case unique : si l'écriture
+ * précédente n'est pas terminée, le point en attente est simplement remplacé
+ * par le plus récent. Seul le dernier point compte pour une reprise.
+ */
+final class EcrivainReprise implements AutoCloseable {
+    private final Path fichier;
+    private final AtomicReference<PointDeReprise> enAttente = new AtomicReference<>();
+    private final Thread thread;
+    private volatile boolean ferme;
+    private volatile IOException erreur;
+
+    /**
+     * Démarre le thread d'écriture.
+     *
+     * @param fichier Le fichier de reprise.
+     */
+    EcrivainReprise(Path fichier) {
+        this.fichier = fichier;
+        thread = new Thread(this::boucle, "reprise-" + fichier.getFileName());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Dépose un point de reprise sans attendre son écriture.
+     *
+     * @param point Le point de reprise.
+     */
+    void soumettre(PointDeReprise point) {
+        enAttente.set(point);
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * Attend l'écriture du dernier point déposé puis arrête le thread.
+     *
+     * @throws IOException si une écriture a échoué.
+     */
+    @Override
+    public void close() throws IOException {
+        ferme = true;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (erreur != null)
+            throw erreur;
+    }
+
+    private void boucle() {
+        while (true) {
+            PointDeReprise point = enAttente.getAndSet(null);
+            if (point != null) {
+                try {
+                    point.ecrire(fichier);
+                } catch (IOException e) {
+                    erreur = e;
+                }
+            } else if (ferme) {
+                if (enAttente.get() == null)
+                    return;
+            } else {
+                LockSupport.park(this);
+            }
+        }
+    }
+}
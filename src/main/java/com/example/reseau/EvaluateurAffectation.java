@@ -0,0 +1,86 @@
+package com.example.reseau;
+
+import java.util.Arrays;
+
+/**
+ * Évalue le coût d'affectations complètes, sans modifier le réseau.
+ *
+ * Une affectation est un tableau donnant, pour chaque maison, l'indice de son
+ * générateur. L'évaluateur possède ses tampons (charges et taux des
+ * générateurs), alloués une fois pour toutes : chaque évaluation parcourt les
+ * maisons une seule fois et n'alloue rien. Il n'est pas sûr pour les threads ;
+ * des évaluations parallèles utilisent un évaluateur par thread, les données
+ * du problème étant partagées en lecture seule.
+ *
+ * Le coût est celui de {@link Reseau#calculerCout()} :
+ * {@code dispersion + lambda * surcharge}, un générateur de capacité nulle
+ * ayant un taux nul.
+ */
+final class EvaluateurAffectation {
+    private final int[] consos;
+    private final int[] capacites;
+    private final int lambda;
+    private final int[] charges;
+    private final double[] taux;
+
+    /**
+     * @param consos    La consommation de chaque maison (non copié).
+     * @param capacites La capacité de chaque générateur (non copié).
+     * @param lambda    Le coefficient de pénalisation de la surcharge.
+     */
+    EvaluateurAffectation(int[] consos, int[] capacites, int lambda) {
+        this.consos = consos;
+        this.capacites = capacites;
+        this.lambda = lambda;
+        charges = new int[capacites.length];
+        taux = new double[capacites.length];
+    }
+
+    /**
+     * Calcule le coût d'une affectation.
+     *
+     * @param affectation Pour chaque maison, l'indice de son générateur.
+     * @return Le coût.
+     */
+    double evaluer(int[] affectation) {
+        Arrays.fill(charges, 0);
+        for (int i = 0; i < affectation.length; i++)
+            charges[affectation[i]] += consos[i];
+        return evaluerCharges(charges);
+    }
+
+    /**
+     * Calcule le coût de charges déjà connues, pour les recherches qui les
+     * tiennent à jour elles-mêmes.
+     *
+     * @param charges La charge de chaque générateur.
+     * @return Le coût.
+     */
+    double evaluerCharges(int[] charges) {
+        int nbGenerateurs = capacites.length;
+        if (nbGenerateurs == 0)
+            return 0;
+        double somme = 0;
+        for (int g = 0; g < nbGenerateurs; g++) {
+            taux[g] = capacites[g] == 0 ? 0 : (double) charges[g] / capacites[g];
+            somme += taux[g];
+        }
+        double moyenne = somme / nbGenerateurs;
+        double dispersion = 0;
+        double surcharge = 0;
+        for (int g = 0; g < nbGenerateurs; g++) {
+            dispersion += Math.abs(taux[g] - moyenne);
+            if (taux[g] > 1)
+                surcharge += taux[g] - 1;
+        }
+        return dispersion + lambda * surcharge;
+    }
+
+    /**
+     * @param g L'indice du générateur.
+     * @return Sa charge dans la dernière affectation passée à {@link #evaluer(int[])}.
+     */
+    int getCharge(int g) {
+        return charges[g];
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.reseau;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Exécution de tâches indépendantes sur un exécuteur partagé, sans créer de
+ * threads propres à chaque optimisation.
+ *
+ * Le thread appelant traite lui-même des tâches, aidé par au plus
+ * {@code nbThreads - 1} participants soumis à l'exécuteur. Les participants
+ * prennent les tâches une à une dans un compteur commun ; un participant qui ne
+ * démarre qu'une fois toutes les tâches prises s'arrête aussitôt. L'appelant
+ * n'attend donc que les tâches effectivement commencées : un exécuteur saturé,
+ * ou dont l'appelant occupe lui-même un thread, ralentit le calcul sans jamais
+ * le bloquer. Plusieurs optimisations simultanées (mode batch, ordonnanceur) se
+ * partagent ainsi les threads de l'exécuteur au lieu de les multiplier.
+ */
+final class ExecutionParallele {
+
+    /**
+     * Une tâche exécutée par un participant.
+     */
+    @FunctionalInterface
+    interface Tache {
+        /**
+         * @param participant Le numéro du participant, de 0 (le thread appelant)
+         *                    à {@code nbThreads - 1} ; deux tâches simultanées
+         *                    n'ont jamais le même numéro.
+         * @param tache       Le numéro de la tâche.
+         */
+        void executer(int participant, int tache);
+    }
+
+    private ExecutionParallele() {
+    }
+
+    /**
+     * @return L'exécuteur partagé par défaut : le pool commun de la JVM.
+     */
+    static Executor parDefaut() {
+        return ForkJoinPool.commonPool();
+    }
+
+    /**
+     * Exécute les tâches {@code [0, nbTaches)} et attend leur fin.
+     *
+     * @param executeur L'exécuteur qui fournit les participants d'appoint.
+     * @param nbThreads Le nombre maximal de participants, appelant compris.
+     * @param nbTaches  Le nombre de tâches.
+     * @param cession   Le point de cession, appelé par le thread appelant avant
+     *                  chacune de ses tâches.
+     * @param echec     Le message de l'exception levée si une tâche échoue.
+     * @param tache     La tâche.
+     * @throws IllegalStateException si une tâche lève une exception.
+     * @throws CancellationException si l'appelant est interrompu ou si le point
+     *                               de cession abandonne le calcul.
+     */
+    static void executer(Executor executeur, int nbThreads, int nbTaches, PointDeCession cession, String echec,
+            Tache tache) {
+        AtomicInteger suivante = new AtomicInteger();
+        AtomicReference<Throwable> erreur = new AtomicReference<>();
+        CountDownLatch terminees = new CountDownLatch(nbTaches);
+        int nbParticipants = Math.min(nbThreads, nbTaches);
+        for (int p = 1; p < nbParticipants; p++) {
+            int participant = p;
+            try {
+                executeur.execute(() -> participer(participant, nbTaches, suivante, erreur, terminees,
+                        PointDeCession.AUCUN, tache));
+            } catch (RejectedExecutionException e) {
+                break;
+            }
+        }
+        try {
+            participer(0, nbTaches, suivante, erreur, terminees, cession, tache);
+            terminees.await();
+        } catch (InterruptedException e) {
+            erreur.compareAndSet(null, e);
+            Thread.currentThread().interrupt();
+            throw new CancellationException(echec + " : interruption");
+        } catch (RuntimeException e) {
+            erreur.compareAndSet(null, e);
+            throw e;
+        }
+        if (erreur.get() != null)
+            throw new IllegalStateException(echec, erreur.get());
+    }
+
+    /**
+     * Prend et exécute des tâches jusqu'à ce qu'il n'en reste plus. Après un
+     * échec, les tâches restantes sont comptées sans être exécutées ; un
+     * abandon au point de cession remonte à l'appelant.
+     */
+    private static void participer(int participant, int nbTaches, AtomicInteger suivante,
+            AtomicReference<Throwable> erreur, CountDownLatch terminees, PointDeCession cession, Tache tache) {
+        for (int t = suivante.getAndIncrement(); t < nbTaches; t = suivante.getAndIncrement()) {
+            try {
+                if (erreur.get() == null)
+                    cession.ceder();
+            } catch (RuntimeException e) {
+                terminees.countDown();
+                throw e;
+            }
+            try {
+                if (erreur.get() == null)
+                    tache.executer(participant, t);
+            } catch (Throwable e) {
+                erreur.compareAndSet(null, e);
+            }
+            terminees.countDown();
+        }
+    }
+}
@@ -1,11 +1,19 @@
 package com.example.reseau;
 
+import java.util.Arrays;
+import java.util.Objects;
+
 /**
  * Représente un générateur d'électricité dans le réseau.
  * Chaque générateur est défini par un nom unique (insensible à la casse) et une capacité de production.
  */
 public class Generateur {
+    private static final IndexParCle[] SANS_INDEX = {};
+
     private String nom;
+    private String cle;
+    private int hash;
+    private IndexParCle[] index = SANS_INDEX;
     private int capacite;
 
     /**
@@ -17,7 +25,7 @@ public class Generateur {
     public Generateur(String nom, int capacite) {
         if (capacite <= 0)
             throw new IllegalArgumentException("  La capacité doit être positive !");
-        this.nom = nom;
+        nommer(nom);
         this.capacite = capacite;
     }
 
@@ -32,11 +40,56 @@ public class Generateur {
 
     /**
      * Met à jour le nom du générateur.
+     * Les index qui contiennent le générateur (un {@link Reseau}, par exemple) sont
+     * tenus à jour.
      *
      * @param nom Le nouveau nom.
+     * @throws IllegalArgumentException si le nom est déjà pris dans l'un de ces index.
+     * @throws IllegalStateException    si l'un d'eux interdit tout renommage (un
+     *                                  {@link ReseauConcurrent}).
      */
     public void setNom(String nom) {
+        String nouvelleCle = IndexParCle.cle(nom);
+        for (IndexParCle i : index)
+            i.verifierCle(this, nouvelleCle);
+        for (IndexParCle i : index)
+            i.retirerCle(this);
+        nommer(nom);
+        for (IndexParCle i : index)
+            i.ajouterCle(this);
+    }
+
+    /**
+     * @return La clé canonique du nom (en minuscules), calculée une fois pour
+     *         toutes à chaque changement de nom.
+     */
+    public String getCle() {
+        return cle;
+    }
+
+    private void nommer(String nom) {
         this.nom = nom;
+        cle = IndexParCle.cle(nom);
+        hash = cle == null ? 0 : cle.hashCode();
+    }
+
+    /**
+     * Inscrit un index à prévenir des renommages ; sans effet s'il l'est déjà.
+     * Les inscriptions d'index disparus sont oubliées au passage.
+     *
+     * @param i L'index.
+     */
+    void inscrire(IndexParCle i) {
+        IndexParCle[] inscrits = new IndexParCle[index.length + 1];
+        int n = 0;
+        for (IndexParCle existant : index) {
+            if (existant == i)
+                return;
+            if (!existant.estOublie())
+                inscrits[n++] = existant;
+        }
+        inscrits[n++] = i;
+        index = n == inscrits.length ? inscrits : Arrays.copyOf(inscrits, n);
     }
 
     /**
@@ -62,13 +115,13 @@ public class Generateur {
     }
 
     /**
-     * Calcule le hash code basé sur le nom du générateur (insensible à la casse).
+     * Retourne le hash code, précalculé, basé sur le nom du générateur (insensible à la casse).
      *
      * @return Le hash code de l'objet.
      */
     @Override
     public int hashCode() {
-        return nom == null ? 0 : nom.toLowerCase().hashCode();
+        return hash;
     }
 
     /**
@@ -85,7 +138,7 @@ public class Generateur {
         if (obj == null || getClass() != obj.getClass())
             return false;
         Generateur generateur = (Generateur) obj;
-        return nom.equalsIgnoreCase(generateur.nom);
+        return hash == generateur.hash && Objects.equals(cle, generateur.cle);
     }
 
     /**
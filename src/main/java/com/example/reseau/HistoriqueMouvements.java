@@ -0,0 +1,214 @@
+package com.example.reseau;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Historique borné des mouvements de maisons effectués sur un {@link Reseau},
+ * utilisé pour annuler et rétablir des modifications de connexions.
+ *
+ * Chaque entrée ne contient que la maison et ses générateurs de départ et
+ * d'arrivée, jamais une copie du réseau : annuler k mouvements coûte O(k).
+ * Lorsque la capacité est atteinte, les mouvements les plus anciens sont
+ * oubliés.
+ *
+ * Des repères peuvent être intercalés entre les mouvements, par exemple avant
+ * une optimisation, pour l'annuler d'un bloc avec
+ * {@link Reseau#annulerJusquAuRepere()}. Les repères suivent les mouvements
+ * lors des annulations et des rétablissements, et ne comptent pas dans la
+ * capacité.
+ */
+public class HistoriqueMouvements {
+
+    /**
+     * Déplacement élémentaire d'une maison.
+     *
+     * @param maison  La maison déplacée.
+     * @param depuis  Le générateur d'origine, ou {@code null} si la maison était
+     *                non connectée.
+     * @param vers    Le générateur de destination, ou {@code null} si la maison a
+     *                été déconnectée.
+     */
+    public record Mouvement(Maison maison, Generateur depuis, Generateur vers) {
+
+        /**
+         * @return Le mouvement inverse, qui annule celui-ci.
+         */
+        public Mouvement inverse() {
+            return new Mouvement(maison, vers, depuis);
+        }
+    }
+
+    private static final Mouvement REPERE = new Mouvement(null, null, null);
+
+    private final Deque<Mouvement> annulables = new ArrayDeque<>();
+    private final Deque<Mouvement> retablissables = new ArrayDeque<>();
+    private int reperesAnnulables;
+    private int reperesRetablissables;
+    private boolean repereOublie;
+    private int capacite;
+
+    /**
+     * Construit un historique vide.
+     *
+     * @param capacite Le nombre maximal de mouvements conservés (positif).
+     */
+    public HistoriqueMouvements(int capacite) {
+        setCapacite(capacite);
+    }
+
+    /**
+     * @return Le nombre maximal de mouvements conservés.
+     */
+    public int getCapacite() {
+        return capacite;
+    }
+
+    /**
+     * Modifie le nombre maximal de mouvements conservés ; les plus anciens sont
+     * oubliés si nécessaire.
+     *
+     * @param capacite La nouvelle capacité (positive).
+     */
+    public void setCapacite(int capacite) {
+        if (capacite <= 0)
+            throw new IllegalArgumentException("La capacité de l'historique doit être positive !");
+        this.capacite = capacite;
+        tronquerAnnulables();
+        while (retablissables.size() - reperesRetablissables > capacite) {
+            if (retablissables.removeLast() == REPERE)
+                reperesRetablissables--;
+        }
+    }
+
+    /**
+     * Oublie les mouvements annulables les plus anciens au-delà de la capacité.
+     */
+    private void tronquerAnnulables() {
+        while (annulables.size() - reperesAnnulables > capacite) {
+            if (annulables.removeFirst() == REPERE) {
+                reperesAnnulables--;
+                repereOublie = true;
+            }
+        }
+    }
+
+    /**
+     * Enregistre un nouveau mouvement. Les mouvements annulés qui pouvaient
+     * encore être rétablis sont oubliés.
+     *
+     * @param mouvement Le mouvement effectué.
+     */
+    void enregistrer(Mouvement mouvement) {
+        annulables.addLast(mouvement);
+        tronquerAnnulables();
+        retablissables.clear();
+        reperesRetablissables = 0;
+    }
+
+    /**
+     * Pose un repère après le dernier mouvement enregistré, par exemple juste
+     * avant une optimisation. Sans effet si le dernier élément est déjà un
+     * repère.
+     */
+    public void poserRepere() {
+        if (annulables.peekLast() != REPERE) {
+            annulables.addLast(REPERE);
+            reperesAnnulables++;
+        }
+    }
+
+    /**
+     * @return {@code true} si {@link Reseau#annulerJusquAuRepere()} a des
+     *         mouvements à annuler : un repère est annulable, ou le plus ancien a
+     *         été oublié faute de capacité et des mouvements le suivaient.
+     */
+    public boolean hasRepere() {
+        return reperesAnnulables > 0 || (repereOublie && getNombreAnnulables() > 0);
+    }
+
+    /**
+     * Retire le dernier élément annulable, mouvement ou repère, et le rend
+     * rétablissable.
+     *
+     * @return Le mouvement à annuler, le repère, ou {@code null} s'il n'y a plus
+     *         rien.
+     */
+    private Mouvement depilerElement() {
+        Mouvement m = annulables.pollLast();
+        if (m == REPERE) {
+            reperesAnnulables--;
+            reperesRetablissables++;
+        }
+        if (m != null)
+            retablissables.addLast(m);
+        return m;
+    }
+
+    /**
+     * Retire le dernier mouvement annulable jusqu'au repère le plus récent, et le
+     * rend rétablissable ; le repère est alors lui aussi rendu rétablissable.
+     *
+     * @return Le mouvement à annuler, ou {@code null} si le repère est atteint ou
+     *         s'il n'y a plus de mouvement.
+     */
+    Mouvement depilerAnnulationJusquAuRepere() {
+        Mouvement m = depilerElement();
+        return m == REPERE ? null : m;
+    }
+
+    /**
+     * Retire le dernier mouvement annulable et le rend rétablissable.
+     *
+     * @return Le mouvement à annuler, ou {@code null} s'il n'y en a pas.
+     */
+    Mouvement depilerAnnulation() {
+        Mouvement m = depilerElement();
+        while (m == REPERE)
+            m = depilerElement();
+        return m;
+    }
+
+    /**
+     * Retire le dernier mouvement annulé et le rend de nouveau annulable.
+     *
+     * @return Le mouvement à rétablir, ou {@code null} s'il n'y en a pas.
+     */
+    Mouvement depilerRetablissement() {
+        Mouvement m = retablissables.pollLast();
+        while (m == REPERE) {
+            reperesRetablissables--;
+            reperesAnnulables++;
+            annulables.addLast(m);
+            m = retablissables.pollLast();
+        }
+        if (m != null)
+            annulables.addLast(m);
+        return m;
+    }
+
+    /**
+     * @return Le nombre de mouvements pouvant être annulés.
+     */
+    public int getNombreAnnulables() {
+        return annulables.size() - reperesAnnulables;
+    }
+
+    /**
+     * @return Le nombre de mouvements pouvant être rétablis.
+     */
+    public int getNombreRetablissables() {
+        return retablissables.size() - reperesRetablissables;
+    }
+
+    /**
+     * Oublie tous les mouvements.
+     */
+    public void vider() {
+        annulables.clear();
+        retablissables.clear();
+        reperesAnnulables = 0;
+        reperesRetablissables = 0;
+        repereOublie = false;
+    }
+}
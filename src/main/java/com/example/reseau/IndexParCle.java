@@ -0,0 +1,99 @@
+package com.example.reseau;
+
+import java.lang.ref.WeakReference;
+import java.util.Locale;
+
+/**
+ * Index qui retrouvent des maisons ou des générateurs par leur clé canonique
+ * (le nom en minuscules), ou qui les rangent dans des tables de hachage.
+ *
+ * Une entité renommée par {@code setNom} prévient chacun des index où elle est
+ * inscrite : tous vérifient d'abord que la nouvelle clé est libre, puis
+ * retirent l'entité sous son ancienne clé, et la réindexent une fois le nom
+ * changé. Les index restent ainsi cohérents, tandis que {@code equals} et
+ * {@code hashCode} se contentent de comparer des clés précalculées.
+ *
+ * Une entité peut survivre aux index où elle est inscrite (une maison partagée
+ * entre plusieurs réseaux, par exemple) : un index s'inscrit donc par
+ * {@link #faible(IndexParCle)}, pour que l'entité ne le retienne pas. Les
+ * inscriptions d'index disparus sont oubliées à l'inscription suivante.
+ */
+interface IndexParCle {
+    /**
+     * @param nom Un nom de maison ou de générateur.
+     * @return Sa clé canonique, insensible à la casse, ou {@code null} pour un
+     *         nom {@code null}.
+     */
+    static String cle(String nom) {
+        return nom == null ? null : nom.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @param cible L'index à inscrire ; l'appelant doit le retenir aussi
+     *              longtemps qu'il doit être prévenu des renommages.
+     * @return Un index qui transmet les renommages à {@code cible} tant qu'elle
+     *         existe, sans la retenir, puis les ignore.
+     */
+    static IndexParCle faible(IndexParCle cible) {
+        WeakReference<IndexParCle> reference = new WeakReference<>(cible);
+        return new IndexParCle() {
+            @Override
+            public void verifierCle(Object entite, String nouvelleCle) {
+                IndexParCle i = reference.get();
+                if (i != null)
+                    i.verifierCle(entite, nouvelleCle);
+            }
+
+            @Override
+            public void retirerCle(Object entite) {
+                IndexParCle i = reference.get();
+                if (i != null)
+                    i.retirerCle(entite);
+            }
+
+            @Override
+            public void ajouterCle(Object entite) {
+                IndexParCle i = reference.get();
+                if (i != null)
+                    i.ajouterCle(entite);
+            }
+
+            @Override
+            public boolean estOublie() {
+                return reference.get() == null;
+            }
+        };
+    }
+
+    /**
+     * @return {@code true} si l'index a disparu et que son inscription peut être
+     *         oubliée.
+     */
+    default boolean estOublie() {
+        return false;
+    }
+
+    /**
+     * Refuse un renommage qui rendrait l'index incohérent.
+     *
+     * @param entite      La maison ou le générateur renommé.
+     * @param nouvelleCle Sa future clé.
+     * @throws IllegalArgumentException si la clé désigne déjà une autre entité.
+     * @throws IllegalStateException    si l'index interdit tout renommage.
+     */
+    void verifierCle(Object entite, String nouvelleCle);
+
+    /**
+     * Retire l'entité des structures indexées par sa clé, avant le renommage.
+     *
+     * @param entite La maison ou le générateur, encore sous son ancien nom.
+     */
+    void retirerCle(Object entite);
+
+    /**
+     * Réindexe l'entité après le renommage.
+     *
+     * @param entite La maison ou le générateur, sous son nouveau nom.
+     */
+    void ajouterCle(Object entite);
+}
@@ -0,0 +1,272 @@
+package com.example.reseau;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Vue immuable et cohérente d'un {@link Reseau} à un instant donné.
+ * Un instantané peut être parcouru par n'importe quel thread pendant que le
+ * réseau d'origine continue d'être modifié.
+ *
+ * Les générateurs sont rangés par blocs de taille fixe : un nouvel instantané
+ * partage avec le précédent tous les blocs dont aucun générateur n'a changé, et
+ * ne recopie que la liste des maisons des générateurs modifiés.
+ *
+ * Le nom, la charge et la capacité de chaque générateur, ainsi que le nom et le
+ * type de consommation de chaque maison, sont figés au moment de la capture ;
+ * les objets {@link Maison} et {@link Generateur} eux-mêmes sont partagés avec
+ * le réseau et peuvent refléter des modifications ultérieures, renommages
+ * compris.
+ */
+public final class InstantaneReseau {
+    static final int TAILLE_BLOC = 64;
+
+    /**
+     * État figé d'un générateur : son nom, ses maisons avec leurs noms et leurs
+     * types de consommation, sa charge et sa capacité.
+     */
+    static final class Entree {
+        final Generateur generateur;
+        final String nom;
+        final List<Maison> maisons;
+        final String[] noms;
+        final TypeConso[] types;
+        final int charge;
+        final int capacite;
+
+        Entree(Generateur generateur, List<Maison> maisons, int charge, int capacite) {
+            this.generateur = generateur;
+            this.nom = generateur.getNom();
+            this.maisons = maisons;
+            this.noms = noms(maisons);
+            this.types = types(maisons);
+            this.charge = charge;
+            this.capacite = capacite;
+        }
+    }
+
+    /**
+     * @return Les noms actuels des maisons, dans leur ordre.
+     */
+    static String[] noms(List<Maison> maisons) {
+        String[] noms = new String[maisons.size()];
+        for (int i = 0; i < noms.length; i++)
+            noms[i] = maisons.get(i).getNom();
+        return noms;
+    }
+
+    /**
+     * @return Les types de consommation actuels des maisons, dans leur ordre.
+     */
+    static TypeConso[] types(List<Maison> maisons) {
+        TypeConso[] types = new TypeConso[maisons.size()];
+        for (int i = 0; i < types.length; i++)
+            types[i] = maisons.get(i).getTypeConso();
+        return types;
+    }
+
+    final Entree[][] blocs;
+    private final int nbGenerateurs;
+    private final List<Maison> maisonsNonConnectees;
+    final String[] nomsNonConnectees;
+    final TypeConso[] typesNonConnectees;
+    private final int lambda;
+    private final int capaciteTotale;
+    private final int consommationTotale;
+    private volatile Map<Generateur, List<Maison>> vueConnexions;
+
+    InstantaneReseau(Entree[][] blocs, int nbGenerateurs, List<Maison> maisonsNonConnectees,
+            String[] nomsNonConnectees, TypeConso[] typesNonConnectees, int lambda, int capaciteTotale,
+            int consommationTotale) {
+        this.blocs = blocs;
+        this.nbGenerateurs = nbGenerateurs;
+        this.maisonsNonConnectees = maisonsNonConnectees;
+        this.nomsNonConnectees = nomsNonConnectees;
+        this.typesNonConnectees = typesNonConnectees;
+        this.lambda = lambda;
+        this.capaciteTotale = capaciteTotale;
+        this.consommationTotale = consommationTotale;
+    }
+
+    Entree entree(int i) {
+        return blocs[i / TAILLE_BLOC][i % TAILLE_BLOC];
+    }
+
+    /**
+     * @return Le nombre de générateurs de l'instantané.
+     */
+    public int getNombreGenerateurs() {
+        return nbGenerateurs;
+    }
+
+    /**
+     * @return Les connexions figées, dans l'ordre d'insertion des générateurs.
+     *         La carte et ses listes ne sont pas modifiables.
+     */
+    public Map<Generateur, List<Maison>> getConnexions() {
+        Map<Generateur, List<Maison>> vue = vueConnexions;
+        if (vue == null) {
+            Map<Generateur, List<Maison>> carte = new LinkedHashMap<>();
+            for (int i = 0; i < nbGenerateurs; i++) {
+                Entree e = entree(i);
+                carte.put(e.generateur, e.maisons);
+            }
+            vue = Collections.unmodifiableMap(carte);
+            vueConnexions = vue;
+        }
+        return vue;
+    }
+
+    /**
+     * @return La liste figée des maisons non connectées.
+     */
+    public List<Maison> getMaisonsNonConnectees() {
+        return maisonsNonConnectees;
+    }
+
+    /**
+     * @return Les générateurs de l'instantané, dans l'ordre d'insertion.
+     */
+    public List<Generateur> getGenerateurs() {
+        List<Generateur> liste = new ArrayList<>(nbGenerateurs);
+        for (int i = 0; i < nbGenerateurs; i++) {
+            liste.add(entree(i).generateur);
+        }
+        return liste;
+    }
+
+    /**
+     * @param g Un générateur de l'instantané.
+     * @return Les types de consommation figés de ses maisons, dans l'ordre de
+     *         {@link #getConnexions()}, ou une liste vide si le générateur est
+     *         absent.
+     */
+    public List<TypeConso> getTypesConso(Generateur g) {
+        for (int i = 0; i < nbGenerateurs; i++) {
+            Entree e = entree(i);
+            if (e.generateur.equals(g))
+                return List.of(e.types);
+        }
+        return List.of();
+    }
+
+    /**
+     * @return Les types de consommation figés des maisons non connectées, dans
+     *         l'ordre de {@link #getMaisonsNonConnectees()}.
+     */
+    public List<TypeConso> getTypesNonConnectees() {
+        return List.of(typesNonConnectees);
+    }
+
+    /**
+     * @return Le facteur lambda au moment de la capture.
+     */
+    public int getLambda() {
+        return lambda;
+    }
+
+    /**
+     * @return La capacité totale au moment de la capture, en kW.
+     */
+    public int getCapaciteTotale() {
+        return capaciteTotale;
+    }
+
+    /**
+     * @return La consommation totale au moment de la capture, en kW.
+     */
+    public int getConsommationTotale() {
+        return consommationTotale;
+    }
+
+    /**
+     * @return {@code true} si toutes les maisons étaient connectées.
+     */
+    public boolean isValide() {
+        return maisonsNonConnectees.isEmpty();
+    }
+
+    /**
+     * Calcule le taux d'utilisation figé d'un générateur.
+     *
+     * @param g Le générateur.
+     * @return Le taux d'utilisation, ou 0 si le générateur est absent.
+     */
+    public double getTauxUtilisation(Generateur g) {
+        for (int i = 0; i < nbGenerateurs; i++) {
+            Entree e = entree(i);
+            if (e.generateur.equals(g))
+                return (double) e.charge / e.capacite;
+        }
+        return 0;
+    }
+
+    /**
+     * @return Les taux d'utilisation figés de tous les générateurs, dans l'ordre
+     *         de {@link #getGenerateurs()}.
+     */
+    public double[] getTauxUtilisations() {
+        double[] taux = new double[nbGenerateurs];
+        for (int i = 0; i < nbGenerateurs; i++) {
+            Entree e = entree(i);
+            taux[i] = (double) e.charge / e.capacite;
+        }
+        return taux;
+    }
+
+    /**
+     * @return Les capacités figées de tous les générateurs, dans l'ordre de
+     *         {@link #getGenerateurs()}.
+     */
+    public int[] getCapacites() {
+        int[] capacites = new int[nbGenerateurs];
+        for (int i = 0; i < nbGenerateurs; i++) {
+            capacites[i] = entree(i).capacite;
+        }
+        return capacites;
+    }
+
+    /**
+     * @return La dispersion des taux d'utilisation figés.
+     */
+    public double dispersion() {
+        if (nbGenerateurs == 0)
+            return 0;
+
+        double somme = 0;
+        for (int i = 0; i < nbGenerateurs; i++) {
+            Entree e = entree(i);
+            somme += (double) e.charge / e.capacite;
+        }
+        double moyenne = somme / nbGenerateurs;
+
+        double dispersion = 0;
+        for (int i = 0; i < nbGenerateurs; i++) {
+            Entree e = entree(i);
+            dispersion += Math.abs((double) e.charge / e.capacite - moyenne);
+        }
+        return dispersion;
+    }
+
+    /**
+     * @return La surcharge figée du réseau.
+     */
+    public double surcharge() {
+        double surcharge = 0;
+        for (int i = 0; i < nbGenerateurs; i++) {
+            Entree e = entree(i);
+            surcharge += Math.max(0, (double) (e.charge - e.capacite) / e.capacite);
+        }
+        return surcharge;
+    }
+
+    /**
+     * @return Le coût figé du réseau : {@code dispersion + lambda * surcharge}.
+     */
+    public double calculerCout() {
+        return dispersion() + lambda * surcharge();
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.reseau;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Lecture du format texte des réseaux : les générateurs, puis les maisons,
+ * puis les connexions, une déclaration terminée par un point par ligne.
+ *
+ * Le lecteur vérifie la syntaxe et l'ordre des sections, puis transmet chaque
+ * déclaration à une {@link Destination} ; {@link Reseau} et
+ * {@link ReseauCompact} partagent ainsi le même analyseur et les mêmes
+ * messages d'erreur. Toute exception levée par la destination est reprise en
+ * {@link IllegalArgumentException} préfixée du numéro de ligne.
+ */
+final class LecteurReseau {
+
+    /**
+     * Ce qui reçoit les déclarations lues, dans l'ordre du fichier.
+     */
+    interface Destination {
+        /**
+         * @param nom      Le nom du générateur.
+         * @param capacite Sa capacité.
+         */
+        void generateur(String nom, int capacite);
+
+        /**
+         * @param nom  Le nom de la maison.
+         * @param type Son type de consommation.
+         */
+        void maison(String nom, TypeConso type);
+
+        /**
+         * @param a Le premier nom de la connexion : la maison ou le générateur.
+         * @param b Le second nom, l'autre extrémité.
+         * @throws IllegalArgumentException si la connexion est impossible.
+         */
+        void connexion(String a, String b);
+    }
+
+    private LecteurReseau() {
+    }
+
+    /**
+     * Lit le flux jusqu'au bout. Le flux n'est pas fermé par cette méthode.
+     *
+     * @param source      Le flux à lire.
+     * @param destination Ce qui reçoit les déclarations.
+     * @throws IOException              en cas d'erreur de lecture.
+     * @throws IllegalArgumentException si une ligne est invalide ou refusée par
+     *                                  la destination.
+     */
+    static void lire(Reader source, Destination destination) throws IOException {
+        BufferedReader br = source instanceof BufferedReader ? (BufferedReader) source : new BufferedReader(source);
+
+        String ligne;
+        int etape = 0;
+        int numeroLigne = 0;
+
+        while ((ligne = br.readLine()) != null) {
+            numeroLigne++;
+            ligne = ligne.trim();
+
+            if (ligne.isEmpty())
+                continue;
+
+            if (!ligne.endsWith(".")) {
+                throw new IllegalArgumentException(
+                        "ligne " + numeroLigne + ") : ligne sans point final -> " + ligne);
+            }
+
+            ligne = ligne.substring(0, ligne.length() - 1);
+            String debut = ligne.toLowerCase();
+
+            if (debut.startsWith("generateur(")) {
+                if (etape > 0)
+                    throw new IllegalArgumentException("ligne " + numeroLigne +
+                            ") : générateur après les maisons -> " + ligne);
+            } else if (debut.startsWith("maison(")) {
+                if (etape > 1)
+                    throw new IllegalArgumentException("ligne " + numeroLigne +
+                            ") : maison après les connexions -> " + ligne);
+                etape = 1;
+            } else if (debut.startsWith("connexion(")) {
+                etape = 2;
+            } else {
+                throw new IllegalArgumentException(
+                        "ligne " + numeroLigne + ") : syntaxe inconnue -> " + ligne);
+            }
+
+            try {
+                if (etape == 0)
+                    lireGenerateur(ligne, destination);
+                else if (etape == 1)
+                    lireMaison(ligne, destination);
+                else
+                    lireConnexion(ligne, destination);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException(
+                        "ligne " + numeroLigne + ") : " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Analyse "generateur(nom,capacité)".
+     *
+     * @throws IllegalArgumentException si le format est invalide ou si la capacité
+     *                                  n'est pas un nombre.
+     */
+    private static void lireGenerateur(String ligne, Destination destination) {
+        ligne = ligne.substring("generateur(".length(), ligne.length() - 1);
+        String[] parts = ligne.split(",");
+
+        if (parts.length != 2) {
+            throw new IllegalArgumentException(
+                    "Format générateur invalide, attendu : generateur(nom,capacité) -> " + ligne);
+        }
+
+        int capacite;
+        try {
+            capacite = Integer.parseInt(parts[1].trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(
+                    "La capacité du générateur doit être un nombre entier. Valeur reçue : '" + parts[1].trim() + "'");
+        }
+
+        destination.generateur(parts[0].trim(), capacite);
+    }
+
+    /**
+     * Analyse "maison(nom,TYPE_CONSO)".
+     *
+     * @throws IllegalArgumentException si le format est invalide ou si le type de
+     *                                  consommation est inconnu.
+     */
+    private static void lireMaison(String ligne, Destination destination) {
+        ligne = ligne.substring("maison(".length(), ligne.length() - 1);
+        String[] parts = ligne.split(",");
+
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Format maison invalide : " + ligne);
+        }
+
+        String type = parts[1].trim().toUpperCase();
+        TypeConso conso;
+        try {
+            conso = TypeConso.valueOf(type);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Type de consommation inconnu : " + type);
+        }
+
+        destination.maison(parts[0].trim(), conso);
+    }
+
+    /**
+     * Analyse "connexion(nomMaison,nomGenerateur)", les deux noms pouvant être
+     * dans l'un ou l'autre ordre.
+     *
+     * @throws IllegalArgumentException si le format est invalide.
+     */
+    private static void lireConnexion(String ligne, Destination destination) {
+        ligne = ligne.substring("connexion(".length(), ligne.length() - 1);
+        String[] parts = ligne.split(",");
+
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Format connexion invalide : " + ligne);
+        }
+
+        destination.connexion(parts[0].trim(), parts[1].trim());
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.reseau;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Liste sans doublons dont le test d'appartenance et la suppression d'un
+ * élément se font en O(1) : chaque élément connaît sa position, et le dernier
+ * élément vient combler la place laissée par un élément retiré.
+ *
+ * L'ordre d'itération reste l'ordre d'insertion tant que rien n'est retiré ;
+ * une suppression ne déplace que le dernier élément. Le format de sauvegarde
+ * n'impose aucun ordre entre les maisons d'un même générateur, ce qui permet
+ * d'utiliser cette liste pour les connexions et les maisons non connectées.
+ *
+ * Les positions sont rangées par {@code hashCode} : si celui d'un élément
+ * change (une maison renommée), l'élément doit être détaché par
+ * {@link #detacher(Object)} avant le changement, puis rattaché par
+ * {@link #rattacher(int)} après.
+ *
+ * @param <E> Le type des éléments.
+ */
+final class ListeIndexee<E> extends AbstractList<E> implements RandomAccess {
+    private final List<E> elements = new ArrayList<>();
+    private final Map<E, Integer> positions = new HashMap<>();
+
+    @Override
+    public E get(int index) {
+        return elements.get(index);
+    }
+
+    @Override
+    public int size() {
+        return elements.size();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return positions.containsKey(o);
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        Integer p = positions.get(o);
+        return p == null ? -1 : p;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return indexOf(o);
+    }
+
+    /**
+     * Ajoute un élément en fin de liste.
+     *
+     * @throws IllegalArgumentException si l'élément est déjà présent.
+     */
+    @Override
+    public boolean add(E e) {
+        if (positions.putIfAbsent(e, elements.size()) != null)
+            throw new IllegalArgumentException(e + " est déjà dans la liste.");
+        elements.add(e);
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Seul l'ajout en fin de liste est possible.
+     *
+     * @throws UnsupportedOperationException pour toute autre position.
+     */
+    @Override
+    public void add(int index, E e) {
+        if (index != elements.size())
+            throw new UnsupportedOperationException("Insertion possible seulement en fin de liste.");
+        add(e);
+    }
+
+    /**
+     * Retire l'élément d'une position ; le dernier élément prend sa place.
+     */
+    @Override
+    public E remove(int index) {
+        E retire = elements.get(index);
+        int dernier = elements.size() - 1;
+        E fin = elements.remove(dernier);
+        positions.remove(retire);
+        if (index != dernier) {
+            elements.set(index, fin);
+            positions.put(fin, index);
+        }
+        modCount++;
+        return retire;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        Integer p = positions.get(o);
+        if (p == null)
+            return false;
+        remove((int) p);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        elements.clear();
+        positions.clear();
+        modCount++;
+    }
+
+    /**
+     * Retire un élément de la table des positions, avant un changement de son
+     * {@code hashCode} ; il reste dans la liste, à la même place.
+     *
+     * @param e L'élément, présent dans la liste.
+     * @return Sa position, à passer à {@link #rattacher(int)}.
+     */
+    int detacher(Object e) {
+        return positions.remove(e);
+    }
+
+    /**
+     * Range de nouveau dans la table des positions, sous son nouveau
+     * {@code hashCode}, l'élément détaché par {@link #detacher(Object)}.
+     *
+     * @param position Sa position.
+     */
+    void rattacher(int position) {
+        positions.put(elements.get(position), position);
+    }
+}
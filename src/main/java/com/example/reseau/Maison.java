@@ -1,11 +1,19 @@
 package com.example.reseau;
 
+import java.util.Arrays;
+import java.util.Objects;
+
 /**
  * Représente une maison dans le réseau électrique.
  * Chaque maison est définie par un nom unique (insensible à la casse) et un type de consommation.
  */
 public class Maison {
+    private static final IndexParCle[] SANS_INDEX = {};
+
     private String nom;
+    private String cle;
+    private int hash;
+    private IndexParCle[] index = SANS_INDEX;
     private TypeConso typeConso;
 
     /**
@@ -15,7 +23,7 @@ public class Maison {
      * @param typeConso Le type de consommation (BASSE, NORMAL, FORTE).
      */
     public Maison(String nom, TypeConso typeConso) {
-        this.nom = nom;
+        nommer(nom);
         this.typeConso = typeConso;
     }
 
@@ -30,11 +38,56 @@ public class Maison {
 
     /**
      * Met à jour le nom de la maison.
+     * Les index qui contiennent la maison (un {@link Reseau}, par exemple) sont
+     * tenus à jour.
      *
      * @param nom Le nouveau nom de la maison.
+     * @throws IllegalArgumentException si le nom est déjà pris dans l'un de ces index.
+     * @throws IllegalStateException    si l'un d'eux interdit tout renommage (un
+     *                                  {@link ReseauConcurrent}).
      */
     public void setNom(String nom) {
+        String nouvelleCle = IndexParCle.cle(nom);
+        for (IndexParCle i : index)
+            i.verifierCle(this, nouvelleCle);
+        for (IndexParCle i : index)
+            i.retirerCle(this);
+        nommer(nom);
+        for (IndexParCle i : index)
+            i.ajouterCle(this);
+    }
+
+    /**
+     * @return La clé canonique du nom (en minuscules), calculée une fois pour
+     *         toutes à chaque changement de nom.
+     */
+    public String getCle() {
+        return cle;
+    }
+
+    private void nommer(String nom) {
         this.nom = nom;
+        cle = IndexParCle.cle(nom);
+        hash = cle == null ? 0 : cle.hashCode();
+    }
+
+    /**
+     * Inscrit un index à prévenir des renommages ; sans effet s'il l'est déjà.
+     * Les inscriptions d'index disparus sont oubliées au passage.
+     *
+     * @param i L'index.
+     */
+    void inscrire(IndexParCle i) {
+        IndexParCle[] inscrits = new IndexParCle[index.length + 1];
+        int n = 0;
+        for (IndexParCle existant : index) {
+            if (existant == i)
+                return;
+            if (!existant.estOublie())
+                inscrits[n++] = existant;
+        }
+        inscrits[n++] = i;
+        index = n == inscrits.length ? inscrits : Arrays.copyOf(inscrits, n);
     }
 
     /**
@@ -70,7 +123,7 @@ public class Maison {
         if (obj == null || getClass() != obj.getClass())
             return false;
         Maison maison = (Maison) obj;
-        return nom.equalsIgnoreCase(maison.nom);
+        return hash == maison.hash && Objects.equals(cle, maison.cle);
     }
 
     /**
@@ -91,13 +144,13 @@ public class Maison {
     }
 
     /**
-     * Calcule le hash code basé sur le nom de la maison (insensible à la casse).
+     * Retourne le hash code, précalculé, basé sur le nom de la maison (insensible à la casse).
      *
      * @return Le hash code de l'objet.
      */
     @Override
     public int hashCode() {
-        return nom == null ? 0 : nom.toLowerCase().hashCode();
+        return hash;
     }
 
 }
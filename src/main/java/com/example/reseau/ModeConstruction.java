@@ -0,0 +1,22 @@
+package com.example.reseau;
+
+/**
+ * Stratégie de construction de la solution initiale de
+ * {@link Reseau#algoOptimise(Reseau, ModeConstruction)}.
+ */
+public enum ModeConstruction {
+    /**
+     * Chaque maison est essayée sur chaque générateur et le coût complet de
+     * chaque essai est recalculé. Le plus précis, mais en O(M·G·(M+G)).
+     */
+    EXHAUSTIF,
+
+    /**
+     * Les générateurs sont rangés dans un tas par taux d'utilisation résultant,
+     * un tas par type de consommation : chaque maison est placée en O(log G) sur
+     * le générateur le moins utilisé après ajout, en respectant d'abord les
+     * capacités. La recherche locale n'essaie ensuite, pour chaque maison, que ce
+     * même générateur.
+     */
+    TAS
+}
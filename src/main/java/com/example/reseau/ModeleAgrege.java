@@ -0,0 +1,301 @@
+package com.example.reseau;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Représentation agrégée d'une affectation : pour chaque générateur, le nombre
+ * de maisons de chaque {@link TypeConso} qu'il alimente.
+ *
+ * Deux maisons de même type sont interchangeables pour le coût : la charge
+ * d'un générateur vaut {@code 10·a + 20·b + 40·c}. Le modèle n'occupe donc que
+ * trois compteurs par générateur, quel que soit le nombre de maisons, et les
+ * optimiseurs y déplacent des unités de compte plutôt que des maisons.
+ * {@link Reseau#algoAgrege(Reseau)} reporte ensuite les compteurs sur des
+ * connexions concrètes en déplaçant le moins de maisons possible.
+ */
+public class ModeleAgrege {
+    private static final TypeConso[] TYPES = TypeConso.values();
+
+    private final Generateur[] generateurs;
+    private final int[] capacites;
+    private final int[][] comptes;
+    private final int[] charges;
+    private final int[] totaux = new int[TYPES.length];
+    private final int lambda;
+
+    /**
+     * Construit le modèle agrégé de l'affectation actuelle d'un réseau. Les
+     * maisons non connectées sont ignorées.
+     *
+     * @param reseau Le réseau.
+     */
+    public ModeleAgrege(Reseau reseau) {
+        Map<Generateur, List<Maison>> connexions = reseau.getConnexions();
+        int nbGenerateurs = connexions.size();
+        generateurs = connexions.keySet().toArray(new Generateur[0]);
+        capacites = new int[nbGenerateurs];
+        comptes = new int[nbGenerateurs][TYPES.length];
+        charges = new int[nbGenerateurs];
+        lambda = reseau.getLambda();
+
+        for (int g = 0; g < nbGenerateurs; g++) {
+            capacites[g] = generateurs[g].getCapacite();
+            for (Maison m : connexions.get(generateurs[g])) {
+                TypeConso t = m.getTypeConso();
+                comptes[g][t.ordinal()]++;
+                totaux[t.ordinal()]++;
+                charges[g] += t.getConsommation();
+            }
+        }
+    }
+
+    /**
+     * @return Le nombre de générateurs du modèle.
+     */
+    public int getNombreGenerateurs() {
+        return generateurs.length;
+    }
+
+    /**
+     * @param g L'indice du générateur, dans l'ordre d'insertion du réseau.
+     * @return Le générateur.
+     */
+    public Generateur getGenerateur(int g) {
+        return generateurs[g];
+    }
+
+    /**
+     * @param g    L'indice du générateur.
+     * @param type Le type de consommation.
+     * @return Le nombre de maisons de ce type affectées au générateur.
+     */
+    public int getNombre(int g, TypeConso type) {
+        return comptes[g][type.ordinal()];
+    }
+
+    /**
+     * @param type Le type de consommation.
+     * @return Le nombre total de maisons de ce type dans le modèle.
+     */
+    public int getTotal(TypeConso type) {
+        return totaux[type.ordinal()];
+    }
+
+    /**
+     * Remplace le nombre de maisons d'un type affectées à un générateur. Les
+     * totaux par type ne sont pas vérifiés : l'appelant doit les conserver.
+     *
+     * @param g      L'indice du générateur.
+     * @param type   Le type de consommation.
+     * @param nombre Le nouveau nombre de maisons.
+     */
+    void setNombre(int g, TypeConso type, int nombre) {
+        charges[g] += (nombre - comptes[g][type.ordinal()]) * type.getConsommation();
+        comptes[g][type.ordinal()] = nombre;
+    }
+
+    /**
+     * @return Le coût de l'affectation agrégée : {@code dispersion + lambda * surcharge}.
+     */
+    public double calculerCout() {
+        int nbGenerateurs = generateurs.length;
+        if (nbGenerateurs == 0)
+            return 0;
+        double somme = 0;
+        for (int g = 0; g < nbGenerateurs; g++)
+            somme += taux(g, 0);
+        double moyenne = somme / nbGenerateurs;
+        double dispersion = 0;
+        double surcharge = 0;
+        for (int g = 0; g < nbGenerateurs; g++) {
+            double u = taux(g, 0);
+            dispersion += Math.abs(u - moyenne);
+            surcharge += Math.max(0, u - 1);
+        }
+        return dispersion + lambda * surcharge;
+    }
+
+    /**
+     * Optimise l'affectation agrégée sans point de cession.
+     *
+     * @see #optimiser(PointDeCession)
+     */
+    public void optimiser() {
+        optimiser(PointDeCession.AUCUN);
+    }
+
+    /**
+     * Optimise l'affectation agrégée.
+     *
+     * Construction : les types sont placés du plus au moins consommateur ; le
+     * générateur de plus faible taux résultant reçoit d'un coup autant d'unités
+     * qu'il en faut pour rejoindre le suivant, sans dépasser sa capacité tant
+     * qu'il la respecte. Le nombre d'étapes dépend du nombre de générateurs, pas
+     * du nombre de maisons.
+     *
+     * Amélioration : déplacements d'une unité vers le meilleur générateur de son
+     * type, puis échanges d'unités de types différents entre le générateur le
+     * plus et le moins utilisé, lus en O(log G) dans l'arbre des taux, tant que
+     * le coût diminue.
+     *
+     * @param cession Le point de cession appelé entre deux étapes.
+     */
+    public void optimiser(PointDeCession cession) {
+        optimiser(cession, Long.MAX_VALUE);
+    }
+
+    /**
+     * Optimise l'affectation agrégée dans un budget de temps. Une fois la
+     * construction terminée, l'amélioration s'arrête sur une affectation
+     * complète dès que le budget est épuisé.
+     *
+     * @param cession  Le point de cession appelé entre deux étapes.
+     * @param budgetNs Le budget de temps, en nanosecondes depuis l'appel, ou
+     *                 {@link Long#MAX_VALUE} pour aller jusqu'au bout.
+     * @return {@code false} si le budget a été épuisé pendant la construction :
+     *         l'affectation est alors incomplète et ne doit pas être utilisée.
+     */
+    boolean optimiser(PointDeCession cession, long budgetNs) {
+        long debut = System.nanoTime();
+        int nbGenerateurs = generateurs.length;
+        if (nbGenerateurs == 0)
+            return true;
+
+        // CONSTRUCTION PAR PALIERS
+        for (int g = 0; g < nbGenerateurs; g++) {
+            for (int t = 0; t < TYPES.length; t++)
+                comptes[g][t] = 0;
+            charges[g] = 0;
+        }
+        for (int t = TYPES.length - 1; t >= 0; t--) {
+            int conso = TYPES[t].getConsommation();
+            TasIndexe tas = new TasIndexe(nbGenerateurs);
+            for (int g = 0; g < nbGenerateurs; g++)
+                tas.mettreAJour(g, taux(g, conso));
+
+            int restant = totaux[t];
+            while (restant > 0) {
+                cession.ceder();
+                if (System.nanoTime() - debut >= budgetNs)
+                    return false;
+                int g = tas.minimum();
+                tas.retirer(g);
+                int k = restant;
+                if (!tas.estVide() && capacites[g] > 0) {
+                    double suivant = tas.cle(tas.minimum());
+                    k = (int) Math.floor((suivant * capacites[g] - charges[g]) / conso);
+                    if (charges[g] + conso <= capacites[g])
+                        k = Math.min(k, (capacites[g] - charges[g]) / conso);
+                    k = Math.max(1, Math.min(k, restant));
+                }
+                comptes[g][t] += k;
+                charges[g] += k * conso;
+                restant -= k;
+                tas.mettreAJour(g, taux(g, conso));
+            }
+        }
+
+        // AMÉLIORATION PAR DÉPLACEMENTS ET ÉCHANGES D'UNITÉS
+        ArbreTaux arbre = new ArbreTaux();
+        TasIndexe[] tas = new TasIndexe[TYPES.length];
+        for (int t = 0; t < TYPES.length; t++)
+            tas[t] = new TasIndexe(nbGenerateurs);
+        for (int g = 0; g < nbGenerateurs; g++)
+            indexer(g, arbre, tas);
+        double cout = coutArbre(arbre);
+
+        boolean amelioration = nbGenerateurs > 1;
+        while (amelioration) {
+            amelioration = false;
+            for (int a = 0; a < nbGenerateurs; a++) {
+                cession.ceder();
+                if (System.nanoTime() - debut >= budgetNs)
+                    return true;
+                for (int t = 0; t < TYPES.length; t++) {
+                    if (comptes[a][t] == 0)
+                        continue;
+                    int conso = TYPES[t].getConsommation();
+                    tas[t].retirer(a);
+                    int b = tas[t].minimum();
+                    tas[t].mettreAJour(a, taux(a, conso));
+                    if (charges[b] + conso > capacites[b])
+                        continue;
+                    double nouveau = essayer(arbre, a, t, b, -1);
+                    if (nouveau < cout - 1e-12) {
+                        deplacer(a, t, b, -1, arbre, tas);
+                        cout = nouveau;
+                        amelioration = true;
+                    }
+                }
+            }
+
+            // échanges entre extrêmes : une unité lourde contre une unité légère
+            cession.ceder();
+            int moins = arbre.minimum();
+            int plus = arbre.maximum();
+            if (taux(plus, 0) <= taux(moins, 0))
+                continue;
+            for (int lourd = 1; lourd < TYPES.length && !amelioration; lourd++) {
+                for (int leger = 0; leger < lourd && !amelioration; leger++) {
+                    if (comptes[plus][lourd] == 0 || comptes[moins][leger] == 0)
+                        continue;
+                    double nouveau = essayer(arbre, plus, lourd, moins, leger);
+                    if (nouveau < cout - 1e-12) {
+                        deplacer(plus, lourd, moins, leger, arbre, tas);
+                        cout = nouveau;
+                        amelioration = true;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Évalue, sans l'appliquer, le passage d'une unité de type {@code t} de
+     * {@code a} vers {@code b}, accompagné si {@code retour >= 0} du passage
+     * d'une unité de type {@code retour} de {@code b} vers {@code a}.
+     */
+    private double essayer(ArbreTaux arbre, int a, int t, int b, int retour) {
+        int delta = TYPES[t].getConsommation() - (retour >= 0 ? TYPES[retour].getConsommation() : 0);
+        arbre.mettreAJour(a, taux(a, -delta));
+        arbre.mettreAJour(b, taux(b, delta));
+        double cout = coutArbre(arbre);
+        arbre.mettreAJour(a, taux(a, 0));
+        arbre.mettreAJour(b, taux(b, 0));
+        return cout;
+    }
+
+    private void deplacer(int a, int t, int b, int retour, ArbreTaux arbre, TasIndexe[] tas) {
+        setNombre(a, TYPES[t], comptes[a][t] - 1);
+        setNombre(b, TYPES[t], comptes[b][t] + 1);
+        if (retour >= 0) {
+            setNombre(b, TYPES[retour], comptes[b][retour] - 1);
+            setNombre(a, TYPES[retour], comptes[a][retour] + 1);
+        }
+        indexer(a, arbre, tas);
+        indexer(b, arbre, tas);
+    }
+
+    private void indexer(int g, ArbreTaux arbre, TasIndexe[] tas) {
+        arbre.mettreAJour(g, taux(g, 0));
+        for (int t = 0; t < TYPES.length; t++)
+            tas[t].mettreAJour(g, taux(g, TYPES[t].getConsommation()));
+    }
+
+    /**
+     * @return Le taux d'utilisation du générateur si sa charge variait de
+     *         {@code delta} ; l'infini pour un ajout sur une capacité nulle.
+     */
+    private double taux(int g, int delta) {
+        if (capacites[g] == 0)
+            return delta > 0 ? Double.POSITIVE_INFINITY : 0;
+        return (double) (charges[g] + delta) / capacites[g];
+    }
+
+    private double coutArbre(ArbreTaux arbre) {
+        double moyenne = arbre.sommeTotale() / arbre.taille();
+        return arbre.ecartAbsolu(moyenne) + lambda * arbre.depassement(1.0);
+    }
+}
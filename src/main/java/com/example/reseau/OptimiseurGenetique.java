@@ -0,0 +1,432 @@
+package com.example.reseau;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Optimisation par algorithme génétique, pour les réseaux très chargés où la
+ * recherche locale reste bloquée dans un minimum local.
+ *
+ * Un individu est une affectation : pour chaque maison connectée, l'indice de
+ * son générateur. La population initiale contient l'affectation courante, celle
+ * du mode {@link ModeConstruction#TAS} et des constructions aléatoires. À chaque
+ * génération :
+ * <ul>
+ * <li>les {@value #ELITES} meilleurs individus passent tels quels (élitisme) ;</li>
+ * <li>les autres naissent de deux parents choisis par tournoi. Le croisement
+ * conserve des groupes entiers : l'enfant reçoit les maisons d'une partie des
+ * générateurs du premier parent, les maisons des autres générateurs du second
+ * parent, et les maisons restantes sont réinsérées au générateur de plus faible
+ * taux résultant qui peut les accueillir ;</li>
+ * <li>une mutation déplace ou échange quelques maisons, puis l'enfant est
+ * réparé : les maisons des générateurs en surcharge sont déplacées tant qu'un
+ * autre générateur peut les accueillir.</li>
+ * </ul>
+ * La construction et l'évaluation des enfants sont réparties entre le thread
+ * appelant et les threads d'un exécuteur partagé (voir
+ * {@link ExecutionParallele}) ; chaque thread travaille dans ses propres
+ * tampons, sans allocation par évaluation. Chaque enfant a sa propre graine, tirée par le thread appelant :
+ * le résultat ne dépend que de la graine, pas du nombre de threads.
+ *
+ * Seules les maisons qui changent de générateur sont déplacées dans le réseau,
+ * et seulement si la meilleure affectation trouvée améliore le coût. Les
+ * maisons non connectées restent non connectées.
+ */
+public class OptimiseurGenetique {
+    /**
+     * Mesures d'une optimisation génétique.
+     *
+     * @param coutInitial Le coût de l'affectation de départ.
+     * @param coutFinal   Le coût de la meilleure affectation trouvée.
+     * @param generations Le nombre de générations effectuées.
+     * @param evaluations Le nombre d'individus évalués.
+     */
+    public record Resultat(double coutInitial, double coutFinal, int generations, long evaluations) {
+    }
+
+    /**
+     * Taille de population par défaut.
+     */
+    public static final int POPULATION_PAR_DEFAUT = 48;
+
+    /**
+     * Nombre de générations par défaut.
+     */
+    public static final int GENERATIONS_PAR_DEFAUT = 300;
+
+    private static final int ELITES = 2;
+    private static final int TOURNOI = 3;
+    private static final int POURCENTAGE_MUTATION = 30;
+
+    private final int taillePopulation;
+    private final int nbGenerations;
+    private final int nbThreads;
+    private final long graine;
+    private final Executor executeur;
+
+    /**
+     * Optimiseur dont les threads d'appoint viennent du pool commun de la JVM.
+     *
+     * @param taillePopulation Le nombre d'individus, au moins {@value #ELITES} + 1.
+     * @param nbGenerations    Le nombre de générations.
+     * @param nbThreads        Le nombre maximal de threads d'évaluation, thread appelant compris.
+     * @param graine           La graine des tirages.
+     */
+    public OptimiseurGenetique(int taillePopulation, int nbGenerations, int nbThreads, long graine) {
+        this(taillePopulation, nbGenerations, nbThreads, graine, ExecutionParallele.parDefaut());
+    }
+
+    /**
+     * @param taillePopulation Le nombre d'individus, au moins {@value #ELITES} + 1.
+     * @param nbGenerations    Le nombre de générations.
+     * @param nbThreads        Le nombre maximal de threads d'évaluation, thread appelant compris.
+     * @param graine           La graine des tirages.
+     * @param executeur        L'exécuteur partagé qui fournit les threads d'appoint.
+     */
+    public OptimiseurGenetique(int taillePopulation, int nbGenerations, int nbThreads, long graine,
+            Executor executeur) {
+        if (taillePopulation <= ELITES)
+            throw new IllegalArgumentException("taille de population invalide : " + taillePopulation);
+        if (nbGenerations < 0)
+            throw new IllegalArgumentException("nombre de générations invalide : " + nbGenerations);
+        if (nbThreads < 1)
+            throw new IllegalArgumentException("nombre de threads invalide : " + nbThreads);
+        this.taillePopulation = taillePopulation;
+        this.nbGenerations = nbGenerations;
+        this.nbThreads = nbThreads;
+        this.graine = graine;
+        this.executeur = executeur;
+    }
+
+    /**
+     * Optimise le réseau sans point de cession.
+     *
+     * @param reseau Le réseau à optimiser.
+     * @return Les mesures de l'optimisation.
+     */
+    public Resultat optimiser(Reseau reseau) {
+        return optimiser(reseau, PointDeCession.AUCUN);
+    }
+
+    /**
+     * Optimise le réseau. Le point de cession n'est appelé que depuis le thread
+     * appelant, une fois par génération.
+     *
+     * @param reseau  Le réseau à optimiser.
+     * @param cession Le point de cession.
+     * @return Les mesures de l'optimisation.
+     */
+    Resultat optimiser(Reseau reseau, PointDeCession cession) {
+        Map<Generateur, List<Maison>> connexions = reseau.getConnexions();
+        List<Generateur> generateurs = new ArrayList<>(connexions.keySet());
+        List<Maison> maisons = new ArrayList<>();
+        List<Integer> liste = new ArrayList<>();
+        for (int g = 0; g < generateurs.size(); g++) {
+            for (Maison m : connexions.get(generateurs.get(g))) {
+                maisons.add(m);
+                liste.add(g);
+            }
+        }
+        double coutInitial = reseau.calculerCout();
+        if (maisons.isEmpty() || generateurs.size() < 2)
+            return new Resultat(coutInitial, coutInitial, 0, 0);
+
+        int[] origines = new int[maisons.size()];
+        for (int i = 0; i < origines.length; i++)
+            origines[i] = liste.get(i);
+        int[] capacites = new int[generateurs.size()];
+        for (int g = 0; g < capacites.length; g++)
+            capacites[g] = generateurs.get(g).getCapacite();
+        int[] consos = new int[maisons.size()];
+        for (int i = 0; i < consos.length; i++)
+            consos[i] = maisons.get(i).getTypeConso().getConsommation();
+        int[] ordre = Reseau.ordreParConsommation(maisons);
+        Probleme probleme = new Probleme(consos, capacites, reseau.getLambda(), ordre);
+
+        int[][] population = new int[taillePopulation][consos.length];
+        int[][] suivante = new int[taillePopulation][consos.length];
+        double[] couts = new double[taillePopulation];
+        double[] coutsSuivants = new double[taillePopulation];
+        int[] parentsA = new int[taillePopulation];
+        int[] parentsB = new int[taillePopulation];
+        long[] graines = new long[taillePopulation];
+        int[] elites = new int[ELITES];
+        SplitMix64 aleatoire = new SplitMix64(graine);
+
+        int nbAteliers = Math.min(nbThreads, taillePopulation);
+        Atelier[] ateliers = new Atelier[nbAteliers];
+        for (int t = 0; t < nbAteliers; t++)
+            ateliers[t] = new Atelier(probleme);
+        long evaluations = 0;
+        int generation = 0;
+
+        // POPULATION INITIALE : l'affectation courante, le mode TAS, puis des constructions aléatoires
+        System.arraycopy(origines, 0, population[0], 0, origines.length);
+        int[] consosTriees = new int[consos.length];
+        for (int i = 0; i < ordre.length; i++)
+            consosTriees[i] = consos[ordre[i]];
+        int[] tas = Reseau.affecterParTas(consosTriees, capacites, reseau.getLambda(), PointDeCession.AUCUN);
+        for (int i = 0; i < ordre.length; i++)
+            population[1][ordre[i]] = tas[i];
+        for (int j = 0; j < taillePopulation; j++)
+            graines[j] = aleatoire.suivant();
+        int[][] initiale = population;
+        double[] coutsInitiaux = couts;
+        executer(ateliers, 0, taillePopulation, (atelier, j) -> {
+            atelier.aleatoire.setEtat(graines[j]);
+            if (j >= 2)
+                atelier.construire(initiale[j]);
+            coutsInitiaux[j] = atelier.evaluateur.evaluer(initiale[j]);
+        });
+        evaluations += taillePopulation;
+        double coutDepart = couts[0];
+
+        for (; generation < nbGenerations; generation++) {
+            cession.ceder();
+            // ÉLITISME : les meilleurs individus passent tels quels
+            for (int e = 0; e < ELITES; e++) {
+                int meilleur = -1;
+                for (int j = 0; j < taillePopulation; j++)
+                    if (!estElite(j, elites, e) && (meilleur < 0 || couts[j] < couts[meilleur]))
+                        meilleur = j;
+                elites[e] = meilleur;
+                System.arraycopy(population[meilleur], 0, suivante[e], 0, consos.length);
+                coutsSuivants[e] = couts[meilleur];
+            }
+            for (int j = ELITES; j < taillePopulation; j++) {
+                parentsA[j] = tournoi(couts, aleatoire);
+                parentsB[j] = tournoi(couts, aleatoire);
+                graines[j] = aleatoire.suivant();
+            }
+            int[][] parents = population;
+            int[][] enfants = suivante;
+            double[] coutsEnfants = coutsSuivants;
+            executer(ateliers, ELITES, taillePopulation, (atelier, j) -> {
+                atelier.aleatoire.setEtat(graines[j]);
+                atelier.croiser(parents[parentsA[j]], parents[parentsB[j]], enfants[j]);
+                if (atelier.aleatoire.entier(100) < POURCENTAGE_MUTATION)
+                    atelier.muter(enfants[j]);
+                atelier.reparer(enfants[j]);
+                coutsEnfants[j] = atelier.cout();
+            });
+            evaluations += taillePopulation - ELITES;
+
+            int[][] echange = population;
+            population = suivante;
+            suivante = echange;
+            double[] echangeCouts = couts;
+            couts = coutsSuivants;
+            coutsSuivants = echangeCouts;
+        }
+
+        int meilleur = 0;
+        for (int j = 1; j < taillePopulation; j++)
+            if (couts[j] < couts[meilleur])
+                meilleur = j;
+        if (couts[meilleur] < coutDepart - 1e-12)
+            Reseau.appliquerAffectation(reseau, maisons, origines, generateurs, population[meilleur]);
+        return new Resultat(coutInitial, reseau.calculerCout(), generation, evaluations);
+    }
+
+    private static boolean estElite(int j, int[] elites, int nombre) {
+        for (int e = 0; e < nombre; e++)
+            if (elites[e] == j)
+                return true;
+        return false;
+    }
+
+    /**
+     * @return L'individu de plus faible coût parmi {@value #TOURNOI} tirés au hasard.
+     */
+    private static int tournoi(double[] couts, SplitMix64 aleatoire) {
+        int meilleur = aleatoire.entier(couts.length);
+        for (int t = 1; t < TOURNOI; t++) {
+            int j = aleatoire.entier(couts.length);
+            if (couts[j] < couts[meilleur])
+                meilleur = j;
+        }
+        return meilleur;
+    }
+
+    /**
+     * Applique une tâche aux individus {@code [debut, fin)}, chaque participant
+     * travaillant dans son propre atelier ; avec un seul atelier, tout s'exécute
+     * dans le thread appelant.
+     */
+    private void executer(Atelier[] ateliers, int debut, int fin, Tache tache) {
+        ExecutionParallele.executer(executeur, ateliers.length, fin - debut, PointDeCession.AUCUN,
+                "échec de l'évaluation d'un individu", (participant, j) -> tache.executer(ateliers[participant], debut + j));
+    }
+
+    @FunctionalInterface
+    private interface Tache {
+        void executer(Atelier atelier, int individu);
+    }
+
+    /**
+     * Données du problème, partagées en lecture seule par les ateliers.
+     *
+     * @param consos    Les consommations des maisons.
+     * @param capacites Les capacités des générateurs.
+     * @param lambda    Le coefficient de pénalisation de la surcharge.
+     * @param ordre     Les maisons, de la plus consommatrice à la moins consommatrice.
+     */
+    private record Probleme(int[] consos, int[] capacites, int lambda, int[] ordre) {
+    }
+
+    /**
+     * Tampons de travail d'un thread : évaluateur, charges des générateurs,
+     * masque de croisement et générateur pseudo-aléatoire. Un atelier n'est
+     * utilisé que par un thread à la fois ; ses opérations n'allouent rien.
+     */
+    private static final class Atelier {
+        private final int[] consos;
+        private final int[] capacites;
+        private final EvaluateurAffectation evaluateur;
+        private final int[] ordre;
+        private final int[] charges;
+        private final boolean[] gardes;
+        private final SplitMix64 aleatoire = new SplitMix64(0);
+
+        Atelier(Probleme probleme) {
+            consos = probleme.consos();
+            capacites = probleme.capacites();
+            evaluateur = new EvaluateurAffectation(consos, capacites, probleme.lambda());
+            ordre = probleme.ordre();
+            charges = new int[capacites.length];
+            gardes = new boolean[capacites.length];
+        }
+
+        /**
+         * @return Le coût des charges courantes.
+         */
+        double cout() {
+            return evaluateur.evaluerCharges(charges);
+        }
+
+        /**
+         * Construction aléatoire : chaque maison, de la plus consommatrice à la
+         * moins consommatrice, va à un générateur tiré au hasard s'il peut
+         * l'accueillir, sinon au générateur de plus faible taux résultant.
+         */
+        void construire(int[] enfant) {
+            Arrays.fill(charges, 0);
+            for (int i : ordre) {
+                int g = aleatoire.entier(capacites.length);
+                if (charges[g] + consos[i] <= capacites[g]) {
+                    enfant[i] = g;
+                    charges[g] += consos[i];
+                } else {
+                    inserer(enfant, i);
+                }
+            }
+        }
+
+        /**
+         * Croisement par groupes : les générateurs gardés du parent {@code a}
+         * conservent exactement leurs maisons, les autres reçoivent leurs maisons
+         * du parent {@code b}, et les maisons restantes sont réinsérées.
+         */
+        void croiser(int[] a, int[] b, int[] enfant) {
+            for (int g = 0; g < capacites.length; g++) {
+                gardes[g] = aleatoire.suivant() < 0;
+                charges[g] = 0;
+            }
+            for (int i = 0; i < enfant.length; i++) {
+                if (gardes[a[i]]) {
+                    enfant[i] = a[i];
+                    charges[a[i]] += consos[i];
+                } else if (!gardes[b[i]]) {
+                    enfant[i] = b[i];
+                    charges[b[i]] += consos[i];
+                } else {
+                    enfant[i] = -1;
+                }
+            }
+            for (int i : ordre)
+                if (enfant[i] < 0)
+                    inserer(enfant, i);
+        }
+
+        /**
+         * Déplace ou échange de une à trois maisons au hasard.
+         */
+        void muter(int[] enfant) {
+            int n = 1 + aleatoire.entier(3);
+            for (int k = 0; k < n; k++) {
+                int i = aleatoire.entier(enfant.length);
+                int g = enfant[i];
+                int h;
+                if (aleatoire.suivant() < 0) {
+                    h = aleatoire.entier(capacites.length);
+                } else {
+                    int j = aleatoire.entier(enfant.length);
+                    h = enfant[j];
+                    enfant[j] = g;
+                    charges[g] += consos[j];
+                    charges[h] -= consos[j];
+                }
+                enfant[i] = h;
+                charges[g] -= consos[i];
+                charges[h] += consos[i];
+            }
+        }
+
+        /**
+         * Vide les générateurs en surcharge, en partant d'une maison tirée au
+         * hasard : chaque maison d'un générateur en surcharge va au générateur de
+         * plus faible taux résultant qui peut l'accueillir, s'il en existe un.
+         */
+        void reparer(int[] enfant) {
+            int depart = aleatoire.entier(enfant.length);
+            for (int s = 0; s < enfant.length; s++) {
+                int i = depart + s < enfant.length ? depart + s : depart + s - enfant.length;
+                int g = enfant[i];
+                if (charges[g] <= capacites[g])
+                    continue;
+                int meilleur = -1;
+                for (int h = 0; h < capacites.length; h++)
+                    if (h != g && charges[h] + consos[i] <= capacites[h]
+                            && (meilleur < 0 || taux(h, consos[i]) < taux(meilleur, consos[i])))
+                        meilleur = h;
+                if (meilleur >= 0) {
+                    enfant[i] = meilleur;
+                    charges[g] -= consos[i];
+                    charges[meilleur] += consos[i];
+                }
+            }
+        }
+
+        /**
+         * Affecte la maison au générateur de plus faible taux résultant qui peut
+         * l'accueillir, ou à défaut au générateur de plus faible taux résultant.
+         */
+        private void inserer(int[] enfant, int i) {
+            int meilleur = -1;
+            boolean place = false;
+            for (int h = 0; h < capacites.length; h++) {
+                if (capacites[h] == 0)
+                    continue;
+                boolean tient = charges[h] + consos[i] <= capacites[h];
+                if (meilleur < 0 || (tient && !place)
+                        || (tient == place && taux(h, consos[i]) < taux(meilleur, consos[i]))) {
+                    meilleur = h;
+                    place = tient;
+                }
+            }
+            if (meilleur < 0)
+                meilleur = 0;
+            enfant[i] = meilleur;
+            charges[meilleur] += consos[i];
+        }
+
+        private double taux(int g, int delta) {
+            if (capacites[g] == 0)
+                return 0;
+            return (double) (charges[g] + delta) / capacites[g];
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package com.example.reseau;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Optimisation d'un très grand réseau par découpage en régions.
+ *
+ * <ol>
+ * <li>Les générateurs sont répartis en régions de capacités équilibrées (le
+ * plus gros générateur restant va à la région la moins dotée).</li>
+ * <li>Les maisons de chaque type sont réparties entre les régions au prorata de
+ * leur capacité, si bien que le taux moyen de chaque région est proche du taux
+ * global.</li>
+ * <li>Chaque région est optimisée indépendamment, en parallèle, par l'heuristique
+ * du mode {@link ModeConstruction#TAS}. Les régions sont résolues par le thread
+ * appelant, aidé par les threads d'un exécuteur partagé (voir
+ * {@link ExecutionParallele}) : aucun pool n'est créé par optimisation.</li>
+ * <li>Une passe de rééquilibrage aux frontières parcourt ensuite les
+ * générateurs du plus utilisé au moins utilisé et déplace leurs maisons vers le
+ * meilleur générateur de leur type, toutes régions confondues, tant que cela
+ * diminue le coût global. Les passes se répètent jusqu'à ce qu'aucun
+ * déplacement n'améliore plus le coût.</li>
+ * </ol>
+ * Seules les maisons qui changent de générateur sont déplacées dans le réseau.
+ * Les maisons non connectées restent non connectées.
+ */
+public class OptimiseurRegions {
+    /**
+     * Mesures d'une optimisation par régions.
+     *
+     * @param nbRegions           Le nombre de régions effectivement utilisées.
+     * @param decoupageMs         La durée du découpage.
+     * @param resolutionMs        La durée de la résolution parallèle des régions.
+     * @param reequilibrageMs     La durée du rééquilibrage aux frontières et de l'application.
+     * @param mouvementsFrontiere Le nombre de maisons déplacées par le rééquilibrage.
+     */
+    public record Resultat(int nbRegions, long decoupageMs, long resolutionMs, long reequilibrageMs,
+            int mouvementsFrontiere) {
+    }
+
+    private static final TypeConso[] TYPES = TypeConso.values();
+
+    private final int nbRegions;
+    private final int nbThreads;
+    private final Executor executeur;
+
+    /**
+     * Optimiseur dont les threads d'appoint viennent du pool commun de la JVM.
+     *
+     * @param nbRegions Le nombre de régions souhaité (borné par le nombre de générateurs).
+     * @param nbThreads Le nombre maximal de threads de résolution, thread appelant compris.
+     */
+    public OptimiseurRegions(int nbRegions, int nbThreads) {
+        this(nbRegions, nbThreads, ExecutionParallele.parDefaut());
+    }
+
+    /**
+     * @param nbRegions Le nombre de régions souhaité (borné par le nombre de générateurs).
+     * @param nbThreads Le nombre maximal de threads de résolution, thread appelant compris.
+     * @param executeur L'exécuteur partagé qui fournit les threads d'appoint.
+     */
+    public OptimiseurRegions(int nbRegions, int nbThreads, Executor executeur) {
+        if (nbRegions < 1)
+            throw new IllegalArgumentException("nombre de régions invalide : " + nbRegions);
+        if (nbThreads < 1)
+            throw new IllegalArgumentException("nombre de threads invalide : " + nbThreads);
+        this.nbRegions = nbRegions;
+        this.nbThreads = nbThreads;
+        this.executeur = executeur;
+    }
+
+    /**
+     * Optimise le réseau sans point de cession.
+     *
+     * @param reseau Le réseau à optimiser.
+     * @return Les mesures de l'optimisation.
+     */
+    public Resultat optimiser(Reseau reseau) {
+        return optimiser(reseau, PointDeCession.AUCUN);
+    }
+
+    /**
+     * Optimise le réseau. Le point de cession n'est appelé que depuis le thread
+     * appelant, avant chacune des régions qu'il résout et pendant le
+     * rééquilibrage.
+     *
+     * @param reseau  Le réseau à optimiser.
+     * @param cession Le point de cession.
+     * @return Les mesures de l'optimisation.
+     */
+    Resultat optimiser(Reseau reseau, PointDeCession cession) {
+        long debut = System.nanoTime();
+        Map<Generateur, List<Maison>> connexions = reseau.getConnexions();
+        List<Generateur> generateurs = new ArrayList<>(connexions.keySet());
+        int nbGenerateurs = generateurs.size();
+        if (nbGenerateurs == 0)
+            return new Resultat(0, 0, 0, 0, 0);
+        List<Maison> maisons = new ArrayList<>();
+        int[] capacites = new int[nbGenerateurs];
+        int nbConnectees = 0;
+        for (int g = 0; g < nbGenerateurs; g++) {
+            capacites[g] = generateurs.get(g).getCapacite();
+            nbConnectees += connexions.get(generateurs.get(g)).size();
+        }
+        int[] origines = new int[nbConnectees];
+        for (int g = 0; g < nbGenerateurs; g++) {
+            for (Maison m : connexions.get(generateurs.get(g))) {
+                origines[maisons.size()] = g;
+                maisons.add(m);
+            }
+        }
+
+        // DÉCOUPAGE DES GÉNÉRATEURS : capacités équilibrées
+        int r = Math.min(nbRegions, nbGenerateurs);
+        Integer[] parCapacite = new Integer[nbGenerateurs];
+        for (int g = 0; g < nbGenerateurs; g++)
+            parCapacite[g] = g;
+        Arrays.sort(parCapacite, (a, b) -> Integer.compare(capacites[b], capacites[a]));
+        List<List<Integer>> generateursRegion = new ArrayList<>();
+        long[] capaciteRegion = new long[r];
+        TasIndexe regions = new TasIndexe(r);
+        for (int k = 0; k < r; k++) {
+            generateursRegion.add(new ArrayList<>());
+            regions.mettreAJour(k, 0);
+        }
+        for (int g : parCapacite) {
+            int k = regions.minimum();
+            generateursRegion.get(k).add(g);
+            capaciteRegion[k] += capacites[g];
+            regions.mettreAJour(k, capaciteRegion[k]);
+        }
+
+        // DÉCOUPAGE DES MAISONS : chaque type au prorata des capacités
+        int[] ordre = Reseau.ordreParConsommation(maisons);
+        int[] parType = new int[TYPES.length];
+        for (Maison m : maisons)
+            parType[m.getTypeConso().ordinal()]++;
+        int[][] quotas = quotas(parType, capaciteRegion);
+        int[] tailleRegion = new int[r];
+        for (int k = 0; k < r; k++)
+            for (int t = 0; t < TYPES.length; t++)
+                tailleRegion[k] += quotas[k][t];
+        int[][] maisonsRegion = new int[r][];
+        for (int k = 0; k < r; k++)
+            maisonsRegion[k] = new int[tailleRegion[k]];
+        int[] remplies = new int[r];
+        int region = 0;
+        int typeCourant = -1;
+        int[] restants = new int[r];
+        for (int i : ordre) {
+            int t = maisons.get(i).getTypeConso().ordinal();
+            if (t != typeCourant) {
+                typeCourant = t;
+                region = 0;
+                for (int k = 0; k < r; k++)
+                    restants[k] = quotas[k][t];
+            }
+            while (restants[region] == 0)
+                region++;
+            restants[region]--;
+            maisonsRegion[region][remplies[region]++] = i;
+        }
+        long finDecoupage = System.nanoTime();
+
+        // RÉSOLUTION PARALLÈLE
+        int[] affectation = new int[nbConnectees];
+        ExecutionParallele.executer(executeur, nbThreads, r, cession, "échec de la résolution d'une région",
+                (participant, k) -> resoudreRegion(maisons, maisonsRegion[k], generateursRegion.get(k), capacites,
+                        reseau.getLambda(), affectation));
+        long finResolution = System.nanoTime();
+
+        // RÉÉQUILIBRAGE AUX FRONTIÈRES
+        int mouvements = reequilibrer(maisons, capacites, affectation, reseau.getLambda(), cession);
+        Reseau.appliquerAffectation(reseau, maisons, origines, generateurs, affectation);
+        long fin = System.nanoTime();
+
+        return new Resultat(r, (finDecoupage - debut) / 1_000_000, (finResolution - finDecoupage) / 1_000_000,
+                (fin - finResolution) / 1_000_000, mouvements);
+    }
+
+    /**
+     * Répartit les maisons de chaque type entre les régions au prorata de leur
+     * capacité, par la méthode du plus fort reste.
+     *
+     * @return {@code quotas[region][type]}.
+     */
+    private static int[][] quotas(int[] parType, long[] capaciteRegion) {
+        int r = capaciteRegion.length;
+        long capaciteTotale = 0;
+        for (long c : capaciteRegion)
+            capaciteTotale += c;
+        int[][] quotas = new int[r][TYPES.length];
+        for (int t = 0; t < TYPES.length; t++) {
+            if (capaciteTotale == 0) {
+                quotas[0][t] = parType[t];
+                continue;
+            }
+            int attribues = 0;
+            double[] restes = new double[r];
+            for (int k = 0; k < r; k++) {
+                double part = (double) parType[t] * capaciteRegion[k] / capaciteTotale;
+                quotas[k][t] = (int) Math.floor(part);
+                restes[k] = part - quotas[k][t];
+                attribues += quotas[k][t];
+            }
+            for (; attribues < parType[t]; attribues++) {
+                int meilleur = 0;
+                for (int k = 1; k < r; k++)
+                    if (restes[k] > restes[meilleur])
+                        meilleur = k;
+                quotas[meilleur][t]++;
+                restes[meilleur] = -1;
+            }
+        }
+        return quotas;
+    }
+
+    private static void resoudreRegion(List<Maison> maisons, int[] indices, List<Integer> gens, int[] capacites,
+            int lambda, int[] affectation) {
+        int[] consos = new int[indices.length];
+        for (int i = 0; i < indices.length; i++)
+            consos[i] = maisons.get(indices[i]).getTypeConso().getConsommation();
+        int[] capacitesRegion = new int[gens.size()];
+        for (int g = 0; g < capacitesRegion.length; g++)
+            capacitesRegion[g] = capacites[gens.get(g)];
+        int[] locale = Reseau.affecterParTas(consos, capacitesRegion, lambda, PointDeCession.AUCUN);
+        for (int i = 0; i < indices.length; i++)
+            affectation[indices[i]] = gens.get(locale[i]);
+    }
+
+    /**
+     * Parcourt les générateurs du plus utilisé au moins utilisé et déplace leurs
+     * maisons vers le générateur de plus faible taux résultant pour leur type,
+     * tant que chaque déplacement diminue le coût. Un générateur dont aucune
+     * maison ne peut partir avec profit quitte la passe ; les passes se
+     * répètent jusqu'à ce qu'une passe entière ne déplace plus rien. Chaque
+     * générateur tient, par type, une liste chaînée de ses maisons dans des
+     * tableaux d'entiers, pour choisir une maison en O(1).
+     *
+     * @return Le nombre de maisons déplacées.
+     */
+    private static int reequilibrer(List<Maison> maisons, int[] capacites, int[] affectation, int lambda,
+            PointDeCession cession) {
+        int nbGenerateurs = capacites.length;
+        int[] charges = new int[nbGenerateurs];
+        int[] tetes = new int[nbGenerateurs * TYPES.length];
+        int[] suivants = new int[maisons.size()];
+        Arrays.fill(tetes, -1);
+        for (int i = 0; i < maisons.size(); i++) {
+            TypeConso type = maisons.get(i).getTypeConso();
+            int g = affectation[i];
+            charges[g] += type.getConsommation();
+            int liste = g * TYPES.length + type.ordinal();
+            suivants[i] = tetes[liste];
+            tetes[liste] = i;
+        }
+
+        ArbreTaux arbre = new ArbreTaux();
+        TasIndexe[] tas = new TasIndexe[TYPES.length];
+        for (int t = 0; t < TYPES.length; t++)
+            tas[t] = new TasIndexe(nbGenerateurs);
+        for (int g = 0; g < nbGenerateurs; g++)
+            indexer(g, charges, capacites, arbre, null, tas);
+        double cout = cout(arbre, lambda);
+
+        int mouvements = 0;
+        boolean passeUtile = nbGenerateurs > 1;
+        while (passeUtile) {
+            passeUtile = false;
+            TasIndexe candidats = new TasIndexe(nbGenerateurs);
+            for (int g = 0; g < nbGenerateurs; g++)
+                candidats.mettreAJour(g, -taux(charges, capacites, g, 0));
+            while (!candidats.estVide()) {
+                cession.ceder();
+                int a = candidats.minimum();
+                boolean deplace = false;
+                for (int t = TYPES.length - 1; t >= 0 && !deplace; t--) {
+                    int i = tetes[a * TYPES.length + t];
+                    if (i < 0)
+                        continue;
+                    int conso = TYPES[t].getConsommation();
+                    tas[t].retirer(a);
+                    int b = tas[t].minimum();
+                    tas[t].mettreAJour(a, taux(charges, capacites, a, conso));
+                    if (charges[b] + conso > capacites[b])
+                        continue;
+
+                    arbre.mettreAJour(a, taux(charges, capacites, a, -conso));
+                    arbre.mettreAJour(b, taux(charges, capacites, b, conso));
+                    double nouveau = cout(arbre, lambda);
+                    if (nouveau < cout - 1e-12) {
+                        tetes[a * TYPES.length + t] = suivants[i];
+                        suivants[i] = tetes[b * TYPES.length + t];
+                        tetes[b * TYPES.length + t] = i;
+                        affectation[i] = b;
+                        charges[a] -= conso;
+                        charges[b] += conso;
+                        cout = nouveau;
+                        deplace = true;
+                    }
+                    indexer(a, charges, capacites, arbre, candidats, tas);
+                    indexer(b, charges, capacites, arbre, deplace ? candidats : null, tas);
+                }
+                if (deplace) {
+                    mouvements++;
+                    passeUtile = true;
+                } else {
+                    candidats.retirer(a);
+                }
+            }
+        }
+        return mouvements;
+    }
+
+    /**
+     * Met à jour le taux d'un générateur dans l'arbre, dans les tas par type et,
+     * s'il est fourni, dans le tas des candidats au départ.
+     */
+    private static void indexer(int g, int[] charges, int[] capacites, ArbreTaux arbre, TasIndexe candidats,
+            TasIndexe[] tas) {
+        double u = taux(charges, capacites, g, 0);
+        arbre.mettreAJour(g, u);
+        if (candidats != null)
+            candidats.mettreAJour(g, -u);
+        for (int t = 0; t < TYPES.length; t++)
+            tas[t].mettreAJour(g, taux(charges, capacites, g, TYPES[t].getConsommation()));
+    }
+
+    private static double taux(int[] charges, int[] capacites, int g, int delta) {
+        if (capacites[g] == 0)
+            return delta > 0 ? Double.POSITIVE_INFINITY : 0;
+        return (double) (charges[g] + delta) / capacites[g];
+    }
+
+    private static double cout(ArbreTaux arbre, int lambda) {
+        double moyenne = arbre.sommeTotale() / arbre.taille();
+        return arbre.ecartAbsolu(moyenne) + lambda * arbre.depassement(1.0);
+    }
+}
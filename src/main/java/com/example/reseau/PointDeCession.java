@@ -0,0 +1,29 @@
+package com.example.reseau;
+
+/**
+ * Point de cession coopérative appelé régulièrement par les algorithmes
+ * d'optimisation de {@link Reseau}. Un ordonnanceur peut s'en servir pour
+ * suspendre un calcul long au profit d'un travail plus prioritaire, puis le
+ * reprendre là où il s'était arrêté.
+ *
+ * L'appel a lieu sur le thread qui exécute l'algorithme, entre deux étapes
+ * élémentaires (une maison traitée, une itération) : le réseau n'y est jamais
+ * dans un état intermédiaire.
+ */
+@FunctionalInterface
+public interface PointDeCession {
+
+    /**
+     * Point de cession qui ne suspend jamais le calcul.
+     */
+    PointDeCession AUCUN = () -> {
+    };
+
+    /**
+     * Laisse éventuellement la main à un autre calcul. Peut bloquer.
+     *
+     * @throws java.util.concurrent.CancellationException si le calcul doit être
+     *                                                    abandonné.
+     */
+    void ceder();
+}
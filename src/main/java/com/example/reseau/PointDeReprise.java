@@ -0,0 +1,97 @@
+package com.example.reseau;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * État complet d'une {@link RechercheNaive} à une frontière d'itération : de
+ * quoi la reprendre exactement là où elle s'est arrêtée.
+ *
+ * Le fichier est binaire et compressé : en-tête, compteurs, état du générateur
+ * pseudo-aléatoire, puis le générateur de chaque maison.
+ *
+ * @param empreinte     L'empreinte des noms des maisons et des générateurs,
+ *                      pour refuser une reprise sur un autre réseau.
+ * @param etatAleatoire L'état du générateur pseudo-aléatoire.
+ * @param iteration     Le nombre d'itérations déjà effectuées.
+ * @param k             Le nombre total d'itérations demandé.
+ * @param cout          Le coût de l'affectation.
+ * @param affectation   Pour chaque maison (dans l'ordre de la recherche),
+ *                      l'indice de son générateur. C'est aussi la meilleure
+ *                      affectation rencontrée : la recherche n'accepte jamais
+ *                      une dégradation.
+ */
+public record PointDeReprise(long empreinte, long etatAleatoire, long iteration, long k, double cout,
+        int[] affectation) {
+    private static final int MAGIQUE = 0x4E414946; // "NAIF"
+    private static final int VERSION = 1;
+
+    /**
+     * Écrit le point de reprise de manière atomique : dans un fichier temporaire
+     * voisin, puis renommé. Un arrêt brutal laisse donc toujours l'ancien ou le
+     * nouveau point de reprise, jamais un fichier tronqué.
+     *
+     * @param fichier Le fichier de destination.
+     * @throws IOException en cas d'erreur d'écriture.
+     */
+    public void ecrire(Path fichier) throws IOException {
+        Path temporaire = fichier.resolveSibling(fichier.getFileName() + ".tmp");
+        try (OutputStream brut = Files.newOutputStream(temporaire);
+                DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(new GZIPOutputStream(brut, 1 << 16)))) {
+            out.writeInt(MAGIQUE);
+            out.writeInt(VERSION);
+            out.writeLong(empreinte);
+            out.writeLong(etatAleatoire);
+            out.writeLong(iteration);
+            out.writeLong(k);
+            out.writeDouble(cout);
+            out.writeInt(affectation.length);
+            for (int g : affectation)
+                out.writeInt(g);
+        }
+        try {
+            Files.move(temporaire, fichier, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporaire, fichier, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Lit un point de reprise.
+     *
+     * @param fichier Le fichier à lire.
+     * @return Le point de reprise.
+     * @throws IOException si le fichier est illisible ou n'est pas un point de reprise.
+     */
+    public static PointDeReprise lire(Path fichier) throws IOException {
+        try (InputStream brut = Files.newInputStream(fichier);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(brut)))) {
+            if (in.readInt() != MAGIQUE)
+                throw new IOException("Ce fichier n'est pas un point de reprise : " + fichier);
+            int version = in.readInt();
+            if (version != VERSION)
+                throw new IOException("Version de point de reprise non prise en charge : " + version);
+            long empreinte = in.readLong();
+            long etat = in.readLong();
+            long iteration = in.readLong();
+            long k = in.readLong();
+            double cout = in.readDouble();
+            int[] affectation = new int[in.readInt()];
+            for (int i = 0; i < affectation.length; i++)
+                affectation[i] = in.readInt();
+            return new PointDeReprise(empreinte, etat, iteration, k, cout, affectation);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.reseau;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Recherche locale naïve reproductible, qui peut s'interrompre et reprendre.
+ *
+ * Même principe que {@link Reseau#algoNaif(Reseau, int)} : à chaque itération,
+ * une maison connectée et un générateur sont tirés au hasard, et la maison
+ * n'est déplacée que si le coût évalué du déplacement n'augmente pas. Le tirage utilise un
+ * {@link SplitMix64} initialisé par une graine, et les maisons sont rangées par
+ * nom : deux recherches de même graine sur le même réseau font exactement les
+ * mêmes déplacements.
+ *
+ * Si un fichier de reprise est défini, un {@link PointDeReprise} est déposé
+ * toutes les {@code periode} itérations et à la fin (y compris en cas
+ * d'interruption par le point de cession) ; il est écrit par un thread dédié.
+ * {@link #reprendre(Reseau, Path)} restaure l'affectation, l'état du tirage et
+ * le compteur d'itérations : la recherche reprise se termine sur le même
+ * résultat qu'une recherche ininterrompue.
+ */
+public class RechercheNaive {
+    /**
+     * Période par défaut, en itérations, entre deux points de reprise.
+     */
+    public static final long PERIODE_PAR_DEFAUT = 100_000;
+
+    private final Reseau reseau;
+    private final Maison[] maisons;
+    private final Generateur[] generateurs;
+    private final int[] affectation;
+    private final long empreinte;
+    private final SplitMix64 aleatoire;
+    private long iteration;
+    private long k;
+    private Path fichierReprise;
+    private long periode = PERIODE_PAR_DEFAUT;
+
+    /**
+     * Prépare une recherche sur les maisons actuellement connectées.
+     *
+     * @param reseau Le réseau à optimiser.
+     * @param graine La graine du tirage.
+     */
+    public RechercheNaive(Reseau reseau, long graine) {
+        this.reseau = reseau;
+        Map<Generateur, List<Maison>> connexions = reseau.getConnexions();
+        generateurs = connexions.keySet().toArray(new Generateur[0]);
+        List<Maison> liste = new ArrayList<>();
+        List<Integer> origines = new ArrayList<>();
+        for (int g = 0; g < generateurs.length; g++) {
+            for (Maison m : connexions.get(generateurs[g])) {
+                liste.add(m);
+                origines.add(g);
+            }
+        }
+        Integer[] ordre = new Integer[liste.size()];
+        for (int i = 0; i < ordre.length; i++)
+            ordre[i] = i;
+        Arrays.sort(ordre, Comparator.comparing(i -> liste.get(i).getNom()));
+        maisons = new Maison[ordre.length];
+        affectation = new int[ordre.length];
+        for (int i = 0; i < ordre.length; i++) {
+            maisons[i] = liste.get(ordre[i]);
+            affectation[i] = origines.get(ordre[i]);
+        }
+        empreinte = empreinte(maisons, generateurs);
+        aleatoire = new SplitMix64(graine);
+    }
+
+    /**
+     * Reprend une recherche depuis un point de reprise. L'affectation
+     * enregistrée est appliquée au réseau, qui doit avoir les mêmes maisons
+     * connectées et les mêmes générateurs que lors de l'écriture ; les points
+     * de reprise suivants sont écrits dans le même fichier.
+     *
+     * @param reseau  Le réseau.
+     * @param fichier Le fichier de reprise.
+     * @return La recherche, prête à être poursuivie par {@link #executer()}.
+     * @throws IOException              si le fichier est illisible.
+     * @throws IllegalArgumentException si le point de reprise ne correspond pas au réseau.
+     */
+    public static RechercheNaive reprendre(Reseau reseau, Path fichier) throws IOException {
+        PointDeReprise point = PointDeReprise.lire(fichier);
+        RechercheNaive recherche = new RechercheNaive(reseau, point.etatAleatoire());
+        if (recherche.empreinte != point.empreinte() || recherche.maisons.length != point.affectation().length)
+            throw new IllegalArgumentException("Le point de reprise ne correspond pas à ce réseau : " + fichier);
+
+        for (int i = 0; i < recherche.maisons.length; i++) {
+            int g = point.affectation()[i];
+            if (g < 0 || g >= recherche.generateurs.length)
+                throw new IllegalArgumentException("Point de reprise corrompu : " + fichier);
+            if (g != recherche.affectation[i]) {
+                reseau.deplacerMaison(recherche.maisons[i], recherche.generateurs[recherche.affectation[i]],
+                        recherche.generateurs[g], true);
+                recherche.affectation[i] = g;
+            }
+        }
+        recherche.iteration = point.iteration();
+        recherche.k = point.k();
+        recherche.fichierReprise = fichier;
+        return recherche;
+    }
+
+    /**
+     * Active l'écriture de points de reprise.
+     *
+     * @param fichier Le fichier de reprise.
+     * @param periode Le nombre d'itérations entre deux points de reprise.
+     */
+    public void setReprise(Path fichier, long periode) {
+        if (periode <= 0)
+            throw new IllegalArgumentException("période invalide : " + periode);
+        this.fichierReprise = fichier;
+        this.periode = periode;
+    }
+
+    /**
+     * @return Le nombre d'itérations effectuées.
+     */
+    public long getIteration() {
+        return iteration;
+    }
+
+    /**
+     * Exécute la recherche jusqu'à {@code k} itérations au total.
+     *
+     * @param k Le nombre total d'itérations.
+     * @throws IOException si l'écriture d'un point de reprise a échoué.
+     */
+    public void executer(long k) throws IOException {
+        this.k = k;
+        executer();
+    }
+
+    /**
+     * Poursuit la recherche jusqu'au nombre d'itérations demandé, par exemple
+     * après {@link #reprendre(Reseau, Path)}.
+     *
+     * @throws IOException si l'écriture d'un point de reprise a échoué.
+     */
+    public void executer() throws IOException {
+        if (maisons.length == 0 || generateurs.length == 0) {
+            iteration = Math.max(iteration, k);
+            return;
+        }
+        PointDeCession cession = reseau.getPointDeCession();
+        try (EcrivainReprise ecrivain = fichierReprise == null ? null : new EcrivainReprise(fichierReprise)) {
+            double cout = reseau.calculerCout();
+            try {
+                while (iteration < k) {
+                    cession.ceder();
+                    int i = aleatoire.entier(maisons.length);
+                    int g = aleatoire.entier(generateurs.length);
+                    int ancien = affectation[i];
+                    if (g != ancien) {
+                        double nouveau = reseau.coutApresDeplacement(generateurs[ancien], generateurs[g],
+                                maisons[i].getTypeConso().getConsommation());
+                        if (nouveau <= cout) {
+                            reseau.deplacerMaison(maisons[i], generateurs[ancien], generateurs[g], true);
+                            affectation[i] = g;
+                            cout = nouveau;
+                        }
+                    }
+                    iteration++;
+                    if (ecrivain != null && iteration % periode == 0 && iteration < k)
+                        ecrivain.soumettre(point(cout));
+                }
+            } finally {
+                if (ecrivain != null)
+                    ecrivain.soumettre(point(cout));
+            }
+        }
+    }
+
+    private PointDeReprise point(double cout) {
+        return new PointDeReprise(empreinte, aleatoire.getEtat(), iteration, k, cout, affectation.clone());
+    }
+
+    private static long empreinte(Maison[] maisons, Generateur[] generateurs) {
+        long h = 0xCBF29CE484222325L;
+        for (Generateur g : generateurs)
+            h = (h ^ g.getNom().hashCode()) * 0x100000001B3L;
+        h = (h ^ maisons.length) * 0x100000001B3L;
+        for (Maison m : maisons)
+            h = (h ^ m.getNom().hashCode()) * 0x100000001B3L;
+        return h;
+    }
+}
@@ -0,0 +1,588 @@
+package com.example.reseau;
+
+import java.util.Arrays;
+
+/**
+ * Recherche à voisinage large (destruction et reconstruction) sur la
+ * représentation agrégée d'une affectation ({@link ModeleAgrege}).
+ *
+ * À chaque itération, quelques maisons sont retirées de leur générateur par
+ * l'une des destructions suivantes :
+ * <ul>
+ * <li>aléatoire : des maisons prises au hasard ;</li>
+ * <li>pire générateur : des maisons des générateurs qui contribuent le plus au
+ * coût (écart à la moyenne et surcharge) ;</li>
+ * <li>générateurs liés : des maisons d'un générateur tiré au hasard et des
+ * générateurs de taux et de capacité les plus proches.</li>
+ * </ul>
+ * Elles sont ensuite réinsérées par l'une des reconstructions suivantes :
+ * <ul>
+ * <li>gloutonne : de la plus à la moins consommatrice, chaque maison va au
+ * générateur qui minimise le coût total en respectant sa capacité, comme dans
+ * la phase 2 de {@link Reseau#algoOptimise(Reseau)} ;</li>
+ * <li>par regret : le type inséré en premier est celui qui perdrait le plus à
+ * ne pas obtenir sa meilleure place.</li>
+ * </ul>
+ * Les opérateurs sont tirés à la roulette ; leurs poids s'adaptent, par
+ * segments de {@value #SEGMENT} itérations, aux succès qu'ils ont produits. Une
+ * solution moins bonne peut être acceptée selon une température qui décroît
+ * avec la part du budget consommée.
+ *
+ * Le point de départ est le meilleur de l'affectation actuelle et de
+ * {@link ModeleAgrege#optimiser()}, dont la construction place les maisons
+ * d'un même type par paliers et ne dépend donc pas du nombre de maisons ; si
+ * le budget s'épuise avant la fin de cette construction, la recherche part de
+ * l'affectation actuelle.
+ *
+ * Le coût total après l'ajout d'une maison à un générateur donné est évalué en
+ * O(log G) par un {@link ArbreTaux} ; chercher la meilleure place d'une maison
+ * évalue chaque générateur, soit O(G log G) par maison réinsérée. Le budget de
+ * temps et le point de cession sont consultés avant chaque réinsertion : une
+ * itération interrompue est annulée. La recherche ne manipule que trois
+ * compteurs par générateur, puis la meilleure solution est reportée sur les
+ * connexions en déplaçant le moins de maisons possible. Les maisons non
+ * connectées restent non connectées.
+ */
+public class RechercheVoisinageLarge {
+    /**
+     * Mesures d'une recherche à voisinage large.
+     *
+     * @param coutInitial   Le coût de l'affectation de départ.
+     * @param coutFinal     Le coût de l'affectation appliquée.
+     * @param iterations    Le nombre d'itérations effectuées.
+     * @param ameliorations Le nombre de fois où la meilleure solution a été améliorée.
+     */
+    public record Resultat(double coutInitial, double coutFinal, long iterations, long ameliorations) {
+    }
+
+    /**
+     * Budget de temps par défaut, en millisecondes.
+     */
+    public static final long BUDGET_PAR_DEFAUT_MS = 2000;
+
+    private static final TypeConso[] TYPES = TypeConso.values();
+    private static final int NB_TYPES = TYPES.length;
+
+    private static final int ALEATOIRE = 0;
+    private static final int PIRE_GENERATEUR = 1;
+    private static final int GENERATEURS_LIES = 2;
+    private static final int GLOUTONNE = 0;
+    private static final int REGRET = 1;
+
+    private static final double SCORE_MEILLEURE = 33;
+    private static final double SCORE_AMELIORATION = 9;
+    private static final double SCORE_ACCEPTEE = 13;
+    private static final int SEGMENT = 50;
+    private static final double REACTION = 0.1;
+    private static final int DESTRUCTION_MAX = 60;
+    private static final double TEMPERATURE_INITIALE = 0.01;
+    private static final double TEMPERATURE_FINALE = 1e-5;
+
+    private final long budgetMs;
+    private final long maxIterations;
+    private final long graine;
+
+    /**
+     * @param budgetMs      Le budget de temps, en millisecondes.
+     * @param maxIterations Le nombre maximal d'itérations, ou {@link Long#MAX_VALUE}
+     *                      pour s'arrêter au budget de temps. S'il est fini, la
+     *                      température décroît avec les itérations et non avec
+     *                      le temps : la recherche est alors reproductible tant
+     *                      que le budget de temps n'est pas atteint.
+     * @param graine        La graine des tirages.
+     */
+    public RechercheVoisinageLarge(long budgetMs, long maxIterations, long graine) {
+        if (budgetMs <= 0)
+            throw new IllegalArgumentException("budget invalide : " + budgetMs);
+        if (maxIterations < 0)
+            throw new IllegalArgumentException("nombre d'itérations invalide : " + maxIterations);
+        this.budgetMs = budgetMs;
+        this.maxIterations = maxIterations;
+        this.graine = graine;
+    }
+
+    /**
+     * Optimise le réseau sans point de cession.
+     *
+     * @param reseau Le réseau à optimiser.
+     * @return Les mesures de la recherche.
+     */
+    public Resultat optimiser(Reseau reseau) {
+        return optimiser(reseau, PointDeCession.AUCUN);
+    }
+
+    /**
+     * Optimise le réseau.
+     *
+     * @param reseau  Le réseau à optimiser.
+     * @param cession Le point de cession, appelé avant chaque réinsertion.
+     * @return Les mesures de la recherche.
+     */
+    Resultat optimiser(Reseau reseau, PointDeCession cession) {
+        long debut = System.nanoTime();
+        long budgetNs = budgetMs >= Long.MAX_VALUE / 1_000_000 ? Long.MAX_VALUE : budgetMs * 1_000_000;
+        double coutInitial = reseau.calculerCout();
+        ModeleAgrege modele = new ModeleAgrege(reseau);
+        int nbGenerateurs = modele.getNombreGenerateurs();
+        if (nbGenerateurs < 2)
+            return new Resultat(coutInitial, coutInitial, 0, 0);
+
+        SplitMix64 aleatoire = new SplitMix64(graine);
+        Solution solution = new Solution(modele, reseau.getLambda(), aleatoire, cession, debut, budgetNs);
+        if (solution.nbMaisons == 0)
+            return new Resultat(coutInitial, coutInitial, 0, 0);
+
+        double coutCourant = solution.cout();
+        double coutDepart = coutCourant;
+
+        // Point de départ : l'heuristique agrégée, si elle a le temps d'aboutir et fait mieux
+        ModeleAgrege agrege = new ModeleAgrege(reseau);
+        if (agrege.optimiser(cession, budgetNs - (System.nanoTime() - debut))) {
+            solution.charger(agrege);
+            double construit = solution.cout();
+            if (construit < coutCourant) {
+                solution.valider();
+                coutCourant = construit;
+            } else {
+                solution.annuler();
+            }
+        }
+        double coutMeilleur = coutCourant;
+        int[] meilleurs = solution.comptes.clone();
+
+        double[] poidsDestruction = { 1, 1, 1 };
+        double[] poidsReconstruction = { 1, 1 };
+        double[] scoresDestruction = new double[poidsDestruction.length];
+        double[] scoresReconstruction = new double[poidsReconstruction.length];
+        int[] usagesDestruction = new int[poidsDestruction.length];
+        int[] usagesReconstruction = new int[poidsReconstruction.length];
+        double temperatureInitiale = TEMPERATURE_INITIALE * Math.max(coutCourant, 1e-3);
+        int maxDestruction = Math.max(2, Math.min(DESTRUCTION_MAX, solution.nbMaisons * 3 / 10));
+
+        long iteration = 0;
+        long ameliorations = 0;
+        while (iteration < maxIterations) {
+            cession.ceder();
+            double ecoule = (System.nanoTime() - debut) / 1e6;
+            if (ecoule >= budgetMs)
+                break;
+            double avancement = maxIterations == Long.MAX_VALUE ? ecoule / budgetMs
+                    : (double) iteration / maxIterations;
+            double temperature = temperatureInitiale * Math.pow(TEMPERATURE_FINALE / TEMPERATURE_INITIALE, avancement);
+
+            int destruction = roulette(poidsDestruction, aleatoire);
+            int reconstruction = roulette(poidsReconstruction, aleatoire);
+            int q = 2 + aleatoire.entier(maxDestruction - 1);
+            switch (destruction) {
+                case ALEATOIRE -> solution.detruireAleatoire(q);
+                case PIRE_GENERATEUR -> solution.detruirePireGenerateur(q);
+                default -> solution.detruireGenerateursLies(q);
+            }
+            boolean reconstruite = reconstruction == GLOUTONNE ? solution.reconstruireGloutonne()
+                    : solution.reconstruireParRegret();
+            if (!reconstruite) {
+                solution.annuler();
+                break;
+            }
+
+            double cout = solution.cout();
+            double score = 0;
+            if (cout < coutMeilleur - 1e-12) {
+                score = SCORE_MEILLEURE;
+            } else if (cout < coutCourant - 1e-12) {
+                score = SCORE_AMELIORATION;
+            } else if (cout > coutCourant + 1e-12
+                    && aleatoire.reel() < Math.exp((coutCourant - cout) / temperature)) {
+                score = SCORE_ACCEPTEE;
+            }
+            if (score > 0 || Math.abs(cout - coutCourant) <= 1e-12) {
+                solution.valider();
+                coutCourant = cout;
+                if (score == SCORE_MEILLEURE) {
+                    coutMeilleur = cout;
+                    System.arraycopy(solution.comptes, 0, meilleurs, 0, meilleurs.length);
+                    ameliorations++;
+                }
+            } else {
+                solution.annuler();
+            }
+
+            scoresDestruction[destruction] += score;
+            scoresReconstruction[reconstruction] += score;
+            usagesDestruction[destruction]++;
+            usagesReconstruction[reconstruction]++;
+            iteration++;
+            if (iteration % SEGMENT == 0) {
+                adapter(poidsDestruction, scoresDestruction, usagesDestruction);
+                adapter(poidsReconstruction, scoresReconstruction, usagesReconstruction);
+            }
+        }
+
+        if (coutMeilleur < coutDepart - 1e-12) {
+            for (int g = 0; g < nbGenerateurs; g++)
+                for (int t = 0; t < NB_TYPES; t++)
+                    modele.setNombre(g, TYPES[t], meilleurs[g * NB_TYPES + t]);
+            Reseau.appliquerModele(reseau, modele);
+        }
+        return new Resultat(coutInitial, reseau.calculerCout(), iteration, ameliorations);
+    }
+
+    private static int roulette(double[] poids, SplitMix64 aleatoire) {
+        double total = 0;
+        for (double p : poids)
+            total += p;
+        double tirage = aleatoire.reel() * total;
+        for (int i = 0; i < poids.length - 1; i++) {
+            tirage -= poids[i];
+            if (tirage < 0)
+                return i;
+        }
+        return poids.length - 1;
+    }
+
+    /**
+     * Fin de segment : chaque poids se rapproche du score moyen obtenu par son
+     * opérateur pendant le segment, puis les compteurs repartent de zéro.
+     */
+    private static void adapter(double[] poids, double[] scores, int[] usages) {
+        for (int i = 0; i < poids.length; i++) {
+            if (usages[i] > 0)
+                poids[i] = Math.max(0.05, (1 - REACTION) * poids[i] + REACTION * scores[i] / usages[i]);
+            scores[i] = 0;
+            usages[i] = 0;
+        }
+    }
+
+    /**
+     * Solution courante : compteurs par générateur et par type, charges, arbre
+     * des taux, et maisons retirées en attente de réinsertion. Les générateurs
+     * modifiés depuis la dernière validation sont suivis pour annuler ou valider
+     * une itération en O(nombre de générateurs modifiés).
+     */
+    private static final class Solution {
+        private final int nbGenerateurs;
+        private final int[] capacites;
+        private final int lambda;
+        private final int capaciteMax;
+        private final int nbMaisons;
+        private final int[] comptes;
+        private final int[] charges;
+        private final int[] comptesValides;
+        private final int[] chargesValides;
+        private final int[] retirees = new int[NB_TYPES];
+        private final int[] touches;
+        private final boolean[] estTouche;
+        private final boolean[] marques;
+        private int nbTouches;
+        private final ArbreTaux arbre = new ArbreTaux();
+        private final SplitMix64 aleatoire;
+        private final PointDeCession cession;
+        private final long debut;
+        private final long budgetNs;
+        private double meilleurCout;
+        private double secondCout;
+
+        Solution(ModeleAgrege modele, int lambda, SplitMix64 aleatoire, PointDeCession cession, long debut,
+                long budgetNs) {
+            this.lambda = lambda;
+            this.aleatoire = aleatoire;
+            this.cession = cession;
+            this.debut = debut;
+            this.budgetNs = budgetNs;
+            nbGenerateurs = modele.getNombreGenerateurs();
+            capacites = new int[nbGenerateurs];
+            comptes = new int[nbGenerateurs * NB_TYPES];
+            charges = new int[nbGenerateurs];
+            touches = new int[nbGenerateurs];
+            estTouche = new boolean[nbGenerateurs];
+            marques = new boolean[nbGenerateurs];
+            int max = 0;
+            int total = 0;
+            for (int g = 0; g < nbGenerateurs; g++) {
+                capacites[g] = modele.getGenerateur(g).getCapacite();
+                max = Math.max(max, capacites[g]);
+                for (int t = 0; t < NB_TYPES; t++) {
+                    int n = modele.getNombre(g, TYPES[t]);
+                    comptes[g * NB_TYPES + t] = n;
+                    charges[g] += n * TYPES[t].getConsommation();
+                    total += n;
+                }
+                arbre.mettreAJour(g, taux(g, 0));
+            }
+            capaciteMax = Math.max(max, 1);
+            nbMaisons = total;
+            comptesValides = comptes.clone();
+            chargesValides = charges.clone();
+        }
+
+        double cout() {
+            double moyenne = arbre.sommeTotale() / arbre.taille();
+            return arbre.ecartAbsolu(moyenne) + lambda * arbre.depassement(1.0);
+        }
+
+        private double taux(int g, int delta) {
+            if (capacites[g] == 0)
+                return 0;
+            return (double) (charges[g] + delta) / capacites[g];
+        }
+
+        private int nombre(int g) {
+            int n = 0;
+            for (int t = 0; t < NB_TYPES; t++)
+                n += comptes[g * NB_TYPES + t];
+            return n;
+        }
+
+        private void toucher(int g) {
+            if (!estTouche[g]) {
+                estTouche[g] = true;
+                touches[nbTouches++] = g;
+            }
+        }
+
+        private void retirer(int g, int t) {
+            toucher(g);
+            comptes[g * NB_TYPES + t]--;
+            charges[g] -= TYPES[t].getConsommation();
+            retirees[t]++;
+            arbre.mettreAJour(g, taux(g, 0));
+        }
+
+        private void inserer(int g, int t) {
+            toucher(g);
+            comptes[g * NB_TYPES + t]++;
+            charges[g] += TYPES[t].getConsommation();
+            retirees[t]--;
+            arbre.mettreAJour(g, taux(g, 0));
+        }
+
+        /**
+         * Retire du générateur une maison d'un type tiré au prorata des compteurs.
+         *
+         * @return {@code false} si le générateur n'a plus de maison.
+         */
+        private boolean retirerAuHasard(int g) {
+            int n = nombre(g);
+            if (n == 0)
+                return false;
+            int r = aleatoire.entier(n);
+            int t = 0;
+            while (r >= comptes[g * NB_TYPES + t]) {
+                r -= comptes[g * NB_TYPES + t];
+                t++;
+            }
+            retirer(g, t);
+            return true;
+        }
+
+        /**
+         * Remplace la solution par l'affectation d'un modèle construit sur le même
+         * réseau, à valider ou annuler comme une itération.
+         */
+        void charger(ModeleAgrege modele) {
+            for (int g = 0; g < nbGenerateurs; g++) {
+                toucher(g);
+                charges[g] = 0;
+                for (int t = 0; t < NB_TYPES; t++) {
+                    int n = modele.getNombre(g, TYPES[t]);
+                    comptes[g * NB_TYPES + t] = n;
+                    charges[g] += n * TYPES[t].getConsommation();
+                }
+                arbre.mettreAJour(g, taux(g, 0));
+            }
+        }
+
+        /**
+         * Appelé avant chaque réinsertion.
+         *
+         * @return {@code false} si le budget de temps est épuisé.
+         */
+        private boolean poursuivre() {
+            cession.ceder();
+            return System.nanoTime() - debut < budgetNs;
+        }
+
+        void detruireAleatoire(int q) {
+            for (int k = 0, essais = 0; k < q && essais < 8 * q; essais++)
+                if (retirerAuHasard(aleatoire.entier(nbGenerateurs)))
+                    k++;
+        }
+
+        /**
+         * Vide en partie, tour à tour, les générateurs de plus forte contribution
+         * au coût : {@code |u − moyenne| + lambda·max(0, u − 1)}.
+         */
+        void detruirePireGenerateur(int q) {
+            double moyenne = arbre.sommeTotale() / arbre.taille();
+            Arrays.fill(marques, false);
+            int nbRetirees = 0;
+            while (nbRetirees < q) {
+                int pire = -1;
+                double contributionPire = -1;
+                for (int g = 0; g < nbGenerateurs; g++) {
+                    if (marques[g] || nombre(g) == 0)
+                        continue;
+                    double u = taux(g, 0);
+                    double contribution = Math.abs(u - moyenne) + lambda * Math.max(0, u - 1);
+                    if (contribution > contributionPire) {
+                        contributionPire = contribution;
+                        pire = g;
+                    }
+                }
+                if (pire < 0)
+                    return;
+                marques[pire] = true;
+                int part = Math.max(1, (q + 1) / 2);
+                for (int k = 0; k < part && nbRetirees < q && retirerAuHasard(pire); k++)
+                    nbRetirees++;
+            }
+        }
+
+        /**
+         * Vide en partie un générateur tiré au hasard puis ses voisins les plus
+         * proches en taux et en capacité.
+         */
+        void detruireGenerateursLies(int q) {
+            int origine = aleatoire.entier(nbGenerateurs);
+            double uOrigine = taux(origine, 0);
+            Arrays.fill(marques, false);
+            int part = Math.max(1, (q + 3) / 4);
+            int nbRetirees = 0;
+            int g = origine;
+            while (nbRetirees < q && g >= 0) {
+                marques[g] = true;
+                for (int k = 0; k < part && nbRetirees < q && retirerAuHasard(g); k++)
+                    nbRetirees++;
+                g = -1;
+                double distanceMin = Double.MAX_VALUE;
+                for (int h = 0; h < nbGenerateurs; h++) {
+                    if (marques[h])
+                        continue;
+                    double distance = Math.abs(taux(h, 0) - uOrigine)
+                            + (double) Math.abs(capacites[h] - capacites[origine]) / capaciteMax;
+                    if (distance < distanceMin) {
+                        distanceMin = distance;
+                        g = h;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Phase 2 de {@link Reseau#algoOptimise(Reseau)} : de la plus à la moins
+         * consommatrice, chaque maison va au générateur de coût total minimal.
+         *
+         * @return {@code false} si le budget de temps a été épuisé avant la fin.
+         */
+        boolean reconstruireGloutonne() {
+            for (int t = NB_TYPES - 1; t >= 0; t--) {
+                while (retirees[t] > 0) {
+                    if (!poursuivre())
+                        return false;
+                    inserer(meilleurePlace(t), t);
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Insère d'abord le type dont le regret (écart de coût entre sa deuxième
+         * et sa meilleure place) est le plus grand ; les maisons d'un même type
+         * étant interchangeables, il suffit de comparer trois types.
+         *
+         * @return {@code false} si le budget de temps a été épuisé avant la fin.
+         */
+        boolean reconstruireParRegret() {
+            while (true) {
+                if (!poursuivre())
+                    return false;
+                int choisi = -1;
+                int place = -1;
+                double regretMax = -1;
+                for (int t = NB_TYPES - 1; t >= 0; t--) {
+                    if (retirees[t] == 0)
+                        continue;
+                    int g = meilleurePlace(t);
+                    double regret = secondCout - meilleurCout;
+                    if (regret > regretMax) {
+                        regretMax = regret;
+                        choisi = t;
+                        place = g;
+                    }
+                }
+                if (choisi < 0)
+                    return true;
+                inserer(place, choisi);
+            }
+        }
+
+        /**
+         * Cherche le générateur où l'ajout d'une maison de type {@code t} donne le
+         * coût total minimal, parmi ceux qui respectent leur capacité, ou à défaut
+         * parmi tous. Renseigne {@link #meilleurCout} et {@link #secondCout}.
+         * Chaque générateur est évalué : O(G log G).
+         */
+        private int meilleurePlace(int t) {
+            int conso = TYPES[t].getConsommation();
+            int meilleur = -1;
+            boolean place = false;
+            meilleurCout = Double.MAX_VALUE;
+            secondCout = Double.MAX_VALUE;
+            for (int g = 0; g < nbGenerateurs; g++) {
+                if (capacites[g] == 0)
+                    continue;
+                boolean tient = charges[g] + conso <= capacites[g];
+                if (place && !tient)
+                    continue;
+                arbre.mettreAJour(g, taux(g, conso));
+                double cout = cout();
+                arbre.mettreAJour(g, taux(g, 0));
+                if (tient && !place) {
+                    place = true;
+                    meilleurCout = Double.MAX_VALUE;
+                    secondCout = Double.MAX_VALUE;
+                }
+                if (cout < meilleurCout) {
+                    secondCout = meilleurCout;
+                    meilleurCout = cout;
+                    meilleur = g;
+                } else if (cout < secondCout) {
+                    secondCout = cout;
+                }
+            }
+            if (meilleur < 0) {
+                meilleur = 0;
+                meilleurCout = secondCout = 0;
+            }
+            return meilleur;
+        }
+
+        /**
+         * Conserve les modifications de l'itération.
+         */
+        void valider() {
+            for (int k = 0; k < nbTouches; k++) {
+                int g = touches[k];
+                System.arraycopy(comptes, g * NB_TYPES, comptesValides, g * NB_TYPES, NB_TYPES);
+                chargesValides[g] = charges[g];
+                estTouche[g] = false;
+            }
+            nbTouches = 0;
+        }
+
+        /**
+         * Revient à la dernière solution validée.
+         */
+        void annuler() {
+            for (int k = 0; k < nbTouches; k++) {
+                int g = touches[k];
+                System.arraycopy(comptesValides, g * NB_TYPES, comptes, g * NB_TYPES, NB_TYPES);
+                charges[g] = chargesValides[g];
+                arbre.mettreAJour(g, taux(g, 0));
+                estTouche[g] = false;
+            }
+            nbTouches = 0;
+            Arrays.fill(retirees, 0);
+        }
+    }
+}
@@ -6,13 +6,24 @@ import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
-import java.util.Random;
+import java.util.NoSuchElementException;
 import java.util.Set;
-import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 
 /**
  * Gère l'ensemble du réseau électrique, y compris les générateurs, les maisons
@@ -23,36 +34,450 @@ import java.util.LinkedHashMap;
  * L'ordre d'insertion des générateurs est conservé.
  */
 public class Reseau {
-    private Map<Generateur, List<Maison>> connexions;
-    private List<Maison> maisonsNonConnectees;
+    private Map<Generateur, ListeIndexee<Maison>> connexions;
+    private final ListeIndexee<Maison> maisonsNonConnectees = new ListeIndexee<>();
     private int capaciteTotale;
     private int lambda = 10;
     private int consommationTotale;
+    private Map<Generateur, Integer> charges;
+    private final ArbreTaux arbreTaux = new ArbreTaux();
+    private final List<EcouteurReseau> ecouteurs = new CopyOnWriteArrayList<>();
+    private final List<List<Maison>> vuesParIndice = new ArrayList<>();
+    private final Map<Generateur, Integer> indices = new HashMap<>();
+    private final Set<Generateur> generateursModifies = new HashSet<>();
+    private boolean nonConnecteesModifiees = true;
+    private volatile InstantaneReseau dernierInstantane;
+    private final HistoriqueMouvements historique = new HistoriqueMouvements(CAPACITE_HISTORIQUE);
+    private boolean verbeux = true;
+    private PointDeCession pointDeCession = PointDeCession.AUCUN;
+    private final Set<Generateur> generateursAReparer = new LinkedHashSet<>();
+    private double coutReference = Double.NaN;
+    private final List<Generateur> generateursParIndice = new ArrayList<>();
+    private final List<Maison> maisonsParIndice = new ArrayList<>();
+    private final Map<Maison, Integer> indicesMaisons = new HashMap<>();
+    private final Map<Maison, Generateur> generateurDe = new HashMap<>();
+    // Maisons de chaque générateur chaînées par type de consommation, par
+    // indices de maison (voir lierType) : têtes par indice de générateur.
+    private final List<int[]> tetesParType = new ArrayList<>();
+    private int[] suivantsMemeType = new int[16];
+    private int[] precedentsMemeType = new int[16];
+    private byte[] typesLies = new byte[16];
+    private SplitMix64 aleatoire = new SplitMix64(System.nanoTime());
+    private final Map<String, Generateur> generateursParCle = new HashMap<>();
+    private final Map<String, Maison> maisonsParCle = new HashMap<>();
+    private final IndexParCle index = new IndexParCle() {
+        // Ce que retirerCle a ôté des tables indexées par l'entité, que ajouterCle
+        // y range de nouveau sous le nouveau hash : seule l'entité renommée est
+        // déplacée.
+        private ListeIndexee<Maison> listeRetiree;
+        private int positionRetiree;
+        private Generateur generateurRetire;
+        private Integer indiceRetire;
+        private Integer chargeRetiree;
+        private boolean aReparerRetire;
+
+        @Override
+        public void verifierCle(Object entite, String nouvelleCle) {
+            Object existant = entite instanceof Maison ? maisonsParCle.get(nouvelleCle)
+                    : generateursParCle.get(nouvelleCle);
+            if (existant != null && existant != entite)
+                throw new IllegalArgumentException("Le nom " + nouvelleCle + " est déjà utilisé dans le réseau.");
+        }
+
+        @Override
+        public void retirerCle(Object entite) {
+            if (entite instanceof Maison m) {
+                maisonsParCle.remove(m.getCle());
+                generateurRetire = generateurDe.remove(m);
+                indiceRetire = indicesMaisons.remove(m);
+                listeRetiree = generateurRetire == null ? maisonsNonConnectees : connexions.get(generateurRetire);
+                positionRetiree = listeRetiree.detacher(m);
+            } else {
+                Generateur g = (Generateur) entite;
+                generateursParCle.remove(g.getCle());
+                listeRetiree = connexions.remove(g);
+                chargeRetiree = charges.remove(g);
+                indiceRetire = indices.remove(g);
+                generateursModifies.remove(g);
+                aReparerRetire = generateursAReparer.remove(g);
+            }
+        }
+
+        @Override
+        public void ajouterCle(Object entite) {
+            if (entite instanceof Maison m) {
+                maisonsParCle.put(m.getCle(), m);
+                if (generateurRetire != null) {
+                    generateurDe.put(m, generateurRetire);
+                    generateursModifies.add(generateurRetire);
+                } else {
+                    nonConnecteesModifiees = true;
+                }
+                indicesMaisons.put(m, indiceRetire);
+                listeRetiree.rattacher(positionRetiree);
+            } else {
+                Generateur g = (Generateur) entite;
+                generateursParCle.put(g.getCle(), g);
+                connexions.put(g, listeRetiree);
+                charges.put(g, chargeRetiree);
+                indices.put(g, indiceRetire);
+                generateursModifies.add(g);
+                if (aReparerRetire)
+                    generateursAReparer.add(g);
+            }
+            listeRetiree = null;
+            generateurRetire = null;
+            notifierReinitialisation();
+        }
+    };
+
+    /**
+     * Inscription faible de {@link #index} auprès des entités : partagées avec
+     * d'autres réseaux (voir {@link #depuisInstantane(InstantaneReseau)}), elles
+     * ne retiennent pas ce réseau.
+     */
+    private final IndexParCle inscription = IndexParCle.faible(index);
+
+    /**
+     * Vue en lecture seule des connexions, dans l'ordre d'ajout des générateurs
+     * (celui de leurs indices), qu'un renommage ne modifie pas.
+     */
+    private final Map<Generateur, List<Maison>> vueConnexions = new AbstractMap<>() {
+        @Override
+        public List<Maison> get(Object cle) {
+            Integer i = indices.get(cle);
+            return i == null ? null : vuesParIndice.get(i);
+        }
+
+        @Override
+        public boolean containsKey(Object cle) {
+            return indices.containsKey(cle);
+        }
+
+        @Override
+        public int size() {
+            return generateursParIndice.size();
+        }
+
+        @Override
+        public Set<Map.Entry<Generateur, List<Maison>>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Map.Entry<Generateur, List<Maison>>> iterator() {
+                    return new Iterator<>() {
+                        private int i;
+
+                        @Override
+                        public boolean hasNext() {
+                            return i < generateursParIndice.size();
+                        }
+
+                        @Override
+                        public Map.Entry<Generateur, List<Maison>> next() {
+                            if (!hasNext())
+                                throw new NoSuchElementException();
+                            Map.Entry<Generateur, List<Maison>> e = Map.entry(generateursParIndice.get(i),
+                                    vuesParIndice.get(i));
+                            i++;
+                            return e;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return generateursParIndice.size();
+                }
+            };
+        }
+    };
+
+    /**
+     * Nombre de mouvements conservés par défaut dans l'historique d'annulation.
+     */
+    public static final int CAPACITE_HISTORIQUE = 100_000;
 
     /**
      * Construit un nouveau réseau électrique vide.
      */
     public Reseau() {
-        connexions = new LinkedHashMap<>();
-        maisonsNonConnectees = new ArrayList<>();
+        connexions = new HashMap<>();
+        charges = new HashMap<>();
         capaciteTotale = 0;
         consommationTotale = 0;
     }
 
+    /**
+     * Active ou désactive les messages de suivi (création, connexion,
+     * modification...) écrits sur la sortie standard. Les méthodes d'affichage
+     * explicites comme {@link #afficher()} ne sont pas concernées.
+     *
+     * @param verbeux {@code false} pour un fonctionnement silencieux, par exemple
+     *                en traitement par lots.
+     */
+    public void setVerbeux(boolean verbeux) {
+        this.verbeux = verbeux;
+    }
+
+    /**
+     * Définit le point de cession appelé par {@link #algoNaif(Reseau, int)} et
+     * {@link #algoOptimise(Reseau)} entre deux étapes élémentaires, pour qu'un
+     * ordonnanceur puisse suspendre ou interrompre l'optimisation.
+     *
+     * @param pointDeCession Le point de cession, ou {@code null} pour aucun.
+     */
+    public void setPointDeCession(PointDeCession pointDeCession) {
+        this.pointDeCession = pointDeCession == null ? PointDeCession.AUCUN : pointDeCession;
+    }
+
+    /**
+     * @return Le point de cession des optimisations.
+     */
+    PointDeCession getPointDeCession() {
+        return pointDeCession;
+    }
+
+    /**
+     * Écrit un message de suivi sur la sortie standard si le mode verbeux est
+     * actif. Sur les chemins fréquents (ajouts, connexions, déplacements),
+     * l'appel est gardé par {@code if (verbeux)} : le message n'est alors
+     * construit que s'il est écrit.
+     *
+     * @param message Le message à écrire.
+     */
+    private void journal(String message) {
+        if (verbeux)
+            System.out.println(message);
+    }
+
+    /**
+     * Abonne un écouteur aux modifications élémentaires du réseau.
+     *
+     * @param ecouteur L'écouteur à notifier.
+     */
+    public void ajouterEcouteur(EcouteurReseau ecouteur) {
+        ecouteurs.add(ecouteur);
+    }
+
+    /**
+     * Désabonne un écouteur précédemment ajouté.
+     *
+     * @param ecouteur L'écouteur à retirer.
+     */
+    public void retirerEcouteur(EcouteurReseau ecouteur) {
+        ecouteurs.remove(ecouteur);
+    }
+
+    /**
+     * Prévient les écouteurs d'une modification globale (chargement, affectation
+     * appliquée d'un bloc, renommage) qu'aucun événement élémentaire ne décrit.
+     */
+    private void notifierReinitialisation() {
+        for (EcouteurReseau e : ecouteurs)
+            e.reseauReinitialise();
+    }
+
     /**
      * @return La carte des connexions actuelles, associant chaque générateur à sa
-     *         liste de maisons.
+     *         liste de maisons. Il s'agit d'une vue en lecture seule qui reflète
+     *         les modifications ultérieures ; pour un parcours cohérent depuis un
+     *         autre thread, utiliser {@link #instantane()}.
      */
     public Map<Generateur, List<Maison>> getConnexions() {
-        return connexions;
+        return Collections.unmodifiableMap(vueConnexions);
     }
 
     /**
-     * @return La liste des maisons qui ne sont actuellement connectées à aucun
-     *         générateur.
+     * @return La liste (en lecture seule) des maisons qui ne sont actuellement
+     *         connectées à aucun générateur.
      */
     public List<Maison> getMaisonsNonConnectees() {
-        return maisonsNonConnectees;
+        return Collections.unmodifiableList(maisonsNonConnectees);
+    }
+
+    /**
+     * Capture un instantané immuable et cohérent du réseau.
+     * Seuls les générateurs modifiés depuis l'instantané précédent sont recopiés ;
+     * les autres sont partagés avec lui. Si rien n'a changé, l'instantané précédent
+     * est renvoyé tel quel.
+     * Cette méthode doit être appelée par le thread qui modifie le réseau ;
+     * l'instantané obtenu peut ensuite être lu par n'importe quel thread, par
+     * exemple via {@link #getDernierInstantane()}.
+     *
+     * @return L'instantané correspondant à l'état actuel du réseau.
+     */
+    public InstantaneReseau instantane() {
+        InstantaneReseau precedent = dernierInstantane;
+        if (precedent != null && generateursModifies.isEmpty() && !nonConnecteesModifiees
+                && precedent.getLambda() == lambda) {
+            return precedent;
+        }
+
+        int nbGenerateurs = connexions.size();
+        int taille = InstantaneReseau.TAILLE_BLOC;
+        int nbBlocs = (nbGenerateurs + taille - 1) / taille;
+        InstantaneReseau.Entree[][] blocs = precedent == null
+                ? new InstantaneReseau.Entree[nbBlocs][]
+                : Arrays.copyOf(precedent.blocs, nbBlocs);
+        boolean[] blocsCopies = new boolean[nbBlocs];
+
+        for (Generateur g : generateursModifies) {
+            int i = indices.get(g);
+            int b = i / taille;
+            if (!blocsCopies[b]) {
+                blocs[b] = blocs[b] == null ? new InstantaneReseau.Entree[taille] : blocs[b].clone();
+                blocsCopies[b] = true;
+            }
+            blocs[b][i % taille] = new InstantaneReseau.Entree(g, List.copyOf(connexions.get(g)), charges.get(g),
+                    g.getCapacite());
+        }
+        generateursModifies.clear();
+
+        List<Maison> nonConnectees;
+        String[] nomsNonConnectees;
+        TypeConso[] typesNonConnectees;
+        if (precedent == null || nonConnecteesModifiees) {
+            nonConnectees = List.copyOf(maisonsNonConnectees);
+            nomsNonConnectees = InstantaneReseau.noms(nonConnectees);
+            typesNonConnectees = InstantaneReseau.types(nonConnectees);
+        } else {
+            nonConnectees = precedent.getMaisonsNonConnectees();
+            nomsNonConnectees = precedent.nomsNonConnectees;
+            typesNonConnectees = precedent.typesNonConnectees;
+        }
+        nonConnecteesModifiees = false;
+
+        InstantaneReseau instantane = new InstantaneReseau(blocs, nbGenerateurs, nonConnectees, nomsNonConnectees,
+                typesNonConnectees, lambda, capaciteTotale, consommationTotale);
+        dernierInstantane = instantane;
+        return instantane;
+    }
+
+    /**
+     * Reconstruit un réseau modifiable, indépendant de l'original, à partir d'un
+     * instantané : générateurs et maisons sont recopiés, avec les capacités,
+     * types de consommation et connexions figés dans l'instantané.
+     *
+     * @param instantane L'instantané à recopier.
+     * @return Un nouveau réseau silencieux (voir {@link #setVerbeux(boolean)}).
+     */
+    public static Reseau depuisInstantane(InstantaneReseau instantane) {
+        Reseau reseau = new Reseau();
+        reseau.setVerbeux(false);
+        reseau.setLambda(instantane.getLambda());
+
+        int nbGenerateurs = instantane.getNombreGenerateurs();
+        for (int i = 0; i < nbGenerateurs; i++) {
+            InstantaneReseau.Entree e = instantane.entree(i);
+            reseau.ajouterGenerateur(new Generateur(e.nom, e.capacite));
+        }
+        for (int i = 0; i < nbGenerateurs; i++) {
+            InstantaneReseau.Entree e = instantane.entree(i);
+            for (int j = 0; j < e.types.length; j++)
+                reseau.ajouterMaison(new Maison(e.noms[j], e.types[j]));
+        }
+        for (int j = 0; j < instantane.nomsNonConnectees.length; j++) {
+            reseau.ajouterMaison(new Maison(instantane.nomsNonConnectees[j], instantane.typesNonConnectees[j]));
+        }
+        for (int i = 0; i < nbGenerateurs; i++) {
+            InstantaneReseau.Entree e = instantane.entree(i);
+            for (String nom : e.noms)
+                reseau.ajouterConnexion(nom, e.nom);
+        }
+        reseau.historique.vider();
+        return reseau;
+    }
+
+    /**
+     * @return Le dernier instantané capturé par {@link #instantane()}, ou
+     *         {@code null} si aucun ne l'a encore été. Peut être appelée depuis
+     *         n'importe quel thread.
+     */
+    public InstantaneReseau getDernierInstantane() {
+        return dernierInstantane;
+    }
+
+    /**
+     * @return L'historique des mouvements de maisons, qui permet notamment d'en
+     *         consulter la taille ou d'en modifier la capacité.
+     */
+    public HistoriqueMouvements getHistorique() {
+        return historique;
+    }
+
+    /**
+     * Annule les {@code k} derniers mouvements de maisons (connexions,
+     * déconnexions, déplacements, y compris ceux des algorithmes d'optimisation).
+     * Le coût est proportionnel à {@code k}, pas à la taille du réseau.
+     *
+     * @param k Le nombre de mouvements à annuler.
+     * @return Le nombre de mouvements effectivement annulés (inférieur à
+     *         {@code k} si l'historique en contient moins).
+     */
+    public int annuler(int k) {
+        int n = 0;
+        while (n < k) {
+            HistoriqueMouvements.Mouvement m = historique.depilerAnnulation();
+            if (m == null)
+                break;
+            appliquer(m.inverse());
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * Annule tous les mouvements enregistrés depuis le dernier repère posé par
+     * {@link HistoriqueMouvements#poserRepere()}, par exemple pour annuler d'un
+     * bloc la dernière optimisation et les modifications qui l'ont suivie. Si ce
+     * repère a été oublié faute de capacité, tous les mouvements encore
+     * conservés sont annulés ; s'il n'y a aucun repère, rien n'est annulé.
+     *
+     * @return Le nombre de mouvements annulés.
+     */
+    public int annulerJusquAuRepere() {
+        if (!historique.hasRepere())
+            return 0;
+        int n = 0;
+        HistoriqueMouvements.Mouvement m;
+        while ((m = historique.depilerAnnulationJusquAuRepere()) != null) {
+            appliquer(m.inverse());
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * Rétablit les {@code k} derniers mouvements annulés.
+     *
+     * @param k Le nombre de mouvements à rétablir.
+     * @return Le nombre de mouvements effectivement rétablis.
+     */
+    public int retablir(int k) {
+        int n = 0;
+        while (n < k) {
+            HistoriqueMouvements.Mouvement m = historique.depilerRetablissement();
+            if (m == null)
+                break;
+            appliquer(m);
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * Applique un mouvement sans l'enregistrer dans l'historique.
+     *
+     * @param m Le mouvement à appliquer.
+     */
+    private void appliquer(HistoriqueMouvements.Mouvement m) {
+        if (m.depuis() == null) {
+            connecter(m.maison(), m.vers());
+        } else if (m.vers() == null) {
+            deconnecter(m.maison(), m.depuis());
+        } else {
+            deplacer(m.maison(), m.depuis(), m.vers());
+        }
     }
 
     /**
@@ -80,28 +505,49 @@ public class Reseau {
      * @param g Le générateur à ajouter ou dont la capacité doit être mise à jour.
      */
     public void ajouterGenerateur(Generateur g) {
-        for (Generateur existant : connexions.keySet()) {
-            if (existant.getNom().equalsIgnoreCase(g.getNom())) {
-                int ancienneCapacite = existant.getCapacite();
-                int nouvelleCapacite = g.getCapacite();
-                int nouvelleCapaciteTotale = capaciteTotale - ancienneCapacite + nouvelleCapacite;
-
-                if (nouvelleCapaciteTotale < consommationTotale) {
-                    throw new IllegalArgumentException("La capacité totale (" + nouvelleCapaciteTotale
-                            + " kW) serait insuffisante pour la consommation actuelle (" + consommationTotale
-                            + " kW).");
-                }
-
-                existant.setCapacite(nouvelleCapacite);
-                capaciteTotale = nouvelleCapaciteTotale;
-                System.out.println("Le générateur " + existant.getNom() + " a été mis à jour.");
-                return;
+        Generateur existant = generateursParCle.get(g.getCle());
+        if (existant != null) {
+            int ancienneCapacite = existant.getCapacite();
+            int nouvelleCapacite = g.getCapacite();
+            int nouvelleCapaciteTotale = capaciteTotale - ancienneCapacite + nouvelleCapacite;
+
+            if (nouvelleCapaciteTotale < consommationTotale) {
+                throw new IllegalArgumentException("La capacité totale (" + nouvelleCapaciteTotale
+                        + " kW) serait insuffisante pour la consommation actuelle (" + consommationTotale
+                        + " kW).");
             }
+
+            existant.setCapacite(nouvelleCapacite);
+            arbreTaux.mettreAJour(indices.get(existant), taux(existant));
+            capaciteTotale = nouvelleCapaciteTotale;
+            generateursModifies.add(existant);
+            generateursAReparer.add(existant);
+            if (verbeux)
+                journal("Le générateur " + existant.getNom() + " a été mis à jour.");
+            for (EcouteurReseau e : ecouteurs)
+                e.generateurModifie(existant);
+            return;
         }
 
-        connexions.put(g, new ArrayList<>());
+        ListeIndexee<Maison> maisons = new ListeIndexee<>();
+        generateursParCle.put(g.getCle(), g);
+        g.inscrire(inscription);
+        connexions.put(g, maisons);
+        vuesParIndice.add(Collections.unmodifiableList(maisons));
+        charges.put(g, 0);
+        indices.put(g, indices.size());
+        generateursParIndice.add(g);
+        int[] tetes = new int[TypeConso.values().length];
+        Arrays.fill(tetes, -1);
+        tetesParType.add(tetes);
+        arbreTaux.mettreAJour(indices.get(g), 0);
+        generateursModifies.add(g);
+        generateursAReparer.add(g);
         capaciteTotale += g.getCapacite();
-        System.out.println("Le générateur " + g.getNom() + " a été créé.");
+        if (verbeux)
+            journal("Le générateur " + g.getNom() + " a été créé.");
+        for (EcouteurReseau e : ecouteurs)
+            e.generateurAjoute(g);
     }
 
     /**
@@ -115,40 +561,34 @@ public class Reseau {
     public void ajouterMaison(Maison m) {
         int nouvelleConso = m.getTypeConso().getConsommation();
 
-        for (List<Maison> liste : connexions.values()) {
-            for (Maison existante : liste) {
-                if (existante.getNom().equalsIgnoreCase(m.getNom())) {
-                    int ancienneConso = existante.getTypeConso().getConsommation();
-                    int majTotale = consommationTotale - ancienneConso + nouvelleConso;
-
-                    if (majTotale > capaciteTotale) {
-                        throw new IllegalArgumentException("Capacité totale insuffisante (" + capaciteTotale
-                                + " kW) pour cette mise à jour (" + majTotale + " kW).");
-                    }
+        Maison existante = maisonsParCle.get(m.getCle());
+        if (existante != null) {
+            Generateur g = generateurDe.get(existante);
+            int ancienneConso = existante.getTypeConso().getConsommation();
+            int majTotale = consommationTotale - ancienneConso + nouvelleConso;
 
-                    existante.setTypeConso(m.getTypeConso());
-                    consommationTotale = majTotale;
-                    System.out.println("La maison " + existante.getNom() + " a été mise à jour.");
-                    return;
-                }
+            if (majTotale > capaciteTotale) {
+                throw new IllegalArgumentException("Capacité totale insuffisante (" + capaciteTotale
+                        + " kW) pour cette mise à jour (" + majTotale + " kW).");
             }
-        }
-
-        for (Maison existante : maisonsNonConnectees) {
-            if (existante.getNom().equalsIgnoreCase(m.getNom())) {
-                int ancienneConso = existante.getTypeConso().getConsommation();
-                int majTotale = consommationTotale - ancienneConso + nouvelleConso;
-
-                if (majTotale > capaciteTotale) {
-                    throw new IllegalArgumentException("Capacité totale insuffisante (" + capaciteTotale
-                            + " kW) pour cette mise à jour (" + majTotale + " kW).");
-                }
 
-                existante.setTypeConso(m.getTypeConso());
-                consommationTotale = majTotale;
-                System.out.println("La maison " + existante.getNom() + " a été mise à jour.");
-                return;
+            if (g != null)
+                delierType(existante, g);
+            existante.setTypeConso(m.getTypeConso());
+            consommationTotale = majTotale;
+            if (g != null) {
+                lierType(existante, g);
+                ajusterCharge(g, nouvelleConso - ancienneConso);
+                generateursModifies.add(g);
+                generateursAReparer.add(g);
+            } else {
+                nonConnecteesModifiees = true;
             }
+            if (verbeux)
+                journal("La maison " + existante.getNom() + " a été mise à jour.");
+            for (EcouteurReseau e : ecouteurs)
+                e.maisonModifiee(existante, g);
+            return;
         }
 
         int nouvelleTotale = consommationTotale + nouvelleConso;
@@ -158,8 +598,22 @@ public class Reseau {
         }
 
         maisonsNonConnectees.add(m);
+        indicesMaisons.put(m, maisonsParIndice.size());
+        maisonsParIndice.add(m);
+        if (maisonsParIndice.size() > typesLies.length) {
+            int capacite = 2 * typesLies.length;
+            suivantsMemeType = Arrays.copyOf(suivantsMemeType, capacite);
+            precedentsMemeType = Arrays.copyOf(precedentsMemeType, capacite);
+            typesLies = Arrays.copyOf(typesLies, capacite);
+        }
+        maisonsParCle.put(m.getCle(), m);
+        m.inscrire(inscription);
+        nonConnecteesModifiees = true;
         consommationTotale = nouvelleTotale;
-        System.out.println("La maison " + m.getNom() + " a été créée.");
+        if (verbeux)
+            journal("La maison " + m.getNom() + " a été créée.");
+        for (EcouteurReseau e : ecouteurs)
+            e.maisonAjoutee(m);
     }
 
     /**
@@ -185,10 +639,11 @@ public class Reseau {
             throw new IllegalArgumentException("La maison '" + nomMaison + "' est déjà connectée.");
         }
 
-        connexions.get(g).add(m);
-        maisonsNonConnectees.remove(m);
-        System.out.println(
-                "La connexion entre la maison " + nomMaison + " et le générateur " + nomGenerateur + " a été créée.");
+        connecter(m, g);
+        historique.enregistrer(new HistoriqueMouvements.Mouvement(m, null, g));
+        if (verbeux)
+            journal("La connexion entre la maison " + nomMaison + " et le générateur " + nomGenerateur
+                    + " a été créée.");
     }
 
     /**
@@ -210,9 +665,10 @@ public class Reseau {
         }
 
         if (connexions.containsKey(g) && connexions.get(g).contains(m)) {
-            connexions.get(g).remove(m);
-            maisonsNonConnectees.add(m);
-            System.out.println("La connexion de la maison " + nomMaison + " a été supprimée.");
+            deconnecter(m, g);
+            historique.enregistrer(new HistoriqueMouvements.Mouvement(m, g, null));
+            if (verbeux)
+                journal("La connexion de la maison " + nomMaison + " a été supprimée.");
         } else {
             throw new IllegalArgumentException(
                     "La maison " + nomMaison + " n'est pas connectée au générateur " + nomGenerateur + ".");
@@ -259,7 +715,7 @@ public class Reseau {
         }
 
         boolean premierGenerateur = true;
-        for (Generateur g : connexions.keySet()) {
+        for (Generateur g : generateursParIndice) {
             if (!premierGenerateur) {
                 System.out.println();
             }
@@ -294,7 +750,7 @@ public class Reseau {
             sb.append("Aucun générateur dans le réseau.\n");
         } else {
             boolean premierGenerateur = true;
-            for (Map.Entry<Generateur, List<Maison>> entry : connexions.entrySet()) {
+            for (Map.Entry<Generateur, List<Maison>> entry : vueConnexions.entrySet()) {
                 if (!premierGenerateur) {
                     sb.append("\n");
                 }
@@ -333,11 +789,7 @@ public class Reseau {
      *         pas trouvé.
      */
     public Generateur getGenerateurParNom(String nom) {
-        for (Generateur g : connexions.keySet()) {
-            if (g.getNom().equalsIgnoreCase(nom))
-                return g;
-        }
-        return null;
+        return nom == null ? null : generateursParCle.get(IndexParCle.cle(nom));
     }
 
     /**
@@ -348,18 +800,169 @@ public class Reseau {
      *         pas trouvée.
      */
     public Maison getMaisonParNom(String nom) {
+        return nom == null ? null : maisonsParCle.get(IndexParCle.cle(nom));
+    }
 
-        for (List<Maison> liste : connexions.values()) {
-            for (Maison m : liste) {
-                if (m.getNom().equalsIgnoreCase(nom))
-                    return m;
-            }
-        }
-        for (Maison m : maisonsNonConnectees) {
-            if (m.getNom().equalsIgnoreCase(nom))
-                return m;
-        }
-        return null;
+    // ==================== Accès par identifiant ====================
+
+    /**
+     * @return Le nombre de générateurs du réseau ; leurs identifiants vont de 0 à
+     *         ce nombre exclu.
+     */
+    public int getNombreGenerateurs() {
+        return generateursParIndice.size();
+    }
+
+    /**
+     * @return Le nombre de maisons du réseau, connectées ou non ; leurs
+     *         identifiants vont de 0 à ce nombre exclu.
+     */
+    public int getNombreMaisons() {
+        return maisonsParIndice.size();
+    }
+
+    /**
+     * Donne l'identifiant d'un générateur : son rang de création dans le réseau,
+     * qui ne change plus ensuite, même s'il est renommé.
+     *
+     * @param g Le générateur.
+     * @return Son identifiant, ou -1 s'il n'appartient pas au réseau.
+     */
+    public int getIdentifiant(Generateur g) {
+        Integer id = indices.get(g);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Donne l'identifiant d'une maison : son rang de création dans le réseau, qui
+     * ne change plus ensuite, même si elle est renommée.
+     *
+     * @param m La maison.
+     * @return Son identifiant, ou -1 si elle n'appartient pas au réseau.
+     */
+    public int getIdentifiant(Maison m) {
+        Integer id = indicesMaisons.get(m);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @param id L'identifiant d'un générateur.
+     * @return Le générateur correspondant.
+     * @throws IllegalArgumentException si l'identifiant est inconnu.
+     */
+    public Generateur getGenerateur(int id) {
+        if (id < 0 || id >= generateursParIndice.size())
+            throw new IllegalArgumentException("Aucun générateur n'a l'identifiant " + id + ".");
+        return generateursParIndice.get(id);
+    }
+
+    /**
+     * @param id L'identifiant d'une maison.
+     * @return La maison correspondante.
+     * @throws IllegalArgumentException si l'identifiant est inconnu.
+     */
+    public Maison getMaison(int id) {
+        if (id < 0 || id >= maisonsParIndice.size())
+            throw new IllegalArgumentException("Aucune maison n'a l'identifiant " + id + ".");
+        return maisonsParIndice.get(id);
+    }
+
+    /**
+     * Connecte une maison non connectée à un générateur, sans passer par les noms.
+     *
+     * @param maison     L'identifiant de la maison.
+     * @param generateur L'identifiant du générateur.
+     * @throws IllegalArgumentException si un identifiant est inconnu ou si la
+     *                                  maison est déjà connectée.
+     */
+    public void ajouterConnexion(int maison, int generateur) {
+        Maison m = getMaison(maison);
+        Generateur g = getGenerateur(generateur);
+        if (generateurDe.containsKey(m))
+            throw new IllegalArgumentException("La maison '" + m.getNom() + "' est déjà connectée.");
+
+        connecter(m, g);
+        historique.enregistrer(new HistoriqueMouvements.Mouvement(m, null, g));
+        if (verbeux)
+            journal("La connexion entre la maison " + m.getNom() + " et le générateur " + g.getNom()
+                    + " a été créée.");
+    }
+
+    /**
+     * Déconnecte une maison de son générateur, sans passer par les noms.
+     *
+     * @param maison L'identifiant de la maison.
+     * @throws IllegalArgumentException si l'identifiant est inconnu ou si la
+     *                                  maison n'est pas connectée.
+     */
+    public void supprimerConnexion(int maison) {
+        Maison m = getMaison(maison);
+        Generateur g = generateurDe.get(m);
+        if (g == null)
+            throw new IllegalArgumentException("La maison " + m.getNom() + " n'est pas connectée.");
+
+        deconnecter(m, g);
+        historique.enregistrer(new HistoriqueMouvements.Mouvement(m, g, null));
+        if (verbeux)
+            journal("La connexion de la maison " + m.getNom() + " a été supprimée.");
+    }
+
+    /**
+     * Déplace une maison connectée vers un autre générateur, sans passer par les
+     * noms. Contrairement à
+     * {@link #modifierConnexion(String, String, String, String)}, le générateur
+     * d'origine n'a pas à être fourni et les erreurs lèvent une exception.
+     *
+     * @param maison     L'identifiant de la maison.
+     * @param generateur L'identifiant du générateur de destination.
+     * @throws IllegalArgumentException si un identifiant est inconnu, si la
+     *                                  maison n'est pas connectée ou si elle l'est
+     *                                  déjà à ce générateur.
+     */
+    public void modifierConnexion(int maison, int generateur) {
+        Maison m = getMaison(maison);
+        Generateur nouveau = getGenerateur(generateur);
+        Generateur ancien = generateurDe.get(m);
+        if (ancien == null)
+            throw new IllegalArgumentException("La maison " + m.getNom() + " n'est pas connectée.");
+        if (ancien == nouveau)
+            throw new IllegalArgumentException(
+                    "La maison " + m.getNom() + " est déjà connectée à " + nouveau.getNom() + ".");
+
+        deplacer(m, ancien, nouveau);
+        historique.enregistrer(new HistoriqueMouvements.Mouvement(m, ancien, nouveau));
+        if (verbeux)
+            journal("Connexion modifiée : " + m.getNom() + " passe de " + ancien.getNom() + " à "
+                    + nouveau.getNom() + ".");
+    }
+
+    /**
+     * @param maison L'identifiant d'une maison.
+     * @return L'identifiant du générateur qui l'alimente, ou -1 si elle n'est pas
+     *         connectée.
+     * @throws IllegalArgumentException si l'identifiant est inconnu.
+     */
+    public int getGenerateurDe(int maison) {
+        Generateur g = generateurDe.get(getMaison(maison));
+        return g == null ? -1 : indices.get(g);
+    }
+
+    /**
+     * @param generateur L'identifiant d'un générateur.
+     * @return Sa charge, en kW.
+     * @throws IllegalArgumentException si l'identifiant est inconnu.
+     */
+    public int getCharge(int generateur) {
+        return charges.get(getGenerateur(generateur));
+    }
+
+    /**
+     * @param generateur L'identifiant d'un générateur.
+     * @return Son taux d'utilisation, 0 si sa capacité est nulle.
+     * @throws IllegalArgumentException si l'identifiant est inconnu.
+     */
+    public double getTauxUtilisation(int generateur) {
+        return taux(getGenerateur(generateur));
     }
 
     /**
@@ -385,18 +988,32 @@ public class Reseau {
      */
     public double getTauxUtilisation(Generateur g) {
         if (!connexions.containsKey(g)) {
-            System.out.println(" Générateur " + g.getNom() + " non trouvé dans le réseau.");
+            journal(" Générateur " + g.getNom() + " non trouvé dans le réseau.");
             return 0;
         }
 
-        int charge = 0;
-        for (Maison m : connexions.get(g)) {
-            charge += m.getTypeConso().getConsommation();
-        }
+        return taux(g);
+    }
 
+    /**
+     * @return Le taux d'utilisation d'un générateur du réseau, 0 si sa capacité
+     *         est nulle.
+     */
+    private double taux(Generateur g) {
         if (g.getCapacite() == 0)
             return 0;
-        return (double) charge / g.getCapacite();
+        return (double) charges.get(g) / g.getCapacite();
+    }
+
+    /**
+     * Modifie la charge d'un générateur et tient à jour l'arbre des taux.
+     *
+     * @param g     Le générateur.
+     * @param delta La variation de charge, en kW.
+     */
+    private void ajusterCharge(Generateur g, int delta) {
+        charges.merge(g, delta, Integer::sum);
+        arbreTaux.mettreAJour(indices.get(g), taux(g));
     }
 
     /**
@@ -409,43 +1026,22 @@ public class Reseau {
         if (connexions.isEmpty())
             return 0;
 
-        Map<Generateur, Double> taux = new HashMap<>();
-        double somme = 0;
-
-        for (Generateur g : connexions.keySet()) {
-            double u = getTauxUtilisation(g);
-            taux.put(g, u);
-            somme += u;
-        }
-
-        double moyenne = somme / connexions.size();
-
-        double dispersion = 0;
-        for (double u : taux.values()) {
-            dispersion += Math.abs(u - moyenne);
-        }
-
-        return dispersion;
+        // Σ|u − moyenne| en O(log G), voir ArbreTaux
+        double moyenne = arbreTaux.sommeTotale() / connexions.size();
+        return arbreTaux.ecartAbsolu(moyenne);
     }
 
     /**
      * Calcule la surcharge totale du réseau.
-     * La surcharge est la somme des surcharges relatives de chaque générateur.
+     * La surcharge est la somme des surcharges relatives de chaque générateur,
+     * c'est-à-dire {@code Σ max(0, u − 1)}.
      *
      * @return La valeur de la surcharge.
      */
     public double surcharge() {
         if (connexions.isEmpty())
             return 0;
-        double surcharge = 0;
-        for (Generateur g : connexions.keySet()) {
-            double chargeActuelle = 0;
-            for (Maison m : connexions.get(g)) {
-                chargeActuelle += m.getTypeConso().getConsommation();
-            }
-            surcharge += Math.max(0, (double) (chargeActuelle - g.getCapacite()) / g.getCapacite());
-        }
-        return surcharge;
+        return arbreTaux.depassement(1.0);
     }
 
     /**
@@ -474,40 +1070,164 @@ public class Reseau {
         Generateur nouveauGen = getGenerateurParNom(nouveauGenerateur);
 
         if (maison == null) {
-            System.out.println("Erreur de modification : la maison '" + ancienneMaison + "' est introuvable.");
+            journal("Erreur de modification : la maison '" + ancienneMaison + "' est introuvable.");
             return;
         }
         if (ancienGen == null) {
-            System.out.println(
+            journal(
                     "Erreur de modification : l'ancien générateur '" + ancienGenerateur + "' est introuvable.");
             return;
         }
         if (nouveauGen == null) {
-            System.out.println(
+            journal(
                     "Erreur de modification : le nouveau générateur '" + nouveauGenerateur + "' est introuvable.");
             return;
         }
 
         if (!connexions.containsKey(ancienGen) || !connexions.get(ancienGen).contains(maison)) {
-            System.out.println("La maison " + maison.getNom() + " n'est pas connectée à " + ancienGen.getNom() + ".");
+            journal("La maison " + maison.getNom() + " n'est pas connectée à " + ancienGen.getNom() + ".");
             return;
         }
 
         if (!connexions.containsKey(nouveauGen)) {
-            System.out.println("Le générateur " + nouveauGenerateur + " n'existe pas dans le réseau.");
+            journal("Le générateur " + nouveauGenerateur + " n'existe pas dans le réseau.");
             return;
         }
 
         if (connexions.get(nouveauGen).contains(maison)) {
-            System.out.println("La maison " + maison.getNom() + " est déjà connectée à " + nouveauGen.getNom() + ".");
+            journal("La maison " + maison.getNom() + " est déjà connectée à " + nouveauGen.getNom() + ".");
             return;
         }
 
-        connexions.get(ancienGen).remove(maison);
-        connexions.get(nouveauGen).add(maison);
+        deplacer(maison, ancienGen, nouveauGen);
+        historique.enregistrer(new HistoriqueMouvements.Mouvement(maison, ancienGen, nouveauGen));
+
+        if (verbeux)
+            journal("Connexion modifiée : " + maison.getNom() +
+                    " passe de " + ancienGen.getNom() + " à " + nouveauGen.getNom() + ".");
+    }
+
+    /**
+     * Connecte une maison non connectée à un générateur, met à jour la charge du
+     * générateur et notifie les écouteurs. Aucune vérification n'est effectuée.
+     *
+     * @param m La maison à connecter.
+     * @param g Le générateur de destination.
+     */
+    private void connecter(Maison m, Generateur g) {
+        connexions.get(g).add(m);
+        lierType(m, g);
+        maisonsNonConnectees.remove(m);
+        generateurDe.put(m, g);
+        ajusterCharge(g, m.getTypeConso().getConsommation());
+        generateursModifies.add(g);
+        generateursAReparer.add(g);
+        nonConnecteesModifiees = true;
+        for (EcouteurReseau e : ecouteurs)
+            e.connexionAjoutee(m, g);
+    }
+
+    /**
+     * Déconnecte une maison de son générateur, met à jour la charge du générateur
+     * et notifie les écouteurs. Aucune vérification n'est effectuée.
+     *
+     * @param m La maison à déconnecter.
+     * @param g Le générateur qui l'alimente.
+     */
+    private void deconnecter(Maison m, Generateur g) {
+        connexions.get(g).remove(m);
+        delierType(m, g);
+        maisonsNonConnectees.add(m);
+        generateurDe.remove(m);
+        ajusterCharge(g, -m.getTypeConso().getConsommation());
+        generateursModifies.add(g);
+        generateursAReparer.add(g);
+        nonConnecteesModifiees = true;
+        for (EcouteurReseau e : ecouteurs)
+            e.connexionSupprimee(m, g);
+    }
+
+    /**
+     * Déplace une maison d'un générateur à un autre, met à jour les deux charges
+     * et notifie les écouteurs. Aucune vérification n'est effectuée.
+     *
+     * @param m       La maison à déplacer.
+     * @param ancien  Le générateur d'origine.
+     * @param nouveau Le générateur de destination.
+     */
+    private void deplacer(Maison m, Generateur ancien, Generateur nouveau) {
+        int conso = m.getTypeConso().getConsommation();
+        connexions.get(ancien).remove(m);
+        connexions.get(nouveau).add(m);
+        delierType(m, ancien);
+        lierType(m, nouveau);
+        generateurDe.put(m, nouveau);
+        ajusterCharge(ancien, -conso);
+        ajusterCharge(nouveau, conso);
+        generateursModifies.add(ancien);
+        generateursModifies.add(nouveau);
+        generateursAReparer.add(ancien);
+        generateursAReparer.add(nouveau);
+        for (EcouteurReseau e : ecouteurs)
+            e.connexionModifiee(m, ancien, nouveau);
+    }
+
+    /**
+     * Ajoute une maison en tête de la chaîne des maisons de son type connectées à
+     * {@code g}, en O(1). Les chaînes donnent à {@link #algoIncremental(Reseau,
+     * double)} une maison de chaque type d'un générateur sans parcourir ses
+     * maisons.
+     */
+    private void lierType(Maison m, Generateur g) {
+        int i = indicesMaisons.get(m);
+        int t = m.getTypeConso().ordinal();
+        int[] tetes = tetesParType.get(indices.get(g));
+        typesLies[i] = (byte) t;
+        precedentsMemeType[i] = -1;
+        suivantsMemeType[i] = tetes[t];
+        if (tetes[t] >= 0)
+            precedentsMemeType[tetes[t]] = i;
+        tetes[t] = i;
+    }
+
+    /**
+     * Retire une maison de la chaîne de son type chez {@code g}, en O(1) ; le
+     * type est celui qu'elle avait à son ajout dans la chaîne.
+     */
+    private void delierType(Maison m, Generateur g) {
+        int i = indicesMaisons.get(m);
+        int precedent = precedentsMemeType[i];
+        int suivant = suivantsMemeType[i];
+        if (precedent >= 0)
+            suivantsMemeType[precedent] = suivant;
+        else
+            tetesParType.get(indices.get(g))[typesLies[i]] = suivant;
+        if (suivant >= 0)
+            precedentsMemeType[suivant] = precedent;
+    }
+
+    /**
+     * @return Une maison de type {@code type} connectée à {@code g}, ou
+     *         {@code null} s'il n'en a aucune ; en O(1).
+     */
+    Maison maisonDeType(Generateur g, TypeConso type) {
+        int i = tetesParType.get(indices.get(g))[type.ordinal()];
+        return i < 0 ? null : maisonsParIndice.get(i);
+    }
 
-        System.out.println("Connexion modifiée : " + maison.getNom() +
-                " passe de " + ancienGen.getNom() + " à " + nouveauGen.getNom() + ".");
+    /**
+     * Déplace une maison pour le compte d'un optimiseur du paquetage, sans
+     * vérification.
+     *
+     * @param m           La maison à déplacer.
+     * @param ancien      Le générateur d'origine.
+     * @param nouveau     Le générateur de destination.
+     * @param enregistrer {@code true} pour inscrire le mouvement dans l'historique.
+     */
+    void deplacerMaison(Maison m, Generateur ancien, Generateur nouveau, boolean enregistrer) {
+        deplacer(m, ancien, nouveau);
+        if (enregistrer)
+            historique.enregistrer(new HistoriqueMouvements.Mouvement(m, ancien, nouveau));
     }
 
     /**
@@ -557,77 +1277,7 @@ public class Reseau {
      */
     public void chargerReseauDepuisFichier(String path) {
         try (BufferedReader br = new BufferedReader(new FileReader(path))) {
-
-            String ligne;
-            int etape = 0;
-            int numeroLigne = 0;
-
-            while ((ligne = br.readLine()) != null) {
-                numeroLigne++;
-                ligne = ligne.trim();
-
-                if (ligne.isEmpty())
-                    continue;
-
-                if (!ligne.endsWith(".")) {
-                    throw new IllegalArgumentException(
-                            "ligne " + numeroLigne + ") : ligne sans point final -> " + ligne);
-                }
-
-                ligne = ligne.substring(0, ligne.length() - 1);
-
-                if (ligne.toLowerCase().startsWith("generateur(")) {
-                    if (etape > 0)
-                        throw new IllegalArgumentException("ligne " + numeroLigne +
-                                ") : générateur après les maisons -> " + ligne);
-
-                    etape = 0;
-
-                    try {
-                        parseGenerateur(ligne);
-                    } catch (Exception e) {
-                        throw new IllegalArgumentException(
-                                "ligne " + numeroLigne + ") : " + e.getMessage());
-                    }
-                    continue;
-                }
-
-                if (ligne.toLowerCase().startsWith("maison(")) {
-                    if (etape > 1)
-                        throw new IllegalArgumentException("ligne " + numeroLigne +
-                                ") : maison après les connexions -> " + ligne);
-
-                    etape = 1;
-
-                    try {
-                        parseMaison(ligne);
-                    } catch (Exception e) {
-                        throw new IllegalArgumentException(
-                                "ligne " + numeroLigne + ") : " + e.getMessage());
-                    }
-                    continue;
-                }
-
-                if (ligne.toLowerCase().startsWith("connexion(")) {
-                    etape = 2;
-
-                    try {
-                        parseConnexion(ligne);
-                    } catch (Exception e) {
-                        throw new IllegalArgumentException(
-                                "ligne " + numeroLigne + ") : " + e.getMessage());
-                    }
-                    continue;
-                }
-
-                throw new IllegalArgumentException(
-                        "ligne " + numeroLigne + ") : syntaxe inconnue -> " + ligne);
-            }
-
-            if (!isValide()) {
-                throw new IllegalStateException(" Certaines maisons ne sont pas connectées )");
-            }
-
+            chargerReseau(br);
         } catch (FileNotFoundException e) {
             throw new IllegalArgumentException("Fichier non trouvé : " + path);
         } catch (IOException e) {
@@ -636,138 +1286,105 @@ public class Reseau {
     }
 
     /**
-     * Analyse une chaîne de caractères pour en extraire les informations d'un
-     * générateur
-     * et l'ajouter au réseau.
-     * Le format attendu est "generateur(nom,capacité)".
+     * Charge une configuration de réseau depuis un flux de caractères au format
+     * texte du réseau (générateurs, puis maisons, puis connexions).
+     * Le flux n'est pas fermé par cette méthode.
      *
-     * @param ligne La chaîne à analyser.
-     * @throws IllegalArgumentException si le format est invalide ou si la capacité
-     *                                  n'est pas un nombre.
+     * @param source Le flux à lire.
+     * @throws IOException              en cas d'erreur de lecture.
+     * @throws IllegalArgumentException si le contenu contient des erreurs de
+     *                                  syntaxe ou de logique.
+     * @throws IllegalStateException    si, à la fin du chargement, le réseau n'est
+     *                                  pas valide (maisons non connectées).
      */
-    private void parseGenerateur(String ligne) {
-        ligne = ligne.substring("generateur(".length(), ligne.length() - 1);
-        String[] parts = ligne.split(",");
-
-        if (parts.length != 2) {
-            throw new IllegalArgumentException(
-                    "Format générateur invalide, attendu : generateur(nom,capacité) -> " + ligne);
-        }
-
-        String nom = parts[0].trim();
-        int capacite;
+    public void chargerReseau(Reader source) throws IOException {
         try {
-            capacite = Integer.parseInt(parts[1].trim());
-        } catch (NumberFormatException e) {
-            throw new IllegalArgumentException(
-                    "La capacité du générateur doit être un nombre entier. Valeur reçue : '" + parts[1].trim() + "'");
+            lireReseau(source);
+        } finally {
+            notifierReinitialisation();
         }
-
-        ajouterGenerateur(new Generateur(nom, capacite));
     }
 
     /**
-     * Analyse une chaîne de caractères pour en extraire les informations d'une
-     * maison
-     * et l'ajouter au réseau.
-     * Le format attendu est "maison(nom,TYPE_CONSO)".
-     *
-     * @param ligne La chaîne à analyser.
-     * @throws IllegalArgumentException si le format est invalide ou si le type de
-     *                                  consommation est inconnu.
+     * Corps de {@link #chargerReseau(Reader)}, sans la notification finale. Les
+     * connexions du fichier ne sont pas des mouvements : l'historique est vidé
+     * après la lecture, pour qu'une annulation ne déconnecte pas les maisons
+     * chargées.
      */
-    private void parseMaison(String ligne) {
-        ligne = ligne.substring("maison(".length(), ligne.length() - 1);
-        String[] parts = ligne.split(",");
-
-        if (parts.length != 2) {
-            throw new IllegalArgumentException("Format maison invalide : " + ligne);
-        }
+    private void lireReseau(Reader source) throws IOException {
+        LecteurReseau.lire(source, new LecteurReseau.Destination() {
+            @Override
+            public void generateur(String nom, int capacite) {
+                ajouterGenerateur(new Generateur(nom, capacite));
+            }
 
-        String nom = parts[0].trim();
-        String type = parts[1].trim().toUpperCase();
+            @Override
+            public void maison(String nom, TypeConso type) {
+                ajouterMaison(new Maison(nom, type));
+            }
 
-        TypeConso conso;
+            @Override
+            public void connexion(String a, String b) {
+                Maison m = getMaisonParNom(a);
+                Generateur g = getGenerateurParNom(b);
+                if (m == null || g == null) {
+                    m = getMaisonParNom(b);
+                    g = getGenerateurParNom(a);
+                }
+                if (m == null || g == null)
+                    throw new IllegalArgumentException("Connexion impossible : " + a + " - " + b);
+                ajouterConnexion(m.getNom(), g.getNom());
+            }
+        });
+        historique.vider();
 
-        try {
-            conso = TypeConso.valueOf(type);
-        } catch (Exception e) {
-            throw new IllegalArgumentException("Type de consommation inconnu : " + type);
+        if (!isValide()) {
+            throw new IllegalStateException(" Certaines maisons ne sont pas connectées )");
         }
-
-        ajouterMaison(new Maison(nom, conso));
     }
 
     /**
-     * Analyse une chaîne de caractères pour créer une connexion entre une maison et
-     * un générateur.
-     * Le format attendu est "connexion(nomMaison,nomGenerateur)".
+     * Réinitialise le tirage aléatoire de {@link #getMaisonAleatoire()},
+     * {@link #getGenerateurAleatoire()} et {@link #algoNaif(Reseau, int)}. Deux
+     * réseaux construits de la même manière et initialisés avec la même graine
+     * font exactement les mêmes tirages.
      *
-     * @param ligne La chaîne à analyser.
-     * @throws IllegalArgumentException si le format est invalide ou si les entités
-     *                                  n'existent pas.
+     * @param graine La graine.
      */
-    private void parseConnexion(String ligne) {
-        ligne = ligne.substring("connexion(".length(), ligne.length() - 1);
-        String[] parts = ligne.split(",");
-
-        if (parts.length != 2) {
-            throw new IllegalArgumentException("Format connexion invalide : " + ligne);
-        }
-
-        String a = parts[0].trim();
-        String b = parts[1].trim();
-
-        Maison m = getMaisonParNom(a);
-        Generateur g = getGenerateurParNom(b);
-
-        if (m != null && g != null) {
-            ajouterConnexion(m.getNom(), g.getNom());
-            return;
-        }
-
-        m = getMaisonParNom(b);
-        g = getGenerateurParNom(a);
-
-        if (m != null && g != null) {
-            ajouterConnexion(m.getNom(), g.getNom());
-            return;
-        }
-
-        throw new IllegalArgumentException("Connexion impossible : " + a + " - " + b);
+    public void setGraine(long graine) {
+        aleatoire = new SplitMix64(graine);
     }
 
     /**
+     * Tire un générateur en O(1), sans allocation, dans l'ordre d'insertion.
+     *
      * @return Un générateur aléatoire du réseau, ou {@code null} s'il n'y en a pas.
      */
     public Generateur getGenerateurAleatoire() {
-        List<Generateur> liste = new ArrayList<>(connexions.keySet());
-        if (liste.isEmpty())
+        if (generateursParIndice.isEmpty())
             return null;
-        return liste.get(new Random().nextInt(liste.size()));
+        return generateursParIndice.get(aleatoire.entier(generateursParIndice.size()));
     }
 
     /**
+     * Tire une maison en O(1), sans allocation, dans l'ordre de création.
+     *
      * @return Une maison aléatoire du réseau (connectée ou non), ou {@code null}
      *         s'il n'y en a pas.
      */
     public Maison getMaisonAleatoire() {
-        List<Maison> toutesLesMaison = new ArrayList<>();
-        for (List<Maison> l : connexions.values()) {
-            toutesLesMaison.addAll(l);
-        }
-        toutesLesMaison.addAll(maisonsNonConnectees);
-
-        if (toutesLesMaison.isEmpty())
+        if (maisonsParIndice.isEmpty())
             return null;
-        return toutesLesMaison.get(new Random().nextInt(toutesLesMaison.size()));
+        return maisonsParIndice.get(aleatoire.entier(maisonsParIndice.size()));
     }
 
     /**
      * Exécute un algorithme d'optimisation simple (recherche locale naïve)
      * pendant un nombre fixe d'itérations.
-     * À chaque itération, une maison est déplacée aléatoirement vers un autre
-     * générateur. Si le coût du réseau augmente, le changement est annulé.
+     * À chaque itération, une maison et un générateur sont tirés au hasard. Le
+     * coût du déplacement est évalué sans modifier le réseau, et la maison n'est
+     * déplacée que si le coût n'augmente pas : un essai refusé ne notifie pas
+     * les écouteurs. Une maison non connectée tirée au sort n'est pas déplacée.
      *
      * @param reseau Le réseau initial à optimiser.
      * @param k      Le nombre d'itérations à effectuer.
@@ -777,27 +1394,19 @@ public class Reseau {
         int i = 0;
 
         while (i < k) {
+            reseau.pointDeCession.ceder();
             Maison m = reseau.getMaisonAleatoire();
             Generateur g = reseau.getGenerateurAleatoire();
 
             if (m == null || g == null)
                 break;
 
-            double ancienCout = reseau.calculerCout();
-
-            String ancienGen = "";
-            for (Generateur gen : reseau.getConnexions().keySet()) {
-                if (reseau.getConnexions().get(gen).contains(m)) {
-                    ancienGen = gen.getNom();
-                    break;
-                }
-            }
-
-            reseau.modifierConnexion(m.getNom(), ancienGen, m.getNom(), g.getNom());
-            double nouveauCout = reseau.calculerCout();
-
-            if (nouveauCout > ancienCout) {
-                reseau.modifierConnexion(m.getNom(), g.getNom(), m.getNom(), ancienGen);
+            Generateur ancienGen = reseau.generateurDe.get(m);
+            if (ancienGen != null && ancienGen != g) {
+                double ancienCout = reseau.calculerCout();
+                int conso = m.getTypeConso().getConsommation();
+                if (reseau.coutApresDeplacement(ancienGen, g, conso) <= ancienCout)
+                    reseau.deplacerMaison(m, ancienGen, g, true);
             }
             i++;
         }
@@ -805,47 +1414,16 @@ public class Reseau {
     }
 
     /**
-     * Calcule le coût hypothétique d'une configuration donnée du réseau.
-     * Utilisé en interne par les algorithmes d'optimisation pour évaluer des solutions potentielles
-     * sans modifier l'état réel du réseau.
+     * Exécute {@link #algoNaif(Reseau, int)} avec un tirage reproductible.
      *
-     * @param reseau Le réseau de référence pour obtenir la valeur de lambda.
-     * @param assign Une carte représentant l'assignation des maisons aux générateurs à évaluer.
-     * @return Le coût calculé pour l'assignation hypothétique.
+     * @param reseau Le réseau initial à optimiser.
+     * @param k      Le nombre d'itérations à effectuer.
+     * @param graine La graine du tirage.
+     * @return Le réseau potentiellement optimisé après k itérations.
      */
-    private static double calculerCoutHypothese(Reseau reseau, Map<Generateur, List<Maison>> assign) {
-        double disp = 0;
-        double surcharge = 0;
-
-        int G = assign.size();
-        if (G == 0) return 0;
-
-        Map<Generateur, Double> taux = new HashMap<>();
-        double sommeTaux = 0;
-
-        for (Generateur g : assign.keySet()) {
-            int charge = 0;
-            for (Maison m : assign.get(g)) {
-                charge += m.getTypeConso().getConsommation();
-            }
-            double u = (g.getCapacite() == 0) ? 0 : (double) charge / g.getCapacite();
-            taux.put(g, u);
-            sommeTaux += u;
-        }
-
-        double moyenne = sommeTaux / G;
-
-        for (Generateur g : taux.keySet()) {
-            disp += Math.abs(taux.get(g) - moyenne);
-
-            int charge = 0;
-            for (Maison m : assign.get(g)) {
-                charge += m.getTypeConso().getConsommation();
-            }
-            surcharge += Math.max(0, (double) (charge - g.getCapacite()) / g.getCapacite());
-        }
-
-        return disp + reseau.getLambda() * surcharge;
+    public Reseau algoNaif(Reseau reseau, int k, long graine) {
+        reseau.setGraine(graine);
+        return algoNaif(reseau, k);
     }
 
     /**
@@ -870,6 +1448,36 @@ public class Reseau {
      * @return Le réseau avec une configuration potentiellement améliorée.
      */
     public static Reseau algoOptimise(Reseau reseau) {
+        return algoOptimise(reseau, ModeConstruction.EXHAUSTIF);
+    }
+
+    /**
+     * Exécute {@link #algoOptimise(Reseau)} avec la stratégie de construction
+     * donnée. Le mode {@link ModeConstruction#TAS} place chaque maison en
+     * O(log G) et convient aux très grands réseaux ; le mode
+     * {@link ModeConstruction#EXHAUSTIF} est celui de
+     * {@link #algoOptimise(Reseau)}.
+     *
+     * @param reseau Le réseau initial à optimiser.
+     * @param mode   La stratégie de construction.
+     * @return Le réseau avec une configuration potentiellement améliorée.
+     */
+    public static Reseau algoOptimise(Reseau reseau, ModeConstruction mode) {
+        if (mode == ModeConstruction.TAS)
+            optimiserParTas(reseau);
+        else
+            optimiserExhaustif(reseau);
+
+        reseau.generateursAReparer.clear();
+        reseau.coutReference = reseau.calculerCout();
+        return reseau;
+    }
+
+    /**
+     * Optimisation en mode {@link ModeConstruction#EXHAUSTIF}, décrite dans
+     * {@link #algoOptimise(Reseau)}.
+     */
+    private static void optimiserExhaustif(Reseau reseau) {
         List<Maison> maisons = new ArrayList<>();
         for (List<Maison> l : reseau.getConnexions().values()) {
             maisons.addAll(l);
@@ -880,87 +1488,74 @@ public class Reseau {
         generateurs.sort((a, b) -> Integer.compare(b.getCapacite(), a.getCapacite()));
         maisons.sort((a, b) -> Integer.compare(b.getTypeConso().getConsommation(), a.getTypeConso().getConsommation()));
 
-        // PHASE 2 : AFFECTATION GLOUTONNE
-        Map<Generateur, List<Maison>> assign = new LinkedHashMap<>();
-        Map<Generateur, Integer> charge = new LinkedHashMap<>();
+        // Les configurations sont évaluées sur des tableaux indexés, sans allocation
+        int nbGenerateurs = generateurs.size();
+        int[] capacites = new int[nbGenerateurs];
+        for (int g = 0; g < nbGenerateurs; g++)
+            capacites[g] = generateurs.get(g).getCapacite();
+        int[] consos = new int[maisons.size()];
+        for (int i = 0; i < consos.length; i++)
+            consos[i] = maisons.get(i).getTypeConso().getConsommation();
+        int[] charges = new int[nbGenerateurs];
+        int[] affectation = new int[maisons.size()];
+        EvaluateurAffectation evaluateur = new EvaluateurAffectation(consos, capacites, reseau.getLambda());
 
-        for (Generateur g : generateurs) {
-            assign.put(g, new ArrayList<>());
-            charge.put(g, 0);
-        }
-
-        for (Maison m : maisons) {
-            int conso = m.getTypeConso().getConsommation();
+        // PHASE 2 : AFFECTATION GLOUTONNE
+        for (int i = 0; i < consos.length; i++) {
+            reseau.pointDeCession.ceder();
+            int conso = consos[i];
             double bestCost = Double.MAX_VALUE;
-            Generateur bestG = null;
+            int bestG = -1;
 
             // Premier passage : respect strict des capacités
-            for (Generateur g : generateurs) {
-                if (charge.get(g) + conso > g.getCapacite()) continue;
-
-                assign.get(g).add(m);
-                charge.put(g, charge.get(g) + conso);
+            for (int g = 0; g < nbGenerateurs; g++) {
+                if (charges[g] + conso > capacites[g]) continue;
 
-                double cout = calculerCoutHypothese(reseau, assign);
+                charges[g] += conso;
+                double cout = evaluateur.evaluerCharges(charges);
                 if (cout < bestCost) {
                     bestCost = cout;
                     bestG = g;
                 }
-
-                assign.get(g).remove(m);
-                charge.put(g, charge.get(g) - conso);
+                charges[g] -= conso;
             }
 
             // Si aucun générateur ne respecte la capacité → on autorise surcharge
-            if (bestG == null) {
-                for (Generateur g : generateurs) {
-                    assign.get(g).add(m);
-                    charge.put(g, charge.get(g) + conso);
-
-                    double cout = calculerCoutHypothese(reseau, assign);
+            if (bestG < 0) {
+                for (int g = 0; g < nbGenerateurs; g++) {
+                    charges[g] += conso;
+                    double cout = evaluateur.evaluerCharges(charges);
                     if (cout < bestCost) {
                         bestCost = cout;
                         bestG = g;
                     }
-
-                    assign.get(g).remove(m);
-                    charge.put(g, charge.get(g) - conso);
+                    charges[g] -= conso;
                 }
             }
 
-            assign.get(bestG).add(m);
-            charge.put(bestG, charge.get(bestG) + conso);
+            affectation[i] = bestG;
+            charges[bestG] += conso;
         }
 
         // PHASE 3 : AMÉLIORATION LOCALE (recherche locale)
         boolean amelioration = true;
         while (amelioration) {
             amelioration = false;
-            for (Maison m : maisons) {
-                Generateur actuel = null;
-                for (Generateur g : generateurs) {
-                    if (assign.get(g).contains(m)) {
-                        actuel = g;
-                        break;
-                    }
-                }
-
-                if (actuel == null) continue;
-
-                int conso = m.getTypeConso().getConsommation();
-                double bestCost = calculerCoutHypothese(reseau, assign);
-                Generateur bestG = actuel;
-
-                for (Generateur g2 : generateurs) {
+            for (int i = 0; i < consos.length; i++) {
+                reseau.pointDeCession.ceder();
+                int actuel = affectation[i];
+                int conso = consos[i];
+                double bestCost = evaluateur.evaluerCharges(charges);
+                int bestG = actuel;
+
+                for (int g2 = 0; g2 < nbGenerateurs; g2++) {
                     if (g2 == actuel) continue;
-                    if (charge.get(g2) + conso > g2.getCapacite()) continue;
+                    if (charges[g2] + conso > capacites[g2]) continue;
 
-                    assign.get(actuel).remove(m);
-                    assign.get(g2).add(m);
-                    charge.put(actuel, charge.get(actuel) - conso);
-                    charge.put(g2, charge.get(g2) + conso);
+                    charges[actuel] -= conso;
+                    charges[g2] += conso;
 
-                    double cout = calculerCoutHypothese(reseau, assign);
+                    double cout = evaluateur.evaluerCharges(charges);
                     if (cout < bestCost) {
                         bestCost = cout;
                         bestG = g2;
@@ -968,36 +1563,648 @@ public class Reseau {
                     }
 
                     // Annuler le mouvement pour tester le prochain
-                    assign.get(g2).remove(m);
-                    assign.get(actuel).add(m);
-                    charge.put(g2, charge.get(g2) - conso);
-                    charge.put(actuel, charge.get(actuel) + conso);
+                    charges[g2] -= conso;
+                    charges[actuel] += conso;
                 }
 
                 if (bestG != actuel) {
-                    assign.get(actuel).remove(m);
-                    assign.get(bestG).add(m);
-                    charge.put(actuel, charge.get(actuel) - conso);
-                    charge.put(bestG, charge.get(bestG) + conso);
+                    affectation[i] = bestG;
+                    charges[actuel] -= conso;
+                    charges[bestG] += conso;
                 }
             }
         }
 
-        // Appliquer la meilleure configuration trouvée au réseau
-        for (Generateur g : reseau.getConnexions().keySet()) {
-            reseau.getConnexions().get(g).clear();
+        // Appliquer la meilleure configuration trouvée au réseau, générateur par
+        // générateur : seules les maisons qui changent de générateur sont déplacées
+        int[] debuts = new int[nbGenerateurs + 1];
+        for (int g : affectation)
+            debuts[g + 1]++;
+        for (int g = 0; g < nbGenerateurs; g++)
+            debuts[g + 1] += debuts[g];
+        int[] parGenerateur = new int[affectation.length];
+        for (int i = 0; i < affectation.length; i++)
+            parGenerateur[debuts[affectation[i]]++] = i;
+        for (int i : parGenerateur) {
+            Maison m = maisons.get(i);
+            Generateur ancien = reseau.generateurDe.get(m);
+            Generateur nouveau = generateurs.get(affectation[i]);
+            if (ancien != nouveau) {
+                reseau.deplacer(m, ancien, nouveau);
+                reseau.historique.enregistrer(new HistoriqueMouvements.Mouvement(m, ancien, nouveau));
+            }
         }
-        reseau.maisonsNonConnectees.clear();
-        reseau.maisonsNonConnectees.addAll(maisons);
+    }
 
-        for (Map.Entry<Generateur, List<Maison>> entry : assign.entrySet()) {
-            for (Maison m : entry.getValue()) {
-                reseau.ajouterConnexion(m.getNom(), entry.getKey().getNom());
+    /**
+     * Optimisation en mode {@link ModeConstruction#TAS}. Les générateurs et les
+     * maisons sont indexés dans des tableaux ; pour chaque type de consommation,
+     * un tas indexé ordonne les générateurs par taux d'utilisation qu'ils
+     * auraient après l'ajout d'une maison de ce type.
+     *
+     * Phase 2 : chaque maison, de la plus consommatrice à la moins consommatrice,
+     * va au sommet du tas de son type. Ce générateur respecte la capacité s'il en
+     * existe un qui la respecte, sinon c'est celui dont la surcharge est la plus
+     * faible.
+     * Phase 3 : chaque maison est essayée sur le meilleur autre générateur de son
+     * tas, si la capacité le permet ; le coût est évalué en O(log G) grâce à un
+     * {@link ArbreTaux}.
+     */
+    private static void optimiserParTas(Reseau reseau) {
+        List<Maison> maisons = new ArrayList<>();
+        List<Integer> origines = new ArrayList<>();
+        List<Generateur> generateurs = new ArrayList<>(reseau.generateursParIndice);
+        for (int g = 0; g < generateurs.size(); g++) {
+            for (Maison m : reseau.connexions.get(generateurs.get(g))) {
+                maisons.add(m);
+                origines.add(g);
             }
         }
 
+        // PHASE 1 : TRI
+        Integer[] ordreGenerateurs = new Integer[generateurs.size()];
+        for (int g = 0; g < ordreGenerateurs.length; g++)
+            ordreGenerateurs[g] = g;
+        Arrays.sort(ordreGenerateurs, (a, b) -> Integer.compare(generateurs.get(b).getCapacite(), generateurs.get(a).getCapacite()));
+        int[] capacites = new int[ordreGenerateurs.length];
+        for (int g = 0; g < capacites.length; g++)
+            capacites[g] = generateurs.get(ordreGenerateurs[g]).getCapacite();
+        int[] ordreMaisons = ordreParConsommation(maisons);
+        int[] consos = new int[ordreMaisons.length];
+        for (int i = 0; i < consos.length; i++)
+            consos[i] = maisons.get(ordreMaisons[i]).getTypeConso().getConsommation();
+
+        // PHASES 2 ET 3
+        int[] affectationTriee = affecterParTas(consos, capacites, reseau.lambda, reseau.pointDeCession);
+
+        int[] affectation = new int[maisons.size()];
+        for (int i = 0; i < ordreMaisons.length; i++)
+            affectation[ordreMaisons[i]] = ordreGenerateurs[affectationTriee[i]];
+        int[] depart = origines.stream().mapToInt(Integer::intValue).toArray();
+        appliquerAffectation(reseau, maisons, depart, generateurs, affectation);
+    }
+
+    /**
+     * @param maisons Des maisons.
+     * @return Les indices des maisons, de la plus consommatrice à la moins
+     *         consommatrice ; l'ordre d'origine est conservé à consommation égale.
+     */
+    static int[] ordreParConsommation(List<Maison> maisons) {
+        TypeConso[] types = TypeConso.values();
+        int[] parType = new int[types.length + 1];
+        for (Maison m : maisons)
+            parType[types.length - m.getTypeConso().ordinal()]++;
+        for (int t = 1; t <= types.length; t++)
+            parType[t] += parType[t - 1];
+        int[] ordre = new int[maisons.size()];
+        for (int i = 0; i < maisons.size(); i++)
+            ordre[parType[types.length - 1 - maisons.get(i).getTypeConso().ordinal()]++] = i;
+        return ordre;
+    }
+
+    /**
+     * Phases 2 et 3 du mode {@link ModeConstruction#TAS}, sur des tableaux.
+     *
+     * @param consos    Les consommations des maisons, par ordre décroissant.
+     * @param capacites Les capacités des générateurs.
+     * @param lambda    Le coefficient de pénalisation de la surcharge.
+     * @param cession   Le point de cession, appelé pour chaque maison.
+     * @return Pour chaque maison, l'indice de son générateur.
+     */
+    static int[] affecterParTas(int[] consos, int[] capacites, int lambda, PointDeCession cession) {
+        int nbGenerateurs = capacites.length;
+        int[] charges = new int[nbGenerateurs];
+        TypeConso[] types = TypeConso.values();
+        TasIndexe[] tas = new TasIndexe[types.length];
+        for (int t = 0; t < types.length; t++) {
+            tas[t] = new TasIndexe(nbGenerateurs);
+            for (int g = 0; g < nbGenerateurs; g++) {
+                tas[t].mettreAJour(g, tauxApresAjout(charges, capacites, g, types[t].getConsommation()));
+            }
+        }
+
+        // PHASE 2 : AFFECTATION GLOUTONNE PAR TAS
+        // Les charges ne font qu'augmenter : seul le tas du type courant est mis à
+        // jour, les autres sont corrigés paresseusement lorsqu'une clé périmée
+        // (trop faible) arrive au sommet.
+        int[] affectation = new int[consos.length];
+        for (int i = 0; i < consos.length; i++) {
+            cession.ceder();
+            int conso = consos[i];
+            TasIndexe tasType = tas[typeDe(conso).ordinal()];
+            int g = tasType.minimum();
+            while (tasType.cle(g) != tauxApresAjout(charges, capacites, g, conso)) {
+                tasType.mettreAJour(g, tauxApresAjout(charges, capacites, g, conso));
+                g = tasType.minimum();
+            }
+            affectation[i] = g;
+            charges[g] += conso;
+            tasType.mettreAJour(g, tauxApresAjout(charges, capacites, g, conso));
+        }
+        for (int t = 0; t < types.length; t++) {
+            for (int g = 0; g < nbGenerateurs; g++) {
+                tas[t].mettreAJour(g, tauxApresAjout(charges, capacites, g, types[t].getConsommation()));
+            }
+        }
+
+        // PHASE 3 : AMÉLIORATION LOCALE (un seul candidat par maison)
+        ArbreTaux arbre = new ArbreTaux();
+        for (int g = 0; g < nbGenerateurs; g++) {
+            arbre.mettreAJour(g, tauxApresAjout(charges, capacites, g, 0));
+        }
+        double cout = coutArbre(arbre, lambda);
+
+        boolean amelioration = nbGenerateurs > 1;
+        while (amelioration) {
+            amelioration = false;
+            for (int i = 0; i < consos.length; i++) {
+                cession.ceder();
+                int conso = consos[i];
+                int actuel = affectation[i];
+
+                TasIndexe tasType = tas[typeDe(conso).ordinal()];
+                tasType.retirer(actuel);
+                int cible = tasType.minimum();
+                tasType.mettreAJour(actuel, tauxApresAjout(charges, capacites, actuel, conso));
+                if (charges[cible] + conso > capacites[cible])
+                    continue;
+
+                arbre.mettreAJour(actuel, tauxApresAjout(charges, capacites, actuel, -conso));
+                arbre.mettreAJour(cible, tauxApresAjout(charges, capacites, cible, conso));
+                double nouveauCout = coutArbre(arbre, lambda);
+                if (nouveauCout < cout - 1e-12) {
+                    charges[actuel] -= conso;
+                    charges[cible] += conso;
+                    affectation[i] = cible;
+                    for (int t = 0; t < types.length; t++) {
+                        tas[t].mettreAJour(actuel, tauxApresAjout(charges, capacites, actuel, types[t].getConsommation()));
+                        tas[t].mettreAJour(cible, tauxApresAjout(charges, capacites, cible, types[t].getConsommation()));
+                    }
+                    cout = nouveauCout;
+                    amelioration = true;
+                } else {
+                    arbre.mettreAJour(actuel, tauxApresAjout(charges, capacites, actuel, 0));
+                    arbre.mettreAJour(cible, tauxApresAjout(charges, capacites, cible, 0));
+                }
+            }
+        }
+        return affectation;
+    }
+
+    private static TypeConso typeDe(int conso) {
+        for (TypeConso t : TypeConso.values())
+            if (t.getConsommation() == conso)
+                return t;
+        throw new IllegalArgumentException("consommation inconnue : " + conso);
+    }
+
+    /**
+     * Applique une affectation calculée sur des tableaux. Les listes de connexions
+     * sont reconstruites en une passe : chaque générateur garde, dans leur ordre,
+     * les maisons qui y restent, puis reçoit les maisons déplacées. Chaque
+     * déplacement est enregistré dans l'historique comme avec
+     * {@link #deplacer(Maison, Generateur, Generateur)} ; les écouteurs reçoivent
+     * un seul {@link EcouteurReseau#reseauReinitialise()} pour l'ensemble.
+     *
+     * @param reseau      Le réseau.
+     * @param maisons     Toutes les maisons connectées, dans l'ordre des listes de connexions.
+     * @param origines    Pour chaque maison, l'indice de son générateur actuel.
+     * @param generateurs Les générateurs, indexés comme dans les affectations.
+     * @param affectation Pour chaque maison, l'indice de son nouveau générateur.
+     */
+    static void appliquerAffectation(Reseau reseau, List<Maison> maisons, int[] origines,
+            List<Generateur> generateurs, int[] affectation) {
+        int nbGenerateurs = generateurs.size();
+        List<List<Maison>> nouvelles = new ArrayList<>(nbGenerateurs);
+        int[] deltas = new int[nbGenerateurs];
+        boolean[] touches = new boolean[nbGenerateurs];
+        boolean modifie = false;
+        for (int g = 0; g < nbGenerateurs; g++)
+            nouvelles.add(new ArrayList<>());
+        for (int i = 0; i < maisons.size(); i++) {
+            if (origines[i] == affectation[i])
+                nouvelles.get(affectation[i]).add(maisons.get(i));
+        }
+        for (int i = 0; i < maisons.size(); i++) {
+            if (origines[i] != affectation[i]) {
+                int conso = maisons.get(i).getTypeConso().getConsommation();
+                nouvelles.get(affectation[i]).add(maisons.get(i));
+                deltas[origines[i]] -= conso;
+                deltas[affectation[i]] += conso;
+                touches[origines[i]] = true;
+                touches[affectation[i]] = true;
+                modifie = true;
+            }
+        }
+        if (!modifie)
+            return;
+
+        for (int g = 0; g < nbGenerateurs; g++) {
+            if (!touches[g])
+                continue;
+            Generateur gen = generateurs.get(g);
+            List<Maison> liste = reseau.connexions.get(gen);
+            liste.clear();
+            liste.addAll(nouvelles.get(g));
+            reseau.ajusterCharge(gen, deltas[g]);
+        }
+        for (int i = 0; i < maisons.size(); i++) {
+            if (origines[i] == affectation[i])
+                continue;
+            Maison m = maisons.get(i);
+            Generateur ancien = generateurs.get(origines[i]);
+            Generateur nouveau = generateurs.get(affectation[i]);
+            reseau.generateurDe.put(m, nouveau);
+            reseau.delierType(m, ancien);
+            reseau.lierType(m, nouveau);
+            reseau.generateursModifies.add(ancien);
+            reseau.generateursModifies.add(nouveau);
+            reseau.generateursAReparer.add(ancien);
+            reseau.generateursAReparer.add(nouveau);
+            reseau.historique.enregistrer(new HistoriqueMouvements.Mouvement(m, ancien, nouveau));
+        }
+        reseau.notifierReinitialisation();
+    }
+
+    /**
+     * @return Le taux d'utilisation du générateur {@code g} si sa charge variait
+     *         de {@code conso} ; l'infini si sa capacité est nulle.
+     */
+    private static double tauxApresAjout(int[] charges, int[] capacites, int g, int conso) {
+        if (capacites[g] == 0)
+            return conso > 0 ? Double.POSITIVE_INFINITY : 0;
+        return (double) (charges[g] + conso) / capacites[g];
+    }
+
+    /**
+     * @return Le coût {@code dispersion + lambda * surcharge} des taux contenus
+     *         dans l'arbre.
+     */
+    private static double coutArbre(ArbreTaux arbre, int lambda) {
+        if (arbre.taille() == 0)
+            return 0;
+        double moyenne = arbre.sommeTotale() / arbre.taille();
+        return arbre.ecartAbsolu(moyenne) + lambda * arbre.depassement(1.0);
+    }
+
+    /**
+     * Optimise le réseau sur sa représentation agrégée ({@link ModeleAgrege}) :
+     * la recherche ne manipule que trois compteurs par générateur, puis les
+     * compteurs obtenus sont reportés sur les connexions par
+     * {@link #appliquerModele(Reseau, ModeleAgrege)}. Les maisons non connectées
+     * restent non connectées.
+     *
+     * @param reseau Le réseau à optimiser.
+     * @return Le réseau avec une configuration potentiellement améliorée.
+     */
+    public static Reseau algoAgrege(Reseau reseau) {
+        ModeleAgrege modele = new ModeleAgrege(reseau);
+        modele.optimiser(reseau.pointDeCession);
+        appliquerModele(reseau, modele);
+
+        reseau.generateursAReparer.clear();
+        reseau.coutReference = reseau.calculerCout();
         return reseau;
     }
+
+    /**
+     * Optimise un très grand réseau en le découpant en régions résolues en
+     * parallèle, puis rééquilibrées aux frontières (voir {@link OptimiseurRegions}),
+     * avec au plus un thread de résolution par cœur, pris dans le pool commun de
+     * la JVM.
+     *
+     * @param reseau    Le réseau à optimiser.
+     * @param nbRegions Le nombre de régions.
+     * @return Le réseau avec une configuration potentiellement améliorée.
+     */
+    public static Reseau algoRegions(Reseau reseau, int nbRegions) {
+        return algoRegions(reseau, nbRegions, Runtime.getRuntime().availableProcessors(),
+                ExecutionParallele.parDefaut());
+    }
+
+    /**
+     * Optimise un très grand réseau en le découpant en régions résolues en
+     * parallèle, puis rééquilibrées aux frontières (voir {@link OptimiseurRegions}).
+     *
+     * @param reseau    Le réseau à optimiser.
+     * @param nbRegions Le nombre de régions.
+     * @param nbThreads Le nombre maximal de threads de résolution, thread
+     *                  appelant compris ; 1 pour tout résoudre dans le thread
+     *                  appelant.
+     * @param executeur L'exécuteur partagé qui fournit les threads d'appoint.
+     * @return Le réseau avec une configuration potentiellement améliorée.
+     */
+    public static Reseau algoRegions(Reseau reseau, int nbRegions, int nbThreads, Executor executeur) {
+        new OptimiseurRegions(nbRegions, nbThreads, executeur).optimiser(reseau, reseau.pointDeCession);
+
+        reseau.generateursAReparer.clear();
+        reseau.coutReference = reseau.calculerCout();
+        return reseau;
+    }
+
+    /**
+     * Optimise le réseau par algorithme génétique (voir {@link OptimiseurGenetique}),
+     * avec la population et le nombre de générations par défaut et au plus un
+     * thread d'évaluation par cœur, pris dans le pool commun de la JVM.
+     *
+     * @param reseau Le réseau à optimiser.
+     * @param graine La graine des tirages ; le résultat ne dépend que d'elle,
+     *               pas du nombre de cœurs.
+     * @return Le réseau avec une configuration potentiellement améliorée.
+     */
+    public static Reseau algoGenetique(Reseau reseau, long graine) {
+        return algoGenetique(reseau, graine, Runtime.getRuntime().availableProcessors(),
+                ExecutionParallele.parDefaut());
+    }
+
+    /**
+     * Optimise le réseau par algorithme génétique (voir {@link OptimiseurGenetique}),
+     * avec la population et le nombre de générations par défaut.
+     *
+     * @param reseau    Le réseau à optimiser.
+     * @param graine    La graine des tirages ; le résultat ne dépend que d'elle,
+     *                  pas du nombre de threads.
+     * @param nbThreads Le nombre maximal de threads d'évaluation, thread appelant
+     *                  compris ; 1 pour tout évaluer dans le thread appelant.
+     * @param executeur L'exécuteur partagé qui fournit les threads d'appoint.
+     * @return Le réseau avec une configuration potentiellement améliorée.
+     */
+    public static Reseau algoGenetique(Reseau reseau, long graine, int nbThreads, Executor executeur) {
+        new OptimiseurGenetique(OptimiseurGenetique.POPULATION_PAR_DEFAUT, OptimiseurGenetique.GENERATIONS_PAR_DEFAUT,
+                nbThreads, graine, executeur).optimiser(reseau, reseau.pointDeCession);
+
+        reseau.generateursAReparer.clear();
+        reseau.coutReference = reseau.calculerCout();
+        return reseau;
+    }
+
+    /**
+     * Exécute {@link #algoGenetique(Reseau, long)} avec une graine quelconque.
+     *
+     * @param reseau Le réseau à optimiser.
+     * @return Le réseau avec une configuration potentiellement améliorée.
+     */
+    public static Reseau algoGenetique(Reseau reseau) {
+        return algoGenetique(reseau, System.nanoTime());
+    }
+
+    /**
+     * Optimise le réseau par recherche à voisinage large (voir
+     * {@link RechercheVoisinageLarge}), dans le budget de temps donné.
+     *
+     * @param reseau   Le réseau à optimiser.
+     * @param budgetMs Le budget de temps, en millisecondes.
+     * @param graine   La graine des tirages.
+     * @return Le réseau avec une configuration potentiellement améliorée.
+     */
+    public static Reseau algoVoisinage(Reseau reseau, long budgetMs, long graine) {
+        new RechercheVoisinageLarge(budgetMs, Long.MAX_VALUE, graine).optimiser(reseau, reseau.pointDeCession);
+
+        reseau.generateursAReparer.clear();
+        reseau.coutReference = reseau.calculerCout();
+        return reseau;
+    }
+
+    /**
+     * Exécute {@link #algoVoisinage(Reseau, long, long)} avec le budget par
+     * défaut et une graine quelconque.
+     *
+     * @param reseau Le réseau à optimiser.
+     * @return Le réseau avec une configuration potentiellement améliorée.
+     */
+    public static Reseau algoVoisinage(Reseau reseau) {
+        return algoVoisinage(reseau, RechercheVoisinageLarge.BUDGET_PAR_DEFAUT_MS, System.nanoTime());
+    }
+
+    /**
+     * Cherche l'affectation de coût minimal avec {@link SolveurExact} et
+     * l'applique au réseau. Si le budget de nœuds par défaut est épuisé, la
+     * meilleure affectation trouvée est appliquée sans garantie d'optimalité.
+     *
+     * @param reseau Le réseau à optimiser.
+     * @return {@code true} si l'affectation appliquée est prouvée optimale.
+     */
+    public static boolean algoExact(Reseau reseau) {
+        SolveurExact solveur = new SolveurExact(reseau);
+        SolveurExact.Resultat resultat = solveur.resoudre(reseau.pointDeCession);
+        appliquerModele(reseau, solveur.getModele());
+
+        reseau.generateursAReparer.clear();
+        reseau.coutReference = reseau.calculerCout();
+        return resultat.optimal();
+    }
+
+    /**
+     * Reporte les compteurs d'un modèle agrégé sur les connexions du réseau en
+     * déplaçant le moins de maisons possible : chaque générateur garde ses
+     * maisons d'un type tant que le compteur cible n'est pas atteint, et les
+     * maisons excédentaires comblent les déficits des autres générateurs.
+     *
+     * @param reseau Le réseau à modifier.
+     * @param modele Le modèle, construit sur ce réseau.
+     */
+    static void appliquerModele(Reseau reseau, ModeleAgrege modele) {
+        TypeConso[] types = TypeConso.values();
+        int nbGenerateurs = modele.getNombreGenerateurs();
+        int[][] manquants = new int[nbGenerateurs][types.length];
+        List<Deque<Maison>> excedents = new ArrayList<>();
+        List<Deque<Generateur>> origines = new ArrayList<>();
+        for (int t = 0; t < types.length; t++) {
+            excedents.add(new ArrayDeque<>());
+            origines.add(new ArrayDeque<>());
+        }
+
+        for (int g = 0; g < nbGenerateurs; g++) {
+            Generateur gen = modele.getGenerateur(g);
+            for (int t = 0; t < types.length; t++)
+                manquants[g][t] = modele.getNombre(g, types[t]);
+            for (Maison m : reseau.connexions.get(gen)) {
+                int t = m.getTypeConso().ordinal();
+                if (manquants[g][t] > 0) {
+                    manquants[g][t]--;
+                } else {
+                    excedents.get(t).add(m);
+                    origines.get(t).add(gen);
+                }
+            }
+        }
+
+        for (int g = 0; g < nbGenerateurs; g++) {
+            Generateur nouveau = modele.getGenerateur(g);
+            for (int t = 0; t < types.length; t++) {
+                for (; manquants[g][t] > 0; manquants[g][t]--) {
+                    Maison m = excedents.get(t).poll();
+                    Generateur ancien = origines.get(t).poll();
+                    reseau.deplacer(m, ancien, nouveau);
+                    reseau.historique.enregistrer(new HistoriqueMouvements.Mouvement(m, ancien, nouveau));
+                }
+            }
+        }
+    }
+
+    /**
+     * Tolérance relative par défaut de {@link #algoIncremental(Reseau, double)}.
+     */
+    public static final double TOLERANCE_INCREMENTALE = 0.05;
+
+    /**
+     * Réoptimise le réseau à partir de son affectation actuelle, en n'explorant
+     * que le voisinage des générateurs touchés depuis la dernière optimisation
+     * (ajout ou changement de capacité d'un générateur, changement de
+     * consommation d'une maison, connexion modifiée).
+     *
+     * Les maisons non connectées sont d'abord placées sur le générateur dont le
+     * taux d'utilisation résultant est le plus faible, en respectant si possible
+     * les capacités. Ensuite, pour chaque générateur touché, une maison est
+     * échangée avec le générateur de taux opposé le plus extrême (le moins
+     * chargé si le générateur est au-dessus de la moyenne, le plus chargé
+     * sinon), tant que le coût diminue.
+     *
+     * Chaque étape coûte O(log G) : la moyenne et les taux extrêmes sont lus
+     * dans l'arbre des taux maintenu par le réseau, une maison de chaque type
+     * du générateur source est lue en O(1) dans les chaînes par type que le
+     * réseau tient à jour, et le placement des maisons
+     * non connectées passe par un tas par type de consommation, construit une
+     * seule fois en O(G) lorsqu'il y a de telles maisons.
+     *
+     * Si le réseau n'a jamais été optimisé par {@link #algoOptimise(Reseau)}, ou
+     * si le coût obtenu dépasse de plus de {@code tolerance} (en relatif) celui
+     * de la dernière optimisation complète, une optimisation complète est
+     * exécutée à la place.
+     *
+     * @param reseau    Le réseau à réoptimiser.
+     * @param tolerance La dégradation relative acceptée par rapport à la dernière
+     *                  optimisation complète (par exemple 0.05 pour 5 %).
+     * @return Le réseau réoptimisé.
+     */
+    public static Reseau algoIncremental(Reseau reseau, double tolerance) {
+        if (Double.isNaN(reseau.coutReference))
+            return algoOptimise(reseau);
+
+        // PHASE 1 : PLACEMENT DES MAISONS NON CONNECTÉES
+        if (!reseau.maisonsNonConnectees.isEmpty() && !reseau.connexions.isEmpty()) {
+            TasIndexe[] tas = reseau.tasParType();
+            for (Maison m : new ArrayList<>(reseau.maisonsNonConnectees)) {
+                reseau.pointDeCession.ceder();
+                Generateur g = reseau.generateursParIndice.get(tas[m.getTypeConso().ordinal()].minimum());
+                reseau.connecter(m, g);
+                reseau.historique.enregistrer(new HistoriqueMouvements.Mouvement(m, null, g));
+                reseau.mettreAJourTas(tas, g);
+            }
+        }
+
+        // PHASE 2 : RÉPARATION AUTOUR DES GÉNÉRATEURS TOUCHÉS
+        Deque<Generateur> aTraiter = new ArrayDeque<>(reseau.generateursAReparer);
+        Set<Generateur> vus = new HashSet<>(aTraiter);
+        int budget = 8 * aTraiter.size() + 8;
+        double cout = reseau.calculerCout();
+
+        while (!aTraiter.isEmpty() && budget-- > 0) {
+            reseau.pointDeCession.ceder();
+            Generateur g = aTraiter.poll();
+            Generateur partenaire = reseau.generateurExtreme(reseau.getTauxUtilisation(g) < reseau.tauxMoyen());
+            if (partenaire == null || partenaire == g)
+                continue;
+
+            Generateur source = reseau.getTauxUtilisation(g) >= reseau.getTauxUtilisation(partenaire) ? g : partenaire;
+            Generateur destination = source == g ? partenaire : g;
+
+            // une seule maison candidate par type : seules les consommations comptent
+            Maison meilleure = null;
+            double meilleurCout = cout;
+            for (TypeConso type : TypeConso.values()) {
+                Maison m = reseau.maisonDeType(source, type);
+                if (m == null)
+                    continue;
+                double c = reseau.coutApresDeplacement(source, destination, type.getConsommation());
+                if (c < meilleurCout - 1e-12) {
+                    meilleurCout = c;
+                    meilleure = m;
+                }
+            }
+
+            if (meilleure != null) {
+                reseau.deplacer(meilleure, source, destination);
+                reseau.historique.enregistrer(new HistoriqueMouvements.Mouvement(meilleure, source, destination));
+                cout = meilleurCout;
+                aTraiter.add(g);
+                if (vus.add(partenaire))
+                    aTraiter.add(partenaire);
+            }
+        }
+        reseau.generateursAReparer.clear();
+
+        if (!reseau.isValide() || cout > reseau.coutReference * (1 + tolerance) + 1e-9)
+            return algoOptimise(reseau);
+        return reseau;
+    }
+
+    /**
+     * @return La moyenne des taux d'utilisation des générateurs, en O(1) grâce à
+     *         l'arbre des taux.
+     */
+    private double tauxMoyen() {
+        if (connexions.isEmpty())
+            return 0;
+        return arbreTaux.sommeTotale() / connexions.size();
+    }
+
+    /**
+     * @param plusCharge {@code true} pour le générateur le plus utilisé,
+     *                   {@code false} pour le moins utilisé.
+     * @return Le générateur de taux d'utilisation extrême, trouvé en O(log G)
+     *         dans l'arbre des taux, ou {@code null} si le réseau n'a pas de
+     *         générateur.
+     */
+    private Generateur generateurExtreme(boolean plusCharge) {
+        int g = plusCharge ? arbreTaux.maximum() : arbreTaux.minimum();
+        return g < 0 ? null : generateursParIndice.get(g);
+    }
+
+    /**
+     * Construit, pour chaque type de consommation, un tas des générateurs
+     * ordonnés par le taux d'utilisation qu'ils auraient après l'ajout d'une
+     * maison de ce type. Le sommet est le générateur le moins chargé après
+     * ajout ; comme tout taux sans surcharge est inférieur à 1, c'est un
+     * générateur qui reste sans surcharge s'il en existe un.
+     *
+     * @return Les tas, indexés par {@link TypeConso#ordinal()}.
+     */
+    private TasIndexe[] tasParType() {
+        TypeConso[] types = TypeConso.values();
+        TasIndexe[] tas = new TasIndexe[types.length];
+        for (int t = 0; t < types.length; t++)
+            tas[t] = new TasIndexe(generateursParIndice.size());
+        for (Generateur g : generateursParIndice)
+            mettreAJourTas(tas, g);
+        return tas;
+    }
+
+    /**
+     * Met à jour les clés d'un générateur dans les tas de {@link #tasParType()},
+     * en O(log G).
+     */
+    private void mettreAJourTas(TasIndexe[] tas, Generateur g) {
+        int indice = indices.get(g);
+        for (TypeConso t : TypeConso.values()) {
+            int charge = charges.get(g) + t.getConsommation();
+            double u = g.getCapacite() == 0 ? Double.POSITIVE_INFINITY : (double) charge / g.getCapacite();
+            tas[t.ordinal()].mettreAJour(indice, u);
+        }
+    }
+
+    /**
+     * Calcule le coût qu'aurait le réseau si une consommation passait d'un
+     * générateur à un autre, sans modifier le réseau, en O(log G).
+     */
+    double coutApresDeplacement(Generateur source, Generateur destination, int conso) {
+        ajusterCharge(source, -conso);
+        ajusterCharge(destination, conso);
+        double cout = calculerCout();
+        ajusterCharge(source, conso);
+        ajusterCharge(destination, -conso);
+        return cout;
+    }
     /**
      * Sauvegarde l'état actuel du réseau dans un fichier texte.
      *
@@ -1006,32 +2213,63 @@ public class Reseau {
      * @throws IOException En cas d'erreur lors de l'écriture du fichier.
      */
     public static void sauvegarder(Reseau reseau, String path) throws IOException {
+        sauvegarder(reseau.instantane(), path);
+    }
+
+    /**
+     * Sauvegarde un instantané du réseau dans un fichier texte.
+     * Peut être appelée depuis un autre thread pendant que le réseau d'origine
+     * continue d'être modifié : les noms, capacités et types de consommation
+     * écrits sont ceux figés dans l'instantané.
+     *
+     * @param instantane L'instantané à sauvegarder.
+     * @param path       Le chemin du fichier de destination.
+     * @throws IOException En cas d'erreur lors de l'écriture du fichier.
+     */
+    public static void sauvegarder(InstantaneReseau instantane, String path) throws IOException {
         try (FileWriter fw = new FileWriter(path)) {
+            sauvegarder(instantane, fw);
+        }
+    }
 
-            for (Generateur g : reseau.getConnexions().keySet()) {
-                fw.write("generateur(" + g.getNom() + "," + g.getCapacite() + ").\n");
-            }
+    /**
+     * Écrit un instantané du réseau au format texte dans un flux de caractères.
+     * Le flux n'est pas fermé par cette méthode.
+     *
+     * @param instantane L'instantané à écrire.
+     * @param fw         Le flux de destination.
+     * @throws IOException En cas d'erreur lors de l'écriture.
+     */
+    public static void sauvegarder(InstantaneReseau instantane, Writer fw) throws IOException {
+        int nbGenerateurs = instantane.getNombreGenerateurs();
+        for (int i = 0; i < nbGenerateurs; i++) {
+            InstantaneReseau.Entree e = instantane.entree(i);
+            fw.write("generateur(" + e.nom + "," + e.capacite + ").\n");
+        }
 
-            Set<String> dejaEcrites = new HashSet<>();
+        Set<String> dejaEcrites = new HashSet<>();
 
-            for (List<Maison> liste : reseau.getConnexions().values()) {
-                for (Maison m : liste) {
-                    if (dejaEcrites.add(m.getNom())) {
-                        fw.write("maison(" + m.getNom() + "," + m.getTypeConso().name() + ").\n");
-                    }
+        for (int i = 0; i < nbGenerateurs; i++) {
+            InstantaneReseau.Entree e = instantane.entree(i);
+            for (int j = 0; j < e.types.length; j++) {
+                String nom = e.noms[j];
+                if (dejaEcrites.add(nom)) {
+                    fw.write("maison(" + nom + "," + e.types[j].name() + ").\n");
                 }
             }
+        }
 
-            for (Maison m : reseau.getMaisonsNonConnectees()) {
-                if (dejaEcrites.add(m.getNom())) {
-                    fw.write("maison(" + m.getNom() + "," + m.getTypeConso().name() + ").\n");
-                }
+        for (int j = 0; j < instantane.nomsNonConnectees.length; j++) {
+            String nom = instantane.nomsNonConnectees[j];
+            if (dejaEcrites.add(nom)) {
+                fw.write("maison(" + nom + "," + instantane.typesNonConnectees[j].name() + ").\n");
             }
+        }
 
-            for (Generateur g : reseau.getConnexions().keySet()) {
-                for (Maison m : reseau.getConnexions().get(g)) {
-                    fw.write("connexion(" + g.getNom() + "," + m.getNom() + ").\n");
-                }
+        for (int i = 0; i < nbGenerateurs; i++) {
+            InstantaneReseau.Entree e = instantane.entree(i);
+            for (String nom : e.noms) {
+                fw.write("connexion(" + e.nom + "," + nom + ").\n");
             }
         }
     }
@@ -0,0 +1,508 @@
+package com.example.reseau;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Réseau électrique compact, pour les très grands réseaux (des millions de
+ * maisons).
+ *
+ * Contrairement à {@link Reseau}, aucune {@link Maison} n'est conservée : les
+ * maisons sont des enregistrements de taille fixe rangés hors du tas Java, et
+ * leurs noms sont stockés dans une arène commune. La mémoire du tas et le
+ * travail du ramasse-miettes restent ainsi constants quand le réseau grandit.
+ * Les générateurs, peu nombreux, restent dans le tas avec leurs charges et
+ * leurs capacités.
+ *
+ * Un réseau créé par {@link #surDisque(Path, int)} range ses maisons dans des
+ * fichiers paginés, dont seules quelques pages sont en mémoire ; seul l'index
+ * de leurs noms reste dans le tas (voir {@link StockagePagine}). Il peut être
+ * plus grand que la mémoire disponible, et doit être fermé après usage.
+ *
+ * Toutes les opérations passent par des identifiants entiers, comme l'API par
+ * identifiant de {@link Reseau} ; {@link #getMaison(int)} et
+ * {@link #getGenerateur(int)} créent à la demande des objets détachés, dont la
+ * modification n'a aucun effet sur le réseau. Les écouteurs, l'historique
+ * d'annulation et les renommages ne sont pas pris en charge : on passe par
+ * {@link #versReseau()} pour en disposer.
+ *
+ * Cette classe n'est pas sûre pour les threads.
+ */
+public final class ReseauCompact implements AutoCloseable {
+    private final StockageMaisons maisons;
+    private final List<String> nomsGenerateurs = new ArrayList<>();
+    private final Map<String, Integer> generateursParCle = new HashMap<>();
+    private int[] capacites = new int[16];
+    private int[] charges = new int[16];
+    private int capaciteTotale;
+    private int consommationTotale;
+    private int nbConnectees;
+    private int lambda = 10;
+
+    /**
+     * Construit un réseau compact vide.
+     */
+    public ReseauCompact() {
+        this(0);
+    }
+
+    /**
+     * Construit un réseau compact vide, dimensionné pour un nombre de maisons
+     * connu à l'avance. Les maisons sont rangées en mémoire directe, plafonnée
+     * par {@code -XX:MaxDirectMemorySize} (par défaut égale à {@code -Xmx}) :
+     * voir {@link StockageHorsTas} pour l'estimer.
+     *
+     * @param nbMaisonsPrevues Le nombre de maisons prévu ; le réseau grandit au
+     *                         besoin.
+     */
+    public ReseauCompact(int nbMaisonsPrevues) {
+        this(new StockageHorsTas(nbMaisonsPrevues));
+    }
+
+    ReseauCompact(StockageMaisons maisons) {
+        this.maisons = maisons;
+    }
+
+    /**
+     * Construit un réseau compact vide dont les maisons sont rangées sur disque,
+     * dans des fichiers temporaires supprimés par {@link #close()}.
+     *
+     * @param repertoire   Le répertoire des fichiers.
+     * @param pagesEnCache Le nombre de pages de
+     *                     {@value StockagePagine#TAILLE_PAGE_PAR_DEFAUT} octets
+     *                     gardées en mémoire (au moins 2).
+     * @return Le réseau.
+     * @throws java.io.UncheckedIOException si les fichiers ne peuvent pas être
+     *                                      créés.
+     */
+    public static ReseauCompact surDisque(Path repertoire, int pagesEnCache) {
+        return new ReseauCompact(
+                new StockagePagine(repertoire, StockagePagine.TAILLE_PAGE_PAR_DEFAUT, pagesEnCache));
+    }
+
+    /**
+     * Copie un réseau dans un réseau compact, en conservant les identifiants.
+     *
+     * @param reseau Le réseau à copier.
+     * @return Le réseau compact.
+     */
+    public static ReseauCompact depuis(Reseau reseau) {
+        ReseauCompact compact = new ReseauCompact(reseau.getNombreMaisons());
+        compact.setLambda(reseau.getLambda());
+        for (int g = 0; g < reseau.getNombreGenerateurs(); g++) {
+            Generateur gen = reseau.getGenerateur(g);
+            compact.ajouterGenerateur(gen.getNom(), gen.getCapacite());
+        }
+        for (int i = 0; i < reseau.getNombreMaisons(); i++) {
+            Maison m = reseau.getMaison(i);
+            compact.ajouterMaison(m.getNom(), m.getTypeConso());
+            int g = reseau.getGenerateurDe(i);
+            if (g >= 0)
+                compact.ajouterConnexion(i, g);
+        }
+        return compact;
+    }
+
+    /**
+     * Reconstruit un {@link Reseau} ordinaire, silencieux, avec les mêmes
+     * identifiants et un historique vide. Pratique pour les algorithmes qui n'existent que sur
+     * {@link Reseau}, à condition que le réseau tienne dans le tas.
+     *
+     * @return Le réseau reconstruit.
+     */
+    public Reseau versReseau() {
+        Reseau reseau = new Reseau();
+        reseau.setVerbeux(false);
+        reseau.setLambda(lambda);
+        for (int g = 0; g < nomsGenerateurs.size(); g++)
+            reseau.ajouterGenerateur(getGenerateur(g));
+        for (int i = 0; i < maisons.getNombre(); i++)
+            reseau.ajouterMaison(getMaison(i));
+        for (int i = 0; i < maisons.getNombre(); i++) {
+            int g = maisons.getGenerateur(i);
+            if (g >= 0)
+                reseau.ajouterConnexion(i, g);
+        }
+        reseau.getHistorique().vider();
+        return reseau;
+    }
+
+    /**
+     * @return Le coefficient de pénalisation de la surcharge.
+     */
+    public int getLambda() {
+        return lambda;
+    }
+
+    /**
+     * @param lambda Le coefficient de pénalisation de la surcharge.
+     */
+    public void setLambda(int lambda) {
+        this.lambda = lambda;
+    }
+
+    /**
+     * Ajoute un générateur, ou met à jour la capacité d'un générateur existant.
+     *
+     * @param nom      Le nom du générateur (insensible à la casse).
+     * @param capacite Sa capacité en kW.
+     * @return L'identifiant du générateur.
+     * @throws IllegalArgumentException si la capacité n'est pas positive, ou si la
+     *                                  mise à jour rendrait la capacité totale
+     *                                  insuffisante.
+     */
+    public int ajouterGenerateur(String nom, int capacite) {
+        if (capacite <= 0)
+            throw new IllegalArgumentException("  La capacité doit être positive !");
+        Integer existant = generateursParCle.get(IndexParCle.cle(nom));
+        if (existant != null) {
+            int nouvelleCapaciteTotale = capaciteTotale - capacites[existant] + capacite;
+            if (nouvelleCapaciteTotale < consommationTotale) {
+                throw new IllegalArgumentException("La capacité totale (" + nouvelleCapaciteTotale
+                        + " kW) serait insuffisante pour la consommation actuelle (" + consommationTotale
+                        + " kW).");
+            }
+            capacites[existant] = capacite;
+            capaciteTotale = nouvelleCapaciteTotale;
+            return existant;
+        }
+
+        int id = nomsGenerateurs.size();
+        if (id == capacites.length) {
+            capacites = Arrays.copyOf(capacites, 2 * id);
+            charges = Arrays.copyOf(charges, 2 * id);
+        }
+        nomsGenerateurs.add(nom);
+        generateursParCle.put(IndexParCle.cle(nom), id);
+        capacites[id] = capacite;
+        capaciteTotale += capacite;
+        return id;
+    }
+
+    /**
+     * Ajoute une maison non connectée, ou met à jour la consommation d'une maison
+     * existante.
+     *
+     * @param nom  Le nom de la maison (insensible à la casse).
+     * @param type Son type de consommation.
+     * @return L'identifiant de la maison.
+     * @throws IllegalArgumentException si la consommation totale dépasserait la
+     *                                  capacité totale.
+     */
+    public int ajouterMaison(String nom, TypeConso type) {
+        int nouvelleConso = type.getConsommation();
+        int existante = maisons.chercher(nom);
+        if (existante >= 0) {
+            int ancienneConso = maisons.getType(existante).getConsommation();
+            int majTotale = consommationTotale - ancienneConso + nouvelleConso;
+            if (majTotale > capaciteTotale) {
+                throw new IllegalArgumentException("Capacité totale insuffisante (" + capaciteTotale
+                        + " kW) pour cette mise à jour (" + majTotale + " kW).");
+            }
+            maisons.setType(existante, type);
+            consommationTotale = majTotale;
+            int g = maisons.getGenerateur(existante);
+            if (g >= 0)
+                charges[g] += nouvelleConso - ancienneConso;
+            return existante;
+        }
+
+        int nouvelleTotale = consommationTotale + nouvelleConso;
+        if (nouvelleTotale > capaciteTotale) {
+            throw new IllegalArgumentException("Capacité totale insuffisante (" + capaciteTotale
+                    + " kW) pour ajouter cette maison (" + nouvelleTotale + " kW).");
+        }
+        consommationTotale = nouvelleTotale;
+        return maisons.ajouter(nom, type);
+    }
+
+    /**
+     * @return Le nombre de générateurs.
+     */
+    public int getNombreGenerateurs() {
+        return nomsGenerateurs.size();
+    }
+
+    /**
+     * @return Le nombre de maisons, connectées ou non.
+     */
+    public int getNombreMaisons() {
+        return maisons.getNombre();
+    }
+
+    /**
+     * @param nom Un nom de générateur (insensible à la casse).
+     * @return Son identifiant, ou -1 s'il n'existe pas.
+     */
+    public int getIdentifiantGenerateur(String nom) {
+        Integer id = nom == null ? null : generateursParCle.get(IndexParCle.cle(nom));
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @param nom Un nom de maison (insensible à la casse).
+     * @return Son identifiant, ou -1 si elle n'existe pas.
+     */
+    public int getIdentifiantMaison(String nom) {
+        return maisons.chercher(nom);
+    }
+
+    /**
+     * @param id L'identifiant d'un générateur.
+     * @return Une copie détachée du générateur.
+     * @throws IllegalArgumentException si l'identifiant est inconnu.
+     */
+    public Generateur getGenerateur(int id) {
+        verifierGenerateur(id);
+        return new Generateur(nomsGenerateurs.get(id), capacites[id]);
+    }
+
+    /**
+     * @param id L'identifiant d'une maison.
+     * @return Une copie détachée de la maison, créée à chaque appel.
+     * @throws IllegalArgumentException si l'identifiant est inconnu.
+     */
+    public Maison getMaison(int id) {
+        verifierMaison(id);
+        return new Maison(maisons.getNom(id), maisons.getType(id));
+    }
+
+    /**
+     * Connecte une maison non connectée à un générateur.
+     *
+     * @param maison     L'identifiant de la maison.
+     * @param generateur L'identifiant du générateur.
+     * @throws IllegalArgumentException si un identifiant est inconnu ou si la
+     *                                  maison est déjà connectée.
+     */
+    public void ajouterConnexion(int maison, int generateur) {
+        verifierMaison(maison);
+        verifierGenerateur(generateur);
+        if (maisons.getGenerateur(maison) >= 0)
+            throw new IllegalArgumentException("La maison '" + maisons.getNom(maison) + "' est déjà connectée.");
+        maisons.setGenerateur(maison, generateur);
+        charges[generateur] += maisons.getType(maison).getConsommation();
+        nbConnectees++;
+    }
+
+    /**
+     * Déconnecte une maison de son générateur.
+     *
+     * @param maison L'identifiant de la maison.
+     * @throws IllegalArgumentException si l'identifiant est inconnu ou si la
+     *                                  maison n'est pas connectée.
+     */
+    public void supprimerConnexion(int maison) {
+        verifierMaison(maison);
+        int g = maisons.getGenerateur(maison);
+        if (g < 0)
+            throw new IllegalArgumentException("La maison " + maisons.getNom(maison) + " n'est pas connectée.");
+        maisons.setGenerateur(maison, -1);
+        charges[g] -= maisons.getType(maison).getConsommation();
+        nbConnectees--;
+    }
+
+    /**
+     * Déplace une maison connectée vers un autre générateur.
+     *
+     * @param maison     L'identifiant de la maison.
+     * @param generateur L'identifiant du générateur de destination.
+     * @throws IllegalArgumentException si un identifiant est inconnu, si la
+     *                                  maison n'est pas connectée ou si elle l'est
+     *                                  déjà à ce générateur.
+     */
+    public void modifierConnexion(int maison, int generateur) {
+        verifierMaison(maison);
+        verifierGenerateur(generateur);
+        int ancien = maisons.getGenerateur(maison);
+        if (ancien < 0)
+            throw new IllegalArgumentException("La maison " + maisons.getNom(maison) + " n'est pas connectée.");
+        if (ancien == generateur)
+            throw new IllegalArgumentException("La maison " + maisons.getNom(maison) + " est déjà connectée à "
+                    + nomsGenerateurs.get(generateur) + ".");
+        int conso = maisons.getType(maison).getConsommation();
+        maisons.setGenerateur(maison, generateur);
+        charges[ancien] -= conso;
+        charges[generateur] += conso;
+    }
+
+    /**
+     * @param maison L'identifiant d'une maison.
+     * @return L'identifiant du générateur qui l'alimente, ou -1 si elle n'est pas
+     *         connectée.
+     * @throws IllegalArgumentException si l'identifiant est inconnu.
+     */
+    public int getGenerateurDe(int maison) {
+        verifierMaison(maison);
+        return maisons.getGenerateur(maison);
+    }
+
+    /**
+     * @param generateur L'identifiant d'un générateur.
+     * @return Sa charge, en kW.
+     * @throws IllegalArgumentException si l'identifiant est inconnu.
+     */
+    public int getCharge(int generateur) {
+        verifierGenerateur(generateur);
+        return charges[generateur];
+    }
+
+    /**
+     * @param generateur L'identifiant d'un générateur.
+     * @return Son taux d'utilisation.
+     * @throws IllegalArgumentException si l'identifiant est inconnu.
+     */
+    public double getTauxUtilisation(int generateur) {
+        verifierGenerateur(generateur);
+        return (double) charges[generateur] / capacites[generateur];
+    }
+
+    /**
+     * @return {@code true} si toutes les maisons sont connectées.
+     */
+    public boolean isValide() {
+        return nbConnectees == maisons.getNombre();
+    }
+
+    /**
+     * Calcule le coût du réseau, comme {@link Reseau#calculerCout()}, en O(G).
+     *
+     * @return Le coût.
+     */
+    public double calculerCout() {
+        int nbGenerateurs = nomsGenerateurs.size();
+        return new EvaluateurAffectation(new int[0], Arrays.copyOf(capacites, nbGenerateurs), lambda)
+                .evaluerCharges(charges);
+    }
+
+    /**
+     * @return Les octets réservés hors du tas pour les maisons et leurs noms (pour
+     *         un réseau sur disque, ceux des pages en mémoire).
+     */
+    public long getOctetsHorsTas() {
+        return maisons.getOctetsHorsTas();
+    }
+
+    /**
+     * Affecte toutes les maisons avec l'heuristique du mode
+     * {@link ModeConstruction#TAS}, directement sur les enregistrements.
+     *
+     * Seuls deux tableaux d'entiers d'une case par maison sont alloués le temps
+     * du calcul : les consommations triées et l'affectation.
+     *
+     * @throws IllegalStateException s'il y a des maisons mais aucun générateur.
+     */
+    public void optimiser() {
+        int nbMaisons = maisons.getNombre();
+        int nbGenerateurs = nomsGenerateurs.size();
+        if (nbMaisons == 0)
+            return;
+        if (nbGenerateurs == 0)
+            throw new IllegalStateException("Aucun générateur pour alimenter les maisons.");
+
+        // Tri par dénombrement, du type le plus consommateur au moins consommateur ;
+        // à type égal, les maisons restent dans l'ordre de leurs identifiants.
+        TypeConso[] types = TypeConso.values();
+        int[] debut = new int[types.length + 1];
+        for (int i = 0; i < nbMaisons; i++)
+            debut[types.length - maisons.getType(i).ordinal()]++;
+        for (int t = 1; t <= types.length; t++)
+            debut[t] += debut[t - 1];
+        int[] consos = new int[nbMaisons];
+        for (int t = 0; t < types.length; t++)
+            Arrays.fill(consos, debut[t], debut[t + 1], types[types.length - 1 - t].getConsommation());
+
+        int[] affectation = Reseau.affecterParTas(consos, Arrays.copyOf(capacites, nbGenerateurs), lambda,
+                PointDeCession.AUCUN);
+
+        Arrays.fill(charges, 0);
+        for (int i = 0; i < nbMaisons; i++) {
+            TypeConso type = maisons.getType(i);
+            int g = affectation[debut[types.length - 1 - type.ordinal()]++];
+            maisons.setGenerateur(i, g);
+            charges[g] += type.getConsommation();
+        }
+        nbConnectees = nbMaisons;
+    }
+
+    /**
+     * Charge un fichier au format de {@link Reseau#chargerReseau(Reader)} en le
+     * lisant ligne par ligne, sans jamais construire de {@link Maison}.
+     *
+     * @param path Le chemin du fichier.
+     * @throws IOException              En cas d'erreur de lecture.
+     * @throws IllegalArgumentException si une ligne est invalide.
+     * @throws IllegalStateException    si des maisons restent non connectées.
+     */
+    public void chargerDepuisFichier(String path) throws IOException {
+        try (Reader source = new FileReader(path)) {
+            charger(source);
+        }
+    }
+
+    /**
+     * Charge un réseau au format de {@link Reseau#chargerReseau(Reader)} : les
+     * générateurs, puis les maisons, puis les connexions. Le flux n'est pas
+     * fermé par cette méthode.
+     *
+     * @param source Le flux à lire.
+     * @throws IOException              En cas d'erreur de lecture.
+     * @throws IllegalArgumentException si une ligne est invalide.
+     * @throws IllegalStateException    si des maisons restent non connectées.
+     */
+    public void charger(Reader source) throws IOException {
+        LecteurReseau.lire(source, new LecteurReseau.Destination() {
+            @Override
+            public void generateur(String nom, int capacite) {
+                ajouterGenerateur(nom, capacite);
+            }
+
+            @Override
+            public void maison(String nom, TypeConso type) {
+                ajouterMaison(nom, type);
+            }
+
+            @Override
+            public void connexion(String a, String b) {
+                int m = maisons.chercher(a);
+                int g = getIdentifiantGenerateur(b);
+                if (m < 0 || g < 0) {
+                    m = maisons.chercher(b);
+                    g = getIdentifiantGenerateur(a);
+                }
+                if (m < 0 || g < 0)
+                    throw new IllegalArgumentException("Connexion impossible : " + a + " - " + b);
+                ajouterConnexion(m, g);
+            }
+        });
+        if (!isValide()) {
+            throw new IllegalStateException(" Certaines maisons ne sont pas connectées )");
+        }
+    }
+
+    /**
+     * Libère le stockage des maisons ; pour un réseau sur disque, ferme et
+     * supprime ses fichiers. Le réseau n'est plus utilisable ensuite.
+     */
+    @Override
+    public void close() {
+        maisons.close();
+    }
+
+    private void verifierGenerateur(int id) {
+        if (id < 0 || id >= nomsGenerateurs.size())
+            throw new IllegalArgumentException("Aucun générateur n'a l'identifiant " + id + ".");
+    }
+
+    private void verifierMaison(int id) {
+        if (id < 0 || id >= maisons.getNombre())
+            throw new IllegalArgumentException("Aucune maison n'a l'identifiant " + id + ".");
+    }
+}
@@ -0,0 +1,474 @@
+package com.example.reseau;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Variante de {@link Reseau} sûre en environnement multi-thread.
+ *
+ * Les opérations de connexion, de déconnexion et de déplacement verrouillent
+ * uniquement les « bandes » (stripes) associées à la maison et aux générateurs
+ * concernés : plusieurs threads peuvent donc modifier des parties disjointes du
+ * réseau sans verrou global. Les verrous sont toujours pris dans l'ordre
+ * croissant de leur indice, ce qui exclut les interblocages.
+ *
+ * La capacité totale et la consommation totale sont regroupées dans un seul
+ * {@link AtomicLong} mis à jour par compare-and-set : les invariants de
+ * {@link Reseau#ajouterMaison(Maison)} et {@link Reseau#ajouterGenerateur(Generateur)}
+ * (la consommation ne dépasse jamais la capacité) restent garantis même en cas
+ * d'ajouts et de mises à jour simultanés.
+ *
+ * Un nouveau générateur ou une nouvelle maison est publié sous le verrou de sa
+ * bande : aucun thread ne peut le connecter avant qu'il soit rangé dans l'ordre
+ * d'insertion, et {@link #versReseau()}, qui prend toutes les bandes, le voit
+ * en entier ou pas du tout.
+ *
+ * Les clés des maisons et des générateurs désignent leurs bandes : tant que le
+ * réseau existe, renommer l'un d'eux lève une {@link IllegalStateException}.
+ */
+public class ReseauConcurrent {
+    private static final int NB_VERROUS = 64;
+
+    /**
+     * Inscrit auprès des maisons et générateurs du réseau : leurs clés servent
+     * aussi à choisir les bandes de verrous, un renommage est donc refusé. Il
+     * est propre au réseau et inscrit par {@link #inscription}, si bien que
+     * l'interdiction disparaît avec le réseau.
+     */
+    private final IndexParCle renommageInterdit = new IndexParCle() {
+        @Override
+        public void verifierCle(Object entite, String nouvelleCle) {
+            throw new IllegalStateException("Impossible de renommer " + entite
+                    + " : il appartient à un réseau concurrent.");
+        }
+
+        @Override
+        public void retirerCle(Object entite) {
+        }
+
+        @Override
+        public void ajouterCle(Object entite) {
+        }
+    };
+    private final IndexParCle inscription = IndexParCle.faible(renommageInterdit);
+
+    /**
+     * État d'un générateur, protégé par la bande de verrou du générateur.
+     */
+    private static final class EtatGenerateur {
+        final Set<Maison> maisons = new LinkedHashSet<>();
+        volatile int charge;
+    }
+
+    private final ReentrantLock[] verrous = new ReentrantLock[NB_VERROUS];
+    private final Map<String, Generateur> generateurs = new ConcurrentHashMap<>();
+    private final List<Generateur> ordreGenerateurs = new CopyOnWriteArrayList<>();
+    private final Map<Generateur, EtatGenerateur> etats = new ConcurrentHashMap<>();
+    private final Map<String, Maison> maisons = new ConcurrentHashMap<>();
+    private final List<Maison> ordreMaisons = new CopyOnWriteArrayList<>();
+    private final Map<Maison, Generateur> affectations = new ConcurrentHashMap<>();
+    private final AtomicLong totaux = new AtomicLong();
+    private volatile int lambda = 10;
+
+    /**
+     * Construit un nouveau réseau concurrent vide.
+     */
+    public ReseauConcurrent() {
+        for (int i = 0; i < NB_VERROUS; i++) {
+            verrous[i] = new ReentrantLock();
+        }
+    }
+
+    private static long totaux(int capacite, int consommation) {
+        return ((long) capacite << 32) | (consommation & 0xFFFFFFFFL);
+    }
+
+    private static int capacite(long totaux) {
+        return (int) (totaux >>> 32);
+    }
+
+    private static int consommation(long totaux) {
+        return (int) totaux;
+    }
+
+    /**
+     * @return La capacité totale du réseau, en kW.
+     */
+    public int getCapaciteTotale() {
+        return capacite(totaux.get());
+    }
+
+    /**
+     * @return La consommation totale du réseau, en kW.
+     */
+    public int getConsommationTotale() {
+        return consommation(totaux.get());
+    }
+
+    /**
+     * @return Le facteur de pénalisation lambda.
+     */
+    public int getLambda() {
+        return lambda;
+    }
+
+    /**
+     * Définit le facteur de pénalisation lambda.
+     *
+     * @param lambda La nouvelle valeur pour lambda.
+     */
+    public void setLambda(int lambda) {
+        this.lambda = lambda;
+    }
+
+    /**
+     * Verrouille les bandes associées aux objets donnés (les {@code null} sont
+     * ignorés), dans l'ordre croissant de leur indice.
+     *
+     * @param objets Les maisons et générateurs concernés par l'opération.
+     * @return Les indices des bandes verrouillées, à passer à
+     *         {@link #deverrouiller(int[])}.
+     */
+    private int[] verrouiller(Object... objets) {
+        int[] indices = new int[objets.length];
+        int n = 0;
+        for (Object o : objets) {
+            if (o != null)
+                indices[n++] = Math.floorMod(o.hashCode(), NB_VERROUS);
+        }
+        indices = Arrays.stream(indices, 0, n).sorted().distinct().toArray();
+        for (int i : indices) {
+            verrous[i].lock();
+        }
+        return indices;
+    }
+
+    private void deverrouiller(int[] indices) {
+        for (int i = indices.length - 1; i >= 0; i--) {
+            verrous[indices[i]].unlock();
+        }
+    }
+
+    /**
+     * Ajoute un nouveau générateur ou met à jour la capacité d'un générateur
+     * existant. La mise à jour est refusée si la capacité totale devenait
+     * inférieure à la consommation totale.
+     *
+     * @param g Le générateur à ajouter ou dont la capacité doit être mise à jour.
+     * @throws IllegalArgumentException si la capacité totale serait insuffisante.
+     */
+    public void ajouterGenerateur(Generateur g) {
+        String cle = g.getCle();
+        Generateur existant = generateurs.get(cle);
+        if (existant == null) {
+            int[] verrouilles = verrouiller(g);
+            try {
+                etats.putIfAbsent(g, new EtatGenerateur());
+                existant = generateurs.putIfAbsent(cle, g);
+                if (existant == null) {
+                    g.inscrire(inscription);
+                    totaux.getAndAdd((long) g.getCapacite() << 32);
+                    ordreGenerateurs.add(g);
+                    return;
+                }
+            } finally {
+                deverrouiller(verrouilles);
+            }
+        }
+
+        int[] verrouilles = verrouiller(existant);
+        try {
+            int nouvelleCapacite = g.getCapacite();
+            long courant;
+            long suivant;
+            do {
+                courant = totaux.get();
+                int nouvelleCapaciteTotale = capacite(courant) - existant.getCapacite() + nouvelleCapacite;
+                if (nouvelleCapaciteTotale < consommation(courant)) {
+                    throw new IllegalArgumentException("La capacité totale (" + nouvelleCapaciteTotale
+                            + " kW) serait insuffisante pour la consommation actuelle (" + consommation(courant)
+                            + " kW).");
+                }
+                suivant = totaux(nouvelleCapaciteTotale, consommation(courant));
+            } while (!totaux.compareAndSet(courant, suivant));
+            existant.setCapacite(nouvelleCapacite);
+        } finally {
+            deverrouiller(verrouilles);
+        }
+    }
+
+    /**
+     * Ajoute une nouvelle maison (non connectée) ou met à jour la consommation
+     * d'une maison existante. L'opération est refusée si la consommation totale
+     * dépassait la capacité totale.
+     *
+     * @param m La maison à ajouter ou mettre à jour.
+     * @throws IllegalArgumentException si la capacité totale est insuffisante.
+     */
+    public void ajouterMaison(Maison m) {
+        String cle = m.getCle();
+        Maison existante = maisons.get(cle);
+        if (existante == null) {
+            int[] verrouilles = verrouiller(m);
+            try {
+                reserverConsommation(m.getTypeConso().getConsommation());
+                existante = maisons.putIfAbsent(cle, m);
+                if (existante == null) {
+                    m.inscrire(inscription);
+                    ordreMaisons.add(m);
+                    return;
+                }
+                reserverConsommation(-m.getTypeConso().getConsommation());
+            } finally {
+                deverrouiller(verrouilles);
+            }
+        }
+
+        while (true) {
+            Generateur g = affectations.get(existante);
+            int[] verrouilles = verrouiller(existante, g);
+            try {
+                if (affectations.get(existante) != g)
+                    continue;
+                int delta = m.getTypeConso().getConsommation() - existante.getTypeConso().getConsommation();
+                reserverConsommation(delta);
+                existante.setTypeConso(m.getTypeConso());
+                if (g != null)
+                    etats.get(g).charge += delta;
+                return;
+            } finally {
+                deverrouiller(verrouilles);
+            }
+        }
+    }
+
+    /**
+     * Ajoute {@code delta} à la consommation totale si la capacité totale le
+     * permet.
+     */
+    private void reserverConsommation(int delta) {
+        long courant;
+        long suivant;
+        do {
+            courant = totaux.get();
+            int nouvelleTotale = consommation(courant) + delta;
+            if (delta > 0 && nouvelleTotale > capacite(courant)) {
+                throw new IllegalArgumentException("Capacité totale insuffisante (" + capacite(courant)
+                        + " kW) pour cette maison (" + nouvelleTotale + " kW).");
+            }
+            suivant = totaux(capacite(courant), nouvelleTotale);
+        } while (!totaux.compareAndSet(courant, suivant));
+    }
+
+    /**
+     * Recherche un générateur par son nom (insensible à la casse).
+     *
+     * @param nom Le nom du générateur.
+     * @return Le générateur, ou {@code null} s'il n'existe pas.
+     */
+    public Generateur getGenerateurParNom(String nom) {
+        return generateurs.get(IndexParCle.cle(nom));
+    }
+
+    /**
+     * Recherche une maison par son nom (insensible à la casse).
+     *
+     * @param nom Le nom de la maison.
+     * @return La maison, ou {@code null} si elle n'existe pas.
+     */
+    public Maison getMaisonParNom(String nom) {
+        return maisons.get(IndexParCle.cle(nom));
+    }
+
+    /**
+     * @param m Une maison du réseau.
+     * @return Le générateur qui alimente la maison, ou {@code null}.
+     */
+    public Generateur getGenerateurDe(Maison m) {
+        return affectations.get(m);
+    }
+
+    private Generateur generateurExistant(String nom) {
+        Generateur g = getGenerateurParNom(nom);
+        if (g == null)
+            throw new IllegalArgumentException("Le générateur '" + nom + "' n'existe pas.");
+        return g;
+    }
+
+    private Maison maisonExistante(String nom) {
+        Maison m = getMaisonParNom(nom);
+        if (m == null)
+            throw new IllegalArgumentException("La maison '" + nom + "' n'existe pas.");
+        return m;
+    }
+
+    /**
+     * Connecte une maison non connectée à un générateur.
+     *
+     * @param nomMaison     Le nom de la maison.
+     * @param nomGenerateur Le nom du générateur.
+     * @throws IllegalArgumentException si l'un des deux n'existe pas ou si la
+     *                                  maison est déjà connectée.
+     */
+    public void ajouterConnexion(String nomMaison, String nomGenerateur) {
+        Maison m = maisonExistante(nomMaison);
+        Generateur g = generateurExistant(nomGenerateur);
+
+        int[] verrouilles = verrouiller(m, g);
+        try {
+            if (affectations.containsKey(m))
+                throw new IllegalArgumentException("La maison '" + nomMaison + "' est déjà connectée.");
+            EtatGenerateur etat = etats.get(g);
+            affectations.put(m, g);
+            etat.maisons.add(m);
+            etat.charge += m.getTypeConso().getConsommation();
+        } finally {
+            deverrouiller(verrouilles);
+        }
+    }
+
+    /**
+     * Déconnecte une maison de son générateur.
+     *
+     * @param nomMaison     Le nom de la maison.
+     * @param nomGenerateur Le nom du générateur qui l'alimente.
+     * @throws IllegalArgumentException si la maison n'est pas connectée à ce
+     *                                  générateur.
+     */
+    public void supprimerConnexion(String nomMaison, String nomGenerateur) {
+        Maison m = maisonExistante(nomMaison);
+        Generateur g = generateurExistant(nomGenerateur);
+
+        int[] verrouilles = verrouiller(m, g);
+        try {
+            if (!g.equals(affectations.get(m)))
+                throw new IllegalArgumentException(
+                        "La maison " + nomMaison + " n'est pas connectée au générateur " + nomGenerateur + ".");
+            EtatGenerateur etat = etats.get(g);
+            affectations.remove(m);
+            etat.maisons.remove(m);
+            etat.charge -= m.getTypeConso().getConsommation();
+        } finally {
+            deverrouiller(verrouilles);
+        }
+    }
+
+    /**
+     * Déplace une maison d'un générateur à un autre.
+     *
+     * @param nomMaison         Le nom de la maison.
+     * @param ancienGenerateur  Le nom du générateur d'origine.
+     * @param nouveauGenerateur Le nom du générateur de destination.
+     * @throws IllegalArgumentException si la maison n'est pas connectée au
+     *                                  générateur d'origine.
+     */
+    public void modifierConnexion(String nomMaison, String ancienGenerateur, String nouveauGenerateur) {
+        Maison m = maisonExistante(nomMaison);
+        Generateur ancien = generateurExistant(ancienGenerateur);
+        Generateur nouveau = generateurExistant(nouveauGenerateur);
+        if (ancien.equals(nouveau))
+            return;
+
+        int[] verrouilles = verrouiller(m, ancien, nouveau);
+        try {
+            if (!ancien.equals(affectations.get(m)))
+                throw new IllegalArgumentException(
+                        "La maison " + nomMaison + " n'est pas connectée au générateur " + ancienGenerateur + ".");
+            int conso = m.getTypeConso().getConsommation();
+            EtatGenerateur depart = etats.get(ancien);
+            EtatGenerateur arrivee = etats.get(nouveau);
+            depart.maisons.remove(m);
+            depart.charge -= conso;
+            arrivee.maisons.add(m);
+            arrivee.charge += conso;
+            affectations.put(m, nouveau);
+        } finally {
+            deverrouiller(verrouilles);
+        }
+    }
+
+    /**
+     * @param g Un générateur du réseau.
+     * @return Son taux d'utilisation, ou 0 s'il n'appartient pas au réseau.
+     */
+    public double getTauxUtilisation(Generateur g) {
+        EtatGenerateur etat = etats.get(g);
+        if (etat == null)
+            return 0;
+        return (double) etat.charge / g.getCapacite();
+    }
+
+    /**
+     * Calcule le coût du réseau sans verrouillage. Pendant des modifications
+     * concurrentes, chaque charge lue est cohérente mais l'ensemble peut mêler
+     * des états successifs ; utiliser {@link #versReseau()} pour un coût exact à
+     * un instant donné.
+     *
+     * @return Le coût {@code dispersion + lambda * surcharge}.
+     */
+    public double calculerCout() {
+        List<Generateur> liste = ordreGenerateurs;
+        if (liste.isEmpty())
+            return 0;
+
+        double[] taux = new double[liste.size()];
+        double somme = 0;
+        for (int i = 0; i < taux.length; i++) {
+            taux[i] = getTauxUtilisation(liste.get(i));
+            somme += taux[i];
+        }
+        double moyenne = somme / taux.length;
+
+        double dispersion = 0;
+        double surcharge = 0;
+        for (double u : taux) {
+            dispersion += Math.abs(u - moyenne);
+            surcharge += Math.max(0, u - 1);
+        }
+        return dispersion + lambda * surcharge;
+    }
+
+    /**
+     * Copie l'état courant dans un {@link Reseau} ordinaire, par exemple pour le
+     * passer aux algorithmes d'optimisation. Toutes les bandes sont verrouillées
+     * pendant la copie, qui est donc cohérente.
+     *
+     * @return Un nouveau réseau équivalent, silencieux (voir
+     *         {@link Reseau#setVerbeux(boolean)}), d'historique vide.
+     */
+    public Reseau versReseau() {
+        for (ReentrantLock verrou : verrous) {
+            verrou.lock();
+        }
+        try {
+            Reseau reseau = new Reseau();
+            reseau.setVerbeux(false);
+            reseau.setLambda(lambda);
+            for (Generateur g : ordreGenerateurs) {
+                reseau.ajouterGenerateur(new Generateur(g.getNom(), g.getCapacite()));
+            }
+            for (Maison m : ordreMaisons) {
+                reseau.ajouterMaison(new Maison(m.getNom(), m.getTypeConso()));
+            }
+            for (Generateur g : ordreGenerateurs) {
+                for (Maison m : new ArrayList<>(etats.get(g).maisons)) {
+                    reseau.ajouterConnexion(m.getNom(), g.getNom());
+                }
+            }
+            reseau.getHistorique().vider();
+            return reseau;
+        } finally {
+            for (int i = NB_VERROUS - 1; i >= 0; i--) {
+                verrous[i].unlock();
+            }
+        }
+    }
+}
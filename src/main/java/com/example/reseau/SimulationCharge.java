@@ -0,0 +1,345 @@
+package com.example.reseau;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Simulation de l'évolution des charges d'un {@link Reseau} sur une suite de
+ * pas de temps.
+ *
+ * Chaque maison suit un profil de consommation (une valeur en kW par pas) ; par
+ * défaut, sa consommation reste celle de son {@link TypeConso}. À chaque pas,
+ * seules les maisons dont la consommation change mettent à jour la charge de
+ * leur générateur, puis l'affectation du pas précédent est réparée localement
+ * en déplaçant des maisons du générateur le plus chargé vers le moins chargé,
+ * tant que le coût diminue.
+ *
+ * La simulation travaille sur des tableaux indexés et ne modifie pas le réseau
+ * d'origine : l'affectation finale est disponible via {@link #getAffectation()}.
+ */
+public class SimulationCharge {
+    /**
+     * Nombre maximal de déplacements de réparation par pas, par défaut.
+     */
+    public static final int MOUVEMENTS_MAX_PAR_PAS = 32;
+
+    /**
+     * Séries temporelles produites par une simulation, un élément par pas.
+     *
+     * @param couts       Le coût du réseau après réparation.
+     * @param dispersions La dispersion des taux d'utilisation après réparation.
+     * @param surcharges  La surcharge après réparation.
+     * @param mouvements  Le nombre de maisons déplacées pendant le pas.
+     */
+    public record Resultat(double[] couts, double[] dispersions, double[] surcharges, int[] mouvements) {
+    }
+
+    private final int nbPas;
+    private final int lambda;
+    private final Generateur[] generateurs;
+    private final Maison[] maisons;
+    private final Map<String, Integer> indicesMaisons = new HashMap<>();
+    private final int[] capacites;
+    private final int[] affectationInitiale;
+    private final int[] profilDeMaison;
+    private final List<int[]> profils = new ArrayList<>();
+    private final Map<int[], Integer> indicesProfils = new HashMap<>();
+    private final Map<TypeConso, int[]> profilsConstants = new HashMap<>();
+    private int mouvementsMaxParPas = MOUVEMENTS_MAX_PAR_PAS;
+
+    // état de la simulation en cours
+    private int[] affectation;
+    private long[] charges;
+    private int[][] membres;
+    private int[] tailles;
+    private int[] positions;
+
+    /**
+     * Prépare une simulation à partir de l'affectation actuelle d'un réseau.
+     *
+     * @param reseau Le réseau à simuler ; toutes ses maisons doivent être
+     *               connectées.
+     * @param nbPas  Le nombre de pas de temps.
+     * @throws IllegalStateException    si le réseau n'est pas valide.
+     * @throws IllegalArgumentException si le nombre de pas n'est pas positif.
+     */
+    public SimulationCharge(Reseau reseau, int nbPas) {
+        if (nbPas <= 0)
+            throw new IllegalArgumentException("Le nombre de pas doit être positif !");
+        if (!reseau.isValide())
+            throw new IllegalStateException("Toutes les maisons doivent être connectées pour simuler le réseau.");
+
+        this.nbPas = nbPas;
+        this.lambda = reseau.getLambda();
+        Map<Generateur, List<Maison>> connexions = reseau.getConnexions();
+        generateurs = connexions.keySet().toArray(new Generateur[0]);
+        capacites = new int[generateurs.length];
+
+        int nbMaisons = 0;
+        for (List<Maison> liste : connexions.values()) {
+            nbMaisons += liste.size();
+        }
+        maisons = new Maison[nbMaisons];
+        affectationInitiale = new int[nbMaisons];
+        profilDeMaison = new int[nbMaisons];
+        Arrays.fill(profilDeMaison, -1);
+
+        int h = 0;
+        for (int g = 0; g < generateurs.length; g++) {
+            capacites[g] = generateurs[g].getCapacite();
+            for (Maison m : connexions.get(generateurs[g])) {
+                maisons[h] = m;
+                indicesMaisons.put(m.getCle(), h);
+                affectationInitiale[h] = g;
+                h++;
+            }
+        }
+    }
+
+    /**
+     * Définit le profil de consommation d'une maison. Un même tableau peut être
+     * partagé par plusieurs maisons ; il ne doit plus être modifié ensuite.
+     *
+     * @param nomMaison     Le nom de la maison.
+     * @param consommations La consommation de la maison à chaque pas, en kW.
+     * @throws IllegalArgumentException si la maison est inconnue ou si le profil
+     *                                  n'a pas un élément par pas.
+     */
+    public void definirProfil(String nomMaison, int[] consommations) {
+        Integer h = indicesMaisons.get(IndexParCle.cle(nomMaison));
+        if (h == null)
+            throw new IllegalArgumentException("Maison introuvable : " + nomMaison);
+        profilDeMaison[h] = indiceProfil(consommations);
+    }
+
+    /**
+     * Définit le profil de consommation de toutes les maisons d'un type.
+     *
+     * @param type          Le type de consommation concerné.
+     * @param consommations La consommation à chaque pas, en kW.
+     * @throws IllegalArgumentException si le profil n'a pas un élément par pas.
+     */
+    public void definirProfil(TypeConso type, int[] consommations) {
+        int p = indiceProfil(consommations);
+        for (int h = 0; h < maisons.length; h++) {
+            if (maisons[h].getTypeConso() == type)
+                profilDeMaison[h] = p;
+        }
+    }
+
+    /**
+     * @param mouvementsMaxParPas Le nombre maximal de déplacements de réparation
+     *                            par pas ; 0 désactive la réoptimisation.
+     */
+    public void setMouvementsMaxParPas(int mouvementsMaxParPas) {
+        if (mouvementsMaxParPas < 0)
+            throw new IllegalArgumentException("Le nombre de mouvements ne peut pas être négatif !");
+        this.mouvementsMaxParPas = mouvementsMaxParPas;
+    }
+
+    private int indiceProfil(int[] consommations) {
+        if (consommations.length != nbPas)
+            throw new IllegalArgumentException(
+                    "Le profil doit contenir " + nbPas + " valeurs, reçu : " + consommations.length);
+        return indicesProfils.computeIfAbsent(consommations, c -> {
+            profils.add(c);
+            return profils.size() - 1;
+        });
+    }
+
+    /**
+     * Exécute la simulation depuis l'affectation initiale du réseau.
+     *
+     * @return Les séries temporelles de coût, dispersion, surcharge et
+     *         mouvements.
+     */
+    public Resultat executer() {
+        for (int h = 0; h < maisons.length; h++) {
+            if (profilDeMaison[h] < 0) {
+                profilDeMaison[h] = indiceProfil(profilConstant(maisons[h].getTypeConso()));
+            }
+        }
+
+        // maisons regroupées par profil, pour n'itérer que sur celles qui changent
+        int[][] maisonsParProfil = new int[profils.size()][];
+        int[] compte = new int[profils.size()];
+        for (int p : profilDeMaison)
+            compte[p]++;
+        for (int p = 0; p < compte.length; p++)
+            maisonsParProfil[p] = new int[compte[p]];
+        Arrays.fill(compte, 0);
+        for (int h = 0; h < maisons.length; h++) {
+            int p = profilDeMaison[h];
+            maisonsParProfil[p][compte[p]++] = h;
+        }
+
+        initialiserEtat();
+        for (int h = 0; h < maisons.length; h++) {
+            charges[affectation[h]] += consommation(h, 0);
+        }
+
+        Resultat resultat = new Resultat(new double[nbPas], new double[nbPas], new double[nbPas], new int[nbPas]);
+        for (int t = 0; t < nbPas; t++) {
+            if (t > 0) {
+                for (int p = 0; p < profils.size(); p++) {
+                    int delta = profils.get(p)[t] - profils.get(p)[t - 1];
+                    if (delta == 0)
+                        continue;
+                    for (int h : maisonsParProfil[p])
+                        charges[affectation[h]] += delta;
+                }
+            }
+            resultat.mouvements()[t] = reparer(t);
+            resultat.dispersions()[t] = dispersion();
+            resultat.surcharges()[t] = surcharge();
+            resultat.couts()[t] = resultat.dispersions()[t] + lambda * resultat.surcharges()[t];
+        }
+        return resultat;
+    }
+
+    private int[] profilConstant(TypeConso type) {
+        return profilsConstants.computeIfAbsent(type, t -> {
+            int[] constant = new int[nbPas];
+            Arrays.fill(constant, t.getConsommation());
+            return constant;
+        });
+    }
+
+    /**
+     * @return L'affectation obtenue à la fin de la dernière simulation, dans
+     *         l'ordre d'insertion des générateurs ; l'affectation initiale si
+     *         aucune simulation n'a été exécutée.
+     */
+    public Map<Generateur, List<Maison>> getAffectation() {
+        int[] source = affectation == null ? affectationInitiale : affectation;
+        Map<Generateur, List<Maison>> resultat = new LinkedHashMap<>();
+        for (Generateur g : generateurs) {
+            resultat.put(g, new ArrayList<>());
+        }
+        for (int h = 0; h < maisons.length; h++) {
+            resultat.get(generateurs[source[h]]).add(maisons[h]);
+        }
+        return resultat;
+    }
+
+    private int consommation(int h, int t) {
+        return profils.get(profilDeMaison[h])[t];
+    }
+
+    private void initialiserEtat() {
+        int nbGenerateurs = generateurs.length;
+        affectation = affectationInitiale.clone();
+        charges = new long[nbGenerateurs];
+        tailles = new int[nbGenerateurs];
+        positions = new int[maisons.length];
+        for (int g : affectation)
+            tailles[g]++;
+        membres = new int[nbGenerateurs][];
+        for (int g = 0; g < nbGenerateurs; g++) {
+            membres[g] = new int[Math.max(4, tailles[g])];
+            tailles[g] = 0;
+        }
+        for (int h = 0; h < maisons.length; h++) {
+            ajouterMembre(affectation[h], h);
+        }
+    }
+
+    private void ajouterMembre(int g, int h) {
+        if (tailles[g] == membres[g].length)
+            membres[g] = Arrays.copyOf(membres[g], membres[g].length * 2);
+        positions[h] = tailles[g];
+        membres[g][tailles[g]++] = h;
+    }
+
+    private void retirerMembre(int g, int h) {
+        int dernier = membres[g][--tailles[g]];
+        membres[g][positions[h]] = dernier;
+        positions[dernier] = positions[h];
+    }
+
+    /**
+     * Répare l'affectation au pas {@code t} : tant que le budget le permet,
+     * déplace du générateur le plus utilisé vers le moins utilisé la maison dont
+     * la consommation rapproche le mieux leurs taux, si le coût diminue.
+     *
+     * @return Le nombre de maisons déplacées.
+     */
+    private int reparer(int t) {
+        int deplacees = 0;
+        double coutActuel = dispersion() + lambda * surcharge();
+
+        while (deplacees < mouvementsMaxParPas) {
+            int gMax = -1;
+            int gMin = -1;
+            for (int g = 0; g < generateurs.length; g++) {
+                if (gMax < 0 || taux(g) > taux(gMax))
+                    gMax = g;
+                if (gMin < 0 || taux(g) < taux(gMin))
+                    gMin = g;
+            }
+            if (gMax == gMin || tailles[gMax] == 0)
+                break;
+
+            // transfert qui égaliserait les deux taux
+            double cible = (taux(gMax) - taux(gMin)) / (1.0 / capacites[gMax] + 1.0 / capacites[gMin]);
+            int choisie = -1;
+            double ecart = Double.MAX_VALUE;
+            for (int i = 0; i < tailles[gMax]; i++) {
+                int h = membres[gMax][i];
+                int conso = consommation(h, t);
+                if (conso > 0 && Math.abs(conso - cible) < ecart) {
+                    ecart = Math.abs(conso - cible);
+                    choisie = h;
+                }
+            }
+            if (choisie < 0)
+                break;
+
+            int conso = consommation(choisie, t);
+            charges[gMax] -= conso;
+            charges[gMin] += conso;
+            double nouveauCout = dispersion() + lambda * surcharge();
+            if (nouveauCout >= coutActuel - 1e-12) {
+                charges[gMax] += conso;
+                charges[gMin] -= conso;
+                break;
+            }
+
+            retirerMembre(gMax, choisie);
+            ajouterMembre(gMin, choisie);
+            affectation[choisie] = gMin;
+            coutActuel = nouveauCout;
+            deplacees++;
+        }
+        return deplacees;
+    }
+
+    private double taux(int g) {
+        return (double) charges[g] / capacites[g];
+    }
+
+    private double dispersion() {
+        int nbGenerateurs = generateurs.length;
+        if (nbGenerateurs == 0)
+            return 0;
+        double somme = 0;
+        for (int g = 0; g < nbGenerateurs; g++)
+            somme += taux(g);
+        double moyenne = somme / nbGenerateurs;
+        double dispersion = 0;
+        for (int g = 0; g < nbGenerateurs; g++)
+            dispersion += Math.abs(taux(g) - moyenne);
+        return dispersion;
+    }
+
+    private double surcharge() {
+        double surcharge = 0;
+        for (int g = 0; g < generateurs.length; g++)
+            surcharge += Math.max(0, (double) (charges[g] - capacites[g]) / capacites[g]);
+        return surcharge;
+    }
+}
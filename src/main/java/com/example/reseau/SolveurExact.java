@@ -0,0 +1,480 @@
+package com.example.reseau;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Solveur exact sur la représentation agrégée ({@link ModeleAgrege}).
+ *
+ * Le coût ne dépend que de la charge de chaque générateur. Les consommations
+ * 10, 20 et 40 forment une chaîne divisible : exprimées en unités de 10, un
+ * vecteur de charges {@code l} peut être rempli exactement par les A maisons
+ * BASSE, B NORMAL et C FORTE si et seulement si les charges totalisent
+ * {@code A + 2B + 4C}, {@code C ≤ Σ⌊l/4⌋} et {@code B + 2C ≤ Σ⌊l/2⌋} (placer une
+ * maison FORTE retire exactement deux places NORMAL, où qu'elle soit). Le
+ * solveur n'énumère donc que les charges, générateur par générateur (du plus
+ * grand au plus petit, le dernier recevant le reste), et élague par séparation
+ * et évaluation :
+ * <ul>
+ * <li>les générateurs de même capacité sont interchangeables : leurs charges
+ * sont imposées dans l'ordre décroissant, ce qui ne parcourt qu'une
+ * permutation par classe de capacité ;</li>
+ * <li>une charge n'est retenue que si les conditions ci-dessus restent
+ * satisfaisables en plaçant tout le reste sur un seul générateur ;</li>
+ * <li>la moyenne des taux dépend de l'affectation, le coût n'est donc pas
+ * séparable ; la borne inférieure minimise, sur l'intervalle des moyennes
+ * encore atteignables, la dispersion des générateurs déjà chargés plus
+ * {@code |R − μ·Cr| / Cmax} pour ceux qui restent (R la charge restante, Cr
+ * leur capacité totale, Cmax la plus grande), et la surcharge minimale
+ * {@code max(0, R − Cr) / Cmax}.</li>
+ * </ul>
+ * Le travail par nœud est en O(G + R·log G) pour R charges candidates : les
+ * sommes cumulées des taux fixés sont calculées une fois par nœud, une borne
+ * en O(1) (surcharge et dispersion minimale des seuls taux fixés) écarte la
+ * plupart des charges avant la borne complète, qui ne fait plus que des
+ * recherches dichotomiques. Les tampons des candidates sont réutilisés d'un
+ * nœud à l'autre à chaque profondeur.
+ *
+ * La solution de {@link ModeleAgrege#optimiser()} sert de borne de départ. Le
+ * nombre de nœuds explorés est limité par un budget : s'il est épuisé, la
+ * meilleure solution trouvée est conservée mais n'est pas prouvée optimale.
+ *
+ * Les générateurs de capacité nulle ne reçoivent aucune maison.
+ */
+public class SolveurExact {
+    /**
+     * Nombre de nœuds explorés par défaut avant abandon de la preuve.
+     */
+    public static final long BUDGET_PAR_DEFAUT = 1_000_000;
+
+    /**
+     * Résultat d'une résolution.
+     *
+     * @param cout    Le coût de la meilleure affectation trouvée.
+     * @param optimal {@code true} si l'exploration a été complète.
+     * @param noeuds  Le nombre de nœuds explorés.
+     */
+    public record Resultat(double cout, boolean optimal, long noeuds) {
+    }
+
+    private static final TypeConso[] TYPES = TypeConso.values();
+    private static final int UNITE = TypeConso.BASSE.getConsommation();
+    private static final int PAS_NORMAL = TypeConso.NORMAL.getConsommation() / UNITE;
+    private static final int PAS_FORTE = TypeConso.FORTE.getConsommation() / UNITE;
+
+    private final ModeleAgrege modele;
+    private final long budget;
+    private final int lambda;
+    private final int nbGenerateurs;
+
+    /** Indices (dans le modèle) des générateurs de capacité non nulle, par capacité décroissante. */
+    private int[] ordre;
+    private int[] capacites;
+    private int[] capaciteRestante;
+    private int nbNormal;
+    private int nbForte;
+
+    /** Charges en unités, par position dans {@link #ordre}. */
+    private int[] charges;
+    private int[] meilleur;
+    private double meilleurCout;
+    /** Taux des générateurs déjà fixés, triés, et leur somme. */
+    private final double[] tries;
+    private int nbTaux;
+    private double sommeTaux;
+    private double surchargeFixee;
+    /** Sommes cumulées de {@link #tries} : {@code prefixes[k]} est la somme des k plus petits taux. */
+    private final double[] prefixes;
+    /** Par profondeur : clés de tri des candidates (borne réduite en float, position) et bornes exactes. */
+    private long[][] cles;
+    private double[][] bornes;
+    private int[][] candidates;
+    private long noeuds;
+    private boolean interrompu;
+    private PointDeCession cession = PointDeCession.AUCUN;
+
+    /**
+     * @param reseau Le réseau à résoudre ; son affectation actuelle n'est pas modifiée.
+     */
+    public SolveurExact(Reseau reseau) {
+        this(reseau, BUDGET_PAR_DEFAUT);
+    }
+
+    /**
+     * @param reseau Le réseau à résoudre ; son affectation actuelle n'est pas modifiée.
+     * @param budget Le nombre maximal de nœuds explorés.
+     */
+    public SolveurExact(Reseau reseau, long budget) {
+        if (budget <= 0)
+            throw new IllegalArgumentException("budget invalide : " + budget);
+        this.modele = new ModeleAgrege(reseau);
+        this.budget = budget;
+        this.lambda = reseau.getLambda();
+        this.nbGenerateurs = modele.getNombreGenerateurs();
+        this.tries = new double[nbGenerateurs];
+        this.prefixes = new double[nbGenerateurs + 1];
+    }
+
+    /**
+     * @return Le modèle agrégé ; après {@link #resoudre()}, il contient la
+     *         meilleure affectation trouvée.
+     */
+    public ModeleAgrege getModele() {
+        return modele;
+    }
+
+    /**
+     * Résout sans point de cession.
+     *
+     * @see #resoudre(PointDeCession)
+     */
+    public Resultat resoudre() {
+        return resoudre(PointDeCession.AUCUN);
+    }
+
+    /**
+     * Cherche l'affectation agrégée de coût minimal et l'écrit dans le modèle.
+     *
+     * @param cession Le point de cession, appelé régulièrement pendant l'exploration.
+     * @return Le coût obtenu et l'indication d'optimalité.
+     * @throws IllegalStateException si des maisons sont connectées mais
+     *                               qu'aucun générateur n'a de capacité.
+     */
+    public Resultat resoudre(PointDeCession cession) {
+        this.cession = cession;
+        List<Integer> positifs = new ArrayList<>();
+        for (int g = 0; g < nbGenerateurs; g++)
+            if (modele.getGenerateur(g).getCapacite() > 0)
+                positifs.add(g);
+        positifs.sort(Comparator.comparingInt((Integer g) -> -modele.getGenerateur(g).getCapacite())
+                .thenComparingInt(g -> g));
+
+        nbNormal = modele.getTotal(TypeConso.NORMAL);
+        nbForte = modele.getTotal(TypeConso.FORTE);
+        int chargeTotale = modele.getTotal(TypeConso.BASSE) + PAS_NORMAL * nbNormal + PAS_FORTE * nbForte;
+        if (positifs.isEmpty()) {
+            if (chargeTotale > 0)
+                throw new IllegalStateException("Aucun générateur de capacité non nulle.");
+            return new Resultat(modele.calculerCout(), true, 0);
+        }
+
+        int nbPositifs = positifs.size();
+        ordre = positifs.stream().mapToInt(Integer::intValue).toArray();
+        capacites = new int[nbPositifs];
+        capaciteRestante = new int[nbPositifs + 1];
+        for (int p = nbPositifs - 1; p >= 0; p--) {
+            capacites[p] = modele.getGenerateur(ordre[p]).getCapacite();
+            capaciteRestante[p] = capaciteRestante[p + 1] + capacites[p];
+        }
+
+        // borne de départ : l'heuristique agrégée
+        modele.optimiser(cession);
+        charges = new int[nbPositifs];
+        meilleur = new int[nbPositifs];
+        cles = new long[nbPositifs][];
+        bornes = new double[nbPositifs][];
+        candidates = new int[nbPositifs][];
+        boolean surGenerateurNul = false;
+        for (int g = 0; g < nbGenerateurs; g++)
+            if (modele.getGenerateur(g).getCapacite() == 0)
+                for (TypeConso t : TYPES)
+                    surGenerateurNul |= modele.getNombre(g, t) > 0;
+        meilleurCout = surGenerateurNul ? Double.POSITIVE_INFINITY : modele.calculerCout();
+        for (int p = 0; p < nbPositifs; p++)
+            for (TypeConso t : TYPES)
+                meilleur[p] += modele.getNombre(ordre[p], t) * t.getConsommation() / UNITE;
+
+        // les générateurs de capacité nulle restent vides : taux 0
+        nbTaux = nbGenerateurs - nbPositifs;
+        Arrays.fill(tries, 0, nbTaux, 0);
+        sommeTaux = 0;
+        surchargeFixee = 0;
+        noeuds = 0;
+        interrompu = false;
+        explorer(0, chargeTotale, 0, 0);
+
+        remplir();
+        return new Resultat(modele.calculerCout(), !interrompu, noeuds);
+    }
+
+    /**
+     * Choisit la charge du générateur en position {@code p}.
+     *
+     * @param reste      La charge restant à répartir, en unités.
+     * @param placesForte La somme des {@code ⌊l/4⌋} des charges déjà fixées.
+     * @param placesNormal La somme des {@code ⌊l/2⌋} des charges déjà fixées.
+     */
+    private void explorer(int p, int reste, int placesForte, int placesNormal) {
+        if (interrompu)
+            return;
+        if (++noeuds > budget) {
+            interrompu = true;
+            return;
+        }
+        if ((noeuds & 0xFFF) == 0)
+            cession.ceder();
+
+        int dernier = ordre.length - 1;
+        if (p == dernier) {
+            if (!respecteSymetrie(p, reste) || !remplissable(reste, 0, placesForte, placesNormal))
+                return;
+            double cout = coutComplet((double) reste * UNITE / capacites[p]);
+            if (cout < meilleurCout - 1e-12) {
+                meilleurCout = cout;
+                charges[p] = reste;
+                System.arraycopy(charges, 0, meilleur, 0, charges.length);
+            }
+            return;
+        }
+
+        // charges candidates, triées par borne inférieure croissante
+        int max = reste;
+        if (p > 0 && capacites[p] == capacites[p - 1])
+            max = Math.min(max, charges[p - 1]);
+        for (int k = 0; k < nbTaux; k++)
+            prefixes[k + 1] = prefixes[k] + tries[k];
+        // dispersion minimale des seuls taux fixés, atteinte en leur médiane
+        int moitie = nbTaux / 2;
+        double dispersionFixee = prefixes[nbTaux] - prefixes[nbTaux - moitie] - prefixes[moitie];
+        double seuil = meilleurCout - 1e-12;
+
+        if (cles[p] == null) {
+            cles[p] = new long[16];
+            bornes[p] = new double[16];
+            candidates[p] = new int[16];
+        }
+        // la borne est convexe en l : les charges retenues forment un intervalle
+        // autour de son minimum, parcouru vers la gauche puis vers la droite
+        int centre = chargeDeBorneMinimale(p, reste, max);
+        int nb = 0;
+        for (int sens = -1; sens <= 1; sens += 2) {
+            for (int l = sens < 0 ? centre : centre + 1; l >= 0 && l <= max; l += sens) {
+                double borne = borne(p, l, reste, dispersionFixee, seuil);
+                if (borne >= seuil)
+                    break;
+                if (!remplissable(l, reste - l, placesForte, placesNormal))
+                    continue;
+                if (nb == cles[p].length) {
+                    cles[p] = Arrays.copyOf(cles[p], 2 * nb);
+                    bornes[p] = Arrays.copyOf(bornes[p], 2 * nb);
+                    candidates[p] = Arrays.copyOf(candidates[p], 2 * nb);
+                }
+                // borne ≥ 0 : l'ordre des bits du float est celui des valeurs
+                cles[p][nb] = (long) Float.floatToIntBits((float) borne) << 32 | nb;
+                bornes[p][nb] = borne;
+                candidates[p][nb++] = l;
+            }
+        }
+        long[] ordreCandidates = cles[p];
+        Arrays.sort(ordreCandidates, 0, nb);
+
+        for (int k = 0; k < nb; k++) {
+            if (interrompu)
+                return;
+            int i = (int) ordreCandidates[k];
+            // le tri est à la précision du float : la coupure se fait sur la borne exacte
+            if (bornes[p][i] >= meilleurCout - 1e-12)
+                continue;
+            int l = candidates[p][i];
+            double u = (double) l * UNITE / capacites[p];
+            charges[p] = l;
+            empiler(u);
+            double surcharge = Math.max(0, u - 1);
+            surchargeFixee += surcharge;
+            explorer(p + 1, reste - l, placesForte + l / PAS_FORTE, placesNormal + l / PAS_NORMAL);
+            surchargeFixee -= surcharge;
+            depiler(u);
+        }
+    }
+
+    /**
+     * Borne du générateur {@code p} chargé de {@code l} : d'abord en O(1) la
+     * surcharge et la dispersion minimale des taux fixés, puis, si elle ne
+     * suffit pas à écarter la charge, {@link #borneInferieure}.
+     */
+    private double borne(int p, int l, int reste, double dispersionFixee, double seuil) {
+        double u = (double) l * UNITE / capacites[p];
+        double surcharge = surchargeFixee + Math.max(0, u - 1)
+                + Math.max(0, (double) (reste - l) * UNITE - capaciteRestante[p + 1]) / capacites[p + 1];
+        double rapide = dispersionFixee + lambda * surcharge;
+        return rapide >= seuil ? rapide : borneInferieure(p, u, reste - l);
+    }
+
+    /**
+     * Recherche ternaire du minimum de {@link #borneInferieure} sur les charges
+     * {@code 0..max} du générateur {@code p} : somme de valeurs absolues de
+     * fonctions affines minimisée sur un intervalle à bornes affines, plus des
+     * surcharges convexes, la borne est convexe en la charge.
+     */
+    private int chargeDeBorneMinimale(int p, int reste, int max) {
+        int bas = 0;
+        int haut = max;
+        while (haut - bas > 2) {
+            int m1 = bas + (haut - bas) / 3;
+            int m2 = haut - (haut - bas) / 3;
+            if (borneInferieure(p, (double) m1 * UNITE / capacites[p], reste - m1)
+                    <= borneInferieure(p, (double) m2 * UNITE / capacites[p], reste - m2))
+                haut = m2;
+            else
+                bas = m1;
+        }
+        int meilleure = bas;
+        double minimum = Double.POSITIVE_INFINITY;
+        for (int l = bas; l <= haut; l++) {
+            double b = borneInferieure(p, (double) l * UNITE / capacites[p], reste - l);
+            if (b < minimum) {
+                minimum = b;
+                meilleure = l;
+            }
+        }
+        return meilleure;
+    }
+
+    /**
+     * Deux générateurs consécutifs de même capacité reçoivent des charges décroissantes.
+     */
+    private boolean respecteSymetrie(int p, int l) {
+        return p == 0 || capacites[p] != capacites[p - 1] || l <= charges[p - 1];
+    }
+
+    /**
+     * @return {@code true} si les maisons peuvent encore remplir exactement les
+     *         charges, la charge {@code l} étant ajoutée et le {@code reste}
+     *         placé sur un seul générateur.
+     */
+    private boolean remplissable(int l, int reste, int placesForte, int placesNormal) {
+        int forte = placesForte + l / PAS_FORTE + reste / PAS_FORTE;
+        int normal = placesNormal + l / PAS_NORMAL + reste / PAS_NORMAL;
+        return nbForte <= forte && nbNormal + (PAS_FORTE / PAS_NORMAL) * nbForte <= normal;
+    }
+
+    /**
+     * Écrit dans le modèle les remplissages correspondant aux meilleures
+     * charges : maisons FORTE d'abord, puis NORMAL, les BASSE complétant.
+     */
+    private void remplir() {
+        for (int g = 0; g < nbGenerateurs; g++)
+            for (TypeConso t : TYPES)
+                modele.setNombre(g, t, 0);
+        int forte = nbForte;
+        int normal = nbNormal;
+        for (int p = 0; p < ordre.length; p++) {
+            int l = meilleur[p];
+            int c = Math.min(forte, l / PAS_FORTE);
+            l -= c * PAS_FORTE;
+            int b = Math.min(normal, l / PAS_NORMAL);
+            l -= b * PAS_NORMAL;
+            forte -= c;
+            normal -= b;
+            modele.setNombre(ordre[p], TypeConso.FORTE, c);
+            modele.setNombre(ordre[p], TypeConso.NORMAL, b);
+            modele.setNombre(ordre[p], TypeConso.BASSE, l);
+        }
+    }
+
+    /**
+     * Borne inférieure du coût de toute complétion où le générateur {@code p}
+     * prend le taux {@code u} et où les suivants se partagent la charge
+     * {@code reste} (en unités).
+     *
+     * La dispersion minorée {@code Σ|t − μ| + |u − μ| + (Cr/Cmax)·|R/Cr − μ|} est
+     * convexe en μ : son minimum sur l'intervalle des moyennes atteignables est
+     * atteint en sa médiane pondérée, ramenée dans l'intervalle.
+     */
+    private double borneInferieure(int p, double u, int reste) {
+        int suivant = p + 1;
+        double charge = (double) reste * UNITE;
+        double capRestante = capaciteRestante[suivant];
+        double capMax = capacites[suivant];
+        double capMin = capacites[ordre.length - 1];
+
+        double somme = sommeTaux + u;
+        double bas = (somme + charge / capMax) / nbGenerateurs;
+        double haut = (somme + charge / capMin) / nbGenerateurs;
+        double equilibre = charge / capRestante;
+        double poids = capRestante / capMax;
+
+        // médiane pondérée des taux fixés (poids 1), de u (poids 1) et de
+        // l'équilibre : le premier élément, dans l'ordre fusionné, dont le poids
+        // cumulé atteint la moitié ; à égalité, u et l'équilibre précèdent les
+        // taux fixés
+        double premier = Math.min(u, equilibre);
+        double second = Math.max(u, equilibre);
+        double poidsPremier = u <= equilibre ? 1 : poids;
+        double poidsSecond = u <= equilibre ? poids : 1;
+        double moitie = (nbTaux + 1 + poids) / 2;
+        int avantPremier = nombreInferieurs(premier);
+        int avantSecond = nombreInferieurs(second);
+        double mediane;
+        int i = (int) Math.ceil(moitie) - 1;
+        if (i < avantPremier) {
+            mediane = tries[i];
+        } else if (avantPremier + poidsPremier >= moitie) {
+            mediane = premier;
+        } else if ((i = Math.max(avantPremier, (int) Math.ceil(moitie - poidsPremier) - 1)) < avantSecond) {
+            mediane = tries[i];
+        } else if (avantSecond + poidsPremier + poidsSecond >= moitie) {
+            mediane = second;
+        } else {
+            i = Math.max(avantSecond, (int) Math.ceil(moitie - poidsPremier - poidsSecond) - 1);
+            mediane = tries[Math.min(i, nbTaux - 1)];
+        }
+        double moyenne = Math.max(bas, Math.min(haut, mediane));
+
+        int k = nombreInferieurs(moyenne);
+        double d = Math.abs(u - moyenne) + poids * Math.abs(equilibre - moyenne)
+                + moyenne * k - prefixes[k] + (prefixes[nbTaux] - prefixes[k]) - moyenne * (nbTaux - k);
+
+        double surcharge = surchargeFixee + Math.max(0, u - 1) + Math.max(0, charge - capRestante) / capMax;
+        return d + lambda * surcharge;
+    }
+
+    /**
+     * @return Le nombre de taux fixés strictement inférieurs à {@code x}.
+     */
+    private int nombreInferieurs(double x) {
+        int bas = 0;
+        int haut = nbTaux;
+        while (bas < haut) {
+            int milieu = (bas + haut) >>> 1;
+            if (tries[milieu] < x)
+                bas = milieu + 1;
+            else
+                haut = milieu;
+        }
+        return bas;
+    }
+
+    private void empiler(double u) {
+        int i = nbTaux++;
+        while (i > 0 && tries[i - 1] > u) {
+            tries[i] = tries[i - 1];
+            i--;
+        }
+        tries[i] = u;
+        sommeTaux += u;
+    }
+
+    private void depiler(double u) {
+        int i = 0;
+        while (tries[i] != u)
+            i++;
+        System.arraycopy(tries, i + 1, tries, i, nbTaux - i - 1);
+        nbTaux--;
+        sommeTaux -= u;
+    }
+
+    /**
+     * @return Le coût exact des taux fixés complétés du taux {@code dernier}.
+     */
+    private double coutComplet(double dernier) {
+        double moyenne = (sommeTaux + dernier) / nbGenerateurs;
+        double dispersion = Math.abs(dernier - moyenne);
+        double surcharge = surchargeFixee + Math.max(0, dernier - 1);
+        for (int i = 0; i < nbTaux; i++)
+            dispersion += Math.abs(tries[i] - moyenne);
+        return dispersion + lambda * surcharge;
+    }
+}
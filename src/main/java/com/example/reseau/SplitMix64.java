@@ -0,0 +1,71 @@
+package com.example.reseau;
+
+/**
+ * Générateur pseudo-aléatoire SplitMix64. Tout son état tient dans un
+ * {@code long}, qui peut être lu et restauré : une recherche reprise depuis un
+ * point de reprise tire exactement la même suite de nombres qu'une recherche
+ * ininterrompue.
+ */
+final class SplitMix64 {
+    private long etat;
+
+    /**
+     * @param etat L'état initial (la graine).
+     */
+    SplitMix64(long etat) {
+        this.etat = etat;
+    }
+
+    /**
+     * @return L'état courant, à passer au constructeur pour reprendre la suite.
+     */
+    long getEtat() {
+        return etat;
+    }
+
+    /**
+     * Repositionne la suite, pour réutiliser le générateur sans allocation.
+     *
+     * @param etat Le nouvel état.
+     */
+    void setEtat(long etat) {
+        this.etat = etat;
+    }
+
+    /**
+     * @return Le prochain entier de 64 bits.
+     */
+    long suivant() {
+        long z = (etat += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * @return Un réel uniforme dans {@code [0, 1)}.
+     */
+    double reel() {
+        return (suivant() >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Tire un entier uniforme dans {@code [0, borne)} par multiplication et
+     * rejet (méthode de Lemire), sans biais.
+     *
+     * @param borne La borne exclue, strictement positive.
+     * @return L'entier tiré.
+     */
+    int entier(int borne) {
+        long m = (suivant() >>> 32) * borne;
+        long bas = m & 0xFFFFFFFFL;
+        if (bas < borne) {
+            long seuil = (0x1_0000_0000L - borne) % borne;
+            while (bas < seuil) {
+                m = (suivant() >>> 32) * borne;
+                bas = m & 0xFFFFFFFFL;
+            }
+        }
+        return (int) (m >>> 32);
+    }
+}
@@ -0,0 +1,282 @@
+package com.example.reseau;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Maisons rangées hors du tas Java, dans des {@link ByteBuffer} directs.
+ *
+ * Chaque maison occupe un enregistrement de {@value #TAILLE_ENREGISTREMENT}
+ * octets : début et longueur de son nom dans l'arène des noms (UTF-8), hash de
+ * sa clé canonique, identifiant de son générateur (-1 si elle n'est pas
+ * connectée) et rang de son {@link TypeConso}. L'index des noms est une table
+ * à adressage ouvert, elle aussi hors du tas, qui contient des identifiants.
+ *
+ * Le tas ne contient donc qu'une poignée d'objets, quel que soit le nombre de
+ * maisons : le ramasse-miettes n'a rien à parcourir. Les enregistrements et
+ * l'arène des noms grandissent par blocs de taille croissante (voir
+ * {@link Blocs}) : rien n'est recopié, et au-delà du premier bloc, la mémoire
+ * réservée ne dépasse pas le double de la mémoire utilisée. Seul l'index des
+ * noms est reconstruit, en doublant, si le nombre de maisons dépasse le double
+ * de celui prévu à la construction ; le prévoir évite ce pic. L'arène des noms
+ * est limitée à 2 Go et le nombre de maisons à {@value #NOMBRE_MAX}.
+ *
+ * La mémoire directe est plafonnée par l'option de la JVM
+ * {@code -XX:MaxDirectMemorySize}, qui vaut par défaut la taille maximale du
+ * tas ({@code -Xmx}). Il faut compter par maison {@value #TAILLE_ENREGISTREMENT}
+ * octets d'enregistrement, 8 à 16 octets d'index et la longueur de son nom, et
+ * relever l'option en conséquence pour les très grands réseaux ; une
+ * allocation refusée lève une {@link OutOfMemoryError} qui le rappelle.
+ *
+ * Les maisons ne sont jamais retirées ; leur identifiant est leur rang
+ * d'ajout. Cette classe n'est pas sûre pour les threads.
+ */
+final class StockageHorsTas implements StockageMaisons {
+    static final int TAILLE_ENREGISTREMENT = 16;
+    static final int NOMBRE_MAX = 1 << 26;
+
+    private static final int DEBUT_NOM = 0;
+    private static final int HASH = 4;
+    private static final int GENERATEUR = 8;
+    private static final int LONGUEUR_NOM = 12;
+    private static final int TYPE = 14;
+    private static final int LONGUEUR_NOM_MAX = 0xFFFF;
+    private static final TypeConso[] TYPES = TypeConso.values();
+
+    private final Blocs enregistrements;
+    private final Blocs noms;
+    private IntBuffer table;
+    private int nombre;
+    private int finNoms;
+    private byte[] tampon = new byte[64];
+
+    /**
+     * @param capaciteInitiale Le nombre de maisons prévu : le premier bloc des
+     *                         enregistrements et l'index des noms sont
+     *                         dimensionnés d'après lui (le stockage grandit au
+     *                         besoin).
+     */
+    StockageHorsTas(int capaciteInitiale) {
+        int capacite = Integer.highestOneBit(Math.max(16, Math.min(capaciteInitiale, NOMBRE_MAX)) - 1) << 1;
+        enregistrements = new Blocs(capacite * TAILLE_ENREGISTREMENT, NOMBRE_MAX * TAILLE_ENREGISTREMENT);
+        noms = new Blocs(Math.max(LONGUEUR_NOM_MAX + 1, capacite * 8), Integer.MAX_VALUE);
+        table = allouer(4 * capacite * 4).asIntBuffer();
+    }
+
+    private static ByteBuffer allouer(int octets) {
+        try {
+            return ByteBuffer.allocateDirect(octets).order(ByteOrder.nativeOrder());
+        } catch (OutOfMemoryError e) {
+            OutOfMemoryError erreur = new OutOfMemoryError("Mémoire directe insuffisante pour " + octets
+                    + " octets : relever -XX:MaxDirectMemorySize (par défaut égale à -Xmx).");
+            erreur.initCause(e);
+            throw erreur;
+        }
+    }
+
+    @Override
+    public int getNombre() {
+        return nombre;
+    }
+
+    @Override
+    public int ajouter(String nom, TypeConso type) {
+        byte[] octets = nom.getBytes(StandardCharsets.UTF_8);
+        if (octets.length > LONGUEUR_NOM_MAX)
+            throw new IllegalArgumentException("Nom de maison trop long : " + octets.length + " octets.");
+        if (nombre == NOMBRE_MAX)
+            throw new IllegalStateException("Le stockage est plein (" + NOMBRE_MAX + " maisons).");
+        int debutNom = noms.reserver(finNoms, octets.length);
+        if (debutNom < 0)
+            throw new IllegalStateException("L'arène des noms est pleine.");
+
+        int id = nombre;
+        int base = enregistrements.reserver(id * TAILLE_ENREGISTREMENT, TAILLE_ENREGISTREMENT);
+        nombre++;
+        int hash = IndexParCle.cle(nom).hashCode();
+        noms.put(debutNom, octets);
+        enregistrements.putInt(base + DEBUT_NOM, debutNom);
+        enregistrements.putInt(base + HASH, hash);
+        enregistrements.putInt(base + GENERATEUR, -1);
+        enregistrements.putChar(base + LONGUEUR_NOM, (char) octets.length);
+        enregistrements.put(base + TYPE, (byte) type.ordinal());
+        finNoms = debutNom + octets.length;
+
+        if (2 * nombre > table.capacity())
+            rehacher(2 * table.capacity());
+        else
+            inserer(id, hash);
+        return id;
+    }
+
+    @Override
+    public int chercher(String nom) {
+        if (nom == null)
+            return -1;
+        String cle = IndexParCle.cle(nom);
+        int hash = cle.hashCode();
+        int masque = table.capacity() - 1;
+        for (int i = melanger(hash) & masque;; i = (i + 1) & masque) {
+            int entree = table.get(i);
+            if (entree == 0)
+                return -1;
+            int id = entree - 1;
+            if (enregistrements.getInt(id * TAILLE_ENREGISTREMENT + HASH) == hash
+                    && IndexParCle.cle(getNom(id)).equals(cle))
+                return id;
+        }
+    }
+
+    @Override
+    public String getNom(int id) {
+        int base = id * TAILLE_ENREGISTREMENT;
+        int debut = enregistrements.getInt(base + DEBUT_NOM);
+        int longueur = enregistrements.getChar(base + LONGUEUR_NOM);
+        if (tampon.length < longueur)
+            tampon = new byte[Math.max(longueur, 2 * tampon.length)];
+        noms.get(debut, tampon, longueur);
+        return new String(tampon, 0, longueur, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public TypeConso getType(int id) {
+        return TYPES[enregistrements.get(id * TAILLE_ENREGISTREMENT + TYPE)];
+    }
+
+    @Override
+    public void setType(int id, TypeConso type) {
+        enregistrements.put(id * TAILLE_ENREGISTREMENT + TYPE, (byte) type.ordinal());
+    }
+
+    @Override
+    public int getGenerateur(int id) {
+        return enregistrements.getInt(id * TAILLE_ENREGISTREMENT + GENERATEUR);
+    }
+
+    @Override
+    public void setGenerateur(int id, int generateur) {
+        enregistrements.putInt(id * TAILLE_ENREGISTREMENT + GENERATEUR, generateur);
+    }
+
+    @Override
+    public long getOctetsHorsTas() {
+        return enregistrements.getOctets() + noms.getOctets() + 4L * table.capacity();
+    }
+
+    private void rehacher(int capacite) {
+        table = allouer(capacite * 4).asIntBuffer();
+        for (int id = 0; id < nombre; id++)
+            inserer(id, enregistrements.getInt(id * TAILLE_ENREGISTREMENT + HASH));
+    }
+
+    private void inserer(int id, int hash) {
+        int masque = table.capacity() - 1;
+        int i = melanger(hash) & masque;
+        while (table.get(i) != 0)
+            i = (i + 1) & masque;
+        table.put(i, id + 1);
+    }
+
+    private static int melanger(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Espace d'adressage d'octets découpé en blocs directs de taille croissante :
+     * le bloc {@code k} couvre les positions {@code [base·(2^k − 1),
+     * base·(2^(k+1) − 1))}. Le premier bloc est alloué d'emblée, les suivants à
+     * leur première utilisation ; un bloc ne bouge plus ensuite, et le bloc d'une
+     * position se trouve en O(1).
+     */
+    private static final class Blocs {
+        private final int logBase;
+        private final int limite;
+        private final ByteBuffer[] blocs = new ByteBuffer[32];
+        private long octets;
+
+        /**
+         * @param base   La taille du premier bloc, puissance de 2.
+         * @param limite La taille maximale de l'espace d'adressage.
+         */
+        Blocs(int base, int limite) {
+            this.logBase = Integer.numberOfTrailingZeros(base);
+            this.limite = limite;
+            reserver(0, 0);
+        }
+
+        long getOctets() {
+            return octets;
+        }
+
+        private int bloc(int position) {
+            return 31 - Integer.numberOfLeadingZeros((position >>> logBase) + 1);
+        }
+
+        private long debut(int k) {
+            return ((1L << k) - 1) << logBase;
+        }
+
+        private int decalage(int position) {
+            return (int) (position - debut(bloc(position)));
+        }
+
+        /**
+         * Alloue au besoin le bloc qui recevra {@code longueur} octets à partir
+         * de {@code position}, ou du début du bloc suivant si elles n'y tiennent
+         * pas.
+         *
+         * @return La position retenue, ou -1 si la limite est atteinte.
+         */
+        int reserver(int position, int longueur) {
+            int k = bloc(position);
+            long fin = Math.min(debut(k + 1), limite);
+            if (position + (long) longueur > fin) {
+                if (fin + longueur > limite)
+                    return -1;
+                position = (int) fin;
+                k++;
+            }
+            if (blocs[k] == null) {
+                int taille = (int) (Math.min(debut(k + 1), limite) - debut(k));
+                blocs[k] = allouer(taille);
+                octets += taille;
+            }
+            return position;
+        }
+
+        int getInt(int position) {
+            return blocs[bloc(position)].getInt(decalage(position));
+        }
+
+        void putInt(int position, int valeur) {
+            blocs[bloc(position)].putInt(decalage(position), valeur);
+        }
+
+        char getChar(int position) {
+            return blocs[bloc(position)].getChar(decalage(position));
+        }
+
+        void putChar(int position, char valeur) {
+            blocs[bloc(position)].putChar(decalage(position), valeur);
+        }
+
+        byte get(int position) {
+            return blocs[bloc(position)].get(decalage(position));
+        }
+
+        void put(int position, byte valeur) {
+            blocs[bloc(position)].put(decalage(position), valeur);
+        }
+
+        void get(int position, byte[] destination, int longueur) {
+            blocs[bloc(position)].get(decalage(position), destination, 0, longueur);
+        }
+
+        void put(int position, byte[] source) {
+            blocs[bloc(position)].put(decalage(position), source);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.reseau;
+
+import java.io.Closeable;
+
+/**
+ * Stockage des maisons d'un {@link ReseauCompact}, sous forme
+ * d'enregistrements de taille fixe désignés par leur identifiant (leur rang
+ * d'ajout). Les maisons ne sont jamais retirées.
+ *
+ * Deux implémentations : {@link StockageHorsTas} garde tout en mémoire, hors
+ * du tas Java ; {@link StockagePagine} garde tout sur disque et ne charge que
+ * les pages utilisées.
+ */
+interface StockageMaisons extends Closeable {
+
+    /**
+     * @return Le nombre de maisons.
+     */
+    int getNombre();
+
+    /**
+     * Ajoute une maison non connectée. Le nom ne doit pas déjà être présent.
+     *
+     * @param nom  Le nom de la maison.
+     * @param type Son type de consommation.
+     * @return L'identifiant de la maison.
+     * @throws IllegalArgumentException si le nom est trop long.
+     * @throws IllegalStateException    si le stockage est plein.
+     */
+    int ajouter(String nom, TypeConso type);
+
+    /**
+     * @param nom Un nom de maison (insensible à la casse).
+     * @return L'identifiant de la maison, ou -1 si elle n'existe pas.
+     */
+    int chercher(String nom);
+
+    /**
+     * @param id L'identifiant d'une maison.
+     * @return Son nom, décodé à chaque appel.
+     */
+    String getNom(int id);
+
+    /**
+     * @param id L'identifiant d'une maison.
+     * @return Son type de consommation.
+     */
+    TypeConso getType(int id);
+
+    /**
+     * @param id   L'identifiant d'une maison.
+     * @param type Son nouveau type de consommation.
+     */
+    void setType(int id, TypeConso type);
+
+    /**
+     * @param id L'identifiant d'une maison.
+     * @return L'identifiant de son générateur, ou -1 si elle n'est pas connectée.
+     */
+    int getGenerateur(int id);
+
+    /**
+     * @param id         L'identifiant d'une maison.
+     * @param generateur L'identifiant de son générateur, ou -1 pour la déconnecter.
+     */
+    void setGenerateur(int id, int generateur);
+
+    /**
+     * @return Les octets réservés hors du tas par le stockage.
+     */
+    long getOctetsHorsTas();
+
+    /**
+     * Libère les ressources du stockage (fichiers, par exemple). Sans effet par
+     * défaut.
+     *
+     * @throws java.io.UncheckedIOException en cas d'erreur d'entrée/sortie.
+     */
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.reseau;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Maisons rangées sur disque, dans des fichiers découpés en pages de taille
+ * fixe dont seules les plus récemment utilisées restent en mémoire
+ * ({@link CachePages}).
+ *
+ * Les enregistrements et l'arène des noms ont la même forme que dans
+ * {@link StockageHorsTas}, mais chacun occupe un fichier temporaire supprimé à
+ * la fermeture ; ils sont écrits séquentiellement pendant le chargement.
+ * L'index des noms reste dans le tas, dans un unique tableau de {@code long}
+ * qui associe au hash de chaque nom l'identifiant de sa maison (16 à 32 octets
+ * par maison) : ajouter une maison ou reconstruire l'index ne lit aucune page,
+ * et une recherche par nom ne lit que la page de l'enregistrement et celle du
+ * nom dont le hash correspond. Consulter ou déplacer une maison ne lit que la
+ * page de son enregistrement. En dehors de l'index, la mémoire utilisée est
+ * bornée par la taille du cache, quel que soit le nombre de maisons ; celui-ci
+ * est limité à {@value #NOMBRE_MAX}.
+ *
+ * Cette classe n'est pas sûre pour les threads.
+ */
+final class StockagePagine implements StockageMaisons {
+    /**
+     * Taille de page par défaut, en octets.
+     */
+    static final int TAILLE_PAGE_PAR_DEFAUT = 64 * 1024;
+    static final int NOMBRE_MAX = 1 << 29;
+
+    private static final int TAILLE_ENREGISTREMENT = 16;
+    private static final int DEBUT_NOM = 0;
+    private static final int HASH = 4;
+    private static final int GENERATEUR = 8;
+    private static final int LONGUEUR_NOM = 12;
+    private static final int TYPE = 14;
+    private static final int LONGUEUR_NOM_MAX = 0xFFFF;
+    private static final TypeConso[] TYPES = TypeConso.values();
+
+    private final CachePages cache;
+    private final int enregistrements;
+    private final int noms;
+    private long[] table = new long[1024];
+    private int nombre;
+    private int finNoms;
+    private byte[] tampon = new byte[64];
+
+    /**
+     * @param repertoire  Le répertoire des fichiers de pages.
+     * @param taillePage  La taille d'une page en octets (multiple de
+     *                    {@value #TAILLE_ENREGISTREMENT}).
+     * @param pagesEnCache Le nombre de pages gardées en mémoire (au moins 2).
+     * @throws java.io.UncheckedIOException si les fichiers ne peuvent pas être
+     *                                      créés.
+     */
+    StockagePagine(Path repertoire, int taillePage, int pagesEnCache) {
+        if (taillePage % TAILLE_ENREGISTREMENT != 0)
+            throw new IllegalArgumentException("La taille de page doit être un multiple de "
+                    + TAILLE_ENREGISTREMENT + " octets.");
+        cache = new CachePages(taillePage, pagesEnCache);
+        enregistrements = cache.ouvrir(repertoire);
+        noms = cache.ouvrir(repertoire);
+    }
+
+    /**
+     * @return Le nombre de pages lues depuis le disque.
+     */
+    long getDefautsDePage() {
+        return cache.getDefauts();
+    }
+
+    @Override
+    public int getNombre() {
+        return nombre;
+    }
+
+    @Override
+    public int ajouter(String nom, TypeConso type) {
+        byte[] octets = nom.getBytes(StandardCharsets.UTF_8);
+        if (octets.length > LONGUEUR_NOM_MAX)
+            throw new IllegalArgumentException("Nom de maison trop long : " + octets.length + " octets.");
+        if ((long) finNoms + octets.length > Integer.MAX_VALUE)
+            throw new IllegalStateException("L'arène des noms est pleine.");
+        if (nombre == NOMBRE_MAX)
+            throw new IllegalStateException("Le stockage est plein (" + NOMBRE_MAX + " maisons).");
+
+        int id = nombre++;
+        long base = (long) id * TAILLE_ENREGISTREMENT;
+        int hash = IndexParCle.cle(nom).hashCode();
+        cache.ecrire(noms, finNoms, octets, 0, octets.length);
+        cache.ecrireInt(enregistrements, base + DEBUT_NOM, finNoms);
+        cache.ecrireInt(enregistrements, base + HASH, hash);
+        cache.ecrireInt(enregistrements, base + GENERATEUR, -1);
+        cache.ecrireChar(enregistrements, base + LONGUEUR_NOM, (char) octets.length);
+        cache.ecrireOctet(enregistrements, base + TYPE, (byte) type.ordinal());
+        finNoms += octets.length;
+
+        if (2 * nombre > table.length)
+            rehacher(2 * table.length);
+        inserer(table, id, hash);
+        return id;
+    }
+
+    @Override
+    public int chercher(String nom) {
+        if (nom == null)
+            return -1;
+        String cle = IndexParCle.cle(nom);
+        int hash = cle.hashCode();
+        int masque = table.length - 1;
+        for (int i = melanger(hash) & masque;; i = (i + 1) & masque) {
+            long entree = table[i];
+            if (entree == 0)
+                return -1;
+            int id = (int) entree - 1;
+            if ((int) (entree >>> 32) == hash && IndexParCle.cle(getNom(id)).equals(cle))
+                return id;
+        }
+    }
+
+    @Override
+    public String getNom(int id) {
+        long base = (long) id * TAILLE_ENREGISTREMENT;
+        int debut = cache.lireInt(enregistrements, base + DEBUT_NOM);
+        int longueur = cache.lireChar(enregistrements, base + LONGUEUR_NOM);
+        if (tampon.length < longueur)
+            tampon = new byte[Math.max(longueur, 2 * tampon.length)];
+        cache.lire(noms, debut, tampon, 0, longueur);
+        return new String(tampon, 0, longueur, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public TypeConso getType(int id) {
+        return TYPES[cache.lireOctet(enregistrements, (long) id * TAILLE_ENREGISTREMENT + TYPE)];
+    }
+
+    @Override
+    public void setType(int id, TypeConso type) {
+        cache.ecrireOctet(enregistrements, (long) id * TAILLE_ENREGISTREMENT + TYPE, (byte) type.ordinal());
+    }
+
+    @Override
+    public int getGenerateur(int id) {
+        return cache.lireInt(enregistrements, (long) id * TAILLE_ENREGISTREMENT + GENERATEUR);
+    }
+
+    @Override
+    public void setGenerateur(int id, int generateur) {
+        cache.ecrireInt(enregistrements, (long) id * TAILLE_ENREGISTREMENT + GENERATEUR, generateur);
+    }
+
+    @Override
+    public long getOctetsHorsTas() {
+        return cache.getOctetsEnCache();
+    }
+
+    /**
+     * Ferme et supprime les fichiers de pages.
+     */
+    @Override
+    public void close() {
+        cache.close();
+    }
+
+    /**
+     * Reconstruit l'index à partir des hashes qu'il contient déjà, sans relire
+     * les enregistrements.
+     */
+    private void rehacher(int capacite) {
+        long[] nouvelle = new long[capacite];
+        for (long entree : table)
+            if (entree != 0)
+                inserer(nouvelle, (int) entree - 1, (int) (entree >>> 32));
+        table = nouvelle;
+    }
+
+    /**
+     * Range une maison dans l'index : le hash de son nom dans les 32 bits de
+     * poids fort, son identifiant plus un dans ceux de poids faible (0 marque
+     * une case vide).
+     */
+    private static void inserer(long[] table, int id, int hash) {
+        int masque = table.length - 1;
+        int i = melanger(hash) & masque;
+        while (table[i] != 0)
+            i = (i + 1) & masque;
+        table[i] = (long) hash << 32 | (id + 1);
+    }
+
+    private static int melanger(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
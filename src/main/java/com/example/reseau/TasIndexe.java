@@ -0,0 +1,135 @@
+package com.example.reseau;
+
+import java.util.Arrays;
+
+/**
+ * Tas binaire minimum indexé : chaque élément est un entier de {@code 0} à
+ * {@code n - 1} (typiquement l'indice d'un générateur) associé à une clé réelle.
+ * La clé d'un élément déjà présent peut être modifiée en O(log n).
+ * À clé égale, le plus petit indice sort en premier.
+ */
+class TasIndexe {
+    private final int[] tas;
+    private final int[] positions;
+    private final double[] cles;
+    private int taille;
+
+    /**
+     * Crée un tas vide.
+     *
+     * @param n Le nombre d'éléments possibles.
+     */
+    TasIndexe(int n) {
+        tas = new int[n];
+        positions = new int[n];
+        cles = new double[n];
+        Arrays.fill(positions, -1);
+    }
+
+    /**
+     * @return {@code true} si le tas ne contient aucun élément.
+     */
+    boolean estVide() {
+        return taille == 0;
+    }
+
+    /**
+     * @param i Un élément.
+     * @return {@code true} si l'élément est dans le tas.
+     */
+    boolean contient(int i) {
+        return positions[i] >= 0;
+    }
+
+    /**
+     * @return L'élément de plus petite clé ; le tas ne doit pas être vide.
+     */
+    int minimum() {
+        return tas[0];
+    }
+
+    /**
+     * @param i Un élément présent dans le tas.
+     * @return Sa clé.
+     */
+    double cle(int i) {
+        return cles[i];
+    }
+
+    /**
+     * Ajoute un élément ou modifie sa clé.
+     *
+     * @param i   L'élément.
+     * @param cle Sa clé.
+     */
+    void mettreAJour(int i, double cle) {
+        if (positions[i] < 0) {
+            tas[taille] = i;
+            positions[i] = taille++;
+            cles[i] = cle;
+            monter(positions[i]);
+            return;
+        }
+        double ancienne = cles[i];
+        cles[i] = cle;
+        if (cle < ancienne)
+            monter(positions[i]);
+        else
+            descendre(positions[i]);
+    }
+
+    /**
+     * Retire un élément s'il est présent.
+     *
+     * @param i L'élément.
+     */
+    void retirer(int i) {
+        int p = positions[i];
+        if (p < 0)
+            return;
+        int dernier = tas[--taille];
+        positions[i] = -1;
+        if (p == taille)
+            return;
+        tas[p] = dernier;
+        positions[dernier] = p;
+        monter(p);
+        descendre(positions[dernier]);
+    }
+
+    private boolean avant(int a, int b) {
+        return cles[a] < cles[b] || (cles[a] == cles[b] && a < b);
+    }
+
+    private void monter(int p) {
+        int e = tas[p];
+        while (p > 0) {
+            int parent = (p - 1) / 2;
+            if (!avant(e, tas[parent]))
+                break;
+            tas[p] = tas[parent];
+            positions[tas[p]] = p;
+            p = parent;
+        }
+        tas[p] = e;
+        positions[e] = p;
+    }
+
+    private void descendre(int p) {
+        int e = tas[p];
+        while (true) {
+            int enfant = 2 * p + 1;
+            if (enfant >= taille)
+                break;
+            if (enfant + 1 < taille && avant(tas[enfant + 1], tas[enfant]))
+                enfant++;
+            if (!avant(tas[enfant], e))
+                break;
+            tas[p] = tas[enfant];
+            positions[tas[p]] = p;
+            p = enfant;
+        }
+        tas[p] = e;
+        positions[e] = p;
+    }
+}
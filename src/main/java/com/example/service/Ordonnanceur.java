@@ -0,0 +1,377 @@
+package com.example.service;
+
+import com.example.reseau.PointDeCession;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Ordonnanceur de travaux d'optimisation partageant un nombre borné de
+ * créneaux CPU.
+ *
+ * Les travaux attendent dans une file par priorité ; à priorité égale, les
+ * locataires sont servis à tour de rôle, et les travaux d'un même locataire
+ * dans leur ordre de soumission. Un travail qui occupe un créneau le rend à
+ * son prochain {@link PointDeCession#ceder()} si un travail plus prioritaire
+ * attend, ou si un travail de même priorité attend et que sa tranche de temps
+ * est écoulée. Il reprend ensuite où il s'était arrêté, lorsque son tour
+ * revient.
+ *
+ * Un thread n'est créé qu'au premier lancement d'un travail : le nombre de
+ * threads vivants est borné par les créneaux plus les travaux suspendus.
+ */
+public class Ordonnanceur {
+
+    /**
+     * Priorité d'un travail, de la plus haute à la plus basse.
+     */
+    public enum Priorite {
+        INTERACTIF, NORMAL, LOT
+    }
+
+    /**
+     * Calcul soumis à l'ordonnanceur. Le point de cession fourni doit être appelé
+     * régulièrement, par exemple via {@link com.example.reseau.Reseau#setPointDeCession}.
+     *
+     * @param <T> Le type du résultat.
+     */
+    @FunctionalInterface
+    public interface Travail<T> {
+        T executer(PointDeCession cession) throws Exception;
+    }
+
+    /**
+     * Statistiques d'une file de priorité.
+     *
+     * @param priorite         La priorité concernée.
+     * @param profondeur       Le nombre de travaux en attente d'un créneau.
+     * @param soumis           Le nombre de travaux soumis.
+     * @param termines         Le nombre de travaux terminés (avec ou sans succès).
+     * @param attenteMoyenneMs Le délai moyen entre soumission et premier lancement.
+     * @param latenceMoyenneMs Le délai moyen entre soumission et fin.
+     * @param latenceMaxMs     Le plus long délai entre soumission et fin.
+     */
+    public record Statistiques(Priorite priorite, int profondeur, long soumis, long termines,
+            double attenteMoyenneMs, double latenceMoyenneMs, double latenceMaxMs) {
+    }
+
+    /**
+     * File d'attente d'une priorité : une file FIFO par locataire et l'ordre de
+     * passage des locataires.
+     */
+    private static final class FilePriorite {
+        final Map<String, Deque<Tache<?>>> parLocataire = new HashMap<>();
+        final Deque<String> tourDeRole = new ArrayDeque<>();
+        int profondeur;
+        long soumis;
+        long lances;
+        long termines;
+        long sommeAttenteNs;
+        long sommeLatenceNs;
+        long maxLatenceNs;
+    }
+
+    private final ReentrantLock verrou = new ReentrantLock();
+    private final Map<Priorite, FilePriorite> files = new EnumMap<>(Priorite.class);
+    private final ExecutorService threads;
+    private final int creneaux;
+    private final long trancheNs;
+    private int occupes;
+    private volatile int enAttente;
+    private long cessions;
+    private boolean arrete;
+
+    /**
+     * Crée un ordonnanceur.
+     *
+     * @param creneaux  Le nombre maximal de travaux exécutés simultanément.
+     * @param trancheMs La durée minimale pendant laquelle un travail garde son
+     *                  créneau face à un travail de même priorité.
+     */
+    public Ordonnanceur(int creneaux, long trancheMs) {
+        if (creneaux <= 0)
+            throw new IllegalArgumentException("Le nombre de créneaux doit être positif !");
+        this.creneaux = creneaux;
+        this.trancheNs = trancheMs * 1_000_000;
+        for (Priorite p : Priorite.values()) {
+            files.put(p, new FilePriorite());
+        }
+        AtomicInteger numero = new AtomicInteger(1);
+        threads = Executors.newCachedThreadPool(tache -> {
+            Thread t = new Thread(tache, "optimisation-" + numero.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Soumet un travail.
+     *
+     * @param locataire Le locataire pour lequel le travail est exécuté.
+     * @param priorite  La priorité du travail.
+     * @param travail   Le calcul à exécuter.
+     * @return Le résultat à venir ; l'annuler interrompt le calcul à son
+     *         prochain point de cession.
+     * @throws RejectedExecutionException si l'ordonnanceur est arrêté.
+     */
+    public <T> CompletableFuture<T> soumettre(String locataire, Priorite priorite, Travail<T> travail) {
+        Tache<T> tache = new Tache<>(locataire, priorite, travail);
+        verrou.lock();
+        try {
+            if (arrete)
+                throw new RejectedExecutionException("L'ordonnanceur est arrêté.");
+            files.get(priorite).soumis++;
+            enfiler(tache);
+            distribuer();
+        } finally {
+            verrou.unlock();
+        }
+        return tache.resultat;
+    }
+
+    /**
+     * Arrête l'ordonnanceur : les travaux jamais lancés sont annulés, les
+     * travaux suspendus sont interrompus à leur reprise, les travaux en cours
+     * vont à leur terme sans plus céder leur créneau.
+     */
+    public void arreter() {
+        verrou.lock();
+        try {
+            arrete = true;
+            for (FilePriorite file : files.values()) {
+                for (Deque<Tache<?>> taches : file.parLocataire.values()) {
+                    for (Tache<?> t : taches) {
+                        t.resultat.cancel(false);
+                        t.autorisee = true;
+                        t.reveil.signal();
+                    }
+                }
+                file.parLocataire.clear();
+                file.tourDeRole.clear();
+                file.profondeur = 0;
+            }
+            enAttente = 0;
+        } finally {
+            verrou.unlock();
+        }
+        threads.shutdown();
+    }
+
+    /**
+     * @return Le nombre de créneaux CPU.
+     */
+    public int getCreneaux() {
+        return creneaux;
+    }
+
+    /**
+     * @return Le nombre de travaux occupant actuellement un créneau.
+     */
+    public int getNombreEnCours() {
+        verrou.lock();
+        try {
+            return occupes;
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    /**
+     * @return Le nombre total de fois où un travail a rendu son créneau.
+     */
+    public long getNombreCessions() {
+        verrou.lock();
+        try {
+            return cessions;
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    /**
+     * @return Les statistiques de chaque file, de la plus prioritaire à la moins
+     *         prioritaire.
+     */
+    public List<Statistiques> getStatistiques() {
+        verrou.lock();
+        try {
+            List<Statistiques> stats = new ArrayList<>();
+            for (Map.Entry<Priorite, FilePriorite> e : files.entrySet()) {
+                FilePriorite f = e.getValue();
+                stats.add(new Statistiques(e.getKey(), f.profondeur, f.soumis, f.termines,
+                        f.lances == 0 ? 0 : f.sommeAttenteNs / 1e6 / f.lances,
+                        f.termines == 0 ? 0 : f.sommeLatenceNs / 1e6 / f.termines,
+                        f.maxLatenceNs / 1e6));
+            }
+            return stats;
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    // Les méthodes suivantes sont appelées verrou détenu.
+
+    private void enfiler(Tache<?> tache) {
+        FilePriorite file = files.get(tache.priorite);
+        Deque<Tache<?>> taches = file.parLocataire.computeIfAbsent(tache.locataire, l -> new ArrayDeque<>());
+        if (taches.isEmpty())
+            file.tourDeRole.addLast(tache.locataire);
+        taches.addLast(tache);
+        file.profondeur++;
+        enAttente++;
+    }
+
+    private Tache<?> defiler() {
+        for (FilePriorite file : files.values()) {
+            String locataire = file.tourDeRole.pollFirst();
+            if (locataire == null)
+                continue;
+            Deque<Tache<?>> taches = file.parLocataire.get(locataire);
+            Tache<?> tache = taches.pollFirst();
+            if (taches.isEmpty())
+                file.parLocataire.remove(locataire);
+            else
+                file.tourDeRole.addLast(locataire);
+            file.profondeur--;
+            enAttente--;
+            return tache;
+        }
+        return null;
+    }
+
+    /**
+     * Attribue les créneaux libres aux travaux en attente.
+     */
+    private void distribuer() {
+        while (occupes < creneaux) {
+            Tache<?> tache = defiler();
+            if (tache == null)
+                return;
+            if (!tache.demarree && tache.resultat.isDone())
+                continue; // annulée avant d'avoir été lancée
+            occupes++;
+            tache.occupe = true;
+            tache.debutTranche = System.nanoTime();
+            if (tache.demarree) {
+                tache.autorisee = true;
+                tache.reveil.signal();
+            } else {
+                tache.demarree = true;
+                FilePriorite file = files.get(tache.priorite);
+                file.lances++;
+                file.sommeAttenteNs += tache.debutTranche - tache.soumission;
+                threads.execute(tache);
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} si un travail en attente est strictement plus
+     *         prioritaire que {@code priorite}.
+     */
+    private boolean attentePlusPrioritaire(Priorite priorite) {
+        for (Map.Entry<Priorite, FilePriorite> e : files.entrySet()) {
+            if (e.getKey() == priorite)
+                return false;
+            if (e.getValue().profondeur > 0)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Travail soumis, qui sert aussi de point de cession à son propre calcul.
+     */
+    private final class Tache<T> implements Runnable, PointDeCession {
+        final String locataire;
+        final Priorite priorite;
+        final Travail<T> travail;
+        final CompletableFuture<T> resultat = new CompletableFuture<>();
+        final Condition reveil = verrou.newCondition();
+        final long soumission = System.nanoTime();
+        long debutTranche;
+        boolean demarree;
+        boolean autorisee;
+        boolean occupe;
+
+        Tache(String locataire, Priorite priorite, Travail<T> travail) {
+            this.locataire = locataire;
+            this.priorite = priorite;
+            this.travail = travail;
+        }
+
+        @Override
+        public void run() {
+            T valeur = null;
+            Throwable erreur = null;
+            try {
+                if (!resultat.isDone())
+                    valeur = travail.executer(this);
+            } catch (Throwable e) {
+                erreur = e;
+            }
+
+            // le créneau est libéré avant que le résultat ne soit visible
+            verrou.lock();
+            try {
+                if (occupe)
+                    occupes--;
+                FilePriorite file = files.get(priorite);
+                long latence = System.nanoTime() - soumission;
+                file.termines++;
+                file.sommeLatenceNs += latence;
+                file.maxLatenceNs = Math.max(file.maxLatenceNs, latence);
+                distribuer();
+            } finally {
+                verrou.unlock();
+            }
+
+            if (erreur != null)
+                resultat.completeExceptionally(erreur);
+            else
+                resultat.complete(valeur);
+        }
+
+        @Override
+        public void ceder() {
+            if (resultat.isDone())
+                throw new CancellationException("Travail annulé.");
+            if (enAttente == 0)
+                return;
+
+            verrou.lock();
+            try {
+                boolean ceder = attentePlusPrioritaire(priorite)
+                        || (files.get(priorite).profondeur > 0 && System.nanoTime() - debutTranche >= trancheNs);
+                if (!ceder || arrete)
+                    return;
+
+                cessions++;
+                autorisee = false;
+                occupe = false;
+                occupes--;
+                enfiler(this);
+                distribuer();
+                while (!autorisee)
+                    reveil.awaitUninterruptibly();
+            } finally {
+                verrou.unlock();
+            }
+            if (resultat.isDone())
+                throw new CancellationException("Travail annulé.");
+        }
+    }
+}
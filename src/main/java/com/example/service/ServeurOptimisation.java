@@ -0,0 +1,604 @@
+package com.example.service;
+
+import com.example.reseau.Generateur;
+import com.example.reseau.InstantaneReseau;
+import com.example.reseau.ModeConstruction;
+import com.example.reseau.PointDeCession;
+import com.example.reseau.Reseau;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service HTTP local d'optimisation de réseaux, basé sur
+ * {@link com.sun.net.httpserver.HttpServer}.
+ *
+ * Points d'accès :
+ * <pre>
+ * POST /reseaux?lambda=L                         corps : réseau au format texte -> 201 {"id":...}
+ * GET  /reseaux/{id}                             réseau au format texte
+ * GET  /reseaux/{id}/cout                        coût, dispersion, surcharge
+ * GET  /reseaux/{id}/utilisation                 taux d'utilisation par générateur
+ * DELETE /reseaux/{id}                           oublie le réseau -> 204
+ * POST /reseaux/{id}/optimisations?algo=A&amp;k=N&amp;priorite=P&amp;locataire=L
+ *                                                lance un travail -> 202 {"travail":...}
+ * GET  /travaux/{id}                             état et résultat d'un travail
+ * DELETE /travaux/{id}                           oublie un travail terminé -> 204
+ * GET  /metriques                                profondeur des files, latences
+ * </pre>
+ *
+ * Les paramètres de requête sont décodés en UTF-8. Seuls les
+ * {@value #TRAVAUX_TERMINES_MAX} derniers travaux terminés (ou en échec) sont
+ * conservés ; les plus anciens sont oubliés, comme s'ils avaient été supprimés.
+ * Un réseau supprimé pendant une optimisation n'est pas recréé par celle-ci.
+ *
+ * Les requêtes sont traitées sur un thread virtuel chacune lorsque la JVM le
+ * permet, sinon sur un pool borné. Les lectures ne consultent que le dernier
+ * {@link InstantaneReseau} publié et ne sont jamais bloquées par une
+ * optimisation : celles-ci passent par un {@link Ordonnanceur} dont les
+ * créneaux sont dimensionnés au nombre de processeurs, travaillent sur une
+ * copie du réseau et publient le résultat à la fin. La priorité
+ * ({@code interactif}, {@code normal}, {@code lot}) et le locataire d'un
+ * travail se choisissent par paramètre ; le locataire peut aussi être donné
+ * par l'en-tête {@code X-Locataire}. Si deux optimisations d'un même réseau se chevauchent, la dernière
+ * terminée l'emporte.
+ */
+public class ServeurOptimisation {
+    /**
+     * Port d'écoute par défaut.
+     */
+    public static final int PORT_PAR_DEFAUT = 8080;
+
+    private static final int THREADS_REQUETES_MAX = 64;
+
+    /**
+     * Nombre de travaux terminés conservés par défaut.
+     */
+    public static final int TRAVAUX_TERMINES_MAX = 1000;
+
+    /**
+     * Tranche de temps garantie à un travail face à un travail de même priorité.
+     */
+    public static final long TRANCHE_MS = 20;
+
+    /**
+     * État d'avancement d'un travail d'optimisation.
+     */
+    public enum Statut {
+        EN_ATTENTE, EN_COURS, TERMINE, ECHEC
+    }
+
+    /**
+     * Travail d'optimisation soumis au service.
+     */
+    private static final class Travail {
+        final String id;
+        final String reseau;
+        final String algorithme;
+        final int k;
+        final String locataire;
+        final Ordonnanceur.Priorite priorite;
+        volatile Statut statut = Statut.EN_ATTENTE;
+        volatile double coutInitial = Double.NaN;
+        volatile double coutFinal = Double.NaN;
+        volatile long dureeMs;
+        volatile String erreur;
+
+        Travail(String id, String reseau, String algorithme, int k, String locataire,
+                Ordonnanceur.Priorite priorite) {
+            this.id = id;
+            this.reseau = reseau;
+            this.algorithme = algorithme;
+            this.k = k;
+            this.locataire = locataire;
+            this.priorite = priorite;
+        }
+    }
+
+    private final HttpServer serveur;
+    private final ExecutorService requetes;
+    private final Ordonnanceur ordonnanceur;
+    private final Map<String, InstantaneReseau> reseaux = new ConcurrentHashMap<>();
+    private final Map<String, Travail> travaux = new ConcurrentHashMap<>();
+    private final AtomicLong prochainReseau = new AtomicLong(1);
+    private final AtomicLong prochainTravail = new AtomicLong(1);
+    private final Deque<String> travauxTermines = new ArrayDeque<>();
+    private final int travauxTerminesMax;
+
+    /**
+     * Crée le service sans le démarrer.
+     *
+     * @param port Le port d'écoute ({@code 0} pour un port libre quelconque).
+     * @throws IOException si le port ne peut pas être ouvert.
+     */
+    public ServeurOptimisation(int port) throws IOException {
+        this(port, TRAVAUX_TERMINES_MAX);
+    }
+
+    /**
+     * Crée le service sans le démarrer.
+     *
+     * @param port               Le port d'écoute ({@code 0} pour un port libre
+     *                           quelconque).
+     * @param travauxTerminesMax Le nombre de travaux terminés conservés.
+     * @throws IOException si le port ne peut pas être ouvert.
+     */
+    public ServeurOptimisation(int port, int travauxTerminesMax) throws IOException {
+        if (travauxTerminesMax <= 0)
+            throw new IllegalArgumentException("Le nombre de travaux conservés doit être positif.");
+        this.travauxTerminesMax = travauxTerminesMax;
+        serveur = HttpServer.create(new InetSocketAddress(port), 0);
+        requetes = creerExecuteurRequetes();
+        ordonnanceur = new Ordonnanceur(Runtime.getRuntime().availableProcessors(), TRANCHE_MS);
+        serveur.setExecutor(requetes);
+        serveur.createContext("/", this::traiter);
+    }
+
+    /**
+     * Point d'entrée du mode serveur : démarre le service et le laisse tourner
+     * jusqu'à l'arrêt de la JVM.
+     *
+     * @param args Les arguments qui suivent {@code --serveur} : un port optionnel.
+     * @return Le code de sortie : 0 si le serveur a démarré, 2 si les arguments
+     *         sont invalides, 1 si le port ne peut pas être ouvert.
+     */
+    public static int executer(String[] args) {
+        int port = PORT_PAR_DEFAUT;
+        if (args.length > 1) {
+            System.err.println("Usage : --serveur [port]");
+            return 2;
+        }
+        if (args.length == 1) {
+            try {
+                port = Integer.parseInt(args[0]);
+            } catch (NumberFormatException e) {
+                System.err.println("Port invalide : " + args[0]);
+                return 2;
+            }
+        }
+        try {
+            ServeurOptimisation service = new ServeurOptimisation(port);
+            service.demarrer();
+            Runtime.getRuntime().addShutdownHook(new Thread(service::arreter));
+            System.out.println("Serveur d'optimisation démarré sur le port " + service.getPort());
+            return 0;
+        } catch (IOException e) {
+            System.err.println("Impossible de démarrer le serveur : " + e.getMessage());
+            return 1;
+        }
+    }
+
+    /**
+     * Démarre l'écoute des requêtes.
+     */
+    public void demarrer() {
+        serveur.start();
+    }
+
+    /**
+     * Arrête le service : les requêtes en cours disposent d'une seconde pour se
+     * terminer, les optimisations en attente sont abandonnées.
+     */
+    public void arreter() {
+        serveur.stop(1);
+        requetes.shutdown();
+        ordonnanceur.arreter();
+    }
+
+    /**
+     * @return Le port sur lequel le service écoute.
+     */
+    public int getPort() {
+        return serveur.getAddress().getPort();
+    }
+
+    /**
+     * Crée l'exécuteur des requêtes HTTP : un thread virtuel par requête si la
+     * JVM en dispose (Java 21+), sinon un pool borné de threads démons.
+     */
+    static ExecutorService creerExecuteurRequetes() {
+        try {
+            Method fabrique = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) fabrique.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            int taille = Math.min(THREADS_REQUETES_MAX, 8 * Runtime.getRuntime().availableProcessors());
+            return new ThreadPoolExecutor(taille, taille, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                    fabriqueThreads("requete"));
+        }
+    }
+
+    private static ThreadFactory fabriqueThreads(String prefixe) {
+        AtomicInteger numero = new AtomicInteger(1);
+        return tache -> {
+            Thread t = new Thread(tache, prefixe + "-" + numero.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    // ================================
+    // ROUTAGE
+    // ================================
+
+    private void traiter(HttpExchange echange) throws IOException {
+        try {
+            String[] segments = echange.getRequestURI().getPath().replaceAll("^/+|/+$", "").split("/+");
+            String methode = echange.getRequestMethod();
+
+            if (segments[0].equals("reseaux")) {
+                if (segments.length == 1 && methode.equals("POST")) {
+                    creerReseau(echange);
+                    return;
+                }
+                if (segments.length == 2 && methode.equals("GET")) {
+                    lireReseau(echange, segments[1]);
+                    return;
+                }
+                if (segments.length == 2 && methode.equals("DELETE")) {
+                    supprimerReseau(echange, segments[1]);
+                    return;
+                }
+                if (segments.length == 3 && methode.equals("GET") && segments[2].equals("cout")) {
+                    lireCout(echange, segments[1]);
+                    return;
+                }
+                if (segments.length == 3 && methode.equals("GET") && segments[2].equals("utilisation")) {
+                    lireUtilisation(echange, segments[1]);
+                    return;
+                }
+                if (segments.length == 3 && methode.equals("POST") && segments[2].equals("optimisations")) {
+                    soumettreTravail(echange, segments[1]);
+                    return;
+                }
+            } else if (segments[0].equals("travaux") && segments.length == 2 && methode.equals("GET")) {
+                lireTravail(echange, segments[1]);
+                return;
+            } else if (segments[0].equals("travaux") && segments.length == 2 && methode.equals("DELETE")) {
+                supprimerTravail(echange, segments[1]);
+                return;
+            } else if (segments[0].equals("metriques") && segments.length == 1 && methode.equals("GET")) {
+                lireMetriques(echange);
+                return;
+            }
+            repondreErreur(echange, 404, "ressource inconnue : " + methode + " " + echange.getRequestURI().getPath());
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            repondreErreur(echange, 400, e.getMessage());
+        } catch (RuntimeException e) {
+            repondreErreur(echange, 500, e.toString());
+        } finally {
+            echange.close();
+        }
+    }
+
+    // ================================
+    // POINTS D'ACCÈS
+    // ================================
+
+    private void creerReseau(HttpExchange echange) throws IOException {
+        Map<String, String> parametres = parametres(echange.getRequestURI());
+        Reseau reseau = new Reseau();
+        reseau.setVerbeux(false);
+        reseau.setLambda(entier(parametres, "lambda", reseau.getLambda()));
+        try (Reader corps = new InputStreamReader(echange.getRequestBody(), StandardCharsets.UTF_8)) {
+            reseau.chargerReseau(corps);
+        }
+
+        String id = Long.toString(prochainReseau.getAndIncrement());
+        InstantaneReseau instantane = reseau.instantane();
+        reseaux.put(id, instantane);
+        echange.getResponseHeaders().set("Location", "/reseaux/" + id);
+        repondreJson(echange, 201, "{\"id\":\"" + id + "\",\"cout\":" + instantane.calculerCout() + "}");
+    }
+
+    private void lireReseau(HttpExchange echange, String id) throws IOException {
+        InstantaneReseau instantane = reseau(echange, id);
+        if (instantane == null)
+            return;
+        StringWriter texte = new StringWriter();
+        Reseau.sauvegarder(instantane, texte);
+        repondre(echange, 200, "text/plain; charset=utf-8", texte.toString());
+    }
+
+    private void supprimerReseau(HttpExchange echange, String id) throws IOException {
+        if (reseaux.remove(id) == null) {
+            repondreErreur(echange, 404, "réseau inconnu : " + id);
+            return;
+        }
+        repondreVide(echange);
+    }
+
+    private void lireCout(HttpExchange echange, String id) throws IOException {
+        InstantaneReseau instantane = reseau(echange, id);
+        if (instantane == null)
+            return;
+        double dispersion = instantane.dispersion();
+        double surcharge = instantane.surcharge();
+        repondreJson(echange, 200, "{\"cout\":" + (dispersion + instantane.getLambda() * surcharge)
+                + ",\"dispersion\":" + dispersion
+                + ",\"surcharge\":" + surcharge
+                + ",\"lambda\":" + instantane.getLambda()
+                + ",\"valide\":" + instantane.isValide() + "}");
+    }
+
+    private void lireUtilisation(HttpExchange echange, String id) throws IOException {
+        InstantaneReseau instantane = reseau(echange, id);
+        if (instantane == null)
+            return;
+        List<Generateur> generateurs = instantane.getGenerateurs();
+        double[] taux = instantane.getTauxUtilisations();
+        int[] capacites = instantane.getCapacites();
+
+        StringBuilder json = new StringBuilder("{\"generateurs\":[");
+        for (int i = 0; i < generateurs.size(); i++) {
+            if (i > 0)
+                json.append(',');
+            json.append("{\"nom\":\"").append(echapper(generateurs.get(i).getNom()))
+                    .append("\",\"capacite\":").append(capacites[i])
+                    .append(",\"taux\":").append(taux[i]).append('}');
+        }
+        json.append("]}");
+        repondreJson(echange, 200, json.toString());
+    }
+
+    private void soumettreTravail(HttpExchange echange, String id) throws IOException {
+        if (reseau(echange, id) == null)
+            return;
+        Map<String, String> parametres = parametres(echange.getRequestURI());
+        String algorithme = parametres.getOrDefault("algo", "optimise");
+        if (!algorithme.equals("optimise") && !algorithme.equals("tas") && !algorithme.equals("agrege")
+                && !algorithme.equals("exact") && !algorithme.equals("genetique")
+                && !algorithme.equals("voisinage") && !algorithme.equals("naif"))
+            throw new IllegalArgumentException("algorithme inconnu : " + algorithme);
+        int k = entier(parametres, "k", 1000);
+        Ordonnanceur.Priorite priorite = priorite(parametres.getOrDefault("priorite", "normal"));
+        String locataire = parametres.get("locataire");
+        if (locataire == null)
+            locataire = echange.getRequestHeaders().getFirst("X-Locataire");
+        if (locataire == null || locataire.isEmpty())
+            locataire = "defaut";
+
+        Travail travail = new Travail(Long.toString(prochainTravail.getAndIncrement()), id, algorithme, k,
+                locataire, priorite);
+        travaux.put(travail.id, travail);
+        ordonnanceur.soumettre(locataire, priorite, cession -> {
+            executerTravail(travail, cession);
+            return null;
+        });
+
+        echange.getResponseHeaders().set("Location", "/travaux/" + travail.id);
+        repondreJson(echange, 202, json(travail));
+    }
+
+    private void lireTravail(HttpExchange echange, String id) throws IOException {
+        Travail travail = travaux.get(id);
+        if (travail == null) {
+            repondreErreur(echange, 404, "travail inconnu : " + id);
+            return;
+        }
+        repondreJson(echange, 200, json(travail));
+    }
+
+    private void supprimerTravail(HttpExchange echange, String id) throws IOException {
+        Travail travail = travaux.get(id);
+        if (travail == null) {
+            repondreErreur(echange, 404, "travail inconnu : " + id);
+            return;
+        }
+        boolean termine;
+        synchronized (travauxTermines) {
+            termine = travail.statut == Statut.TERMINE || travail.statut == Statut.ECHEC;
+            if (termine) {
+                travauxTermines.remove(id);
+                travaux.remove(id);
+            }
+        }
+        if (termine)
+            repondreVide(echange);
+        else
+            repondreErreur(echange, 409, "travail non terminé : " + id);
+    }
+
+    private void lireMetriques(HttpExchange echange) throws IOException {
+        StringBuilder json = new StringBuilder("{\"creneaux\":").append(ordonnanceur.getCreneaux())
+                .append(",\"enCours\":").append(ordonnanceur.getNombreEnCours())
+                .append(",\"cessions\":").append(ordonnanceur.getNombreCessions())
+                .append(",\"files\":[");
+        boolean premier = true;
+        for (Ordonnanceur.Statistiques s : ordonnanceur.getStatistiques()) {
+            if (!premier)
+                json.append(',');
+            premier = false;
+            json.append("{\"priorite\":\"").append(s.priorite())
+                    .append("\",\"profondeur\":").append(s.profondeur())
+                    .append(",\"soumis\":").append(s.soumis())
+                    .append(",\"termines\":").append(s.termines())
+                    .append(",\"attenteMoyenneMs\":").append(s.attenteMoyenneMs())
+                    .append(",\"latenceMoyenneMs\":").append(s.latenceMoyenneMs())
+                    .append(",\"latenceMaxMs\":").append(s.latenceMaxMs()).append('}');
+        }
+        json.append("]}");
+        repondreJson(echange, 200, json.toString());
+    }
+
+    /**
+     * Exécute un travail sur une copie du dernier instantané publié, puis
+     * publie l'instantané du réseau optimisé. Le calcul cède son créneau aux
+     * points de cession fournis par l'ordonnanceur.
+     */
+    private void executerTravail(Travail travail, PointDeCession cession) {
+        travail.statut = Statut.EN_COURS;
+        long debut = System.nanoTime();
+        Statut statut = Statut.ECHEC;
+        try {
+            InstantaneReseau instantane = reseaux.get(travail.reseau);
+            if (instantane == null)
+                throw new IllegalStateException("réseau supprimé : " + travail.reseau);
+            Reseau reseau = Reseau.depuisInstantane(instantane);
+            reseau.setPointDeCession(cession);
+            travail.coutInitial = reseau.calculerCout();
+
+            switch (travail.algorithme) {
+                case "naif" -> reseau.algoNaif(reseau, travail.k);
+                case "tas" -> Reseau.algoOptimise(reseau, ModeConstruction.TAS);
+                case "agrege" -> Reseau.algoAgrege(reseau);
+                case "exact" -> Reseau.algoExact(reseau);
+                case "genetique" -> Reseau.algoGenetique(reseau);
+                case "voisinage" -> Reseau.algoVoisinage(reseau);
+                default -> Reseau.algoOptimise(reseau);
+            }
+
+            reseaux.replace(travail.reseau, reseau.instantane());
+            travail.coutFinal = reseau.calculerCout();
+            statut = Statut.TERMINE;
+        } catch (RuntimeException e) {
+            travail.erreur = e.toString();
+        } finally {
+            travail.dureeMs = (System.nanoTime() - debut) / 1_000_000;
+            terminer(travail, statut);
+        }
+    }
+
+    /**
+     * Publie l'état final d'un travail et le range parmi les terminés, en
+     * oubliant les plus anciens au-delà de la limite.
+     */
+    private void terminer(Travail travail, Statut statut) {
+        synchronized (travauxTermines) {
+            travail.statut = statut;
+            travauxTermines.addLast(travail.id);
+            while (travauxTermines.size() > travauxTerminesMax)
+                travaux.remove(travauxTermines.removeFirst());
+        }
+    }
+
+    // ================================
+    // OUTILS
+    // ================================
+
+    private InstantaneReseau reseau(HttpExchange echange, String id) throws IOException {
+        InstantaneReseau instantane = reseaux.get(id);
+        if (instantane == null)
+            repondreErreur(echange, 404, "réseau inconnu : " + id);
+        return instantane;
+    }
+
+    private static Ordonnanceur.Priorite priorite(String valeur) {
+        return switch (valeur) {
+            case "interactif" -> Ordonnanceur.Priorite.INTERACTIF;
+            case "normal" -> Ordonnanceur.Priorite.NORMAL;
+            case "lot" -> Ordonnanceur.Priorite.LOT;
+            default -> throw new IllegalArgumentException("priorité inconnue : " + valeur);
+        };
+    }
+
+    private static String json(Travail travail) {
+        StringBuilder json = new StringBuilder("{\"travail\":\"").append(travail.id)
+                .append("\",\"reseau\":\"").append(travail.reseau)
+                .append("\",\"algorithme\":\"").append(travail.algorithme)
+                .append("\",\"priorite\":\"").append(travail.priorite)
+                .append("\",\"locataire\":\"").append(echapper(travail.locataire))
+                .append("\",\"statut\":\"").append(travail.statut).append('"');
+        if (!Double.isNaN(travail.coutInitial))
+            json.append(",\"coutInitial\":").append(travail.coutInitial);
+        if (!Double.isNaN(travail.coutFinal))
+            json.append(",\"coutFinal\":").append(travail.coutFinal);
+        if (travail.statut == Statut.TERMINE || travail.statut == Statut.ECHEC)
+            json.append(",\"dureeMs\":").append(travail.dureeMs);
+        if (travail.erreur != null)
+            json.append(",\"erreur\":\"").append(echapper(travail.erreur)).append('"');
+        return json.append('}').toString();
+    }
+
+    private static Map<String, String> parametres(URI uri) {
+        Map<String, String> parametres = new HashMap<>();
+        String requete = uri.getRawQuery();
+        if (requete == null || requete.isEmpty())
+            return parametres;
+        for (String paire : requete.split("&")) {
+            int egal = paire.indexOf('=');
+            if (egal > 0)
+                parametres.put(URLDecoder.decode(paire.substring(0, egal), StandardCharsets.UTF_8),
+                        URLDecoder.decode(paire.substring(egal + 1), StandardCharsets.UTF_8));
+        }
+        return parametres;
+    }
+
+    private static int entier(Map<String, String> parametres, String nom, int defaut) {
+        String valeur = parametres.get(nom);
+        if (valeur == null)
+            return defaut;
+        try {
+            int n = Integer.parseInt(valeur);
+            if (n > 0)
+                return n;
+        } catch (NumberFormatException e) {
+            // traité ci-dessous
+        }
+        throw new IllegalArgumentException(nom + " attend un entier positif, reçu : " + valeur);
+    }
+
+    private static String echapper(String valeur) {
+        StringBuilder sb = new StringBuilder(valeur.length());
+        for (char c : valeur.toCharArray()) {
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20)
+                        sb.append(String.format("\\u%04x", (int) c));
+                    else
+                        sb.append(c);
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void repondreErreur(HttpExchange echange, int code, String message) throws IOException {
+        repondreJson(echange, code, "{\"erreur\":\"" + echapper(String.valueOf(message)) + "\"}");
+    }
+
+    private static void repondreVide(HttpExchange echange) throws IOException {
+        echange.sendResponseHeaders(204, -1);
+    }
+
+    private static void repondreJson(HttpExchange echange, int code, String json) throws IOException {
+        repondre(echange, code, "application/json; charset=utf-8", json);
+    }
+
+    private static void repondre(HttpExchange echange, int code, String type, String corps) throws IOException {
+        byte[] octets = corps.getBytes(StandardCharsets.UTF_8);
+        echange.getResponseHeaders().set("Content-Type", type);
+        echange.sendResponseHeaders(code, octets.length);
+        try (OutputStream sortie = echange.getResponseBody()) {
+            sortie.write(octets);
+        }
+    }
+}
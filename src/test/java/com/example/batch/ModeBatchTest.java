@@ -0,0 +1,94 @@
+package com.example.batch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ModeBatch}.
+ */
+class ModeBatchTest {
+
+    private static String reseau(int capacite) {
+        return "generateur(G1," + capacite + ").\ngenerateur(G2," + capacite + ").\n"
+                + "maison(M1,NORMAL).\nmaison(M2,FORTE).\nconnexion(G1,M1).\nconnexion(G1,M2).\n";
+    }
+
+    private static Path ecrire(Path fichier, String contenu) throws IOException {
+        Files.createDirectories(fichier.getParent());
+        return Files.writeString(fichier, contenu);
+    }
+
+    /**
+     * A batch where every network is processed exits with 0 and writes one OK line per file;
+     * invalid arguments exit with 2.
+     */
+    @Test
+    void testExitCodes(@TempDir Path repertoire) throws IOException {
+        Path entree = ecrire(repertoire.resolve("reseau.txt"), reseau(100));
+        Path sortie = repertoire.resolve("sortie");
+
+        assertEquals(0, ModeBatch.executer(new String[] { "--sortie", sortie.toString(), entree.toString() }));
+        List<String> lignes = Files.readAllLines(sortie.resolve(ModeBatch.FICHIER_RESULTATS));
+        assertEquals(2, lignes.size());
+        assertTrue(lignes.get(1).contains(",OK,"));
+        assertTrue(Files.exists(sortie.resolve("reseau.txt")));
+
+        assertEquals(2, ModeBatch.executer(new String[] { "--algo", "inconnu", entree.toString() }));
+        assertEquals(2, ModeBatch.executer(new String[] { "--sortie", sortie.toString() }));
+    }
+
+    /**
+     * A network that fails to load is reported as an error and makes the batch exit with 1,
+     * without stopping the other networks.
+     */
+    @Test
+    void testFailureIsCountedAndReported(@TempDir Path repertoire) throws IOException {
+        Path valide = ecrire(repertoire.resolve("valide.txt"), reseau(100));
+        Path invalide = ecrire(repertoire.resolve("invalide.txt"), "maison(M1,NORMAL)\n");
+        Path sortie = repertoire.resolve("sortie");
+
+        assertEquals(1, ModeBatch.executer(new String[] { "--sortie", sortie.toString(),
+                valide.toString(), invalide.toString() }));
+        List<String> lignes = Files.readAllLines(sortie.resolve(ModeBatch.FICHIER_RESULTATS));
+        assertTrue(lignes.get(1).contains(",OK,"));
+        assertTrue(lignes.get(2).contains(",ERREUR,"));
+        assertTrue(Files.exists(sortie.resolve("valide.txt")));
+    }
+
+    /**
+     * An exception without a message is still recorded as an error.
+     */
+    @Test
+    void testErrorWithoutMessageIsNamed() {
+        assertEquals("java.lang.NullPointerException", ModeBatch.messageErreur(new NullPointerException()));
+        assertEquals("absent", ModeBatch.messageErreur(new IllegalArgumentException("absent")));
+    }
+
+    /**
+     * Files with the same name in different directories get distinct solutions, laid out by
+     * their path relative to the common input directory.
+     */
+    @Test
+    void testSameNameInDifferentDirectoriesDoesNotCollide(@TempDir Path repertoire) throws IOException {
+        ecrire(repertoire.resolve("a").resolve("reseau.txt"), reseau(100));
+        ecrire(repertoire.resolve("b").resolve("reseau.txt"), reseau(200));
+        Path sortie = repertoire.resolve("sortie");
+        Path reprise = repertoire.resolve("reprise");
+
+        assertEquals(0, ModeBatch.executer(new String[] { "--algo", "naif", "--k", "50", "--graine", "1",
+                "--sortie", sortie.toString(), "--reprise", reprise.toString(),
+                repertoire.resolve("a").toString(), repertoire.resolve("b").toString() }));
+
+        assertTrue(Files.readString(sortie.resolve("a").resolve("reseau.txt")).contains("generateur(G1,100)."));
+        assertTrue(Files.readString(sortie.resolve("b").resolve("reseau.txt")).contains("generateur(G1,200)."));
+        assertFalse(Files.exists(reprise.resolve("a").resolve("reseau.txt.reprise")));
+        assertFalse(Files.exists(reprise.resolve("b").resolve("reseau.txt.reprise")));
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.reseau;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link Reseau#algoIncremental(Reseau, double)}.
+ */
+class AlgoIncrementalTest {
+
+    private Reseau reseau;
+
+    @BeforeEach
+    void setUp() {
+        reseau = new Reseau();
+        reseau.setVerbeux(false);
+        reseau.ajouterGenerateur(new Generateur("G1", 100));
+        reseau.ajouterGenerateur(new Generateur("G2", 80));
+        reseau.ajouterGenerateur(new Generateur("G3", 60));
+        for (int i = 1; i <= 9; i++) {
+            reseau.ajouterMaison(new Maison("M" + i, TypeConso.values()[i % 3]));
+            reseau.ajouterConnexion("M" + i, "G1");
+        }
+    }
+
+    /**
+     * Without a previous full run, the incremental optimizer falls back to algoOptimise.
+     */
+    @Test
+    void testFallsBackWithoutFullRun() {
+        Reseau reference = Reseau.depuisInstantane(reseau.instantane());
+        Reseau.algoOptimise(reference);
+
+        Reseau.algoIncremental(reseau, Reseau.TOLERANCE_INCREMENTALE);
+        assertEquals(reference.calculerCout(), reseau.calculerCout(), 1e-9);
+    }
+
+    /**
+     * A new house and a capacity change are repaired locally, within tolerance of a full run.
+     */
+    @Test
+    void testRepairsNewHouseAndCapacityChange() {
+        Reseau.algoOptimise(reseau);
+        int avant = reseau.getHistorique().getNombreAnnulables();
+
+        reseau.ajouterGenerateur(new Generateur("G3", 90));
+        reseau.ajouterMaison(new Maison("M10", TypeConso.FORTE));
+        Reseau.algoIncremental(reseau, Reseau.TOLERANCE_INCREMENTALE);
+        assertTrue(reseau.isValide());
+
+        Reseau complet = Reseau.depuisInstantane(reseau.instantane());
+        Reseau.algoOptimise(complet);
+        assertTrue(reseau.calculerCout() <= complet.calculerCout() * (1 + Reseau.TOLERANCE_INCREMENTALE) + 1e-9);
+        assertTrue(reseau.getHistorique().getNombreAnnulables() > avant);
+    }
+
+    /**
+     * The per-type house chains that the repair reads stay exact through connections, moves,
+     * disconnections, consumption changes, renames and bulk reassignments.
+     */
+    @Test
+    void testPerTypeChainsFollowEveryChange() {
+        Reseau.algoOptimise(reseau);
+        reseau.modifierConnexion(0, (reseau.getGenerateurDe(0) + 1) % 3);
+        reseau.ajouterMaison(new Maison("M2", TypeConso.BASSE));
+        reseau.getMaisonParNom("M3").setNom("M3bis");
+        reseau.ajouterMaison(new Maison("M10", TypeConso.FORTE));
+        reseau.ajouterConnexion("M10", "G2");
+        reseau.supprimerConnexion(3);
+        Reseau.algoIncremental(reseau, Reseau.TOLERANCE_INCREMENTALE);
+
+        for (Generateur g : reseau.getConnexions().keySet()) {
+            for (TypeConso type : TypeConso.values()) {
+                Maison m = reseau.maisonDeType(g, type);
+                boolean present = reseau.getConnexions().get(g).stream().anyMatch(x -> x.getTypeConso() == type);
+                assertEquals(present, m != null, g.getNom() + " " + type);
+                if (m != null) {
+                    assertEquals(type, m.getTypeConso());
+                    assertTrue(reseau.getConnexions().get(g).contains(m));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.reseau;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ArbreTaux}.
+ */
+class ArbreTauxTest {
+
+    /**
+     * Dispersion, overload and the extreme rates match a brute-force computation after random point updates.
+     */
+    @Test
+    void testMatchesBruteForceAfterUpdates() {
+        ArbreTaux arbre = new ArbreTaux();
+        double[] taux = new double[200];
+        Random random = new Random(42);
+        for (int i = 0; i < taux.length; i++) {
+            taux[i] = random.nextInt(150) / 100.0;
+            arbre.mettreAJour(i, taux[i]);
+        }
+
+        for (int essai = 0; essai < 1000; essai++) {
+            int i = random.nextInt(taux.length);
+            taux[i] = random.nextInt(150) / 100.0;
+            arbre.mettreAJour(i, taux[i]);
+
+            double somme = 0;
+            for (double u : taux)
+                somme += u;
+            double moyenne = somme / taux.length;
+            double dispersion = 0;
+            double surcharge = 0;
+            int min = 0;
+            int max = 0;
+            for (int j = 0; j < taux.length; j++) {
+                dispersion += Math.abs(taux[j] - moyenne);
+                surcharge += Math.max(0, taux[j] - 1);
+                if (taux[j] < taux[min])
+                    min = j;
+                if (taux[j] >= taux[max])
+                    max = j;
+            }
+
+            assertEquals(taux.length, arbre.taille());
+            assertEquals(somme, arbre.sommeTotale(), 1e-9);
+            assertEquals(dispersion, arbre.ecartAbsolu(moyenne), 1e-9);
+            assertEquals(surcharge, arbre.depassement(1.0), 1e-9);
+            assertEquals(min, arbre.minimum());
+            assertEquals(max, arbre.maximum());
+        }
+    }
+}
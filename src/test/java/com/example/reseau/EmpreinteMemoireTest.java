@@ -0,0 +1,177 @@
+package com.example.reseau;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Path;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Memory footprint benchmark for {@link Reseau} and {@link ReseauCompact}, with budgets that fail
+ * the build when a change makes an entity or an operation heavier.
+ *
+ * Retained heap is the growth of the heap in use after full collections while the measured
+ * network is reachable; the direct memory of {@link ReseauCompact}, which holds its data, is
+ * what {@link ReseauCompact#getOctetsHorsTas()} reports as reserved; transient allocation is the number of bytes allocated by the test thread
+ * during the call, as counted by the JVM. Excluded from the default build: run with
+ * {@code mvn test -Pmemoire}.
+ */
+@Tag("memoire")
+class EmpreinteMemoireTest {
+
+    private static final int[] ECHELLES = { 10_000, 100_000 };
+    private static final int NB_GENERATEURS = 20;
+
+    // Budgets in bytes: about 20% above the values measured on a 64-bit JVM with compressed pointers.
+    private static final double BUDGET_MAISON = 390;
+    private static final double BUDGET_CONNEXION = 110;
+    private static final double BUDGET_GENERATEUR = 780;
+    private static final double BUDGET_MAISON_COMPACTE = 8;
+    private static final double BUDGET_HORS_TAS_MAISON_COMPACTE = 55;
+    private static final double BUDGET_CHARGEMENT_PAR_MAISON = 2_600;
+    private static final double BUDGET_OPTIMISATION_PAR_MAISON = 270;
+    private static final double BUDGET_SAUVEGARDE_PAR_MAISON = 530;
+
+    @TempDir
+    static Path repertoire;
+
+    /** Keeps the measured object reachable while the heap is measured. */
+    private static Object vivant;
+
+    @BeforeAll
+    static void verifierMesures() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled(),
+                "Mesure des allocations indisponible sur cette JVM.");
+    }
+
+    /**
+     * Bytes of live heap: heap in use after full collections, repeated until two readings agree
+     * so that objects awaiting finalization or reference processing are gone.
+     */
+    private static long tasVivant() {
+        MemoryMXBean memoire = ManagementFactory.getMemoryMXBean();
+        long precedent = Long.MAX_VALUE;
+        for (int i = 0; i < 10; i++) {
+            System.gc();
+            long utilise = memoire.getHeapMemoryUsage().getUsed();
+            if (Math.abs(precedent - utilise) < 4096)
+                return utilise;
+            precedent = utilise;
+        }
+        return precedent;
+    }
+
+    /**
+     * Live heap retained by the object built by {@code construction}, in bytes.
+     */
+    private static long retenu(Supplier<Object> construction) {
+        long avant = tasVivant();
+        vivant = construction.get();
+        long apres = tasVivant();
+        vivant = null;
+        return apres - avant;
+    }
+
+    private static long allocationsDuThread() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private interface Operation {
+        void executer() throws IOException;
+    }
+
+    /**
+     * Bytes allocated by the current thread while running {@code operation}.
+     */
+    private static long alloue(Operation operation) throws IOException {
+        long avant = allocationsDuThread();
+        operation.executer();
+        return allocationsDuThread() - avant;
+    }
+
+    private static Reseau reseau(int nbMaisons, boolean connecter) {
+        Reseau reseau = new Reseau();
+        reseau.setVerbeux(false);
+        for (int g = 0; g < NB_GENERATEURS; g++)
+            reseau.ajouterGenerateur(new Generateur("G" + g, 3 * nbMaisons));
+        for (int i = 0; i < nbMaisons; i++) {
+            reseau.ajouterMaison(new Maison("M" + i, TypeConso.values()[i % 3]));
+            if (connecter)
+                reseau.ajouterConnexion(i, i % NB_GENERATEURS);
+        }
+        return reseau;
+    }
+
+    private static void rapport(String mesure, int echelle, double valeur, double budget) {
+        System.out.printf("%-32s %9d %12.1f  (budget %.0f)%n", mesure, echelle, valeur, budget);
+        assertTrue(valeur <= budget, mesure + " à " + echelle + " : " + valeur + " octets > budget " + budget);
+    }
+
+    /**
+     * Retained heap per house, per connection and per generator of {@link Reseau}, and per house
+     * of {@link ReseauCompact} together with the direct memory holding its records, names and
+     * index, at several scales.
+     */
+    @Test
+    void testRetainedHeapPerEntity() {
+        for (int n : ECHELLES) {
+            long sansConnexion = retenu(() -> reseau(n, false));
+            long avecConnexions = retenu(() -> reseau(n, true));
+            long[] horsTas = new long[1];
+            long compact = retenu(() -> {
+                ReseauCompact c = new ReseauCompact();
+                for (int g = 0; g < NB_GENERATEURS; g++)
+                    c.ajouterGenerateur("G" + g, 3 * n);
+                for (int i = 0; i < n; i++)
+                    c.ajouterConnexion(c.ajouterMaison("M" + i, TypeConso.values()[i % 3]), i % NB_GENERATEURS);
+                horsTas[0] = c.getOctetsHorsTas();
+                return c;
+            });
+            rapport("tas par maison", n, (double) sansConnexion / n, BUDGET_MAISON);
+            rapport("tas par connexion", n, (double) (avecConnexions - sansConnexion) / n, BUDGET_CONNEXION);
+            rapport("tas par maison (compact)", n, (double) compact / n, BUDGET_MAISON_COMPACTE);
+            rapport("hors tas par maison (compact)", n, (double) horsTas[0] / n, BUDGET_HORS_TAS_MAISON_COMPACTE);
+
+            int nbGenerateurs = n / 10;
+            long generateurs = retenu(() -> {
+                Reseau reseau = new Reseau();
+                reseau.setVerbeux(false);
+                for (int g = 0; g < nbGenerateurs; g++)
+                    reseau.ajouterGenerateur(new Generateur("G" + g, 100));
+                return reseau;
+            });
+            rapport("tas par générateur", nbGenerateurs, (double) generateurs / nbGenerateurs, BUDGET_GENERATEUR);
+        }
+    }
+
+    /**
+     * Transient allocation per house of loading, optimizing and saving a network, at several scales.
+     */
+    @Test
+    void testTransientAllocationPerOperation() throws IOException {
+        for (int n : ECHELLES) {
+            String fichier = repertoire.resolve("reseau" + n + ".txt").toString();
+            Reseau.sauvegarder(reseau(n, true), fichier);
+
+            Reseau reseau = new Reseau();
+            reseau.setVerbeux(false);
+            long chargement = alloue(() -> reseau.chargerReseauDepuisFichier(fichier));
+            long optimisation = alloue(() -> Reseau.algoOptimise(reseau));
+            long sauvegarde = alloue(() -> Reseau.sauvegarder(reseau, fichier));
+
+            rapport("chargerReseauDepuisFichier", n, (double) chargement / n, BUDGET_CHARGEMENT_PAR_MAISON);
+            rapport("algoOptimise", n, (double) optimisation / n, BUDGET_OPTIMISATION_PAR_MAISON);
+            rapport("sauvegarder", n, (double) sauvegarde / n, BUDGET_SAUVEGARDE_PAR_MAISON);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.reseau;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link EvaluateurAffectation}.
+ */
+class EvaluateurAffectationTest {
+
+    /**
+     * The evaluator agrees with calculerCout, including after the evaluator is reused.
+     */
+    @Test
+    void testMatchesNetworkCost() {
+        Reseau reseau = new Reseau();
+        reseau.setVerbeux(false);
+        reseau.setLambda(50);
+        int[] capacites = { 60, 100, 40, 80 };
+        for (int g = 0; g < capacites.length; g++)
+            reseau.ajouterGenerateur(new Generateur("G" + g, capacites[g]));
+        for (int i = 0; i < 12; i++) {
+            reseau.ajouterMaison(new Maison("M" + i, TypeConso.values()[i % 3]));
+            reseau.ajouterConnexion("M" + i, "G" + (i % 2 == 0 ? 0 : 3));
+        }
+
+        List<Generateur> generateurs = new ArrayList<>(reseau.getConnexions().keySet());
+        List<Maison> maisons = new ArrayList<>();
+        List<Integer> origines = new ArrayList<>();
+        for (int g = 0; g < generateurs.size(); g++) {
+            for (Maison m : reseau.getConnexions().get(generateurs.get(g))) {
+                maisons.add(m);
+                origines.add(g);
+            }
+        }
+        int[] consos = new int[maisons.size()];
+        int[] affectation = new int[maisons.size()];
+        for (int i = 0; i < consos.length; i++) {
+            consos[i] = maisons.get(i).getTypeConso().getConsommation();
+            affectation[i] = origines.get(i);
+        }
+
+        EvaluateurAffectation evaluateur = new EvaluateurAffectation(consos, capacites, reseau.getLambda());
+        assertTrue(reseau.surcharge() > 0);
+        assertEquals(reseau.calculerCout(), evaluateur.evaluer(affectation), 1e-9);
+
+        reseau.modifierConnexion(maisons.get(0).getNom(), "G" + affectation[0], maisons.get(0).getNom(), "G1");
+        affectation[0] = 1;
+        assertEquals(reseau.calculerCout(), evaluateur.evaluer(affectation), 1e-9);
+        assertEquals(reseau.getConnexions().get(generateurs.get(1)).stream()
+                .mapToInt(m -> m.getTypeConso().getConsommation()).sum(), evaluateur.getCharge(1));
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.reseau;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for undo/redo through {@link Reseau#annuler(int)} and {@link Reseau#retablir(int)}.
+ */
+class HistoriqueMouvementsTest {
+
+    private Reseau reseau;
+
+    @BeforeEach
+    void setUp() {
+        reseau = new Reseau();
+        reseau.ajouterGenerateur(new Generateur("G1", 60));
+        reseau.ajouterGenerateur(new Generateur("G2", 45));
+        reseau.ajouterGenerateur(new Generateur("G3", 90));
+        for (int i = 1; i <= 6; i++) {
+            reseau.ajouterMaison(new Maison("M" + i, i % 2 == 0 ? TypeConso.NORMAL : TypeConso.FORTE));
+            reseau.ajouterConnexion("M" + i, "G1");
+        }
+    }
+
+    /**
+     * Undoing every move of an optimization restores the previous assignment.
+     */
+    @Test
+    void testUndoOptimizationRestoresCost() {
+        double coutInitial = reseau.calculerCout();
+        String etatInitial = reseau.getNetworkState();
+        int avant = reseau.getHistorique().getNombreAnnulables();
+
+        Reseau.algoOptimise(reseau);
+        double coutOptimise = reseau.calculerCout();
+        int mouvements = reseau.getHistorique().getNombreAnnulables() - avant;
+        assertTrue(mouvements > 0);
+
+        assertEquals(mouvements, reseau.annuler(mouvements));
+        assertEquals(coutInitial, reseau.calculerCout(), 1e-9);
+        assertEquals(etatInitial.lines().sorted().toList(), reseau.getNetworkState().lines().sorted().toList());
+
+        assertEquals(mouvements, reseau.retablir(mouvements));
+        assertEquals(coutOptimise, reseau.calculerCout(), 1e-9);
+    }
+
+    /**
+     * Undo also covers connections and disconnections, and a new move clears redo.
+     */
+    @Test
+    void testUndoConnectionAndDisconnection() {
+        reseau.supprimerConnexion("M1", "G1");
+        assertFalse(reseau.isValide());
+
+        assertEquals(1, reseau.annuler(1));
+        assertTrue(reseau.isValide());
+
+        reseau.modifierConnexion("M2", "G1", "M2", "G2");
+        assertEquals(0, reseau.getHistorique().getNombreRetablissables());
+        assertEquals(0, reseau.retablir(1));
+    }
+
+    /**
+     * The history forgets the oldest moves beyond its capacity.
+     */
+    @Test
+    void testHistoryIsBounded() {
+        reseau.getHistorique().setCapacite(3);
+        for (int i = 1; i <= 6; i++) {
+            reseau.modifierConnexion("M" + i, "G1", "M" + i, "G3");
+        }
+        assertEquals(3, reseau.getHistorique().getNombreAnnulables());
+        assertEquals(3, reseau.annuler(10));
+        assertEquals(3, reseau.getConnexions().get(reseau.getGenerateurParNom("G3")).size());
+    }
+
+    /**
+     * Undoing back to the marker reverts the optimization together with the edits made after
+     * it, leaves earlier moves alone, and can be redone.
+     */
+    @Test
+    void testUndoBackToOptimizationMarker() {
+        reseau.modifierConnexion("M1", "G1", "M1", "G2");
+        double coutAvantOptimisation = reseau.calculerCout();
+        assertEquals(0, reseau.annulerJusquAuRepere());
+
+        int avant = reseau.getHistorique().getNombreAnnulables();
+        reseau.getHistorique().poserRepere();
+        Reseau.algoOptimise(reseau);
+        double coutOptimise = reseau.calculerCout();
+        int mouvements = reseau.getHistorique().getNombreAnnulables() - avant;
+        reseau.annuler(1);
+        reseau.retablir(1);
+
+        assertEquals(mouvements, reseau.annulerJusquAuRepere());
+        assertEquals(coutAvantOptimisation, reseau.calculerCout(), 1e-9);
+        assertEquals(avant, reseau.getHistorique().getNombreAnnulables());
+        assertEquals(0, reseau.annulerJusquAuRepere());
+
+        assertEquals(mouvements, reseau.retablir(mouvements));
+        assertEquals(coutOptimise, reseau.calculerCout(), 1e-9);
+        assertEquals(mouvements, reseau.annulerJusquAuRepere());
+    }
+
+    /**
+     * When the marker has been forgotten for lack of capacity, every move still kept is undone.
+     */
+    @Test
+    void testUndoBackToForgottenMarker() {
+        reseau.getHistorique().setCapacite(3);
+        reseau.getHistorique().poserRepere();
+        for (int i = 1; i <= 6; i++) {
+            reseau.modifierConnexion("M" + i, "G1", "M" + i, "G3");
+        }
+        assertEquals(3, reseau.annulerJusquAuRepere());
+        assertEquals(3, reseau.getConnexions().get(reseau.getGenerateurParNom("G3")).size());
+        assertEquals(0, reseau.annulerJusquAuRepere());
+    }
+
+    /**
+     * The connections of a loaded file, or of a network copied from a compact or concurrent
+     * network, are not moves: undoing right after leaves every house connected.
+     */
+    @Test
+    void testLoadedConnectionsAreNotUndone() throws IOException {
+        Reseau charge = new Reseau();
+        charge.setVerbeux(false);
+        charge.chargerReseau(new StringReader("generateur(G1,100).\nmaison(M1,NORMAL).\nconnexion(G1,M1).\n"));
+        assertEquals(0, charge.annuler(1));
+        assertTrue(charge.isValide());
+
+        ReseauConcurrent concurrent = new ReseauConcurrent();
+        concurrent.ajouterGenerateur(new Generateur("G1", 100));
+        concurrent.ajouterMaison(new Maison("M1", TypeConso.NORMAL));
+        concurrent.ajouterConnexion("M1", "G1");
+        Reseau copie = concurrent.versReseau();
+        assertEquals(0, copie.annuler(1));
+        assertTrue(copie.isValide());
+
+        Reseau depuisCompact = ReseauCompact.depuis(reseau).versReseau();
+        assertEquals(0, depuisCompact.annuler(1));
+        assertTrue(depuisCompact.isValide());
+    }
+}
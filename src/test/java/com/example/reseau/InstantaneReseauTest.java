@@ -0,0 +1,147 @@
+package com.example.reseau;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the immutable snapshots produced by {@link Reseau#instantane()}.
+ */
+class InstantaneReseauTest {
+
+    private Reseau reseau;
+
+    @BeforeEach
+    void setUp() {
+        reseau = new Reseau();
+        reseau.ajouterGenerateur(new Generateur("G1", 100));
+        reseau.ajouterGenerateur(new Generateur("G2", 50));
+        reseau.ajouterGenerateur(new Generateur("G3", 80));
+        reseau.ajouterMaison(new Maison("M1", TypeConso.NORMAL));
+        reseau.ajouterMaison(new Maison("M2", TypeConso.FORTE));
+        reseau.ajouterMaison(new Maison("M3", TypeConso.BASSE));
+        reseau.ajouterConnexion("M1", "G1");
+        reseau.ajouterConnexion("M2", "G1");
+        reseau.ajouterConnexion("M3", "G3");
+    }
+
+    /**
+     * A snapshot keeps its content and cost after the network is modified.
+     */
+    @Test
+    void testSnapshotIsUnaffectedByLaterMoves() {
+        InstantaneReseau avant = reseau.instantane();
+        double coutAvant = reseau.calculerCout();
+
+        reseau.modifierConnexion("M2", "G1", "M2", "G2");
+
+        assertEquals(coutAvant, avant.calculerCout(), 1e-9);
+        assertEquals(2, avant.getConnexions().get(reseau.getGenerateurParNom("G1")).size());
+        assertEquals(reseau.calculerCout(), reseau.instantane().calculerCout(), 1e-9);
+    }
+
+    /**
+     * Generators that did not change are shared between consecutive snapshots.
+     */
+    @Test
+    void testUnchangedGeneratorsAreShared() {
+        InstantaneReseau premier = reseau.instantane();
+        reseau.modifierConnexion("M1", "G1", "M1", "G2");
+        InstantaneReseau second = reseau.instantane();
+
+        Generateur g3 = reseau.getGenerateurParNom("G3");
+        assertSame(premier.getConnexions().get(g3), second.getConnexions().get(g3));
+        assertNotSame(premier.getConnexions().get(reseau.getGenerateurParNom("G1")),
+                second.getConnexions().get(reseau.getGenerateurParNom("G1")));
+    }
+
+    /**
+     * Taking a snapshot without any change returns the previous one.
+     */
+    @Test
+    void testSnapshotWithoutChangeIsReused() {
+        InstantaneReseau premier = reseau.instantane();
+        assertSame(premier, reseau.instantane());
+        assertSame(premier, reseau.getDernierInstantane());
+    }
+
+    /**
+     * Snapshots and the live view cannot be modified.
+     */
+    @Test
+    void testViewsAreReadOnly() {
+        Generateur g1 = reseau.getGenerateurParNom("G1");
+        assertThrows(UnsupportedOperationException.class, () -> reseau.getConnexions().get(g1).clear());
+        assertThrows(UnsupportedOperationException.class,
+                () -> reseau.instantane().getConnexions().get(g1).clear());
+    }
+
+    /**
+     * Saving a snapshot writes the capacities and consumption types frozen in it, not the
+     * values edited afterwards.
+     */
+    @Test
+    void testSavedSnapshotKeepsFrozenValues() throws IOException {
+        reseau.ajouterMaison(new Maison("M4", TypeConso.BASSE));
+        InstantaneReseau instantane = reseau.instantane();
+
+        reseau.ajouterGenerateur(new Generateur("G1", 300));
+        reseau.ajouterMaison(new Maison("M1", TypeConso.FORTE));
+        reseau.ajouterMaison(new Maison("M4", TypeConso.NORMAL));
+
+        StringWriter sortie = new StringWriter();
+        Reseau.sauvegarder(instantane, sortie);
+        String texte = sortie.toString();
+        assertTrue(texte.contains("generateur(G1,100)."));
+        assertTrue(texte.contains("maison(M1,NORMAL)."));
+        assertTrue(texte.contains("maison(M4,BASSE)."));
+        assertEquals(List.of(TypeConso.NORMAL, TypeConso.FORTE),
+                instantane.getTypesConso(reseau.getGenerateurParNom("G1")));
+
+        Reseau copie = Reseau.depuisInstantane(instantane);
+        assertEquals(TypeConso.NORMAL, copie.getMaisonParNom("M1").getTypeConso());
+        assertEquals(100, copie.getGenerateurParNom("G1").getCapacite());
+        assertEquals(List.of(TypeConso.BASSE), instantane.getTypesNonConnectees());
+    }
+
+    /**
+     * A snapshot saved after its houses and generators are renamed declares and connects the
+     * names frozen at capture, so the file loads back; the next snapshot sees the new names.
+     */
+    @Test
+    void testSavedSnapshotKeepsFrozenNames() throws IOException {
+        reseau.ajouterMaison(new Maison("M4", TypeConso.BASSE));
+        InstantaneReseau instantane = reseau.instantane();
+
+        reseau.getMaisonParNom("M1").setNom("M1bis");
+        reseau.getMaisonParNom("M4").setNom("M4bis");
+        reseau.getGenerateurParNom("G1").setNom("G1bis");
+
+        StringWriter sortie = new StringWriter();
+        Reseau.sauvegarder(instantane, sortie);
+        String texte = sortie.toString();
+        assertTrue(texte.contains("generateur(G1,100)."));
+        assertTrue(texte.contains("maison(M1,NORMAL)."));
+        assertTrue(texte.contains("maison(M4,BASSE)."));
+        assertTrue(texte.contains("connexion(G1,M1)."));
+        assertFalse(texte.contains("bis"));
+        Reseau relu = new Reseau();
+        relu.setVerbeux(false);
+        relu.chargerReseau(new StringReader(texte.replace("maison(M4,BASSE).\n", "")));
+        assertTrue(relu.getConnexions().get(relu.getGenerateurParNom("G1")).contains(relu.getMaisonParNom("M1")));
+
+        Reseau copie = Reseau.depuisInstantane(instantane);
+        assertNotNull(copie.getMaisonParNom("M1"));
+        assertNotNull(copie.getMaisonParNom("M4"));
+
+        Reseau.sauvegarder(reseau.instantane(), sortie = new StringWriter());
+        assertTrue(sortie.toString().contains("connexion(G1bis,M1bis)."));
+        assertTrue(sortie.toString().contains("maison(M4bis,BASSE)."));
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.reseau;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ListeIndexee}.
+ */
+class ListeIndexeeTest {
+
+    /**
+     * Removing an element moves the last one into its slot and keeps positions and membership
+     * consistent, including through the iterator; duplicates are refused.
+     */
+    @Test
+    void testSwapRemoveKeepsPositionsConsistent() {
+        ListeIndexee<String> liste = new ListeIndexee<>();
+        liste.addAll(List.of("a", "b", "c", "d", "e"));
+
+        assertTrue(liste.remove("b"));
+        assertFalse(liste.remove("b"));
+        assertEquals(List.of("a", "e", "c", "d"), liste);
+        assertEquals(1, liste.indexOf("e"));
+        assertFalse(liste.contains("b"));
+
+        for (Iterator<String> it = liste.iterator(); it.hasNext();) {
+            if (!it.next().equals("d"))
+                it.remove();
+        }
+        assertEquals(List.of("d"), liste);
+        assertEquals(0, liste.indexOf("d"));
+        assertThrows(IllegalArgumentException.class, () -> liste.add("d"));
+    }
+
+    /**
+     * A house renamed while it is connected can still be found and disconnected by the network.
+     */
+    @Test
+    void testRenamedHouseCanBeDisconnected() {
+        Reseau reseau = new Reseau();
+        reseau.setVerbeux(false);
+        reseau.ajouterGenerateur(new Generateur("G1", 100));
+        for (int i = 0; i < 5; i++) {
+            reseau.ajouterMaison(new Maison("M" + i, TypeConso.BASSE));
+            reseau.ajouterConnexion("M" + i, "G1");
+        }
+        reseau.getMaisonParNom("M1").setNom("Ecole");
+
+        reseau.supprimerConnexion("Ecole", "G1");
+
+        assertEquals(List.of("M0", "M4", "M2", "M3"),
+                reseau.getConnexions().get(reseau.getGenerateurParNom("G1")).stream().map(Maison::getNom).toList());
+        assertEquals(1, reseau.getMaisonsNonConnectees().size());
+    }
+}
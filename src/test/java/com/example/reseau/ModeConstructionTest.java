@@ -0,0 +1,54 @@
+package com.example.reseau;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link Reseau#algoOptimise(Reseau, ModeConstruction)} and {@link TasIndexe}.
+ */
+class ModeConstructionTest {
+
+    /**
+     * The indexed heap always yields the smallest key, ties broken by index.
+     */
+    @Test
+    void testIndexedHeapOrder() {
+        TasIndexe tas = new TasIndexe(5);
+        double[] cles = { 0.5, 0.2, 0.9, 0.2, 0.7 };
+        for (int i = 0; i < cles.length; i++)
+            tas.mettreAJour(i, cles[i]);
+        assertEquals(1, tas.minimum());
+
+        tas.mettreAJour(1, 1.0);
+        assertEquals(3, tas.minimum());
+        tas.retirer(3);
+        assertEquals(0, tas.minimum());
+        tas.mettreAJour(2, 0.1);
+        assertEquals(2, tas.minimum());
+    }
+
+    /**
+     * Heap construction yields a valid network whose cost is close to the exhaustive mode.
+     */
+    @Test
+    void testHeapModeIsCloseToExhaustive() {
+        Reseau reseau = new Reseau();
+        reseau.setVerbeux(false);
+        for (int g = 1; g <= 6; g++)
+            reseau.ajouterGenerateur(new Generateur("G" + g, 60 + 15 * g));
+        for (int i = 1; i <= 24; i++) {
+            reseau.ajouterMaison(new Maison("M" + i, TypeConso.values()[i % 3]));
+            reseau.ajouterConnexion("M" + i, "G1");
+        }
+        Reseau exhaustif = Reseau.depuisInstantane(reseau.instantane());
+
+        Reseau.algoOptimise(reseau, ModeConstruction.TAS);
+        Reseau.algoOptimise(exhaustif, ModeConstruction.EXHAUSTIF);
+
+        assertTrue(reseau.isValide());
+        assertEquals(0, reseau.surcharge(), 1e-9);
+        assertTrue(reseau.calculerCout() <= exhaustif.calculerCout() + 0.5,
+                reseau.calculerCout() + " vs " + exhaustif.calculerCout());
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.reseau;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ModeleAgrege} and {@link Reseau#algoAgrege(Reseau)}.
+ */
+class ModeleAgregeTest {
+
+    private static Reseau reseauDesequilibre() {
+        Reseau reseau = new Reseau();
+        reseau.setVerbeux(false);
+        for (int g = 1; g <= 6; g++)
+            reseau.ajouterGenerateur(new Generateur("G" + g, 60 + 15 * g));
+        for (int i = 1; i <= 24; i++) {
+            reseau.ajouterMaison(new Maison("M" + i, TypeConso.values()[i % 3]));
+            reseau.ajouterConnexion("M" + i, "G1");
+        }
+        return reseau;
+    }
+
+    /**
+     * The model counts houses per generator and type, and its cost matches the network.
+     */
+    @Test
+    void testCountsMatchNetwork() {
+        Reseau reseau = reseauDesequilibre();
+        ModeleAgrege modele = new ModeleAgrege(reseau);
+
+        assertEquals(6, modele.getNombreGenerateurs());
+        assertEquals(8, modele.getNombre(0, TypeConso.FORTE));
+        assertEquals(0, modele.getNombre(1, TypeConso.BASSE));
+        assertEquals(8, modele.getTotal(TypeConso.NORMAL));
+        assertEquals(reseau.calculerCout(), modele.calculerCout(), 1e-9);
+    }
+
+    /**
+     * Expanding the optimized counts yields a valid network matching the model, close to the exhaustive mode.
+     */
+    @Test
+    void testExpansionMatchesModel() {
+        Reseau reseau = reseauDesequilibre();
+        Reseau exhaustif = Reseau.depuisInstantane(reseau.instantane());
+
+        Reseau.algoAgrege(reseau);
+        Reseau.algoOptimise(exhaustif);
+
+        assertTrue(reseau.isValide());
+        assertEquals(0, reseau.surcharge(), 1e-9);
+        ModeleAgrege apres = new ModeleAgrege(reseau);
+        ModeleAgrege optimise = new ModeleAgrege(reseau);
+        optimise.optimiser();
+        for (int g = 0; g < apres.getNombreGenerateurs(); g++)
+            for (TypeConso t : TypeConso.values())
+                assertEquals(optimise.getNombre(g, t), apres.getNombre(g, t));
+        assertTrue(reseau.calculerCout() <= exhaustif.calculerCout() + 0.5,
+                reseau.calculerCout() + " vs " + exhaustif.calculerCout());
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.reseau;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link OptimiseurGenetique}.
+ */
+class OptimiseurGenetiqueTest {
+
+    private static Reseau reseau(long graine) {
+        Reseau reseau = new Reseau();
+        reseau.setVerbeux(false);
+        reseau.setLambda(1000);
+        Random rnd = new Random(graine);
+        int capacite = 0;
+        for (int g = 0; g < 10; g++) {
+            int c = 45 + 5 * rnd.nextInt(20);
+            capacite += c;
+            reseau.ajouterGenerateur(new Generateur("G" + g, c));
+        }
+        int charge = 0;
+        for (int i = 0;; i++) {
+            TypeConso type = TypeConso.values()[rnd.nextInt(3)];
+            if (charge + type.getConsommation() > capacite * 0.97)
+                break;
+            charge += type.getConsommation();
+            reseau.ajouterMaison(new Maison("M" + i, type));
+            reseau.ajouterConnexion("M" + i, "G" + (i % 10));
+        }
+        return reseau;
+    }
+
+    /**
+     * On a tightly loaded network the result is valid, improves on the starting assignment, is
+     * never worse than the heap heuristic seeded into the population, and is identical whatever
+     * the number of evaluation threads.
+     */
+    @Test
+    void testNoWorseThanHeapHeuristicAndIgnoresThreadCount() {
+        Reseau tas = reseau(6);
+        Reseau.algoOptimise(tas, ModeConstruction.TAS);
+
+        Reseau seul = reseau(6);
+        OptimiseurGenetique.Resultat resultat = new OptimiseurGenetique(24, 100, 1, 5).optimiser(seul);
+        Reseau parallele = reseau(6);
+        new OptimiseurGenetique(24, 100, 3, 5).optimiser(parallele);
+
+        assertTrue(seul.isValide());
+        assertEquals(0.0, seul.surcharge(), 1e-12);
+        assertTrue(resultat.coutFinal() < resultat.coutInitial());
+        assertTrue(seul.calculerCout() <= tas.calculerCout() + 1e-9);
+        assertEquals(100, resultat.generations());
+        assertEquals(seul.getConnexions().toString(), parallele.getConnexions().toString());
+    }
+}
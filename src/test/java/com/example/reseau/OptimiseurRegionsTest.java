@@ -0,0 +1,102 @@
+package com.example.reseau;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link OptimiseurRegions}.
+ */
+class OptimiseurRegionsTest {
+
+    /**
+     * Solving three regions in parallel yields a valid network close to the single-region heap mode.
+     */
+    @Test
+    void testRegionsAreCloseToSingleSolve() {
+        Reseau reseau = new Reseau();
+        reseau.setVerbeux(false);
+        for (int g = 1; g <= 12; g++)
+            reseau.ajouterGenerateur(new Generateur("G" + g, 300 + 50 * (g % 4)));
+        for (int i = 1; i <= 150; i++) {
+            reseau.ajouterMaison(new Maison("M" + i, TypeConso.values()[(i * 7) % 3]));
+            reseau.ajouterConnexion("M" + i, "G" + (1 + i % 2));
+        }
+        Reseau global = Reseau.depuisInstantane(reseau.instantane());
+
+        OptimiseurRegions.Resultat resultat = new OptimiseurRegions(3, 3).optimiser(reseau);
+        Reseau.algoOptimise(global, ModeConstruction.TAS);
+
+        assertEquals(3, resultat.nbRegions());
+        assertTrue(reseau.isValide());
+        assertEquals(150, reseau.getConnexions().values().stream().mapToInt(l -> l.size()).sum());
+        assertEquals(0, reseau.surcharge(), 1e-9);
+        assertTrue(reseau.calculerCout() <= global.calculerCout() + 0.1,
+                reseau.calculerCout() + " vs " + global.calculerCout());
+    }
+
+    /**
+     * A saturated shared executor never blocks the optimization: the calling thread solves the
+     * regions that no helper picked up, and the result matches a single-threaded run.
+     */
+    @Test
+    void testSaturatedExecutorDoesNotBlock() throws InterruptedException {
+        ExecutorService occupe = Executors.newSingleThreadExecutor();
+        occupe.submit(() -> {
+            try {
+                Thread.sleep(60_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        try {
+            Reseau partage = reseau();
+            Reseau seul = reseau();
+            new OptimiseurRegions(4, 4, occupe).optimiser(partage);
+            new OptimiseurRegions(4, 1).optimiser(seul);
+
+            assertTrue(partage.isValide());
+            assertEquals(seul.getConnexions().toString(), partage.getConnexions().toString());
+        } finally {
+            occupe.shutdownNow();
+        }
+    }
+
+    /**
+     * The boundary repair keeps going past generators it cannot improve: after it, no single move
+     * of a house to another generator lowers the cost.
+     */
+    @Test
+    void testRepairLeavesNoImprovingMove() {
+        Reseau reseau = reseau();
+        new OptimiseurRegions(4, 1).optimiser(reseau);
+
+        double cout = reseau.calculerCout();
+        for (int m = 0; m < reseau.getNombreMaisons(); m++) {
+            int origine = reseau.getGenerateurDe(m);
+            int conso = reseau.getMaison(m).getTypeConso().getConsommation();
+            for (int g = 0; g < reseau.getNombreGenerateurs(); g++) {
+                if (g == origine || reseau.getCharge(g) + conso > reseau.getGenerateur(g).getCapacite())
+                    continue;
+                reseau.modifierConnexion(m, g);
+                assertTrue(reseau.calculerCout() >= cout - 1e-9, reseau.getMaison(m) + " vers " + g);
+                reseau.modifierConnexion(m, origine);
+            }
+        }
+    }
+
+    private static Reseau reseau() {
+        Reseau reseau = new Reseau();
+        reseau.setVerbeux(false);
+        for (int g = 1; g <= 16; g++)
+            reseau.ajouterGenerateur(new Generateur("G" + g, 250 + 35 * (g % 5)));
+        for (int i = 1; i <= 200; i++) {
+            reseau.ajouterMaison(new Maison("M" + i, TypeConso.values()[(i * 5) % 3]));
+            reseau.ajouterConnexion("M" + i, "G" + (1 + i % 3));
+        }
+        return reseau;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.reseau;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link RechercheNaive} and {@link PointDeReprise}.
+ */
+class RechercheNaiveTest {
+
+    private static Reseau reseau() {
+        Reseau reseau = new Reseau();
+        reseau.setVerbeux(false);
+        for (int g = 1; g <= 5; g++)
+            reseau.ajouterGenerateur(new Generateur("G" + g, 150 + 20 * g));
+        for (int i = 1; i <= 40; i++) {
+            reseau.ajouterMaison(new Maison("M" + i, TypeConso.values()[i % 3]));
+            reseau.ajouterConnexion("M" + i, "G" + (1 + i % 2));
+        }
+        return reseau;
+    }
+
+    /**
+     * A run interrupted after a checkpoint and resumed on a fresh copy ends exactly like an uninterrupted run.
+     */
+    @Test
+    void testResumeMatchesUninterruptedRun(@TempDir Path dossier) throws Exception {
+        Reseau initial = reseau();
+        Reseau continu = Reseau.depuisInstantane(initial.instantane());
+        new RechercheNaive(continu, 42).executer(3000);
+
+        Reseau interrompu = Reseau.depuisInstantane(initial.instantane());
+        int[] appels = { 0 };
+        interrompu.setPointDeCession(() -> {
+            if (++appels[0] > 1700)
+                throw new CancellationException();
+        });
+        RechercheNaive recherche = new RechercheNaive(interrompu, 42);
+        Path fichier = dossier.resolve("naif.reprise");
+        recherche.setReprise(fichier, 500);
+        assertThrows(CancellationException.class, () -> recherche.executer(3000));
+        assertTrue(Files.exists(fichier));
+        assertEquals(1700, PointDeReprise.lire(fichier).iteration());
+
+        Reseau repris = Reseau.depuisInstantane(initial.instantane());
+        RechercheNaive suite = RechercheNaive.reprendre(repris, fichier);
+        suite.executer();
+
+        assertEquals(3000, suite.getIteration());
+        assertEquals(continu.calculerCout(), repris.calculerCout(), 0);
+        for (Generateur g : continu.getConnexions().keySet()) {
+            Generateur autre = repris.getGenerateurParNom(g.getNom());
+            assertEquals(
+                    continu.getConnexions().get(g).stream().map(Maison::getNom).sorted().toList(),
+                    repris.getConnexions().get(autre).stream().map(Maison::getNom).sorted().toList());
+        }
+    }
+
+    /**
+     * Rejected trials leave the network untouched: listeners only hear about the moves that
+     * were kept, one event per recorded move.
+     */
+    @Test
+    void testRejectedTrialsAreNotApplied() throws Exception {
+        Reseau reseau = reseau();
+        reseau.getHistorique().vider();
+        int[] deplacements = new int[1];
+        reseau.ajouterEcouteur(new EcouteurReseau() {
+            @Override
+            public void connexionModifiee(Maison m, Generateur ancien, Generateur nouveau) {
+                deplacements[0]++;
+            }
+        });
+
+        new RechercheNaive(reseau, 42).executer(3000);
+
+        assertTrue(deplacements[0] > 0);
+        assertEquals(reseau.getHistorique().getNombreAnnulables(), deplacements[0]);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.reseau;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link RechercheVoisinageLarge}.
+ */
+class RechercheVoisinageLargeTest {
+
+    private static Reseau reseau() {
+        Reseau reseau = new Reseau();
+        reseau.setVerbeux(false);
+        reseau.setLambda(1000);
+        Random rnd = new Random(5);
+        int capacite = 0;
+        for (int g = 0; g < 10; g++) {
+            int c = 45 + 5 * rnd.nextInt(20);
+            capacite += c;
+            reseau.ajouterGenerateur(new Generateur("G" + g, c));
+        }
+        int charge = 0;
+        for (int i = 0;; i++) {
+            TypeConso type = TypeConso.values()[rnd.nextInt(3)];
+            if (charge + type.getConsommation() > capacite * 0.97)
+                break;
+            charge += type.getConsommation();
+            reseau.ajouterMaison(new Maison("M" + i, type));
+            reseau.ajouterConnexion("M" + i, "G" + (i % 10));
+        }
+        return reseau;
+    }
+
+    /**
+     * On a tightly loaded network where the heap heuristic stalls, the search reaches the proven
+     * optimum, and two runs bounded by the same iteration count make the same moves.
+     */
+    @Test
+    void testReachesOptimumAndIsReproducible() {
+        Reseau tas = reseau();
+        Reseau.algoOptimise(tas, ModeConstruction.TAS);
+        Reseau exact = reseau();
+        assertTrue(Reseau.algoExact(exact));
+
+        Reseau premier = reseau();
+        RechercheVoisinageLarge.Resultat resultat = new RechercheVoisinageLarge(60_000, 3000, 11).optimiser(premier);
+        Reseau second = reseau();
+        new RechercheVoisinageLarge(60_000, 3000, 11).optimiser(second);
+
+        assertEquals(3000, resultat.iterations());
+        assertEquals(0.0, premier.surcharge(), 1e-12);
+        assertTrue(premier.calculerCout() < tas.calculerCout() - 1e-6);
+        assertEquals(exact.calculerCout(), premier.calculerCout(), 1e-9);
+        assertEquals(premier.getConnexions().toString(), second.getConnexions().toString());
+    }
+
+    /**
+     * On a large network a tiny time budget is honoured: the full greedy rebuild is not run,
+     * and the search returns shortly after its budget with a complete assignment.
+     */
+    @Test
+    void testTinyBudgetOnLargeNetwork() {
+        Reseau reseau = new Reseau();
+        reseau.setVerbeux(false);
+        Random rnd = new Random(3);
+        for (int g = 0; g < 300; g++)
+            reseau.ajouterGenerateur(new Generateur("G" + g, 3000 + 10 * rnd.nextInt(100)));
+        for (int i = 0; i < 30_000; i++) {
+            reseau.ajouterMaison(new Maison("M" + i, TypeConso.values()[rnd.nextInt(3)]));
+            reseau.ajouterConnexion("M" + i, "G" + rnd.nextInt(300));
+        }
+
+        long debut = System.nanoTime();
+        RechercheVoisinageLarge.Resultat resultat = new RechercheVoisinageLarge(20, Long.MAX_VALUE, 1)
+                .optimiser(reseau);
+        long ecouleMs = (System.nanoTime() - debut) / 1_000_000;
+
+        assertTrue(ecouleMs < 2000, ecouleMs + " ms pour un budget de 20 ms");
+        assertTrue(reseau.isValide());
+        assertTrue(resultat.coutFinal() <= resultat.coutInitial() + 1e-9);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.reseau;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ReseauCompact}.
+ */
+class ReseauCompactTest {
+
+    /**
+     * A network copied into compact form keeps its ids, connections and cost, and converts back
+     * to an identical network.
+     */
+    @Test
+    void testRoundTripThroughReseauKeepsIdsAndCost() {
+        Reseau reseau = new Reseau();
+        reseau.setVerbeux(false);
+        reseau.setLambda(100);
+        reseau.ajouterGenerateur(new Generateur("G1", 100));
+        reseau.ajouterGenerateur(new Generateur("G2", 60));
+        for (int i = 0; i < 6; i++) {
+            reseau.ajouterMaison(new Maison("Maison_" + i + "_é", TypeConso.values()[i % 3]));
+            reseau.ajouterConnexion(i, i % 2);
+        }
+
+        ReseauCompact compact = ReseauCompact.depuis(reseau);
+        Reseau retour = compact.versReseau();
+
+        assertEquals(reseau.calculerCout(), compact.calculerCout(), 1e-12);
+        assertEquals(4, compact.getIdentifiantMaison("MAISON_4_É"));
+        assertEquals(1, compact.getIdentifiantGenerateur("g2"));
+        assertEquals("Maison_4_é", compact.getMaison(4).getNom());
+        assertEquals(TypeConso.NORMAL, compact.getMaison(4).getTypeConso());
+        assertEquals(reseau.getConnexions().toString(), retour.getConnexions().toString());
+        assertEquals(reseau.calculerCout(), retour.calculerCout(), 1e-12);
+        assertThrows(IllegalArgumentException.class, () -> compact.ajouterConnexion(0, 1));
+    }
+
+    /**
+     * A network large enough to grow every buffer is indexed, optimized and moved house by house
+     * consistently.
+     */
+    @Test
+    void testLargeNetworkGrowsAndOptimizes() {
+        ReseauCompact compact = new ReseauCompact();
+        compact.setLambda(1000);
+        for (int g = 0; g < 50; g++)
+            compact.ajouterGenerateur("G" + g, 40_000 + 500 * g);
+        int n = 100_000;
+        for (int i = 0; i < n; i++)
+            compact.ajouterMaison("M" + i, TypeConso.values()[i % 3]);
+        assertFalse(compact.isValide());
+
+        compact.optimiser();
+
+        assertTrue(compact.isValide());
+        assertEquals(n, compact.getNombreMaisons());
+        assertEquals(n - 1, compact.getIdentifiantMaison("m" + (n - 1)));
+        assertEquals(-1, compact.getIdentifiantMaison("M" + n));
+        long charge = 0;
+        for (int g = 0; g < 50; g++) {
+            charge += compact.getCharge(g);
+            assertTrue(compact.getTauxUtilisation(g) <= 1.0);
+        }
+        assertEquals((n / 3 + 1) * 10 + (n / 3) * 60L, charge);
+
+        int m = compact.getIdentifiantMaison("M42");
+        int cible = (compact.getGenerateurDe(m) + 1) % 50;
+        int chargeCible = compact.getCharge(cible);
+        compact.modifierConnexion(m, cible);
+        assertEquals(chargeCible + 10, compact.getCharge(cible));
+        compact.supprimerConnexion(m);
+        assertFalse(compact.isValide());
+        assertEquals(-1, compact.getGenerateurDe(m));
+    }
+
+    /**
+     * A network sized up front reserves all its off-heap memory at construction, and one that
+     * grows far beyond its initial size never reserves more than about twice what it uses.
+     */
+    @Test
+    void testOffHeapGrowsByBlocksWithoutCopying() {
+        int n = 50_000;
+        ReseauCompact prevu = new ReseauCompact(n);
+        prevu.ajouterGenerateur("G1", 10 * n);
+        long reserve = prevu.getOctetsHorsTas();
+        for (int i = 0; i < n; i++)
+            prevu.ajouterMaison("M" + i, TypeConso.BASSE);
+        assertEquals(reserve, prevu.getOctetsHorsTas());
+
+        ReseauCompact agrandi = new ReseauCompact();
+        agrandi.ajouterGenerateur("G1", 10 * n);
+        for (int i = 0; i < n; i++)
+            agrandi.ajouterMaison("M" + i, TypeConso.BASSE);
+        long utilise = n * (StockageHorsTas.TAILLE_ENREGISTREMENT + 6L + 8L);
+        assertTrue(agrandi.getOctetsHorsTas() <= 2 * utilise + (1 << 16), agrandi.getOctetsHorsTas() + " octets");
+        assertEquals(n - 1, agrandi.getIdentifiantMaison("m" + (n - 1)));
+        assertEquals("M12345", agrandi.getMaison(12345).getNom());
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.reseau;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ReseauConcurrent} under concurrent mutation.
+ */
+class ReseauConcurrentTest {
+
+    private static final int NB_THREADS = 8;
+
+    /**
+     * Threads connecting and moving houses in disjoint regions leave consistent loads.
+     */
+    @Test
+    void testDisjointRegionsMutatedConcurrently() throws Exception {
+        ReseauConcurrent reseau = new ReseauConcurrent();
+        for (int t = 0; t < NB_THREADS; t++) {
+            reseau.ajouterGenerateur(new Generateur("G" + t + "a", 1000));
+            reseau.ajouterGenerateur(new Generateur("G" + t + "b", 1000));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(NB_THREADS);
+        List<Future<?>> resultats = new ArrayList<>();
+        for (int t = 0; t < NB_THREADS; t++) {
+            final int region = t;
+            resultats.add(pool.submit(() -> {
+                for (int i = 0; i < 50; i++) {
+                    String nom = "M" + region + "_" + i;
+                    reseau.ajouterMaison(new Maison(nom, TypeConso.NORMAL));
+                    reseau.ajouterConnexion(nom, "G" + region + "a");
+                    if (i % 2 == 0)
+                        reseau.modifierConnexion(nom, "G" + region + "a", "G" + region + "b");
+                }
+            }));
+        }
+        for (Future<?> f : resultats)
+            f.get();
+        pool.shutdown();
+
+        assertEquals(NB_THREADS * 50 * 20, reseau.getConsommationTotale());
+        for (int t = 0; t < NB_THREADS; t++) {
+            assertEquals(0.5, reseau.getTauxUtilisation(reseau.getGenerateurParNom("G" + t + "a")), 1e-9);
+            assertEquals(0.5, reseau.getTauxUtilisation(reseau.getGenerateurParNom("G" + t + "b")), 1e-9);
+        }
+        assertEquals(reseau.calculerCout(), reseau.versReseau().calculerCout(), 1e-9);
+    }
+
+    /**
+     * Concurrent additions never push consumption above the total capacity.
+     */
+    @Test
+    void testCapacityInvariantHoldsUnderContention() throws Exception {
+        ReseauConcurrent reseau = new ReseauConcurrent();
+        reseau.ajouterGenerateur(new Generateur("G1", 1000));
+
+        AtomicInteger refusees = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(NB_THREADS);
+        List<Future<?>> resultats = new ArrayList<>();
+        for (int t = 0; t < NB_THREADS; t++) {
+            final int thread = t;
+            resultats.add(pool.submit(() -> {
+                for (int i = 0; i < 20; i++) {
+                    try {
+                        reseau.ajouterMaison(new Maison("M" + thread + "_" + i, TypeConso.BASSE));
+                    } catch (IllegalArgumentException e) {
+                        refusees.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Future<?> f : resultats)
+            f.get();
+        pool.shutdown();
+
+        assertEquals(1000, reseau.getConsommationTotale());
+        assertEquals(NB_THREADS * 20 - 100, refusees.get());
+        assertThrows(IllegalArgumentException.class, () -> reseau.ajouterGenerateur(new Generateur("G1", 990)));
+    }
+
+    /**
+     * Exporting to a plain network copies every entity without writing a line per entity to
+     * the standard output.
+     */
+    @Test
+    void testExportIsSilent() {
+        ReseauConcurrent reseau = new ReseauConcurrent();
+        reseau.ajouterGenerateur(new Generateur("G1", 100));
+        reseau.ajouterMaison(new Maison("M1", TypeConso.NORMAL));
+        reseau.ajouterConnexion("M1", "G1");
+
+        PrintStream sortie = System.out;
+        ByteArrayOutputStream capture = new ByteArrayOutputStream();
+        Reseau copie;
+        System.setOut(new PrintStream(capture));
+        try {
+            copie = reseau.versReseau();
+        } finally {
+            System.setOut(sortie);
+        }
+
+        assertEquals("", capture.toString());
+        assertEquals(0.2, copie.getTauxUtilisation(copie.getGenerateurParNom("G1")), 1e-12);
+    }
+
+    /**
+     * A generator being added cannot be connected to, nor copied, until it is fully published:
+     * here its publication is paused right after it became findable by name, and a connection
+     * attempt must wait for it instead of slipping in before the generator enters the insertion
+     * order that {@link ReseauConcurrent#versReseau()} walks.
+     */
+    @Test
+    void testEntityIsNotConnectedBeforeItIsPublished() throws Exception {
+        ReseauConcurrent reseau = new ReseauConcurrent();
+        reseau.ajouterGenerateur(new Generateur("R", 100));
+        reseau.ajouterMaison(new Maison("M1", TypeConso.NORMAL));
+
+        CountDownLatch publie = new CountDownLatch(1);
+        CountDownLatch liberer = new CountDownLatch(1);
+        AtomicBoolean arme = new AtomicBoolean();
+        Generateur lent = new Generateur("G1", 100) {
+            @Override
+            public int getCapacite() {
+                if (arme.compareAndSet(true, false)) {
+                    publie.countDown();
+                    try {
+                        liberer.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.getCapacite();
+            }
+        };
+        arme.set(true);
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        Future<?> ajout = pool.submit(() -> reseau.ajouterGenerateur(lent));
+        assertTrue(publie.await(10, TimeUnit.SECONDS));
+        assertNotNull(reseau.getGenerateurParNom("G1"));
+        Future<?> connexion = pool.submit(() -> reseau.ajouterConnexion("M1", "G1"));
+        assertThrows(TimeoutException.class, () -> connexion.get(200, TimeUnit.MILLISECONDS));
+
+        liberer.countDown();
+        ajout.get();
+        connexion.get();
+        pool.shutdown();
+        Reseau copie = reseau.versReseau();
+        assertTrue(copie.isValide());
+        assertEquals(List.of("M1"), copie.getConnexions().get(copie.getGenerateurParNom("G1")).stream()
+                .map(Maison::getNom).toList());
+    }
+
+    private static ReseauConcurrent reseauAvec(Maison m) {
+        ReseauConcurrent reseau = new ReseauConcurrent();
+        reseau.ajouterGenerateur(new Generateur("G1", 100));
+        reseau.ajouterMaison(m);
+        return reseau;
+    }
+
+    /**
+     * A house cannot be renamed while it belongs to a concurrent network, and can be again once
+     * that network is gone.
+     */
+    @Test
+    void testRenameVetoEndsWithNetwork() throws InterruptedException {
+        Maison m = new Maison("M1", TypeConso.NORMAL);
+        WeakReference<ReseauConcurrent> reseau = new WeakReference<>(reseauAvec(m));
+        assertThrows(IllegalStateException.class, () -> m.setNom("Ecole"));
+
+        for (int i = 0; i < 50 && reseau.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        assertNull(reseau.get());
+        m.setNom("Ecole");
+        assertEquals("Ecole", m.getNom());
+    }
+}
@@ -8,6 +8,9 @@ import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.junit.jupiter.params.provider.CsvFileSource;
 
+import java.lang.ref.WeakReference;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -369,4 +372,198 @@ class ReseauUtilsTest {
         Generateur g = new Generateur("NonExistent", 100);
         assertEquals(0.0, reseau.getTauxUtilisation(g), 0.001);
     }
+
+    /**
+     * Two identically built networks optimized by algoNaif with the same seed end in the same configuration.
+     */
+    @Test
+    void testAlgoNaifSeededIsReproducible() {
+        Reseau[] reseaux = new Reseau[2];
+        for (int r = 0; r < 2; r++) {
+            Reseau res = new Reseau();
+            res.setVerbeux(false);
+            for (int g = 1; g <= 4; g++)
+                res.ajouterGenerateur(new Generateur("G" + g, 200));
+            for (int i = 1; i <= 30; i++) {
+                res.ajouterMaison(new Maison("M" + i, TypeConso.values()[i % 3]));
+                res.ajouterConnexion("M" + i, "G1");
+            }
+            reseaux[r] = res.algoNaif(res, 2000, 7L);
+        }
+        assertEquals(reseaux[0].getConnexions().toString(), reseaux[1].getConnexions().toString());
+        assertEquals(reseaux[0].calculerCout(), reseaux[1].calculerCout());
+    }
+
+    /**
+     * algoNaif scores each trial without moving the house: listeners only hear about the moves
+     * that were kept, one event per recorded move.
+     */
+    @Test
+    void testAlgoNaifNotifiesOnlyAcceptedMoves() {
+        reseau.setVerbeux(false);
+        for (int g = 1; g <= 4; g++)
+            reseau.ajouterGenerateur(new Generateur("G" + g, 200));
+        for (int i = 1; i <= 30; i++) {
+            reseau.ajouterMaison(new Maison("M" + i, TypeConso.values()[i % 3]));
+            reseau.ajouterConnexion("M" + i, "G1");
+        }
+        reseau.getHistorique().vider();
+        int[] deplacements = new int[1];
+        reseau.ajouterEcouteur(new EcouteurReseau() {
+            @Override
+            public void connexionModifiee(Maison m, Generateur ancien, Generateur nouveau) {
+                deplacements[0]++;
+            }
+        });
+        double initial = reseau.calculerCout();
+
+        reseau.algoNaif(reseau, 2000, 7L);
+
+        assertTrue(deplacements[0] > 0);
+        assertEquals(reseau.getHistorique().getNombreAnnulables(), deplacements[0]);
+        assertTrue(reseau.calculerCout() < initial);
+    }
+
+    /**
+     * Renaming through setNom keeps the name lookups, the connections and the cost consistent,
+     * and a name already used in the network is refused.
+     */
+    @Test
+    void testRenamingKeepsNameIndexConsistent() {
+        reseau.setVerbeux(false);
+        Generateur g = new Generateur("G1", 100);
+        Maison m = new Maison("M1", TypeConso.FORTE);
+        reseau.ajouterGenerateur(g);
+        reseau.ajouterGenerateur(new Generateur("G2", 100));
+        reseau.ajouterMaison(m);
+        reseau.ajouterMaison(new Maison("M2", TypeConso.BASSE));
+        reseau.ajouterConnexion("M1", "G1");
+        double cout = reseau.calculerCout();
+
+        g.setNom("Centrale");
+        m.setNom("Ecole");
+
+        assertNull(reseau.getGenerateurParNom("G1"));
+        assertSame(g, reseau.getGenerateurParNom("CENTRALE"));
+        assertSame(m, reseau.getMaisonParNom("ecole"));
+        assertEquals(List.of(m), reseau.getConnexions().get(g));
+        assertEquals(0.4, reseau.getTauxUtilisation(g), 1e-12);
+        assertEquals(cout, reseau.calculerCout(), 1e-12);
+        assertThrows(IllegalArgumentException.class, () -> m.setNom("m2"));
+        assertEquals("Ecole", m.getNom());
+    }
+
+    /**
+     * Renaming a generator keeps its place in the connection order, its id and its rate.
+     */
+    @Test
+    void testRenamingGeneratorKeepsConnectionOrder() {
+        reseau.setVerbeux(false);
+        for (int g = 1; g <= 3; g++)
+            reseau.ajouterGenerateur(new Generateur("G" + g, 100));
+        reseau.ajouterMaison(new Maison("M1", TypeConso.NORMAL));
+        reseau.ajouterConnexion("M1", "G2");
+        Generateur g2 = reseau.getGenerateurParNom("G2");
+
+        reseau.getGenerateurParNom("G1").setNom("Z");
+        g2.setNom("A");
+
+        assertEquals(List.of("Z", "A", "G3"),
+                reseau.getConnexions().keySet().stream().map(Generateur::getNom).toList());
+        assertEquals(1, reseau.getIdentifiant(reseau.getGenerateurParNom("a")));
+        assertEquals(0.2, reseau.getTauxUtilisation(g2), 1e-12);
+        assertEquals(List.of(reseau.getMaisonParNom("M1")), reseau.getConnexions().get(g2));
+    }
+
+    private static Reseau reseauPartageant(Generateur g, Maison m) {
+        Reseau autre = new Reseau();
+        autre.setVerbeux(false);
+        autre.ajouterGenerateur(g);
+        autre.ajouterMaison(m);
+        autre.ajouterMaison(new Maison("M2", TypeConso.BASSE));
+        return autre;
+    }
+
+    /**
+     * Houses and generators shared with a network that is no longer referenced do not keep it
+     * alive, and it stops vetoing their renaming.
+     */
+    @Test
+    void testSharedEntitiesDoNotRetainNetwork() throws InterruptedException {
+        Generateur g = new Generateur("G1", 100);
+        Maison m = new Maison("M1", TypeConso.NORMAL);
+        WeakReference<Reseau> autre = new WeakReference<>(reseauPartageant(g, m));
+        assertThrows(IllegalArgumentException.class, () -> m.setNom("M2"));
+
+        for (int i = 0; i < 50 && autre.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        assertNull(autre.get());
+        m.setNom("M2");
+        assertEquals("M2", m.getNom());
+    }
+
+    /**
+     * The id-based API connects, moves and disconnects houses like the name-based one, and
+     * ids stay stable across renames.
+     */
+    @Test
+    void testIdBasedConnectionsMatchNameBasedOnes() {
+        reseau.setVerbeux(false);
+        reseau.ajouterGenerateur(new Generateur("G1", 100));
+        reseau.ajouterGenerateur(new Generateur("G2", 50));
+        reseau.ajouterMaison(new Maison("M1", TypeConso.NORMAL));
+        reseau.ajouterMaison(new Maison("M2", TypeConso.FORTE));
+        int g2 = reseau.getIdentifiant(reseau.getGenerateurParNom("G2"));
+        int m2 = reseau.getIdentifiant(reseau.getMaisonParNom("M2"));
+        assertEquals(2, reseau.getNombreGenerateurs());
+        assertEquals(1, g2);
+        assertEquals(1, m2);
+
+        reseau.ajouterConnexion(0, 0);
+        reseau.ajouterConnexion(m2, 0);
+        reseau.modifierConnexion(m2, g2);
+        reseau.getMaison(m2).setNom("Ecole");
+
+        assertEquals(g2, reseau.getGenerateurDe(reseau.getIdentifiant(reseau.getMaisonParNom("ecole"))));
+        assertEquals(20, reseau.getCharge(0));
+        assertEquals(0.8, reseau.getTauxUtilisation(g2), 1e-12);
+        assertThrows(IllegalArgumentException.class, () -> reseau.ajouterConnexion(0, g2));
+        assertThrows(IllegalArgumentException.class, () -> reseau.getGenerateur(2));
+
+        reseau.supprimerConnexion(0);
+        assertEquals(-1, reseau.getGenerateurDe(0));
+        assertEquals(0, reseau.getCharge(0));
+        assertEquals(1, reseau.annuler(1));
+        assertEquals(0, reseau.getGenerateurDe(0));
+    }
+
+    /**
+     * Loading a network, applying a bulk assignment and renaming an entity each tell the
+     * listeners to re-read the whole network.
+     */
+    @Test
+    void testGlobalChangesNotifyListeners() throws Exception {
+        reseau.setVerbeux(false);
+        int[] reinitialisations = new int[1];
+        reseau.ajouterEcouteur(new EcouteurReseau() {
+            @Override
+            public void reseauReinitialise() {
+                reinitialisations[0]++;
+            }
+        });
+
+        reseau.chargerReseau(new java.io.StringReader("generateur(G1,100).\ngenerateur(G2,100).\n"
+                + "maison(M1,FORTE).\nmaison(M2,FORTE).\nconnexion(M1,G1).\nconnexion(M2,G1).\n"));
+        assertEquals(1, reinitialisations[0]);
+
+        Reseau.algoOptimise(reseau, ModeConstruction.TAS);
+        assertEquals(2, reinitialisations[0]);
+        assertEquals(0.4, reseau.getTauxUtilisation(reseau.getGenerateurParNom("G2")), 1e-12);
+
+        reseau.getMaisonParNom("M1").setNom("Ecole");
+        assertEquals(3, reinitialisations[0]);
+    }
 }
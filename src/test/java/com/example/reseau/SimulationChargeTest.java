@@ -0,0 +1,64 @@
+package com.example.reseau;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link SimulationCharge}.
+ */
+class SimulationChargeTest {
+
+    private Reseau reseau;
+
+    @BeforeEach
+    void setUp() {
+        reseau = new Reseau();
+        reseau.setVerbeux(false);
+        reseau.ajouterGenerateur(new Generateur("G1", 100));
+        reseau.ajouterGenerateur(new Generateur("G2", 100));
+        for (int i = 1; i <= 4; i++) {
+            reseau.ajouterMaison(new Maison("M" + i, TypeConso.NORMAL));
+            reseau.ajouterConnexion("M" + i, i <= 2 ? "G1" : "G2");
+        }
+    }
+
+    /**
+     * Without profiles and without repair, every step costs what the network costs.
+     */
+    @Test
+    void testConstantProfilesKeepCost() {
+        SimulationCharge simulation = new SimulationCharge(reseau, 5);
+        simulation.setMouvementsMaxParPas(0);
+        SimulationCharge.Resultat resultat = simulation.executer();
+
+        assertEquals(5, resultat.couts().length);
+        for (double cout : resultat.couts()) {
+            assertEquals(reseau.calculerCout(), cout, 1e-9);
+        }
+    }
+
+    /**
+     * A load peak on one generator is repaired by moving houses, and the series reflect it.
+     */
+    @Test
+    void testPeakIsRepairedWithWarmStart() {
+        SimulationCharge simulation = new SimulationCharge(reseau, 3);
+        simulation.definirProfil("M1", new int[] { 20, 60, 60 });
+        simulation.definirProfil("M2", new int[] { 20, 60, 60 });
+        SimulationCharge.Resultat resultat = simulation.executer();
+
+        assertEquals(0, resultat.mouvements()[0]);
+        assertTrue(resultat.mouvements()[1] > 0);
+        assertEquals(0, resultat.surcharges()[1], 1e-9);
+        assertEquals(0, resultat.mouvements()[2]);
+
+        Map<Generateur, List<Maison>> affectation = simulation.getAffectation();
+        assertEquals(4, affectation.values().stream().mapToInt(List::size).sum());
+        assertEquals(2, reseau.getConnexions().get(reseau.getGenerateurParNom("G1")).size());
+    }
+}
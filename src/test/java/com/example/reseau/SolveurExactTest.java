@@ -0,0 +1,178 @@
+package com.example.reseau;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link SolveurExact}.
+ */
+class SolveurExactTest {
+
+    private static Reseau petitReseau() {
+        Reseau reseau = new Reseau();
+        reseau.setVerbeux(false);
+        reseau.ajouterGenerateur(new Generateur("G1", 50));
+        reseau.ajouterGenerateur(new Generateur("G2", 50));
+        reseau.ajouterGenerateur(new Generateur("G3", 90));
+        TypeConso[] types = { TypeConso.FORTE, TypeConso.NORMAL, TypeConso.BASSE, TypeConso.NORMAL,
+                TypeConso.FORTE, TypeConso.BASSE, TypeConso.BASSE, TypeConso.NORMAL };
+        for (int i = 0; i < types.length; i++) {
+            reseau.ajouterMaison(new Maison("M" + (i + 1), types[i]));
+            reseau.ajouterConnexion("M" + (i + 1), "G3");
+        }
+        return reseau;
+    }
+
+    /**
+     * The solver matches a brute-force enumeration of every house assignment.
+     */
+    @Test
+    void testMatchesBruteForce() {
+        Reseau reseau = petitReseau();
+        int[] consos = reseau.getConnexions().get(reseau.getGenerateurParNom("G3")).stream()
+                .mapToInt(m -> m.getTypeConso().getConsommation()).toArray();
+        int[] caps = { 50, 50, 90 };
+        double optimum = Double.POSITIVE_INFINITY;
+        for (int code = 0; code < Math.pow(3, consos.length); code++) {
+            int[] charges = new int[3];
+            for (int i = 0, c = code; i < consos.length; i++, c /= 3)
+                charges[c % 3] += consos[i];
+            double moyenne = 0;
+            for (int g = 0; g < 3; g++)
+                moyenne += (double) charges[g] / caps[g] / 3;
+            double cout = 0;
+            for (int g = 0; g < 3; g++) {
+                double u = (double) charges[g] / caps[g];
+                cout += Math.abs(u - moyenne) + reseau.getLambda() * Math.max(0, u - 1);
+            }
+            optimum = Math.min(optimum, cout);
+        }
+
+        assertTrue(Reseau.algoExact(reseau));
+        assertEquals(optimum, reseau.calculerCout(), 1e-9);
+    }
+
+    /**
+     * An exhausted budget keeps the heuristic starting point and reports non-optimality.
+     */
+    @Test
+    void testBudgetGuard() {
+        Reseau reseau = petitReseau();
+        Reseau agrege = Reseau.depuisInstantane(reseau.instantane());
+        Reseau.algoAgrege(agrege);
+
+        SolveurExact.Resultat resultat = new SolveurExact(reseau, 1).resoudre();
+
+        assertFalse(resultat.optimal());
+        assertTrue(resultat.cout() <= agrege.calculerCout() + 1e-9);
+    }
+
+    /**
+     * With heterogeneous capacities, including a pair of equal ones, the solver matches an
+     * enumeration of every split of each type's count among the generators.
+     */
+    @Test
+    void testMatchesEnumerationOfTypeCounts() {
+        int[] caps = { 60, 90, 90, 130 };
+        int[] totaux = { 5, 4, 3 };
+        Reseau reseau = new Reseau();
+        reseau.setVerbeux(false);
+        for (int g = 0; g < caps.length; g++)
+            reseau.ajouterGenerateur(new Generateur("G" + g, caps[g]));
+        int n = 0;
+        for (TypeConso t : TypeConso.values())
+            for (int i = 0; i < totaux[t.ordinal()]; i++) {
+                reseau.ajouterMaison(new Maison("M" + n, t));
+                reseau.ajouterConnexion("M" + n++, "G0");
+            }
+
+        double optimum = Double.POSITIVE_INFINITY;
+        int[][] repartitions = new int[3][];
+        for (int[] basse : repartitions(totaux[0], caps.length))
+            for (int[] normal : repartitions(totaux[1], caps.length))
+                for (int[] forte : repartitions(totaux[2], caps.length)) {
+                    repartitions[0] = basse;
+                    repartitions[1] = normal;
+                    repartitions[2] = forte;
+                    optimum = Math.min(optimum, cout(caps, repartitions, reseau.getLambda()));
+                }
+
+        assertTrue(Reseau.algoExact(reseau));
+        assertEquals(optimum, reseau.calculerCout(), 1e-9);
+    }
+
+    /**
+     * On thirty generators of distinct capacities the node budget runs out: the solver keeps
+     * a valid assignment no worse than the aggregated heuristic and reports it as unproven.
+     */
+    @Test
+    void testHeterogeneousNetworkWithinBudget() {
+        Random random = new Random(1);
+        Reseau reseau = new Reseau();
+        reseau.setVerbeux(false);
+        for (int g = 0; g < 30; g++)
+            reseau.ajouterGenerateur(new Generateur("G" + g, 800 + 10 * random.nextInt(60)));
+        for (int i = 0; i < 1000; i++) {
+            reseau.ajouterMaison(new Maison("M" + i, TypeConso.values()[random.nextInt(3)]));
+            reseau.ajouterConnexion("M" + i, "G" + random.nextInt(30));
+        }
+        Reseau agrege = Reseau.depuisInstantane(reseau.instantane());
+        Reseau.algoAgrege(agrege);
+
+        SolveurExact solveur = new SolveurExact(reseau, 20_000);
+        SolveurExact.Resultat resultat = solveur.resoudre();
+
+        assertFalse(resultat.optimal());
+        assertEquals(20_001, resultat.noeuds());
+        assertTrue(resultat.cout() <= agrege.calculerCout() + 1e-9);
+        ModeleAgrege modele = solveur.getModele();
+        for (TypeConso t : TypeConso.values()) {
+            int somme = 0;
+            for (int g = 0; g < 30; g++)
+                somme += modele.getNombre(g, t);
+            assertEquals(modele.getTotal(t), somme);
+        }
+        assertEquals(resultat.cout(), modele.calculerCout(), 1e-12);
+    }
+
+    /**
+     * @return Every way to split {@code total} identical houses among {@code parts} generators.
+     */
+    private static List<int[]> repartitions(int total, int parts) {
+        List<int[]> resultat = new ArrayList<>();
+        repartir(new int[parts], 0, total, resultat);
+        return resultat;
+    }
+
+    private static void repartir(int[] courant, int g, int reste, List<int[]> resultat) {
+        if (g == courant.length - 1) {
+            courant[g] = reste;
+            resultat.add(courant.clone());
+            return;
+        }
+        for (int k = 0; k <= reste; k++) {
+            courant[g] = k;
+            repartir(courant, g + 1, reste - k, resultat);
+        }
+    }
+
+    private static double cout(int[] caps, int[][] repartitions, int lambda) {
+        double[] taux = new double[caps.length];
+        double moyenne = 0;
+        for (int g = 0; g < caps.length; g++) {
+            for (TypeConso t : TypeConso.values())
+                taux[g] += repartitions[t.ordinal()][g] * t.getConsommation();
+            taux[g] /= caps[g];
+            moyenne += taux[g] / caps.length;
+        }
+        double cout = 0;
+        for (double u : taux)
+            cout += Math.abs(u - moyenne) + lambda * Math.max(0, u - 1);
+        return cout;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.reseau;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link StockagePagine}.
+ */
+class StockagePagineTest {
+
+    private static String fichier(int nbMaisons) {
+        StringBuilder sb = new StringBuilder();
+        for (int g = 0; g < 7; g++)
+            sb.append("generateur(G").append(g).append(',').append(8000 + 300 * g).append(").\n");
+        for (int i = 0; i < nbMaisons; i++)
+            sb.append("maison(Maison").append(i).append(',').append(TypeConso.values()[i % 3]).append(").\n");
+        for (int i = 0; i < nbMaisons; i++)
+            sb.append("connexion(G").append(i % 7).append(",maison").append(i).append(").\n");
+        return sb.toString();
+    }
+
+    /**
+     * A network loaded through a tiny page cache, so that pages are constantly evicted and read
+     * back, behaves exactly like the same network kept in memory.
+     */
+    @Test
+    void testPagedNetworkMatchesInMemoryNetwork(@TempDir Path repertoire) throws IOException {
+        String contenu = fichier(1000);
+        ReseauCompact memoire = new ReseauCompact();
+        memoire.charger(new StringReader(contenu));
+
+        StockagePagine stockage = new StockagePagine(repertoire, 256, 3);
+        try (ReseauCompact disque = new ReseauCompact(stockage)) {
+            disque.charger(new StringReader(contenu));
+            assertEquals(memoire.calculerCout(), disque.calculerCout(), 1e-12);
+
+            memoire.optimiser();
+            disque.optimiser();
+
+            assertTrue(disque.isValide());
+            assertEquals(memoire.calculerCout(), disque.calculerCout(), 1e-12);
+            for (int i = 0; i < 1000; i += 37) {
+                assertEquals(memoire.getGenerateurDe(i), disque.getGenerateurDe(i));
+                assertEquals("Maison" + i, disque.getMaison(i).getNom());
+            }
+            assertEquals(999, disque.getIdentifiantMaison("MAISON999"));
+            assertTrue(stockage.getOctetsHorsTas() <= 3 * 256);
+        }
+        try (Stream<Path> fichiers = Files.list(repertoire)) {
+            assertEquals(0, fichiers.count());
+        }
+    }
+
+    /**
+     * Adding houses writes records and names sequentially: the name index lives in memory, so
+     * neither the inserts nor the index rebuilds fault pages in at random.
+     */
+    @Test
+    void testAddingHousesDoesNotThrashPages(@TempDir Path repertoire) {
+        StockagePagine stockage = new StockagePagine(repertoire, 256, 3);
+        try (stockage) {
+            int octetsNoms = 0;
+            for (int i = 0; i < 5000; i++) {
+                String nom = "Maison" + i;
+                assertEquals(i, stockage.ajouter(nom, TypeConso.NORMAL));
+                octetsNoms += nom.length();
+            }
+            long pagesEcrites = (5000L * 16 + octetsNoms) / 256 + 2;
+            assertTrue(stockage.getDefautsDePage() <= pagesEcrites,
+                    stockage.getDefautsDePage() + " défauts pour " + pagesEcrites + " pages");
+            assertEquals(4321, stockage.chercher("MAISON4321"));
+            assertEquals(-1, stockage.chercher("Maison5000"));
+        }
+    }
+
+    /**
+     * Once loaded, moving a house only faults in the page holding its record.
+     */
+    @Test
+    void testLocalMoveTouchesOnePage(@TempDir Path repertoire) throws IOException {
+        StockagePagine stockage = new StockagePagine(repertoire, 256, 4);
+        try (ReseauCompact disque = new ReseauCompact(stockage)) {
+            disque.charger(new StringReader(fichier(2000)));
+            int m = disque.getIdentifiantMaison("Maison5");
+            long avant = stockage.getDefautsDePage();
+
+            int g = disque.getGenerateurDe(1500);
+            disque.modifierConnexion(1500, (g + 1) % 7);
+
+            assertEquals(avant + 1, stockage.getDefautsDePage());
+            assertEquals((g + 1) % 7, disque.getGenerateurDe(1500));
+            assertEquals(5, m);
+        }
+    }
+}
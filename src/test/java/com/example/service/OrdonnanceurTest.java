@@ -0,0 +1,84 @@
+package com.example.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link Ordonnanceur}.
+ */
+class OrdonnanceurTest {
+
+    private Ordonnanceur ordonnanceur;
+
+    @BeforeEach
+    void setUp() {
+        ordonnanceur = new Ordonnanceur(1, 50);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ordonnanceur.arreter();
+    }
+
+    /**
+     * An interactive job preempts a running batch job at its next yield point.
+     */
+    @Test
+    void testInteractiveJobPreemptsBatchJob() throws Exception {
+        AtomicBoolean fin = new AtomicBoolean();
+        CountDownLatch lotDemarre = new CountDownLatch(1);
+        CompletableFuture<Void> lot = ordonnanceur.soumettre("a", Ordonnanceur.Priorite.LOT, cession -> {
+            lotDemarre.countDown();
+            while (!fin.get())
+                cession.ceder();
+            return null;
+        });
+        assertTrue(lotDemarre.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<String> interactif = ordonnanceur.soumettre("b", Ordonnanceur.Priorite.INTERACTIF,
+                cession -> "ok");
+        assertEquals("ok", interactif.get(2, TimeUnit.SECONDS));
+        assertFalse(lot.isDone());
+        assertTrue(ordonnanceur.getNombreCessions() >= 1);
+
+        fin.set(true);
+        lot.get(5, TimeUnit.SECONDS);
+        assertEquals(0, ordonnanceur.getNombreEnCours());
+    }
+
+    /**
+     * Tenants of the same priority are served in turn.
+     */
+    @Test
+    void testTenantsAreServedRoundRobin() throws Exception {
+        CountDownLatch liberer = new CountDownLatch(1);
+        ordonnanceur.soumettre("bloqueur", Ordonnanceur.Priorite.NORMAL, cession -> {
+            liberer.await();
+            return null;
+        });
+
+        List<String> ordre = new CopyOnWriteArrayList<>();
+        CompletableFuture<?> dernier = null;
+        for (String nom : new String[] { "a1", "a2", "a3", "b1" }) {
+            dernier = ordonnanceur.soumettre(nom.substring(0, 1), Ordonnanceur.Priorite.NORMAL,
+                    cession -> ordre.add(nom));
+        }
+        assertEquals(4, ordonnanceur.getStatistiques().get(1).profondeur());
+
+        liberer.countDown();
+        dernier.get(5, TimeUnit.SECONDS);
+        for (int i = 0; i < 100 && ordre.size() < 4; i++)
+            Thread.sleep(10);
+        assertEquals(List.of("a1", "b1", "a2", "a3"), ordre);
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ServeurOptimisation}.
+ */
+class ServeurOptimisationTest {
+
+    private static final String RESEAU = """
+            generateur(G1,60).
+            generateur(G2,45).
+            maison(M1,NORMAL).
+            maison(M2,FORTE).
+            maison(M3,BASSE).
+            connexion(G1,M1).
+            connexion(G1,M2).
+            connexion(G1,M3).
+            """;
+
+    private ServeurOptimisation serveur;
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        serveur = new ServeurOptimisation(0);
+        serveur.demarrer();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        serveur.arreter();
+    }
+
+    private HttpResponse<String> envoyer(String methode, String chemin, String corps) throws Exception {
+        HttpRequest requete = HttpRequest.newBuilder(URI.create("http://localhost:" + serveur.getPort() + chemin))
+                .method(methode, corps == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(corps))
+                .build();
+        return client.send(requete, HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Uploading a network, querying its cost and running an optimization job end to end.
+     */
+    @Test
+    void testUploadQueryAndOptimize() throws Exception {
+        HttpResponse<String> creation = envoyer("POST", "/reseaux?lambda=10", RESEAU);
+        assertEquals(201, creation.statusCode());
+        assertTrue(creation.body().contains("\"id\":\"1\""));
+
+        assertEquals(200, envoyer("GET", "/reseaux/1/cout", null).statusCode());
+        assertTrue(envoyer("GET", "/reseaux/1/utilisation", null).body().contains("\"nom\":\"G2\""));
+
+        assertEquals(202, envoyer("POST", "/reseaux/1/optimisations?algo=optimise", null).statusCode());
+        String statut = "";
+        for (int i = 0; i < 100 && !statut.contains("TERMINE"); i++) {
+            Thread.sleep(20);
+            statut = envoyer("GET", "/travaux/1", null).body();
+        }
+        assertTrue(statut.contains("TERMINE"), statut);
+        assertTrue(envoyer("GET", "/reseaux/1", null).body().contains("connexion(G2,"));
+
+        assertEquals(404, envoyer("GET", "/reseaux/42/cout", null).statusCode());
+        assertEquals(400, envoyer("POST", "/reseaux", "n'importe quoi").statusCode());
+    }
+
+    private String attendreFin(String travail) throws Exception {
+        String statut = "";
+        for (int i = 0; i < 100 && !statut.contains("TERMINE") && !statut.contains("ECHEC"); i++) {
+            Thread.sleep(20);
+            statut = envoyer("GET", "/travaux/" + travail, null).body();
+        }
+        return statut;
+    }
+
+    /**
+     * Finished jobs and networks can be deleted, and only the most recent finished jobs are
+     * kept.
+     */
+    @Test
+    void testDeletionAndBoundedJobRetention() throws Exception {
+        serveur.arreter();
+        serveur = new ServeurOptimisation(0, 2);
+        serveur.demarrer();
+
+        assertEquals(201, envoyer("POST", "/reseaux", RESEAU).statusCode());
+        for (int t = 1; t <= 3; t++) {
+            assertEquals(202, envoyer("POST", "/reseaux/1/optimisations?algo=tas", null).statusCode());
+            assertTrue(attendreFin(Integer.toString(t)).contains("TERMINE"));
+        }
+        assertEquals(404, envoyer("GET", "/travaux/1", null).statusCode());
+        assertEquals(200, envoyer("GET", "/travaux/2", null).statusCode());
+
+        assertEquals(204, envoyer("DELETE", "/travaux/3", null).statusCode());
+        assertEquals(404, envoyer("GET", "/travaux/3", null).statusCode());
+        assertEquals(204, envoyer("DELETE", "/reseaux/1", null).statusCode());
+        assertEquals(404, envoyer("GET", "/reseaux/1", null).statusCode());
+        assertEquals(404, envoyer("DELETE", "/reseaux/1", null).statusCode());
+    }
+
+    /**
+     * Query parameters are URL-decoded, so tenant names may contain spaces, accents and
+     * escaped characters.
+     */
+    @Test
+    void testQueryParametersAreDecoded() throws Exception {
+        envoyer("POST", "/reseaux", RESEAU);
+        HttpResponse<String> reponse = envoyer("POST",
+                "/reseaux/1/optimisations?algo=tas&locataire=%C3%89quipe+A%26B", null);
+        assertEquals(202, reponse.statusCode());
+        assertTrue(reponse.body().contains("\"locataire\":\"Équipe A&B\""), reponse.body());
+    }
+}